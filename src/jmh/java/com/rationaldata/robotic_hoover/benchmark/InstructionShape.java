@@ -0,0 +1,22 @@
+package com.rationaldata.robotic_hoover.benchmark;
+
+/**
+ * The kinds of instruction strings the benchmarks navigate.
+ */
+public enum InstructionShape {
+
+    /**
+     * Every instruction drawn at random, so runs of identical instructions are short.
+     */
+    RANDOM_WALK,
+
+    /**
+     * Runs of one direction up to twice the room side long, crossing the room and sometimes hitting a wall.
+     */
+    LONG_RUNS,
+
+    /**
+     * Laps of the room's perimeter, each leg longer than the room so that most moves push against a wall.
+     */
+    WALL_HUGGING
+}
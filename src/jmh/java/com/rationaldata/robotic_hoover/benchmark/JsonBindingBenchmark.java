@@ -0,0 +1,62 @@
+package com.rationaldata.robotic_hoover.benchmark;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rationaldata.robotic_hoover.codec.HooverJsonMessageConverter;
+import com.rationaldata.robotic_hoover.dto.HooverRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures reading a request body with the dedicated {@link HooverJsonMessageConverter} ({@code CONVERTER})
+ * against Jackson data binding as configured by Spring ({@code DATA_BINDING}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class JsonBindingBenchmark {
+
+    @Param({"1", "1000", "1000000"})
+    private int patchCount;
+
+    @Param({"10", "10000", "1000000", "100000000"})
+    private int instructionLength;
+
+    @Param({"CONVERTER", "DATA_BINDING"})
+    private String binding;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private byte[] body;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        body = Workloads.json(Workloads.request(9_999, patchCount, instructionLength, InstructionShape.RANDOM_WALK));
+    }
+
+    @Benchmark
+    public HooverRequest read() throws IOException {
+        if ("DATA_BINDING".equals(binding)) {
+            return objectMapper.readValue(body, HooverRequest.class);
+        }
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            return HooverJsonMessageConverter.readRequest(parser);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.rationaldata.robotic_hoover.benchmark;
+
+import com.rationaldata.robotic_hoover.RoboticHooverApplication;
+import com.rationaldata.robotic_hoover.dto.HooverRequest;
+import com.rationaldata.robotic_hoover.dto.HooverResponse;
+import com.rationaldata.robotic_hoover.service.HooverService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link HooverService#navigate(HooverRequest)}, validation included, as wired by the application context.
+ * The result cache is disabled so that every operation navigates.
+ * <p>
+ * The full matrix is large; narrow it down with JMH's {@code -p}, e.g.
+ * {@code -Djmh.args="NavigationBenchmark -p roomSide=999 -p shape=LONG_RUNS -prof gc"}.
+ * Combinations with more patches than cells are valid, the surplus patches being duplicates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class NavigationBenchmark {
+
+    /**
+     * Rooms of 10², 10⁴, 10⁶ and 10⁸ cells.
+     */
+    @Param({"9", "99", "999", "9999"})
+    private int roomSide;
+
+    @Param({"1", "1000", "1000000"})
+    private int patchCount;
+
+    @Param({"10", "10000", "1000000", "100000000"})
+    private int instructionLength;
+
+    @Param({"RANDOM_WALK", "LONG_RUNS", "WALL_HUGGING"})
+    private InstructionShape shape;
+
+    private ConfigurableApplicationContext context;
+    private HooverService hooverService;
+    private HooverRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(RoboticHooverApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("hoover.cache.enabled=false", "spring.main.banner-mode=off", "logging.level.root=warn")
+                .run();
+        hooverService = context.getBean(HooverService.class);
+        request = Workloads.request(roomSide, patchCount, instructionLength, shape);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public HooverResponse navigate() {
+        return hooverService.navigate(request);
+    }
+}
@@ -0,0 +1,57 @@
+package com.rationaldata.robotic_hoover.benchmark;
+
+import com.rationaldata.robotic_hoover.dto.HooverRequest;
+import com.rationaldata.robotic_hoover.validation.HooverRequestValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link HooverRequestValidator#validateHooverRequest(HooverRequest)} on patches as parsed by the
+ * dedicated JSON converter ({@code PACKED}) and as bound by Jackson data binding ({@code ARRAYS}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationBenchmark {
+
+    @Param({"9", "99", "999", "9999"})
+    private int roomSide;
+
+    @Param({"1", "1000", "1000000"})
+    private int patchCount;
+
+    @Param({"PACKED", "ARRAYS"})
+    private String patchList;
+
+    private final HooverRequestValidator validator = new HooverRequestValidator();
+    private HooverRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        request = Workloads.request(roomSide, patchCount, 10, InstructionShape.RANDOM_WALK);
+        if ("ARRAYS".equals(patchList)) {
+            request.setPatches(Workloads.arrayPatches(request));
+        }
+    }
+
+    @Benchmark
+    public HooverRequest validate() {
+        validator.validateHooverRequest(request);
+        return request;
+    }
+}
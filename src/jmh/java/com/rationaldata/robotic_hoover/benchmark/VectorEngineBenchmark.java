@@ -0,0 +1,84 @@
+package com.rationaldata.robotic_hoover.benchmark;
+
+import com.rationaldata.robotic_hoover.config.HooverProperties;
+import com.rationaldata.robotic_hoover.dto.HooverRequest;
+import com.rationaldata.robotic_hoover.dto.HooverResponse;
+import com.rationaldata.robotic_hoover.engine.StepEngine;
+import com.rationaldata.robotic_hoover.engine.VectorEngine;
+import com.rationaldata.robotic_hoover.room.PreparedRoom;
+import com.rationaldata.robotic_hoover.room.RoomGridFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the {@link VectorEngine} with the Vector API kernel, the same engine with its scalar fallback kernel,
+ * and the {@link StepEngine} it stands in for. Each engine runs in a fork of its own, the vectorized one being
+ * the only fork started with {@code --add-modules jdk.incubator.vector}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class VectorEngineBenchmark {
+
+    @Param({"999", "99999"})
+    private int roomSide;
+
+    @Param({"1", "1000"})
+    private int patchCount;
+
+    @Param({"1000000"})
+    private int instructionLength;
+
+    @Param({"RANDOM_WALK", "WALL_HUGGING"})
+    private InstructionShape shape;
+
+    private StepEngine stepEngine;
+    private VectorEngine vectorEngine;
+    private PreparedRoom room;
+    private String instructions;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        RoomGridFactory factory = new RoomGridFactory(new HooverProperties());
+        stepEngine = new StepEngine(factory);
+        vectorEngine = new VectorEngine(factory);
+        HooverRequest request = Workloads.request(roomSide, patchCount, instructionLength, shape);
+        room = PreparedRoom.of(request);
+        instructions = request.getInstructions();
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+    public HooverResponse vectorKernel() {
+        if (!vectorEngine.isVectorized()) {
+            throw new IllegalStateException("The Vector API is not available");
+        }
+        return vectorEngine.navigate(room, instructions);
+    }
+
+    @Benchmark
+    @Fork(1)
+    public HooverResponse scalarKernel() {
+        return vectorEngine.navigate(room, instructions);
+    }
+
+    @Benchmark
+    @Fork(1)
+    public HooverResponse step() {
+        return stepEngine.navigate(room, instructions);
+    }
+}
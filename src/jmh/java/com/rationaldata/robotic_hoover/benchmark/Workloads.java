@@ -0,0 +1,97 @@
+package com.rationaldata.robotic_hoover.benchmark;
+
+import com.rationaldata.robotic_hoover.dto.HooverRequest;
+import com.rationaldata.robotic_hoover.dto.PackedPatches;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Builds the reproducible requests the benchmarks run on.
+ */
+final class Workloads {
+
+    private static final byte[] DIRECTIONS = {'N', 'E', 'S', 'W'};
+
+    private Workloads() {
+    }
+
+    /**
+     * Builds a request for a square room, starting in its centre, with patches as parsed from JSON.
+     *
+     * @param roomSide          The width and height of the room; the room has (roomSide + 1)² cells.
+     * @param patchCount        The number of patches, placed at random and possibly repeated.
+     * @param instructionLength The number of instructions.
+     * @param shape             The kind of instruction string.
+     * @return A valid request.
+     */
+    static HooverRequest request(int roomSide, int patchCount, int instructionLength, InstructionShape shape) {
+        SplittableRandom random = new SplittableRandom(42);
+        PackedPatches patches = new PackedPatches(patchCount);
+        for (int i = 0; i < patchCount; i++) {
+            patches.add(random.nextInt(roomSide + 1), random.nextInt(roomSide + 1));
+        }
+
+        HooverRequest request = new HooverRequest();
+        request.setRoomSize(new int[]{roomSide, roomSide});
+        request.setCoords(new int[]{roomSide / 2, roomSide / 2});
+        request.setPatches(patches);
+        request.setInstructions(instructions(shape, instructionLength, roomSide, random));
+        return request;
+    }
+
+    /**
+     * @return The patches of the request as one {@code int[]} per patch, as bound by Jackson data binding.
+     */
+    static List<int[]> arrayPatches(HooverRequest request) {
+        return new ArrayList<>(request.getPatches());
+    }
+
+    /**
+     * @return The request as the JSON body of {@code /hoover/navigate}.
+     */
+    static byte[] json(HooverRequest request) {
+        StringBuilder json = new StringBuilder(request.getInstructions().length() + request.getPatches().size() * 16 + 128);
+        json.append("{\"roomSize\":[").append(request.getRoomSize()[0]).append(',').append(request.getRoomSize()[1])
+                .append("],\"coords\":[").append(request.getCoords()[0]).append(',').append(request.getCoords()[1])
+                .append("],\"patches\":[");
+        for (int i = 0; i < request.getPatches().size(); i++) {
+            int[] patch = request.getPatches().get(i);
+            json.append(i == 0 ? "[" : ",[").append(patch[0]).append(',').append(patch[1]).append(']');
+        }
+        json.append("],\"instructions\":\"").append(request.getInstructions()).append("\"}");
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String instructions(InstructionShape shape, int length, int roomSide, SplittableRandom random) {
+        byte[] instructions = new byte[length];
+        int position = 0;
+        int leg = 0;
+        while (position < length) {
+            byte direction;
+            int run;
+            switch (shape) {
+                case RANDOM_WALK -> {
+                    direction = DIRECTIONS[random.nextInt(4)];
+                    run = 1;
+                }
+                case LONG_RUNS -> {
+                    direction = DIRECTIONS[random.nextInt(4)];
+                    run = 1 + random.nextInt(2 * roomSide);
+                }
+                case WALL_HUGGING -> {
+                    direction = DIRECTIONS[leg++ & 3];
+                    run = 2 * roomSide;
+                }
+                default -> throw new IllegalArgumentException("Unknown shape " + shape);
+            }
+            int end = Math.min(length, position + run);
+            while (position < end) {
+                instructions[position++] = direction;
+            }
+        }
+        return new String(instructions, StandardCharsets.ISO_8859_1);
+    }
+}
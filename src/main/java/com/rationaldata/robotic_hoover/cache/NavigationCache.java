@@ -0,0 +1,93 @@
+package com.rationaldata.robotic_hoover.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.rationaldata.robotic_hoover.config.HooverProperties;
+import com.rationaldata.robotic_hoover.dto.HooverResponse;
+import com.rationaldata.robotic_hoover.room.PreparedRoom;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of navigation results, keyed by the {@link RequestFingerprint} of the request.
+ * <p>
+ * The cache holds futures rather than results, which coalesces identical concurrent requests: the first one
+ * navigates, the others wait for its result instead of navigating too. The navigation runs on the caller's thread
+ * outside of any cache lock, so waiting requests only park and never pin a virtual thread's carrier.
+ * Failed navigations are not cached.
+ */
+@Component
+public class NavigationCache {
+
+    private final HooverProperties.Cache properties;
+    private final AsyncCache<RequestFingerprint, HooverResponse> cache;
+
+    public NavigationCache(HooverProperties properties) {
+        this.properties = properties.getCache();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(this.properties.getMaximumSize())
+                .expireAfterWrite(this.properties.getTimeToLive())
+                .recordStats()
+                .buildAsync();
+    }
+
+    /**
+     * Returns the cached result of a request, navigating it if there is none.
+     *
+     * @param room         The prepared room of a request that passed validation.
+     * @param instructions The instructions of the request.
+     * @param navigation   Navigates the request when its result is not cached.
+     * @return A copy of the result, which the caller is free to modify.
+     */
+    public HooverResponse get(PreparedRoom room, String instructions, Supplier<HooverResponse> navigation) {
+        if (!properties.isEnabled() || instructions.length() > properties.getMaxInstructionsLength()) {
+            return navigation.get();
+        }
+
+        CompletableFuture<HooverResponse> computation = new CompletableFuture<>();
+        CompletableFuture<HooverResponse> result = cache.get(RequestFingerprint.of(room, instructions),
+                (key, executor) -> computation);
+        if (result == computation) {
+            try {
+                computation.complete(navigation.get());
+            } catch (RuntimeException | Error e) {
+                computation.completeExceptionally(e);
+                throw e;
+            }
+        }
+        return copyOf(join(result));
+    }
+
+    /**
+     * @return The hit, miss and eviction counts of the cache since startup.
+     */
+    public CacheStats stats() {
+        return cache.synchronous().stats();
+    }
+
+    /**
+     * @return The underlying cache, for monitoring.
+     */
+    public AsyncCache<RequestFingerprint, HooverResponse> asyncCache() {
+        return cache;
+    }
+
+    private static HooverResponse join(CompletableFuture<HooverResponse> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static HooverResponse copyOf(HooverResponse response) {
+        return new HooverResponse(response.getCoords().clone(), response.getPatches());
+    }
+}
@@ -0,0 +1,59 @@
+package com.rationaldata.robotic_hoover.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.rationaldata.robotic_hoover.config.HooverProperties;
+import com.rationaldata.robotic_hoover.engine.InstructionProgram;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded cache of compiled {@link InstructionProgram}s, keyed by their instruction string.
+ * <p>
+ * Unlike the {@link NavigationCache}, which only helps requests repeated as a whole, a program serves every request
+ * with the same instructions whatever its room, start and patches, so planners replaying a few programs over many
+ * rooms skip decoding the instructions. A lookup costs the string's hash, computed once per string, and a comparison
+ * only when the hashes match. The cache is bounded by the estimated size of its programs, which follows their runs,
+ * and of their keys, which follows the instructions, and evicts the least recently used programs first.
+ */
+@Component
+public class ProgramCache {
+
+    private final HooverProperties.Programs properties;
+    private final Cache<String, InstructionProgram> cache;
+
+    public ProgramCache(HooverProperties properties) {
+        this.properties = properties.getPrograms();
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(this.properties.getMaximumSize().toBytes())
+                .weigher((String instructions, InstructionProgram program) -> weight(instructions, program))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the program of an instruction string, compiling it if it is not cached.
+     *
+     * @param instructions Validated instructions.
+     * @return The compiled program, shared and immutable.
+     */
+    public InstructionProgram get(String instructions) {
+        if (!properties.isEnabled() || instructions.length() > properties.getMaxInstructionsLength()) {
+            return InstructionProgram.compile(instructions);
+        }
+        return cache.get(instructions, InstructionProgram::compile);
+    }
+
+    /**
+     * Estimates the heap held by an entry: the program, and its key with one byte per instruction.
+     */
+    static int weight(String instructions, InstructionProgram program) {
+        return (int) Math.min(Integer.MAX_VALUE, program.estimatedBytes() + 40 + instructions.length());
+    }
+
+    /**
+     * @return The underlying cache, for monitoring.
+     */
+    public Cache<String, InstructionProgram> cache() {
+        return cache;
+    }
+}
@@ -0,0 +1,56 @@
+package com.rationaldata.robotic_hoover.cache;
+
+import com.rationaldata.robotic_hoover.room.PreparedRoom;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * SHA-256 digest of a normalized navigation request, used as the key of the {@link NavigationCache}.
+ * <p>
+ * The patches are hashed as prepared, sorted and without duplicates, as their order and repetition do not change
+ * the outcome of a navigation. Every variable-length part is preceded by its length, so two different requests cannot
+ * produce the same input to the digest.
+ */
+public record RequestFingerprint(long bits0, long bits1, long bits2, long bits3) {
+
+    private static final int CHUNK_BYTES = 8_192;
+
+    /**
+     * Computes the fingerprint of a validated request.
+     *
+     * @param room         The prepared room of the request.
+     * @param instructions The instructions of the request.
+     * @return The fingerprint of the request.
+     */
+    public static RequestFingerprint of(PreparedRoom room, String instructions) {
+        MessageDigest digest = sha256();
+
+        ByteBuffer buffer = ByteBuffer.allocate(CHUNK_BYTES);
+        buffer.putInt(room.roomWidth()).putInt(room.roomHeight())
+                .putInt(room.startX()).putInt(room.startY())
+                .putInt(room.patchCount()).putInt(instructions.length());
+        for (int i = 0; i < room.patchCount(); i++) {
+            if (!buffer.hasRemaining()) {
+                digest.update(buffer.array(), 0, buffer.position());
+                buffer.clear();
+            }
+            buffer.putLong(room.patchKey(i));
+        }
+        digest.update(buffer.array(), 0, buffer.position());
+        digest.update(instructions.getBytes(StandardCharsets.ISO_8859_1));
+
+        ByteBuffer hash = ByteBuffer.wrap(digest.digest());
+        return new RequestFingerprint(hash.getLong(), hash.getLong(), hash.getLong(), hash.getLong());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
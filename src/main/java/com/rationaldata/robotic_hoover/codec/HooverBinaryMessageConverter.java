@@ -0,0 +1,325 @@
+package com.rationaldata.robotic_hoover.codec;
+
+import com.rationaldata.robotic_hoover.dto.HooverRequest;
+import com.rationaldata.robotic_hoover.dto.HooverResponse;
+import com.rationaldata.robotic_hoover.dto.PackedPatches;
+import com.rationaldata.robotic_hoover.metrics.NavigationMetrics;
+import com.rationaldata.robotic_hoover.room.PreparedRoom;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * Binary converter for {@link HooverRequest} and {@link HooverResponse}, negotiated as {@value #MEDIA_TYPE_VALUE}
+ * through {@code Content-Type} and {@code Accept}. Requests with hundreds of thousands of patches take a fraction of
+ * the size of their JSON and are read without any text parsing.
+ * <p>
+ * A request is, in network byte order:
+ * <ol>
+ *     <li>the room width and height and the initial X and Y coordinates, as four 32-bit ints;</li>
+ *     <li>the number of patches as a varint, then the patches sorted by row then X, each as the varint difference
+ *     of its Y from the previous patch's Y, followed by a varint X: the difference from the previous patch's X
+ *     on the same row, or the X itself on a new row;</li>
+ *     <li>the number of moves as a varint, then the moves packed 2 bits each, four to a byte starting with the low
+ *     bits: {@code N=0}, {@code E=1}, {@code S=2}, {@code W=3}.</li>
+ * </ol>
+ * Varints are unsigned LEB128, 7 bits per byte with the high bit set on all bytes but the last. A response is the
+ * final X and Y coordinates and the number of cleaned patches, as three 32-bit ints.
+ * <p>
+ * The patches are decoded straight into a {@link PackedPatches}, validated like those of a JSON request. The time
+ * spent reading requests is recorded as the {@code binding} phase. The static methods encode requests and decode
+ * responses for clients.
+ */
+public class HooverBinaryMessageConverter extends AbstractHttpMessageConverter<Object> {
+
+    public static final String MEDIA_TYPE_VALUE = "application/x-hoover";
+    public static final MediaType MEDIA_TYPE = MediaType.parseMediaType(MEDIA_TYPE_VALUE);
+
+    private static final byte[] MOVES = {'N', 'E', 'S', 'W'};
+    private static final int MAX_BODY_BYTES = Integer.MAX_VALUE - 8;
+
+    private final NavigationMetrics metrics;
+    private final IntFunction<PackedPatches> patches;
+
+    public HooverBinaryMessageConverter(NavigationMetrics metrics) {
+        this(metrics, PackedPatches::new);
+    }
+
+    /**
+     * @param patches Creates the list the patches of a request are decoded into, given the number expected.
+     */
+    public HooverBinaryMessageConverter(NavigationMetrics metrics, IntFunction<PackedPatches> patches) {
+        super(MEDIA_TYPE);
+        this.metrics = metrics;
+        this.patches = patches;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return HooverRequest.class == clazz || HooverResponse.class == clazz;
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return HooverRequest.class == clazz && canRead(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return HooverResponse.class == clazz && canWrite(mediaType);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        Timer.Sample sample = Timer.start();
+        try {
+            return readRequest(inputMessage.getBody(), inputMessage.getHeaders().getContentLength(), patches);
+        } catch (IllegalArgumentException e) {
+            throw new HttpMessageNotReadableException("Binary parse error: " + e.getMessage(), e, inputMessage);
+        } finally {
+            sample.stop(metrics.binding());
+        }
+    }
+
+    @Override
+    protected void writeInternal(Object object, HttpOutputMessage outputMessage) throws IOException {
+        writeResponse((HooverResponse) object, outputMessage.getBody());
+    }
+
+    /**
+     * Reads a whole request.
+     *
+     * @param body The binary request.
+     * @return The request, with its patches in a {@link PackedPatches}, not yet validated.
+     * @throws IOException              if the body cannot be read.
+     * @throws IllegalArgumentException if the body is not a well-formed request.
+     */
+    public static HooverRequest readRequest(InputStream body) throws IOException {
+        return readRequest(body, -1);
+    }
+
+    /**
+     * Reads a whole request of a known length into a single array of that length, instead of growing one while
+     * reading and copying it at the end.
+     *
+     * @param body          The binary request.
+     * @param contentLength The length of the body, or -1 if unknown.
+     * @return The request, with its patches in a {@link PackedPatches}, not yet validated.
+     * @throws IOException              if the body cannot be read.
+     * @throws IllegalArgumentException if the body is not a well-formed request, or shorter than its length.
+     */
+    public static HooverRequest readRequest(InputStream body, long contentLength) throws IOException {
+        return readRequest(body, contentLength, PackedPatches::new);
+    }
+
+    /**
+     * Reads a whole request like {@link #readRequest(InputStream, long)}, into patches created by the given factory.
+     *
+     * @param body          The binary request.
+     * @param contentLength The length of the body, or -1 if unknown.
+     * @param patches       Creates the list the patches are decoded into, given the number expected.
+     * @return The request, with its patches in a {@link PackedPatches}, not yet validated.
+     * @throws IOException              if the body cannot be read.
+     * @throws IllegalArgumentException if the body is not a well-formed request, or shorter than its length.
+     */
+    public static HooverRequest readRequest(InputStream body, long contentLength, IntFunction<PackedPatches> patches)
+            throws IOException {
+        if (contentLength < 0) {
+            return readRequest(ByteBuffer.wrap(body.readAllBytes()), patches);
+        }
+        if (contentLength > MAX_BODY_BYTES) {
+            throw new IllegalArgumentException("Request of " + contentLength + " bytes exceeds " + MAX_BODY_BYTES);
+        }
+        byte[] bytes = new byte[(int) contentLength];
+        int read = body.readNBytes(bytes, 0, bytes.length);
+        if (read < bytes.length) {
+            throw new IllegalArgumentException("Request ends after " + read + " of " + contentLength + " bytes");
+        }
+        return readRequest(ByteBuffer.wrap(bytes), patches);
+    }
+
+    /**
+     * Reads a request from the remaining bytes of a buffer, which must hold the request and nothing else.
+     *
+     * @param body The binary request, consumed.
+     * @return The request, with its patches in a {@link PackedPatches}, not yet validated.
+     * @throws IllegalArgumentException if the body is not a well-formed request.
+     */
+    public static HooverRequest readRequest(ByteBuffer body) {
+        return readRequest(body, PackedPatches::new);
+    }
+
+    /**
+     * Reads a request like {@link #readRequest(ByteBuffer)}, into patches created by the given factory. The number
+     * of patches announced is only trusted as far as the bytes left could hold them.
+     *
+     * @param body    The binary request, consumed.
+     * @param patches Creates the list the patches are decoded into, given the number expected.
+     * @return The request, with its patches in a {@link PackedPatches}, not yet validated.
+     * @throws IllegalArgumentException if the body is not a well-formed request.
+     */
+    public static HooverRequest readRequest(ByteBuffer body, IntFunction<PackedPatches> patches) {
+        try {
+            HooverRequest request = new HooverRequest();
+            request.setRoomSize(new int[]{body.getInt(), body.getInt()});
+            request.setCoords(new int[]{body.getInt(), body.getInt()});
+
+            int patchCount = readVarint(body);
+            PackedPatches packedPatches = patches.apply(Math.min(patchCount, body.remaining() / 2));
+            int x = 0;
+            int y = 0;
+            for (int i = 0; i < patchCount; i++) {
+                int dy = readVarint(body);
+                int dx = readVarint(body);
+                if (dy > Integer.MAX_VALUE - y || (dy == 0 && dx > Integer.MAX_VALUE - x)) {
+                    throw new IllegalArgumentException("patch " + i + " is beyond the largest coordinate");
+                }
+                x = dy == 0 ? x + dx : dx;
+                y += dy;
+                packedPatches.add(x, y);
+            }
+            request.setPatches(packedPatches);
+
+            int moveCount = readVarint(body);
+            int packed = body.position();
+            if (body.remaining() != (moveCount + 3L) / 4) {
+                throw new IllegalArgumentException("expected " + (moveCount + 3L) / 4 + " bytes of moves, got "
+                        + body.remaining());
+            }
+            byte[] moves = new byte[moveCount];
+            for (int i = 0; i < moveCount; i++) {
+                moves[i] = MOVES[body.get(packed + (i >>> 2)) >>> ((i & 3) << 1) & 3];
+            }
+            body.position(body.limit());
+            request.setInstructions(new String(moves, StandardCharsets.ISO_8859_1));
+            return request;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("unexpected end of request", e);
+        }
+    }
+
+    /**
+     * Writes a request, sorting its patches by row and dropping duplicates. Patches must have exactly two
+     * non-negative coordinates, and the instructions must only contain N, E, S and W.
+     *
+     * @param request The request.
+     * @param body    Receives the binary request; flushed but not closed.
+     * @throws IOException              if the body cannot be written.
+     * @throws IllegalArgumentException if the request cannot be represented in the binary format.
+     */
+    public static void writeRequest(HooverRequest request, OutputStream body) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(body));
+        out.writeInt(request.getRoomSize()[0]);
+        out.writeInt(request.getRoomSize()[1]);
+        out.writeInt(request.getCoords()[0]);
+        out.writeInt(request.getCoords()[1]);
+
+        List<int[]> patches = request.getPatches();
+        for (int[] patch : patches) {
+            if (patch.length != 2 || patch[0] < 0 || patch[1] < 0) {
+                throw new IllegalArgumentException("Patches must be pairs of non-negative coordinates");
+            }
+        }
+        try (PreparedRoom sorted = PreparedRoom.of(0, 0, 0, 0, patches)) {
+            writeVarint(out, sorted.patchCount());
+            int previousX = 0;
+            int previousY = 0;
+            for (int i = 0; i < sorted.patchCount(); i++) {
+                int x = PreparedRoom.x(sorted.patchKey(i));
+                int y = PreparedRoom.y(sorted.patchKey(i));
+                writeVarint(out, y - previousY);
+                writeVarint(out, y == previousY ? x - previousX : x);
+                previousX = x;
+                previousY = y;
+            }
+        }
+
+        String instructions = request.getInstructions();
+        writeVarint(out, instructions.length());
+        for (int i = 0; i < instructions.length(); i += 4) {
+            int packed = 0;
+            for (int j = Math.min(i + 4, instructions.length()) - 1; j >= i; j--) {
+                packed = packed << 2 | moveCode(instructions.charAt(j));
+            }
+            out.writeByte(packed);
+        }
+        out.flush();
+    }
+
+    /**
+     * Reads a response.
+     *
+     * @param body The binary response.
+     * @return The response.
+     * @throws IOException if the body cannot be read or ends early.
+     */
+    public static HooverResponse readResponse(InputStream body) throws IOException {
+        DataInputStream in = new DataInputStream(body);
+        int x = in.readInt();
+        int y = in.readInt();
+        return new HooverResponse(new int[]{x, y}, in.readInt());
+    }
+
+    /**
+     * Writes a response.
+     *
+     * @param response The response, with its coordinates and patches set.
+     * @param body     Receives the binary response; flushed but not closed.
+     * @throws IOException if the body cannot be written.
+     */
+    public static void writeResponse(HooverResponse response, OutputStream body) throws IOException {
+        DataOutputStream out = new DataOutputStream(body);
+        out.writeInt(response.getCoords()[0]);
+        out.writeInt(response.getCoords()[1]);
+        out.writeInt(response.getPatches());
+        out.flush();
+    }
+
+    private static int moveCode(char instruction) {
+        return switch (instruction) {
+            case 'N' -> 0;
+            case 'E' -> 1;
+            case 'S' -> 2;
+            case 'W' -> 3;
+            default -> throw new IllegalArgumentException("Instructions must only contain the characters N, E, S, W");
+        };
+    }
+
+    private static int readVarint(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.get() & 0xFF;
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                if (shift == 28 && b > 0x07) {
+                    break;
+                }
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("varint exceeds " + Integer.MAX_VALUE);
+    }
+
+    private static void writeVarint(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte(value & 0x7F | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+}
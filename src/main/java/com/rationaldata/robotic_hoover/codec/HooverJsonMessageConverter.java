@@ -0,0 +1,239 @@
+package com.rationaldata.robotic_hoover.codec;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.rationaldata.robotic_hoover.dto.HooverRequest;
+import com.rationaldata.robotic_hoover.dto.HooverResponse;
+import com.rationaldata.robotic_hoover.dto.PackedPatches;
+import com.rationaldata.robotic_hoover.metrics.NavigationMetrics;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+/**
+ * JSON converter dedicated to {@link HooverRequest} and {@link HooverResponse}, registered ahead of the
+ * generic Jackson converter.
+ * <p>
+ * Requests are read with the Jackson streaming parser rather than through data binding: the patches go straight
+ * into a {@link PackedPatches}, whose arity and bounds are recorded while parsing, so neither the parser nor
+ * Bean Validation allocate or walk one array per patch, and the list comes from a factory that can move the patches
+ * of the largest requests off the heap. Responses are written field by field without reflection.
+ * The wire format is the same as with data binding, including its leniency towards numbers sent as strings
+ * or decimals and unknown fields. The time spent reading requests is recorded as the {@code binding} phase.
+ */
+public class HooverJsonMessageConverter extends AbstractHttpMessageConverter<Object> {
+
+    private final JsonFactory jsonFactory;
+    private final NavigationMetrics metrics;
+    private final IntFunction<PackedPatches> patches;
+
+    public HooverJsonMessageConverter(JsonFactory jsonFactory, NavigationMetrics metrics) {
+        this(jsonFactory, metrics, PackedPatches::new);
+    }
+
+    /**
+     * @param patches Creates the list the patches of a request are read into, given the number expected.
+     */
+    public HooverJsonMessageConverter(JsonFactory jsonFactory, NavigationMetrics metrics,
+                                      IntFunction<PackedPatches> patches) {
+        super(MediaType.APPLICATION_JSON, new MediaType("application", "*+json"));
+        this.jsonFactory = jsonFactory;
+        this.metrics = metrics;
+        this.patches = patches;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return HooverRequest.class == clazz || HooverResponse.class == clazz;
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return HooverRequest.class == clazz && canRead(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return HooverResponse.class == clazz && canWrite(mediaType);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        Timer.Sample sample = Timer.start();
+        try (JsonParser parser = jsonFactory.createParser(inputMessage.getBody())) {
+            return readRequest(parser, patches);
+        } catch (JsonProcessingException e) {
+            throw new HttpMessageNotReadableException("JSON parse error: " + e.getOriginalMessage(), e, inputMessage);
+        } finally {
+            sample.stop(metrics.binding());
+        }
+    }
+
+    @Override
+    protected void writeInternal(Object object, HttpOutputMessage outputMessage) throws IOException {
+        HooverResponse response = (HooverResponse) object;
+        JsonGenerator generator = jsonFactory.createGenerator(outputMessage.getBody(), JsonEncoding.UTF8);
+        generator.writeStartObject();
+        generator.writeFieldName("coords");
+        int[] coords = response.getCoords();
+        if (coords == null) {
+            generator.writeNull();
+        } else {
+            generator.writeArray(coords, 0, coords.length);
+        }
+        generator.writeFieldName("patches");
+        if (response.getPatches() == null) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(response.getPatches());
+        }
+        generator.writeEndObject();
+        generator.flush();
+    }
+
+    /**
+     * Parses a whole request. Exposed for the other endpoints reading requests outside of Spring MVC's binding.
+     *
+     * @param parser A parser positioned before the request object.
+     * @return The parsed request, not yet validated.
+     * @throws IOException if the input is not a well-formed request.
+     */
+    public static HooverRequest readRequest(JsonParser parser) throws IOException {
+        return readRequest(parser, PackedPatches::new);
+    }
+
+    /**
+     * Parses a whole request like {@link #readRequest(JsonParser)}, into patches created by the given factory.
+     *
+     * @param parser  A parser positioned before the request object.
+     * @param patches Creates the list the patches are read into, given the number expected.
+     * @return The parsed request, not yet validated.
+     * @throws IOException if the input is not a well-formed request.
+     */
+    public static HooverRequest readRequest(JsonParser parser, IntFunction<PackedPatches> patches) throws IOException {
+        JsonToken token = parser.currentToken() == null ? parser.nextToken() : parser.currentToken();
+        if (token != JsonToken.START_OBJECT) {
+            throw mismatch(parser, "HooverRequest");
+        }
+        HooverRequest request = new HooverRequest();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "roomSize" -> request.setRoomSize(readIntArray(parser));
+                case "coords" -> request.setCoords(readIntArray(parser));
+                case "patches" -> request.setPatches(readPatches(parser, patches));
+                case "instructions" -> request.setInstructions(readString(parser));
+                default -> parser.skipChildren();
+            }
+        }
+        if (parser.currentToken() != JsonToken.END_OBJECT) {
+            throw mismatch(parser, "HooverRequest");
+        }
+        return request;
+    }
+
+    private static PackedPatches readPatches(JsonParser parser, IntFunction<PackedPatches> factory) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            throw mismatch(parser, "List<int[]>");
+        }
+        PackedPatches patches = factory.apply(16);
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token == JsonToken.VALUE_NULL) {
+                patches.addInvalid();
+                continue;
+            }
+            if (token != JsonToken.START_ARRAY) {
+                throw mismatch(parser, "int[]");
+            }
+            int arity = 0;
+            int x = 0;
+            int y = 0;
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                int value = readInt(parser);
+                if (arity == 0) {
+                    x = value;
+                } else if (arity == 1) {
+                    y = value;
+                }
+                arity++;
+            }
+            if (arity == 2) {
+                patches.add(x, y);
+            } else {
+                patches.addInvalid();
+            }
+        }
+        return patches;
+    }
+
+    private static int[] readIntArray(JsonParser parser) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            throw mismatch(parser, "int[]");
+        }
+        int[] values = new int[2];
+        int size = 0;
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = readInt(parser);
+        }
+        return size == values.length ? values : Arrays.copyOf(values, size);
+    }
+
+    private static int readInt(JsonParser parser) throws IOException {
+        if (parser.currentToken() == null) {
+            throw mismatch(parser, "int");
+        }
+        return switch (parser.currentToken()) {
+            case VALUE_NUMBER_INT -> parser.getIntValue();
+            case VALUE_NUMBER_FLOAT -> parser.getValueAsInt();
+            case VALUE_NULL -> 0;
+            case VALUE_STRING -> {
+                try {
+                    yield Integer.parseInt(parser.getText().trim());
+                } catch (NumberFormatException e) {
+                    throw new JsonParseException(parser, "Cannot deserialize value of type `int` from String \""
+                            + parser.getText() + "\": not a valid `int` value");
+                }
+            }
+            default -> throw mismatch(parser, "int");
+        };
+    }
+
+    private static String readString(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (token.isScalarValue()) {
+            return parser.getText();
+        }
+        throw mismatch(parser, "String");
+    }
+
+    private static JsonParseException mismatch(JsonParser parser, String type) {
+        return new JsonParseException(parser, "Cannot deserialize value of type `" + type + "` from "
+                + parser.currentToken());
+    }
+}
@@ -0,0 +1,103 @@
+package com.rationaldata.robotic_hoover.codec;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.rationaldata.robotic_hoover.dto.HooverResponse;
+import com.rationaldata.robotic_hoover.engine.InstructionDecoder;
+import com.rationaldata.robotic_hoover.engine.TraceListener;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Writes the trajectory of a traced navigation as NDJSON, one event per line, as it is computed:
+ * <pre>
+ * {"start":[1,2]}
+ * {"move":"N","steps":2}
+ * {"cleaned":[1,4],"step":2}
+ * {"move":"E","steps":3,"blocked":1}
+ * {"coords":[4,4],"patches":1}
+ * </pre>
+ * A {@code move} is a run of identical instructions: the hoover moved {@code steps} tiles, and {@code blocked}
+ * instructions, left out when 0, pushed against a wall. Every position follows from the start and the moves,
+ * so the size of the trace grows with the number of runs rather than of moves. A {@code cleaned} patch comes after
+ * the move that cleaned it, with the number of instructions executed when the hoover reached it. The last line is
+ * the response of {@code /hoover/navigate}.
+ */
+public class TraceNdjsonWriter implements TraceListener {
+
+    /**
+     * The instruction of each {@link InstructionDecoder} direction.
+     */
+    private static final String[] MOVES = {"N", "E", "S", "W"};
+
+    private final JsonGenerator generator;
+
+    public TraceNdjsonWriter(JsonGenerator generator) {
+        this.generator = generator.setRootValueSeparator(null);
+    }
+
+    @Override
+    public void onStart(int x, int y) {
+        try {
+            generator.writeStartObject();
+            writePosition("start", x, y);
+            endLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void onRun(int direction, int steps, int blocked) {
+        try {
+            generator.writeStartObject();
+            generator.writeStringField("move", MOVES[direction]);
+            generator.writeNumberField("steps", steps);
+            if (blocked > 0) {
+                generator.writeNumberField("blocked", blocked);
+            }
+            endLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void onCleaned(int patch, int x, int y, int step) {
+        try {
+            generator.writeStartObject();
+            writePosition("cleaned", x, y);
+            generator.writeNumberField("step", step);
+            endLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes the final line of the trace and flushes it. The generator is not closed, as the stream it writes to
+     * belongs to the caller.
+     *
+     * @param response The response of the navigation.
+     */
+    public void finish(HooverResponse response) throws IOException {
+        generator.writeStartObject();
+        writePosition("coords", response.getCoords()[0], response.getCoords()[1]);
+        generator.writeNumberField("patches", response.getPatches());
+        endLine();
+        generator.flush();
+    }
+
+    private void writePosition(String field, int x, int y) throws IOException {
+        generator.writeFieldName(field);
+        generator.writeStartArray();
+        generator.writeNumber(x);
+        generator.writeNumber(y);
+        generator.writeEndArray();
+    }
+
+    private void endLine() throws IOException {
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+}
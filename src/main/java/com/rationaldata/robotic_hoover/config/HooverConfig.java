@@ -0,0 +1,61 @@
+package com.rationaldata.robotic_hoover.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+@EnableConfigurationProperties(HooverProperties.class)
+public class HooverConfig {
+
+    /**
+     * Pool running the chunks of parallel navigations, kept apart from the common pool.
+     * It stays on platform threads in virtual-thread mode: the chunks are pure computation,
+     * and a work-stealing pool sized to the processors is what suits them.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ForkJoinPool navigationPool(HooverProperties properties) {
+        int parallelism = properties.getEngine().getParallelism();
+        return new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Bounded executor running the items of batch navigations. When its queue is full the submitting
+     * request thread runs the item itself, which throttles large batches instead of rejecting them.
+     */
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public ExecutorService batchExecutor(HooverProperties properties) {
+        HooverProperties.Batch batch = properties.getBatch();
+        return new ThreadPoolExecutor(batchThreads(batch), batchThreads(batch), 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(batch.getQueueCapacity()), new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * Virtual-thread flavour of the batch executor, used when {@code spring.threads.virtual.enabled} is set.
+     * Every item gets its own virtual thread, and the concurrency limit keeps at most {@code hoover.batch.threads}
+     * of them running, blocking the submitting thread beyond that like the platform executor does.
+     */
+    @Bean(name = "batchExecutor")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public Executor virtualBatchExecutor(HooverProperties properties) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("hoover-batch-");
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(batchThreads(properties.getBatch()));
+        return executor;
+    }
+
+    private static int batchThreads(HooverProperties.Batch batch) {
+        return batch.getThreads() > 0 ? batch.getThreads() : Runtime.getRuntime().availableProcessors();
+    }
+}
@@ -0,0 +1,244 @@
+package com.rationaldata.robotic_hoover.config;
+
+import com.rationaldata.robotic_hoover.engine.NavigationMode;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Tuning knobs of the hoover navigation, bound from the {@code hoover.*} keys of {@code application.properties}.
+ */
+@Data
+@ConfigurationProperties(prefix = "hoover")
+public class HooverProperties {
+
+    private Grid grid = new Grid();
+
+    private Engine engine = new Engine();
+
+    private Stream stream = new Stream();
+
+    private Batch batch = new Batch();
+
+    private Cache cache = new Cache();
+
+    private Programs programs = new Programs();
+
+    private Session session = new Session();
+
+    private Tcp tcp = new Tcp();
+
+    @Data
+    public static class Grid {
+
+        /**
+         * Rooms with at most this many tiles always use a dense bitmap.
+         */
+        private long denseMaxCells = 4_194_304;
+
+        /**
+         * Larger rooms still use a dense bitmap when they have at least one patch per this many tiles.
+         */
+        private int denseCellsPerPatch = 256;
+
+        /**
+         * Requests with at least this many patches keep their patches, and the grids and indexes built from them,
+         * in direct memory for the length of a navigation. 0 disables it.
+         */
+        private int offHeapMinPatches = 1_000_000;
+
+        /**
+         * The most direct memory kept pooled for the next off-heap rooms once navigations release it.
+         */
+        private DataSize offHeapPoolSize = DataSize.ofMegabytes(256);
+    }
+
+    @Data
+    public static class Engine {
+
+        /**
+         * The engine simulating the hoover's movement.
+         */
+        private NavigationMode mode = NavigationMode.RUN_LENGTH;
+
+        /**
+         * Instruction strings at least this long are split into chunks simulated in parallel. 0 disables it.
+         */
+        private int parallelThreshold = 1_000_000;
+
+        /**
+         * The number of instructions per chunk of a parallel simulation.
+         */
+        private int parallelChunkSize = 65_536;
+
+        /**
+         * The number of threads of the parallel simulation pool, 0 for one per available processor.
+         */
+        private int parallelism = 0;
+    }
+
+    @Data
+    public static class Stream {
+
+        /**
+         * The size of the buffers the streamed instructions are read and simulated in.
+         */
+        private int bufferSize = 65_536;
+
+        /**
+         * The maximum size of the JSON header line of a streamed navigation.
+         */
+        private int maxHeaderBytes = 16_777_216;
+    }
+
+    @Data
+    public static class Batch {
+
+        /**
+         * The number of threads running batch items, 0 for one per available processor.
+         */
+        private int threads = 0;
+
+        /**
+         * The number of batch items waiting for a thread; once full, the submitting thread runs the item itself.
+         */
+        private int queueCapacity = 1_024;
+
+        /**
+         * The maximum number of requests of a batch.
+         */
+        private int maxSize = 10_000;
+
+        /**
+         * The number of navigations of an NDJSON stream running or waiting for their turn to be written;
+         * reading the stream pauses beyond it.
+         */
+        private int maxInFlight = 1_024;
+
+        /**
+         * The maximum size of a line of an NDJSON stream.
+         */
+        private int maxLineBytes = 16_777_216;
+    }
+
+    @Data
+    public static class Cache {
+
+        /**
+         * Whether the results of repeated navigations are served from the cache.
+         */
+        private boolean enabled = true;
+
+        /**
+         * The maximum number of cached results.
+         */
+        private long maximumSize = 10_000;
+
+        /**
+         * How long a result stays cached after it was computed.
+         */
+        private Duration timeToLive = Duration.ofMinutes(10);
+
+        /**
+         * Requests with longer instruction strings bypass the cache, as hashing them costs about as much as navigating.
+         */
+        private int maxInstructionsLength = 1_000_000;
+    }
+
+    @Data
+    public static class Programs {
+
+        /**
+         * Whether compiled instruction programs are kept for the next requests with the same instructions.
+         */
+        private boolean enabled = true;
+
+        /**
+         * The estimated heap all cached programs and their instruction strings may use together.
+         */
+        private DataSize maximumSize = DataSize.ofMegabytes(128);
+
+        /**
+         * Longer instruction strings are compiled for each request instead of being cached.
+         */
+        private int maxInstructionsLength = 1_000_000;
+    }
+
+    @Data
+    public static class Session {
+
+        /**
+         * The estimated heap all room sessions may use together; sessions are evicted beyond it.
+         */
+        private DataSize memoryBudget = DataSize.ofMegabytes(256);
+
+        /**
+         * How long a session is kept without being read or advanced.
+         */
+        private Duration idleTimeout = Duration.ofMinutes(30);
+
+        private Persistence persistence = new Persistence();
+    }
+
+    @Data
+    public static class Persistence {
+
+        /**
+         * Whether room sessions are written to disk and recovered after a restart.
+         */
+        private boolean enabled = false;
+
+        /**
+         * The directory holding one sub-directory per session.
+         */
+        private Path directory = Path.of("sessions");
+
+        /**
+         * How often the instruction logs are forced to disk; a crash loses at most this much of the latest fragments.
+         */
+        private Duration flushInterval = Duration.ofSeconds(1);
+
+        /**
+         * The size of instruction log after which a snapshot is written and the log started over.
+         */
+        private DataSize snapshotThreshold = DataSize.ofMegabytes(4);
+
+        /**
+         * The size of the regions the instruction logs are mapped and grown in.
+         */
+        private DataSize logChunkSize = DataSize.ofMegabytes(1);
+    }
+
+    @Data
+    public static class Tcp {
+
+        /**
+         * Whether the binary TCP listener is started next to the HTTP server.
+         */
+        private boolean enabled = false;
+
+        /**
+         * The port of the TCP listener, 0 for any free port.
+         */
+        private int port = 9090;
+
+        /**
+         * The number of event loop threads, each reading, navigating and writing for its own connections,
+         * 0 for one per available processor.
+         */
+        private int ioThreads = 0;
+
+        /**
+         * The size of the pooled direct buffers each connection reads and writes frames through.
+         */
+        private int bufferSize = 65_536;
+
+        /**
+         * The maximum size of a request frame; frames larger than the buffer size are read into a heap buffer.
+         */
+        private int maxFrameBytes = 16_777_216;
+    }
+}
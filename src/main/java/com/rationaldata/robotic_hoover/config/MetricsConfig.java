@@ -0,0 +1,37 @@
+package com.rationaldata.robotic_hoover.config;
+
+import com.rationaldata.robotic_hoover.cache.NavigationCache;
+import com.rationaldata.robotic_hoover.cache.ProgramCache;
+import com.rationaldata.robotic_hoover.service.RoomSessionService;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Publishes the size, hits, misses and evictions of the navigation result cache as {@code cache.*{cache=navigation}}.
+     */
+    @Bean
+    public MeterBinder navigationCacheMetrics(NavigationCache navigationCache) {
+        return registry -> CaffeineCacheMetrics.monitor(registry, navigationCache.asyncCache(), "navigation");
+    }
+
+    /**
+     * Publishes the size, hits, misses and evictions of the compiled program cache as {@code cache.*{cache=programs}}.
+     */
+    @Bean
+    public MeterBinder programCacheMetrics(ProgramCache programCache) {
+        return registry -> CaffeineCacheMetrics.monitor(registry, programCache.cache(), "programs");
+    }
+
+    /**
+     * Publishes the number of open room sessions and their evictions as {@code cache.*{cache=room-sessions}}.
+     */
+    @Bean
+    public MeterBinder roomSessionMetrics(RoomSessionService roomSessionService) {
+        return registry -> CaffeineCacheMetrics.monitor(registry, roomSessionService.cache(), "room-sessions");
+    }
+}
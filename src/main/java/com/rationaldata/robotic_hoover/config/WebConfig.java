@@ -0,0 +1,46 @@
+package com.rationaldata.robotic_hoover.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rationaldata.robotic_hoover.codec.HooverBinaryMessageConverter;
+import com.rationaldata.robotic_hoover.codec.HooverJsonMessageConverter;
+import com.rationaldata.robotic_hoover.metrics.NavigationMetrics;
+import com.rationaldata.robotic_hoover.metrics.TimedValidator;
+import com.rationaldata.robotic_hoover.room.RoomGridFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.validation.Validator;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+
+    private final ObjectMapper objectMapper;
+    private final jakarta.validation.Validator beanValidator;
+    private final NavigationMetrics metrics;
+    private final RoomGridFactory roomGridFactory;
+
+    /**
+     * Registers the dedicated hoover converters ahead of the generic ones, decoding patches into the lists of the
+     * {@link RoomGridFactory} so that the largest requests are kept off the heap.
+     */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(0, new HooverJsonMessageConverter(objectMapper.getFactory(), metrics,
+                roomGridFactory::packedPatches));
+        converters.add(1, new HooverBinaryMessageConverter(metrics, roomGridFactory::packedPatches));
+    }
+
+    /**
+     * Validates {@code @Valid} request bodies with the application's Bean Validation provider,
+     * timing each validation as the {@code bean-validation} phase.
+     */
+    @Override
+    public Validator getValidator() {
+        return new TimedValidator(new SpringValidatorAdapter(beanValidator), metrics.beanValidation());
+    }
+}
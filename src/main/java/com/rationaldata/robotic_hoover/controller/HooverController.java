@@ -1,8 +1,17 @@
 package com.rationaldata.robotic_hoover.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rationaldata.robotic_hoover.codec.TraceNdjsonWriter;
+import com.rationaldata.robotic_hoover.dto.BatchItemResult;
+import com.rationaldata.robotic_hoover.dto.FleetRequest;
+import com.rationaldata.robotic_hoover.dto.FleetResponse;
 import com.rationaldata.robotic_hoover.dto.HooverRequest;
 import com.rationaldata.robotic_hoover.dto.HooverResponse;
+import com.rationaldata.robotic_hoover.engine.InstructionDecoder;
+import com.rationaldata.robotic_hoover.exception.InvalidInstructionsException;
+import com.rationaldata.robotic_hoover.service.BatchNavigationService;
 import com.rationaldata.robotic_hoover.service.HooverService;
+import com.rationaldata.robotic_hoover.service.StreamingNavigationService;
 import com.rationaldata.robotic_hoover.utils.JsonExamples;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -11,12 +20,18 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
 /**
  * Controller class for handling hoover navigation requests.
  * It exposes endpoints that allow the client to control the hoover's movements and track its cleaning progress.
@@ -28,6 +43,9 @@ import jakarta.validation.Valid;
 public class HooverController {
 
     private final HooverService hooverService;
+    private final StreamingNavigationService streamingNavigationService;
+    private final BatchNavigationService batchNavigationService;
+    private final ObjectMapper objectMapper;
 
     @Operation(
             summary = "Navigate the hoover in the room",
@@ -83,4 +101,128 @@ public class HooverController {
         HooverResponse response = hooverService.navigate(request);
         return ResponseEntity.ok(response);
     }
+
+    @Operation(
+            summary = "Navigate the hoover with streamed instructions",
+            description = "Reads a first line of JSON with the room size, initial position and patches, followed by the "
+                    + "instructions as the rest of the body. The instructions are simulated as they arrive, so they can be "
+                    + "sent with a chunked body of any length.",
+            requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    description = "JSON header line followed by the instructions.",
+                    content = @Content(
+                            mediaType = "text/plain",
+                            examples = {
+                                    @ExampleObject(
+                                            name = "Hoover Stream Example",
+                                            summary = "Example of streamed Hoover Request",
+                                            value = JsonExamples.HOOVER_STREAM_REQUEST
+                                    )
+                            }
+                    )
+            )
+    )
+    @PostMapping("/navigate/stream")
+    public ResponseEntity<HooverResponse> navigateStream(InputStream body) throws IOException {
+        HooverResponse response = streamingNavigationService.navigate(body);
+        return ResponseEntity.ok(response);
+    }
+
+    @Operation(
+            summary = "Navigate the hoover and stream its trajectory",
+            description = "Navigates like /hoover/navigate and streams the trajectory as NDJSON while it is computed: "
+                    + "the start, every run of identical instructions with the tiles moved and the moves blocked by a wall, "
+                    + "every cleaned patch with the step it was cleaned at, and the response as the last line. "
+                    + "Instructions written with repetitions are not accepted.",
+            requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    description = "Request payload to navigate the hoover.",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = HooverRequest.class)
+                    )
+            )
+    )
+    @PostMapping("/navigate/trace")
+    public void navigateTrace(@Valid @RequestBody HooverRequest request, HttpServletResponse response) throws IOException {
+        int invalid = InstructionDecoder.indexOfInvalid(request.getInstructions());
+        if (invalid >= 0) {
+            // Rejected before the stream starts: the trace follows plain instructions, not repetitions
+            throw new InvalidInstructionsException(invalid, request.getInstructions().charAt(invalid));
+        }
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        TraceNdjsonWriter trace = new TraceNdjsonWriter(objectMapper.getFactory().createGenerator(response.getOutputStream()));
+        trace.finish(hooverService.trace(request, trace));
+    }
+
+    @Operation(
+            summary = "Navigate several hoovers in the same room",
+            description = "Moves every hoover from its own start with its own instructions, all at the same time, over "
+                    + "the same patches. Each patch is credited to the hoover that reached it in the fewest steps, and on "
+                    + "a tie to the hoover listed first.",
+            requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    description = "The room, its patches and the hoovers.",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = FleetRequest.class)
+                    )
+            )
+    )
+    @PostMapping("/navigate/fleet")
+    public ResponseEntity<FleetResponse> navigateFleet(@Valid @RequestBody FleetRequest request) {
+        FleetResponse response = hooverService.navigate(request);
+        return ResponseEntity.ok(response);
+    }
+
+    @Operation(
+            summary = "Navigate the hoover in a batch of rooms",
+            description = "Runs independent navigations in parallel and returns their results in the order of the requests. "
+                    + "A failing navigation gets its own error entry instead of failing the batch.",
+            requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    description = "Array of hoover requests.",
+                    content = @Content(
+                            mediaType = "application/json",
+                            examples = {
+                                    @ExampleObject(
+                                            name = "Hoover Batch Request Example",
+                                            summary = "Example of Hoover Batch Request",
+                                            value = JsonExamples.HOOVER_BATCH_REQUEST_JSON
+                                    )
+                            }
+                    )
+            )
+    )
+    @ApiResponse(
+            responseCode = "200",
+            description = "Batch completed, each item holding either a result or an error",
+            content = @Content(
+                    mediaType = "application/json",
+                    examples = {
+                            @ExampleObject(
+                                    name = "Hoover Batch Response Example",
+                                    summary = "Example of Hoover Batch Response",
+                                    value = JsonExamples.HOOVER_BATCH_RESPONSE_JSON
+                            )
+                    }
+            )
+    )
+    @PostMapping("/navigate/batch")
+    public ResponseEntity<List<BatchItemResult>> navigateBatch(@RequestBody List<HooverRequest> requests) {
+        List<BatchItemResult> results = batchNavigationService.navigate(requests);
+        return ResponseEntity.ok(results);
+    }
+
+    @Operation(
+            summary = "Navigate the hoover in a stream of rooms",
+            description = "Reads one JSON request per line and writes one result per line, in the order of the requests, "
+                    + "while the stream is still being read. Navigations run in parallel, with at most "
+                    + "hoover.batch.max-in-flight of them pending; beyond that, reading waits for the results to be written.",
+            requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    description = "Hoover requests, one per line.",
+                    content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE)
+            )
+    )
+    @PostMapping(value = "/navigate/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public void navigateBatchStream(InputStream body, HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        batchNavigationService.navigate(body, response.getOutputStream());
+    }
 }
@@ -0,0 +1,67 @@
+package com.rationaldata.robotic_hoover.controller;
+
+import com.rationaldata.robotic_hoover.dto.HooverStreamHeader;
+import com.rationaldata.robotic_hoover.dto.RoomSessionState;
+import com.rationaldata.robotic_hoover.service.RoomSessionService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.ExampleObject;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+
+/**
+ * Controller exposing room sessions, for robots reporting their moves in increments: the room is sent once,
+ * then each fragment of instructions moves the hoover on from where the previous one left it.
+ */
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/hoover/sessions")
+public class RoomSessionController {
+
+    private final RoomSessionService roomSessionService;
+
+    @Operation(
+            summary = "Open a room session",
+            description = "Stores the room size, initial position and patches, and returns the id of the session "
+                    + "the instruction fragments are posted to. Idle sessions expire."
+    )
+    @PostMapping
+    public ResponseEntity<RoomSessionState> create(@Valid @RequestBody HooverStreamHeader room) {
+        RoomSessionState state = roomSessionService.create(room);
+        return ResponseEntity.created(URI.create("/hoover/sessions/" + state.getSessionId())).body(state);
+    }
+
+    @Operation(
+            summary = "Submit instructions to a room session",
+            description = "Moves the hoover of the session with the next fragment of instructions and returns its state. "
+                    + "A fragment with an invalid character is rejected as a whole.",
+            requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    description = "The instruction fragment.",
+                    content = @Content(
+                            mediaType = "text/plain",
+                            examples = @ExampleObject(name = "Instruction Fragment Example", value = "NNESEESWNWW")
+                    )
+            )
+    )
+    @PostMapping("/{sessionId}/instructions")
+    public ResponseEntity<RoomSessionState> advance(@PathVariable String sessionId, @RequestBody byte[] instructions) {
+        return ResponseEntity.ok(roomSessionService.advance(sessionId, instructions));
+    }
+
+    @Operation(summary = "Read the state of a room session")
+    @GetMapping("/{sessionId}")
+    public ResponseEntity<RoomSessionState> get(@PathVariable String sessionId) {
+        return ResponseEntity.ok(roomSessionService.get(sessionId));
+    }
+
+    @Operation(summary = "Close a room session")
+    @DeleteMapping("/{sessionId}")
+    public ResponseEntity<Void> delete(@PathVariable String sessionId) {
+        roomSessionService.delete(sessionId);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,29 @@
+package com.rationaldata.robotic_hoover.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.rationaldata.robotic_hoover.exception.ErrorResponse;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of one navigation of a batch: either its response or the error it failed with.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchItemResult {
+
+    private HooverResponse result;
+
+    private ErrorResponse error;
+
+    public static BatchItemResult success(HooverResponse result) {
+        return new BatchItemResult(result, null);
+    }
+
+    public static BatchItemResult failure(ErrorResponse error) {
+        return new BatchItemResult(null, error);
+    }
+}
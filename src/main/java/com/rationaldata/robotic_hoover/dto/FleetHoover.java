@@ -0,0 +1,25 @@
+package com.rationaldata.robotic_hoover.dto;
+
+import com.rationaldata.robotic_hoover.validation.ValidInstructions;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One hoover of a {@link FleetRequest}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FleetHoover {
+
+    @NotNull(message = "Initial position cannot be null")
+    @Size(min = 2, max = 2, message = "Initial position must be an array of exactly 2 integers [x, y]")
+    private int[] coords; // array [x, y]
+
+    @NotNull(message = "Instructions cannot be null")
+    @ValidInstructions
+    private String instructions;
+}
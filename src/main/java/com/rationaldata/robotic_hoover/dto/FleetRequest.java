@@ -0,0 +1,45 @@
+package com.rationaldata.robotic_hoover.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.rationaldata.robotic_hoover.room.PreparedRoom;
+import com.rationaldata.robotic_hoover.validation.PatchArity;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * Several hoovers cleaning the same room: the room and its patches of a {@link HooverRequest}, with the start
+ * and the instructions of every hoover.
+ */
+@Data
+@NoArgsConstructor
+public class FleetRequest {
+
+    @NotNull(message = "Room size cannot be null")
+    @Size(min = 2, max = 2, message = "Room size must be an array of exactly 2 integers [x, y]")
+    private int[] roomSize; // array [x, y]
+
+    @NotEmpty(message = "Patches list cannot be empty")
+    @PatchArity
+    private List<int[]> patches; // List of arrays [[x1, y1], [x2, y2], ...]
+
+    @NotEmpty(message = "Hoovers list cannot be empty")
+    @Size(max = 1_024, message = "A fleet can contain at most 1024 hoovers")
+    private List<@Valid @NotNull(message = "Hoover cannot be null") FleetHoover> hoovers;
+
+    /**
+     * The room prepared while validating this request, not part of the payload.
+     * Set by {@link com.rationaldata.robotic_hoover.validation.HooverRequestValidator}.
+     */
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private PreparedRoom preparedRoom;
+}
@@ -0,0 +1,21 @@
+package com.rationaldata.robotic_hoover.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Outcome of a {@link FleetRequest}: the final position and the patches credited to every hoover, in the order
+ * of the request, and the number of patches cleaned by the whole fleet.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FleetResponse {
+
+    private List<HooverResponse> hoovers;
+
+    private Integer patches;
+}
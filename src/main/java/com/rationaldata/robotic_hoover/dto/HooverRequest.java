@@ -1,11 +1,16 @@
 package com.rationaldata.robotic_hoover.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.rationaldata.robotic_hoover.room.PreparedRoom;
+import com.rationaldata.robotic_hoover.validation.PatchArity;
+import com.rationaldata.robotic_hoover.validation.ValidInstructions;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
-import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.util.List;
 
@@ -22,9 +27,19 @@ public class HooverRequest {
     private int[] coords; // array [x, y]
 
     @NotEmpty(message = "Patches list cannot be empty")
-    private List<@Size(min = 2, max = 2, message = "Each patch must be an array of exactly 2 integers [x, y]") int[]> patches; // List of arrays [[x1, y1], [x2, y2], ...]
+    @PatchArity
+    private List<int[]> patches; // List of arrays [[x1, y1], [x2, y2], ...]
 
     @NotNull(message = "Instructions cannot be null")
-    @Pattern(regexp = "^[NESW]+$", message = "Instructions must only contain the characters N, E, S, W")
+    @ValidInstructions(compressed = true)
     private String instructions;
+
+    /**
+     * The room prepared while validating this request, not part of the payload.
+     * Set by {@link com.rationaldata.robotic_hoover.validation.HooverRequestValidator}.
+     */
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private PreparedRoom preparedRoom;
 }
@@ -0,0 +1,31 @@
+package com.rationaldata.robotic_hoover.dto;
+
+import com.rationaldata.robotic_hoover.validation.PatchArity;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * First line of a streamed navigation: everything of a {@link HooverRequest} but the instructions,
+ * which follow as the rest of the body.
+ */
+@Data
+@NoArgsConstructor
+public class HooverStreamHeader {
+
+    @NotNull(message = "Room size cannot be null")
+    @Size(min = 2, max = 2, message = "Room size must be an array of exactly 2 integers [x, y]")
+    private int[] roomSize; // array [x, y]
+
+    @NotNull(message = "Initial position cannot be null")
+    @Size(min = 2, max = 2, message = "Initial position must be an array of exactly 2 integers [x, y]")
+    private int[] coords; // array [x, y]
+
+    @NotEmpty(message = "Patches list cannot be empty")
+    @PatchArity
+    private List<int[]> patches; // List of arrays [[x1, y1], [x2, y2], ...]
+}
@@ -0,0 +1,231 @@
+package com.rationaldata.robotic_hoover.dto;
+
+import com.rationaldata.robotic_hoover.room.DirectBufferPool;
+import com.rationaldata.robotic_hoover.room.PreparedRoom;
+
+import java.nio.ByteBuffer;
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * Read-only list of patches stored as the {@code long} keys of {@link PreparedRoom#key(int, int)}, filled while
+ * a request is parsed. It avoids one array object per patch, and keeps the bounds and arity of the patches
+ * seen so far so that they can be validated without walking the list again.
+ * <p>
+ * Given a {@link DirectBufferPool}, the keys move from the heap into a pooled direct buffer once the list reaches
+ * {@code offHeapMinPatches} patches. Validation then hands that buffer over to the {@link PreparedRoom}, so the
+ * patches of a huge request never sit on the heap; a list dropped before, such as that of an invalid request,
+ * leaves its buffer to the garbage collector instead of the pool.
+ * <p>
+ * {@link #get(int)} returns a fresh [x, y] array for callers of the {@link java.util.List} interface;
+ * hot paths should read {@link #x(int)} and {@link #y(int)} instead.
+ */
+public class PackedPatches extends AbstractList<int[]> implements RandomAccess {
+
+    private static final int MAX_OFF_HEAP_PATCHES = Integer.MAX_VALUE / Long.BYTES;
+
+    private final DirectBufferPool pool;
+    private final int offHeapMinPatches;
+    private long[] keys;
+    private ByteBuffer buffer;
+    private int capacity;
+    private int size;
+    private boolean sorted = true;
+    private boolean handedOver;
+    private boolean validArity = true;
+    private int minCoordinate = Integer.MAX_VALUE;
+    private int maxX = Integer.MIN_VALUE;
+    private int maxY = Integer.MIN_VALUE;
+
+    public PackedPatches(int expectedSize) {
+        this(expectedSize, null, 0);
+    }
+
+    /**
+     * @param expectedSize      The number of patches expected.
+     * @param pool              The pool of the direct buffer, or {@code null} to keep the keys on the heap.
+     * @param offHeapMinPatches The number of patches from which the keys move off the heap, 0 for never.
+     */
+    public PackedPatches(int expectedSize, DirectBufferPool pool, int offHeapMinPatches) {
+        this.pool = pool;
+        this.offHeapMinPatches = offHeapMinPatches;
+        if (movesOffHeap(expectedSize)) {
+            growOffHeap(expectedSize);
+        } else {
+            this.keys = new long[Math.max(1, expectedSize)];
+            this.capacity = keys.length;
+        }
+    }
+
+    /**
+     * Appends a patch of exactly two coordinates.
+     */
+    public void add(int x, int y) {
+        if (size == capacity) {
+            grow();
+        }
+        long key = PreparedRoom.key(x, y);
+        if (size > 0 && key < key(size - 1)) {
+            sorted = false;
+        }
+        if (buffer == null) {
+            keys[size] = key;
+        } else {
+            buffer.putLong(size * Long.BYTES, key);
+        }
+        size++;
+        minCoordinate = Math.min(minCoordinate, Math.min(x, y));
+        maxX = Math.max(maxX, x);
+        maxY = Math.max(maxY, y);
+    }
+
+    /**
+     * Records a patch that was not made of exactly two coordinates, such as {@code [1]} or {@code null}.
+     * The patch is kept as (0, 0) so that the list keeps its size, and the list reports an invalid arity.
+     */
+    public void addInvalid() {
+        validArity = false;
+        add(0, 0);
+    }
+
+    public int x(int index) {
+        return PreparedRoom.x(key(index));
+    }
+
+    public int y(int index) {
+        return PreparedRoom.y(key(index));
+    }
+
+    /**
+     * @return The patch at the given index packed with {@link PreparedRoom#key(int, int)}.
+     * @throws IllegalStateException if the keys were handed over to a prepared room.
+     */
+    public long key(int index) {
+        if (handedOver) {
+            throw new IllegalStateException("The patches were handed over to their prepared room");
+        }
+        return buffer == null ? keys[index] : buffer.getLong(index * Long.BYTES);
+    }
+
+    @Override
+    public int[] get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return new int[]{x(index), y(index)};
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return {@code true} if every patch had exactly two coordinates.
+     */
+    public boolean hasValidArity() {
+        return validArity;
+    }
+
+    /**
+     * @return The lowest X or Y coordinate of all patches, {@link Integer#MAX_VALUE} if there are none.
+     */
+    public int minCoordinate() {
+        return minCoordinate;
+    }
+
+    /**
+     * @return The highest X coordinate of all patches, {@link Integer#MIN_VALUE} if there are none.
+     */
+    public int maxX() {
+        return maxX;
+    }
+
+    /**
+     * @return The highest Y coordinate of all patches, {@link Integer#MIN_VALUE} if there are none.
+     */
+    public int maxY() {
+        return maxY;
+    }
+
+    /**
+     * @return {@code true} if the patches were added in ascending key order, row by row.
+     */
+    public boolean isSorted() {
+        return sorted;
+    }
+
+    /**
+     * @return {@code true} if the keys are held in a pooled direct buffer, or were handed over from one.
+     */
+    public boolean isOffHeap() {
+        return buffer != null || handedOver;
+    }
+
+    /**
+     * @return The pool of the direct buffer, {@code null} if the list has none.
+     */
+    public DirectBufferPool pool() {
+        return pool;
+    }
+
+    /**
+     * Hands the direct buffer over to the caller, which becomes responsible for giving it back to the pool.
+     * The keys cannot be read from the list afterwards, only its size and recorded bounds.
+     *
+     * @return The buffer in native byte order, positioned at 0 with the keys of the {@link #size()} patches remaining.
+     * @throws IllegalStateException if the keys are on the heap or were already handed over.
+     */
+    public ByteBuffer handOverKeys() {
+        if (buffer == null) {
+            throw new IllegalStateException(handedOver ? "The patches were handed over to their prepared room"
+                    : "The patches are on the heap");
+        }
+        ByteBuffer keyBuffer = buffer.clear().limit(size * Long.BYTES);
+        buffer = null;
+        keys = null;
+        handedOver = true;
+        return keyBuffer;
+    }
+
+    private boolean movesOffHeap(long patches) {
+        return pool != null && offHeapMinPatches > 0 && patches >= offHeapMinPatches;
+    }
+
+    private void grow() {
+        if (handedOver) {
+            throw new IllegalStateException("The patches were handed over to their prepared room");
+        }
+        long grown = (long) capacity * 2;
+        if (buffer != null || movesOffHeap(grown)) {
+            if (capacity >= MAX_OFF_HEAP_PATCHES) {
+                throw new IllegalArgumentException("More than " + MAX_OFF_HEAP_PATCHES + " patches");
+            }
+            growOffHeap(Math.min(grown, MAX_OFF_HEAP_PATCHES));
+        } else {
+            long[] grownKeys = new long[(int) Math.min(grown, Integer.MAX_VALUE - 8)];
+            System.arraycopy(keys, 0, grownKeys, 0, size);
+            keys = grownKeys;
+            capacity = grownKeys.length;
+        }
+    }
+
+    /**
+     * Moves the keys into a pooled buffer of at least {@code minCapacity} keys, using all of the buffer taken.
+     */
+    private void growOffHeap(long minCapacity) {
+        ByteBuffer grown = pool.acquire(Math.max(1, minCapacity) * Long.BYTES);
+        grown.limit(grown.capacity() & -Long.BYTES);
+        if (buffer != null) {
+            grown.put(0, buffer, 0, size * Long.BYTES);
+            pool.release(buffer);
+        } else {
+            for (int i = 0; i < size; i++) {
+                grown.putLong(i * Long.BYTES, keys[i]);
+            }
+            keys = null;
+        }
+        buffer = grown;
+        capacity = grown.limit() / Long.BYTES;
+    }
+}
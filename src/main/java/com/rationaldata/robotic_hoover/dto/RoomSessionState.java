@@ -0,0 +1,23 @@
+package com.rationaldata.robotic_hoover.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Current state of a room session: where the hoover stands and how many patches it cleaned
+ * with the instructions submitted so far.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoomSessionState {
+
+    private String sessionId;
+
+    private int[] coords; // array [x, y]
+
+    private Integer patches;
+
+    private long moves;
+}
@@ -0,0 +1,42 @@
+package com.rationaldata.robotic_hoover.engine;
+
+/**
+ * Summarizes a block of instructions for the {@link VectorEngine}: its displacement, and the range
+ * its unclamped prefix displacements span, which tells whether the block can reach a wall.
+ */
+interface BlockKernel {
+
+    int DX = 0;
+    int DY = 1;
+    int MIN_DX = 2;
+    int MAX_DX = 3;
+    int MIN_DY = 4;
+    int MAX_DY = 5;
+    int SUMMARY_LENGTH = 6;
+
+    /**
+     * @param block   The instructions, as copied out of the instruction string.
+     * @param length  The number of characters of the block to summarize.
+     * @param summary Receives the displacement at {@link #DX} and {@link #DY}, and the minimum and maximum of the
+     *                prefix displacements, the empty prefix included, at {@link #MIN_DX} to {@link #MAX_DY}.
+     * @return The index of the first character that is not an instruction, or -1 if the block is valid.
+     */
+    int summarize(char[] block, int length, int[] summary);
+
+    /**
+     * Returns the vectorized kernel when the {@code jdk.incubator.vector} module is part of the boot layer,
+     * that is when the JVM runs with {@code --add-modules jdk.incubator.vector}, and the scalar one otherwise.
+     * The vectorized kernel is loaded reflectively so that its class is never resolved without the module.
+     */
+    static BlockKernel best() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return new ScalarBlockKernel();
+        }
+        try {
+            return (BlockKernel) Class.forName("com.rationaldata.robotic_hoover.engine.VectorBlockKernel")
+                    .getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return new ScalarBlockKernel();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.rationaldata.robotic_hoover.engine;
+
+/**
+ * Movement along one axis of a bounded room, as the function {@code p -> min(max, max(min, p + offset))}.
+ * <p>
+ * A single move towards a wall is such a function, and so is the composition of any two of them,
+ * which lets a whole instruction string be reduced to one translation per axis in any grouping.
+ *
+ * @param offset The unclamped displacement.
+ * @param min    The lowest position the movement can end on.
+ * @param max    The highest position the movement can end on.
+ */
+public record ClampedTranslation(long offset, long min, long max) {
+
+    /**
+     * Bound standing for "no wall reached", small enough for offsets to be added without overflow.
+     */
+    private static final long UNBOUNDED = Long.MAX_VALUE / 4;
+
+    public static final ClampedTranslation IDENTITY = new ClampedTranslation(0, -UNBOUNDED, UNBOUNDED);
+
+    /**
+     * @return The translation of {@code steps} moves towards the upper wall at {@code wall}.
+     */
+    public static ClampedTranslation forward(long steps, long wall) {
+        return new ClampedTranslation(steps, -UNBOUNDED, wall);
+    }
+
+    /**
+     * @return The translation of {@code steps} moves towards the lower wall at 0.
+     */
+    public static ClampedTranslation backward(long steps) {
+        return new ClampedTranslation(-steps, 0, UNBOUNDED);
+    }
+
+    /**
+     * @param position The position before the movement.
+     * @return The position after the movement.
+     */
+    public long apply(long position) {
+        return Math.min(max, Math.max(min, position + offset));
+    }
+
+    /**
+     * Composes this movement with the one following it.
+     *
+     * @param next The movement applied after this one.
+     * @return The translation equivalent to this movement followed by {@code next}.
+     */
+    public ClampedTranslation andThen(ClampedTranslation next) {
+        long low = min + next.offset;
+        long high = max + next.offset;
+        return new ClampedTranslation(
+                offset + next.offset,
+                Math.min(Math.max(low, next.min), next.max),
+                Math.max(Math.min(high, next.max), next.min));
+    }
+}
@@ -0,0 +1,337 @@
+package com.rationaldata.robotic_hoover.engine;
+
+import com.rationaldata.robotic_hoover.exception.InvalidInstructionsException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Instructions written with repetitions, parsed into a tree that the {@link RepetitionEngine} runs without
+ * expanding it. An instruction or a parenthesized group may be followed by a repeat count, and whitespace is
+ * ignored, so a boustrophedon sweep of a 1000 x 10 room reads {@code (N10 E S10 E)500}:
+ * <pre>
+ *     sequence := (item | whitespace)*
+ *     item     := ('N' | 'E' | 'S' | 'W' | '(' sequence ')') count?
+ *     count    := [0-9]+
+ * </pre>
+ * Plain {@code [NESW]+} instructions are valid compressed instructions too, but are better left to the other engines.
+ */
+public final class CompressedInstructions {
+
+    /**
+     * The deepest nesting of groups accepted, which bounds the recursion of parsing and simulation.
+     */
+    static final int MAX_DEPTH = 64;
+
+    /**
+     * Groups expanding to at most this many runs keep their path, to be replayed in closed form.
+     */
+    static final int MAX_PATH_RUNS = 4_096;
+
+    /**
+     * The longest expansion accepted, far below the point where positions and offsets could overflow a {@code long}.
+     */
+    static final long MAX_EXPANDED_LENGTH = 1L << 60;
+
+    private final Group program;
+
+    private CompressedInstructions(Group program) {
+        this.program = program;
+    }
+
+    /**
+     * Parses compressed instructions.
+     *
+     * @param instructions The instructions.
+     * @return The parsed instructions.
+     * @throws InvalidInstructionsException if they do not follow the grammar, with the offset of the error, or
+     *         expand to more than {@value #MAX_EXPANDED_LENGTH} moves.
+     */
+    public static CompressedInstructions parse(CharSequence instructions) {
+        Parser parser = new Parser(instructions);
+        List<Node> items = parser.sequence(0);
+        if (parser.offset < instructions.length()) {
+            throw parser.error("unmatched ')'");
+        }
+        Group program = Group.of(items, 1);
+        if (program.length == 0) {
+            throw parser.error("no move");
+        }
+        return new CompressedInstructions(program);
+    }
+
+    /**
+     * @return The whole instructions, as a group repeated once.
+     */
+    Group program() {
+        return program;
+    }
+
+    /**
+     * @return The number of moves the instructions expand to.
+     */
+    public long expandedLength() {
+        return program.length;
+    }
+
+    /**
+     * A node of the parsed instructions.
+     */
+    sealed interface Node permits Run, Group {
+
+        /**
+         * @return The number of moves of the node once expanded.
+         */
+        long length();
+    }
+
+    /**
+     * A run of identical moves.
+     *
+     * @param direction The direction of the moves, as decoded by {@link InstructionDecoder}.
+     * @param length    The number of moves.
+     */
+    record Run(int direction, long length) implements Node {
+    }
+
+    /**
+     * A sequence of nodes repeated a number of times, with what one iteration does when no wall is in the way:
+     * its displacement, the lowest and highest offsets from its start it reaches on each axis, and when it expands
+     * to at most {@value #MAX_PATH_RUNS} runs, the segments it covers.
+     */
+    static final class Group implements Node {
+
+        final Node[] body;
+        final long count;
+        final long length;
+        final long dx;
+        final long dy;
+        final long minX;
+        final long maxX;
+        final long minY;
+        final long maxY;
+        /**
+         * The runs of one iteration once expanded, each as {@code [direction, x, y, length]} with the offset from
+         * the start of the iteration the run starts from, or {@code null} if there are too many of them.
+         */
+        final long[][] path;
+
+        private Group(Node[] body, long count, long length, long dx, long dy, long minX, long maxX, long minY,
+                      long maxY, long[][] path) {
+            this.body = body;
+            this.count = count;
+            this.length = length;
+            this.dx = dx;
+            this.dy = dy;
+            this.minX = minX;
+            this.maxX = maxX;
+            this.minY = minY;
+            this.maxY = maxY;
+            this.path = path;
+        }
+
+        static Group of(List<Node> items, long count) {
+            long x = 0;
+            long y = 0;
+            long minX = 0;
+            long maxX = 0;
+            long minY = 0;
+            long maxY = 0;
+            long length = 0;
+            List<long[]> path = new ArrayList<>();
+            for (Node item : items) {
+                length += item.length();
+                if (length > MAX_EXPANDED_LENGTH) {
+                    throw new InvalidInstructionsException("Invalid compressed instructions: instructions expanding to "
+                            + "more than " + MAX_EXPANDED_LENGTH + " moves");
+                }
+                if (item instanceof Run run) {
+                    if (path != null && run.length() > 0) {
+                        path.add(new long[]{run.direction(), x, y, run.length()});
+                    }
+                    x += InstructionDecoder.DX[run.direction()] * run.length();
+                    y += InstructionDecoder.DY[run.direction()] * run.length();
+                    minX = Math.min(minX, x);
+                    maxX = Math.max(maxX, x);
+                    minY = Math.min(minY, y);
+                    maxY = Math.max(maxY, y);
+                } else if (item instanceof Group group && group.count > 0) {
+                    long lastX = x + (group.count - 1) * group.dx;
+                    long lastY = y + (group.count - 1) * group.dy;
+                    minX = Math.min(minX, Math.min(x, lastX) + group.minX);
+                    maxX = Math.max(maxX, Math.max(x, lastX) + group.maxX);
+                    minY = Math.min(minY, Math.min(y, lastY) + group.minY);
+                    maxY = Math.max(maxY, Math.max(y, lastY) + group.maxY);
+                    if (path != null && group.path != null
+                            && path.size() + (long) group.path.length * group.count <= MAX_PATH_RUNS) {
+                        for (long i = 0; i < group.count; i++) {
+                            for (long[] run : group.path) {
+                                path.add(new long[]{run[0], x + i * group.dx + run[1], y + i * group.dy + run[2], run[3]});
+                            }
+                        }
+                    } else {
+                        path = null;
+                    }
+                    x += group.count * group.dx;
+                    y += group.count * group.dy;
+                }
+                if (path != null && path.size() > MAX_PATH_RUNS) {
+                    path = null;
+                }
+            }
+            return new Group(items.toArray(Node[]::new), count, length, x, y, minX, maxX, minY, maxY,
+                    path == null ? null : path.toArray(long[][]::new));
+        }
+
+        /**
+         * A group of one iteration standing for the moves it was seen to make, so that the iterations following it
+         * can be fast-forwarded while each of them makes the same moves, translated.
+         *
+         * @param path The runs of the moves, as in {@link #path}.
+         * @param dx   The X displacement of the iteration.
+         * @param dy   The Y displacement of the iteration.
+         */
+        static Group ofPath(List<long[]> path, long dx, long dy) {
+            long minX = 0;
+            long maxX = 0;
+            long minY = 0;
+            long maxY = 0;
+            long length = 0;
+            for (long[] run : path) {
+                int direction = (int) run[0];
+                long endX = run[1] + InstructionDecoder.DX[direction] * run[3];
+                long endY = run[2] + InstructionDecoder.DY[direction] * run[3];
+                minX = Math.min(minX, Math.min(run[1], endX));
+                maxX = Math.max(maxX, Math.max(run[1], endX));
+                minY = Math.min(minY, Math.min(run[2], endY));
+                maxY = Math.max(maxY, Math.max(run[2], endY));
+                length += run[3];
+            }
+            return new Group(new Node[0], 1, length, dx, dy, minX, maxX, minY, maxY, path.toArray(long[][]::new));
+        }
+
+        @Override
+        public long length() {
+            return count * length;
+        }
+
+        /**
+         * Finds in closed form how many of the next iterations stay clear of the walls, so that each is the previous
+         * one translated.
+         *
+         * @param x          The X coordinate the first of the iterations starts from.
+         * @param y          The Y coordinate the first of the iterations starts from.
+         * @param iterations The number of iterations left, at least 1.
+         * @param roomWidth  The width of the room.
+         * @param roomHeight The height of the room.
+         * @return The largest {@code k <= iterations} such that no move of the first {@code k} iterations is clamped.
+         */
+        long iterationsInside(long x, long y, long iterations, int roomWidth, int roomHeight) {
+            if (x + minX < 0 || x + maxX > roomWidth || y + minY < 0 || y + maxY > roomHeight) {
+                return 0;
+            }
+            return Math.min(iterations, Math.min(iterationsInside(x, dx, minX, maxX, roomWidth),
+                    iterationsInside(y, dy, minY, maxY, roomHeight)));
+        }
+
+        /**
+         * The number of iterations staying within {@code [0, size]} along one axis, the first one being known to.
+         */
+        private static long iterationsInside(long start, long step, long min, long max, long size) {
+            if (step > 0) {
+                return (size - max - start) / step + 1;
+            }
+            if (step < 0) {
+                return (start + min) / -step + 1;
+            }
+            return Long.MAX_VALUE;
+        }
+    }
+
+    private static final class Parser {
+
+        private final CharSequence input;
+        private int offset;
+
+        Parser(CharSequence input) {
+            this.input = input;
+        }
+
+        List<Node> sequence(int depth) {
+            if (depth > MAX_DEPTH) {
+                throw error("groups nested deeper than " + MAX_DEPTH);
+            }
+            List<Node> items = new ArrayList<>();
+            while (offset < input.length()) {
+                char c = input.charAt(offset);
+                if (Character.isWhitespace(c)) {
+                    offset++;
+                } else if (c == ')') {
+                    break;
+                } else if (c == '(') {
+                    int open = offset++;
+                    List<Node> body = sequence(depth + 1);
+                    if (offset == input.length()) {
+                        offset = open;
+                        throw error("unmatched '('");
+                    }
+                    offset++;
+                    items.add(checked(Group.of(body, count())));
+                } else {
+                    int direction = InstructionDecoder.decode(c);
+                    if (direction == InstructionDecoder.INVALID) {
+                        throw new InvalidInstructionsException(offset, c);
+                    }
+                    int start = offset;
+                    do {
+                        offset++;
+                    } while (offset < input.length() && input.charAt(offset) == c);
+                    long length = offset - start - 1 + count();
+                    append(items, new Run(direction, length));
+                }
+            }
+            return items;
+        }
+
+        /**
+         * Reads the repeat count following an item, 1 if there is none.
+         */
+        private long count() {
+            int start = offset;
+            long count = 0;
+            while (offset < input.length() && input.charAt(offset) >= '0' && input.charAt(offset) <= '9') {
+                count = count * 10 + (input.charAt(offset++) - '0');
+                if (count > MAX_EXPANDED_LENGTH) {
+                    offset = start;
+                    throw error("repeat count above " + MAX_EXPANDED_LENGTH);
+                }
+            }
+            return offset == start ? 1 : count;
+        }
+
+        /**
+         * Appends a run, merging it into the previous one when they go the same way.
+         */
+        private void append(List<Node> items, Run run) {
+            if (!items.isEmpty() && items.getLast() instanceof Run last && last.direction() == run.direction()) {
+                if (last.length() > MAX_EXPANDED_LENGTH - run.length()) {
+                    throw error("instructions expanding to more than " + MAX_EXPANDED_LENGTH + " moves");
+                }
+                items.set(items.size() - 1, new Run(run.direction(), last.length() + run.length()));
+            } else {
+                items.add(run);
+            }
+        }
+
+        private Group checked(Group group) {
+            if (group.count > 0 && group.length > MAX_EXPANDED_LENGTH / group.count) {
+                throw error("instructions expanding to more than " + MAX_EXPANDED_LENGTH + " moves");
+            }
+            return group;
+        }
+
+        InvalidInstructionsException error(String reason) {
+            return new InvalidInstructionsException("Invalid compressed instructions: " + reason + " at offset " + offset);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.rationaldata.robotic_hoover.engine;
+
+import com.rationaldata.robotic_hoover.dto.FleetHoover;
+import com.rationaldata.robotic_hoover.dto.HooverResponse;
+import com.rationaldata.robotic_hoover.room.PatchIndex;
+import com.rationaldata.robotic_hoover.room.PatchWords;
+import com.rationaldata.robotic_hoover.room.PreparedRoom;
+import com.rationaldata.robotic_hoover.room.RoomGridFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Engine navigating several hoovers in the same room at once, one task per hoover on the {@link ForkJoinPool}.
+ * <p>
+ * Each hoover runs its own {@link TraceEngine} navigation over an index of the patches shared by the fleet, and
+ * claims every patch it reaches in lock-free {@link PatchWords} holding one word per patch, kept off the heap with
+ * the index for an off-heap room: the step it reached the patch at
+ * in the high 32 bits and the hoover's index in the low 32 bits. A claim replaces the current one by compare-and-set
+ * only while it is lower, so once every hoover is done each patch holds its earliest claim: the patch is credited
+ * to the hoover that reached it in the fewest steps, and on a tie to the hoover listed first, whatever the order
+ * the tasks actually ran in.
+ */
+@Component
+@RequiredArgsConstructor
+public class FleetEngine {
+
+    private static final long UNCLAIMED = Long.MAX_VALUE;
+
+    private final TraceEngine traceEngine;
+    private final RoomGridFactory roomGridFactory;
+    private final ForkJoinPool navigationPool;
+
+    /**
+     * @param room    The {@link PreparedRoom} of the validated fleet; its start is ignored.
+     * @param hoovers The validated hoovers, each starting within the room.
+     * @return One {@link HooverResponse} per hoover, in order, with its final position and the patches credited to it.
+     */
+    public List<HooverResponse> navigate(PreparedRoom room, List<FleetHoover> hoovers) {
+        List<int[]> finalCoords = new ArrayList<>(hoovers.size());
+        int[] credited = new int[hoovers.size()];
+        try (PatchIndex index = roomGridFactory.openIndex(room);
+             PatchWords claims = index.openWords(room.patchCount())) {
+            claims.fill(UNCLAIMED);
+
+            List<ForkJoinTask<HooverResponse>> tasks = new ArrayList<>(hoovers.size());
+            for (int agent = 0; agent < hoovers.size(); agent++) {
+                FleetHoover hoover = hoovers.get(agent);
+                Claimant claimant = new Claimant(claims, agent);
+                tasks.add(navigationPool.submit(() -> traceEngine.navigate(index, hoover.getCoords()[0],
+                        hoover.getCoords()[1], hoover.getInstructions(), claimant)));
+            }
+
+            // Every hoover is done with the index and the claims before a failure closes them
+            for (ForkJoinTask<HooverResponse> task : tasks) {
+                task.quietlyJoin();
+            }
+            for (ForkJoinTask<HooverResponse> task : tasks) {
+                finalCoords.add(task.join().getCoords());
+            }
+            for (int i = 0; i < claims.length(); i++) {
+                long claim = claims.getVolatile(i);
+                if (claim != UNCLAIMED) {
+                    credited[(int) claim]++;
+                }
+            }
+        }
+
+        List<HooverResponse> responses = new ArrayList<>(hoovers.size());
+        for (int agent = 0; agent < hoovers.size(); agent++) {
+            responses.add(new HooverResponse(finalCoords.get(agent), credited[agent]));
+        }
+        return responses;
+    }
+
+    /**
+     * Claims the patches one hoover cleans, at the step it cleaned them.
+     */
+    private record Claimant(PatchWords claims, int agent) implements TraceListener {
+
+        @Override
+        public void onStart(int x, int y) {
+        }
+
+        @Override
+        public void onRun(int direction, int steps, int blocked) {
+        }
+
+        @Override
+        public void onCleaned(int patch, int x, int y, int step) {
+            long claim = (long) step << 32 | agent;
+            long current = claims.getVolatile(patch);
+            while (claim < current && !claims.compareAndSet(patch, current, claim)) {
+                current = claims.getVolatile(patch);
+            }
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.rationaldata.robotic_hoover.engine;
+
+import com.rationaldata.robotic_hoover.dto.HooverResponse;
+import com.rationaldata.robotic_hoover.exception.InvalidInstructionsException;
+import com.rationaldata.robotic_hoover.room.RoomGrid;
+
+/**
+ * Incremental simulation fed with the instructions piece by piece, for callers that never hold
+ * the whole instruction string. Each piece is validated and simulated as it arrives; a run of identical
+ * instructions spanning several pieces is kept pending and moved in one go, like in {@link RunLengthEngine}.
+ */
+public class HooverCursor {
+
+    private final RoomGrid room;
+    private final int roomWidth;
+    private final int roomHeight;
+    private final int[] position;
+    private int cleanedPatches;
+    private long offset;
+    private long moveCount;
+    private byte runInstruction = 'N';
+    private int runDirection = InstructionDecoder.NORTH;
+    private long runSteps;
+
+    /**
+     * Places the hoover at its initial position, cleaning the patch it stands on.
+     *
+     * @param room       The grid holding the patches, as created for segments by the grid factory.
+     * @param roomWidth  The width of the room.
+     * @param roomHeight The height of the room.
+     * @param x          The initial X coordinate of the hoover.
+     * @param y          The initial Y coordinate of the hoover.
+     */
+    public HooverCursor(RoomGrid room, int roomWidth, int roomHeight, int x, int y) {
+        this.room = room;
+        this.roomWidth = roomWidth;
+        this.roomHeight = roomHeight;
+        this.position = new int[]{x, y};
+        this.cleanedPatches = room.clean(x, y) ? 1 : 0;
+    }
+
+    private HooverCursor(RoomGrid room, int roomWidth, int roomHeight, int x, int y, int cleanedPatches, long moveCount) {
+        this.room = room;
+        this.roomWidth = roomWidth;
+        this.roomHeight = roomHeight;
+        this.position = new int[]{x, y};
+        this.cleanedPatches = cleanedPatches;
+        this.moveCount = moveCount;
+        this.offset = moveCount;
+    }
+
+    /**
+     * Resumes a navigation from a saved state, without cleaning the tile the hoover stands on again.
+     *
+     * @param room           The grid holding the patches left, the cleaned ones already removed.
+     * @param roomWidth      The width of the room.
+     * @param roomHeight     The height of the room.
+     * @param x              The saved X coordinate of the hoover.
+     * @param y              The saved Y coordinate of the hoover.
+     * @param cleanedPatches The number of patches cleaned before the state was saved.
+     * @param moveCount      The number of moves processed before the state was saved.
+     * @return A cursor continuing from the saved state.
+     */
+    public static HooverCursor resume(RoomGrid room, int roomWidth, int roomHeight, int x, int y,
+                                      int cleanedPatches, long moveCount) {
+        return new HooverCursor(room, roomWidth, roomHeight, x, y, cleanedPatches, moveCount);
+    }
+
+    /**
+     * Validates and simulates the next piece of instructions. Line breaks are skipped so that
+     * text bodies ending with a newline are accepted.
+     *
+     * @param buffer The buffer holding the instructions as ASCII bytes.
+     * @param from   The index of the first byte to process, inclusive.
+     * @param to     The index of the last byte to process, exclusive.
+     * @throws InvalidInstructionsException if a byte is not one of 'N', 'E', 'S', 'W', with its offset in the stream.
+     */
+    public void advance(byte[] buffer, int from, int to) {
+        for (int i = from; i < to; i++) {
+            byte instruction = buffer[i];
+            if (instruction == runInstruction) {
+                runSteps++;
+                moveCount++;
+                continue;
+            }
+            int direction = InstructionDecoder.decode(instruction);
+            if (direction != InstructionDecoder.INVALID) {
+                moveRun();
+                runInstruction = instruction;
+                runDirection = direction;
+                runSteps = 1;
+                moveCount++;
+            } else if (instruction != '\n' && instruction != '\r') {
+                throw new InvalidInstructionsException(offset + i - from, instruction & 0xFF);
+            }
+        }
+        offset += to - from;
+    }
+
+    /**
+     * Validates a piece of instructions without simulating it, for callers that must reject a piece as a whole
+     * before {@link #advance(byte[], int, int) advancing} with it. Line breaks are skipped like when advancing.
+     *
+     * @param buffer The buffer holding the instructions as ASCII bytes.
+     * @param from   The index of the first byte to check, inclusive.
+     * @param to     The index of the last byte to check, exclusive.
+     * @return The number of moves of the piece.
+     * @throws InvalidInstructionsException if a byte is not one of 'N', 'E', 'S', 'W', with its offset in the piece.
+     */
+    public static long countMoves(byte[] buffer, int from, int to) {
+        long moves = 0;
+        for (int i = from; i < to; i++) {
+            byte instruction = buffer[i];
+            if (InstructionDecoder.decode(instruction) != InstructionDecoder.INVALID) {
+                moves++;
+            } else if (instruction != '\n' && instruction != '\r') {
+                throw new InvalidInstructionsException(i - from, instruction & 0xFF);
+            }
+        }
+        return moves;
+    }
+
+    /**
+     * Completes the pending run and returns the outcome of the navigation so far.
+     *
+     * @return A {@link HooverResponse} with the current position and the number of cleaned patches.
+     */
+    public HooverResponse toResponse() {
+        moveRun();
+        return new HooverResponse(new int[]{position[0], position[1]}, cleanedPatches);
+    }
+
+    /**
+     * @return The number of moves processed so far, line breaks excluded.
+     */
+    public long getMoveCount() {
+        return moveCount;
+    }
+
+    private void moveRun() {
+        if (runSteps > 0) {
+            cleanedPatches += RunLengthEngine.moveRun(room, runDirection, runSteps, position, roomWidth, roomHeight);
+            runSteps = 0;
+        }
+    }
+}
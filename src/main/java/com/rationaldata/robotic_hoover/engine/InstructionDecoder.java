@@ -0,0 +1,92 @@
+package com.rationaldata.robotic_hoover.engine;
+
+import com.rationaldata.robotic_hoover.exception.InvalidInstructionsException;
+
+import java.util.Arrays;
+
+/**
+ * Decodes instruction characters with a 256-entry table indexed by their Latin-1 code, in place of
+ * a regular expression and a {@code switch} per move. Valid instructions decode to a direction in
+ * {@code 0..3}, whose deltas are {@link #DX} and {@link #DY}; anything else decodes to {@link #INVALID}.
+ * <p>
+ * Strings are read with {@code charAt}, which on the compact Latin-1 strings carrying instructions
+ * is a single byte load, so decoding never copies the instructions.
+ */
+public final class InstructionDecoder {
+
+    public static final int NORTH = 0;
+    public static final int EAST = 1;
+    public static final int SOUTH = 2;
+    public static final int WEST = 3;
+    public static final int INVALID = -1;
+
+    /**
+     * The X delta of a move per direction.
+     */
+    static final int[] DX = {0, 1, 0, -1};
+
+    /**
+     * The Y delta of a move per direction.
+     */
+    static final int[] DY = {1, 0, -1, 0};
+
+    private static final byte[] DIRECTIONS = new byte[256];
+
+    static {
+        Arrays.fill(DIRECTIONS, (byte) INVALID);
+        DIRECTIONS['N'] = NORTH;
+        DIRECTIONS['E'] = EAST;
+        DIRECTIONS['S'] = SOUTH;
+        DIRECTIONS['W'] = WEST;
+    }
+
+    private InstructionDecoder() {
+    }
+
+    /**
+     * @param instruction An instruction character.
+     * @return Its direction, or {@link #INVALID}.
+     */
+    public static int decode(char instruction) {
+        return instruction < 256 ? DIRECTIONS[instruction] : INVALID;
+    }
+
+    /**
+     * @param instruction An instruction as an ASCII byte.
+     * @return Its direction, or {@link #INVALID}.
+     */
+    public static int decode(byte instruction) {
+        return DIRECTIONS[instruction & 0xFF];
+    }
+
+    /**
+     * Decodes the instruction at an index, failing on characters that are not instructions.
+     *
+     * @param instructions The instructions.
+     * @param index        The index of the instruction to decode.
+     * @return The direction of the instruction.
+     * @throws InvalidInstructionsException if the character is not one of 'N', 'E', 'S', 'W', with its offset.
+     */
+    public static int decodeAt(CharSequence instructions, int index) {
+        char instruction = instructions.charAt(index);
+        int direction = decode(instruction);
+        if (direction == INVALID) {
+            throw new InvalidInstructionsException(index, instruction);
+        }
+        return direction;
+    }
+
+    /**
+     * @param instructions The instructions to check.
+     * @return The offset of the first character that is not an instruction, or -1 if there is none.
+     */
+    public static int indexOfInvalid(CharSequence instructions) {
+        int length = instructions.length();
+        for (int i = 0; i < length; i++) {
+            if (decode(instructions.charAt(i)) == INVALID) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,146 @@
+package com.rationaldata.robotic_hoover.engine;
+
+import java.util.Arrays;
+
+/**
+ * An instruction string compiled once for any room and start: its runs of identical instructions, its net
+ * displacement, and the furthest it strays from its start along each axis when no wall stops it.
+ * <p>
+ * The excursions tell in O(1) whether the hoover reaches a wall from a given start, see {@link #staysInside}; when
+ * it does not, every move lands where it is aimed and the engines skip clamping altogether. Programs are immutable
+ * and shared between requests through the {@link com.rationaldata.robotic_hoover.cache.ProgramCache}.
+ */
+public final class InstructionProgram {
+
+    private final byte[] directions;
+    private final int[] lengths;
+    private final int instructionCount;
+    private final int displacementX;
+    private final int displacementY;
+    private final int minX;
+    private final int maxX;
+    private final int minY;
+    private final int maxY;
+
+    private InstructionProgram(byte[] directions, int[] lengths, int instructionCount, int displacementX,
+                               int displacementY, int minX, int maxX, int minY, int maxY) {
+        this.directions = directions;
+        this.lengths = lengths;
+        this.instructionCount = instructionCount;
+        this.displacementX = displacementX;
+        this.displacementY = displacementY;
+        this.minX = minX;
+        this.maxX = maxX;
+        this.minY = minY;
+        this.maxY = maxY;
+    }
+
+    /**
+     * Compiles an instruction string.
+     *
+     * @param instructions The instructions, a series of 'N', 'E', 'S', 'W' characters.
+     * @return The compiled program.
+     * @throws com.rationaldata.robotic_hoover.exception.InvalidInstructionsException if a character is not an
+     *         instruction, with its offset.
+     */
+    public static InstructionProgram compile(CharSequence instructions) {
+        int length = instructions.length();
+        byte[] directions = new byte[Math.min(length, 1_024)];
+        int[] lengths = new int[directions.length];
+        int runs = 0;
+        int x = 0;
+        int y = 0;
+        int minX = 0;
+        int maxX = 0;
+        int minY = 0;
+        int maxY = 0;
+        int runStart = 0;
+        while (runStart < length) {
+            char instruction = instructions.charAt(runStart);
+            int direction = InstructionDecoder.decodeAt(instructions, runStart);
+            int runEnd = runStart + 1;
+            while (runEnd < length && instructions.charAt(runEnd) == instruction) {
+                runEnd++;
+            }
+            if (runs == directions.length) {
+                directions = Arrays.copyOf(directions, runs * 2);
+                lengths = Arrays.copyOf(lengths, runs * 2);
+            }
+            int runLength = runEnd - runStart;
+            directions[runs] = (byte) direction;
+            lengths[runs++] = runLength;
+            x += InstructionDecoder.DX[direction] * runLength;
+            y += InstructionDecoder.DY[direction] * runLength;
+            minX = Math.min(minX, x);
+            maxX = Math.max(maxX, x);
+            minY = Math.min(minY, y);
+            maxY = Math.max(maxY, y);
+            runStart = runEnd;
+        }
+        return new InstructionProgram(Arrays.copyOf(directions, runs), Arrays.copyOf(lengths, runs), length,
+                x, y, minX, maxX, minY, maxY);
+    }
+
+    /**
+     * @return The number of runs of identical instructions.
+     */
+    public int runCount() {
+        return directions.length;
+    }
+
+    /**
+     * @return The estimated heap used by the program.
+     */
+    public long estimatedBytes() {
+        return 64 + (long) directions.length * (Byte.BYTES + Integer.BYTES);
+    }
+
+    /**
+     * @return The direction of a run, as decoded by {@link InstructionDecoder}.
+     */
+    public int direction(int run) {
+        return directions[run];
+    }
+
+    /**
+     * @return The number of instructions of a run, at least 1.
+     */
+    public int length(int run) {
+        return lengths[run];
+    }
+
+    /**
+     * @return The number of instructions the program was compiled from.
+     */
+    public int instructionCount() {
+        return instructionCount;
+    }
+
+    /**
+     * @return The X offset of the end of the program from its start, when no wall stops the hoover.
+     */
+    public int displacementX() {
+        return displacementX;
+    }
+
+    /**
+     * @return The Y offset of the end of the program from its start, when no wall stops the hoover.
+     */
+    public int displacementY() {
+        return displacementY;
+    }
+
+    /**
+     * Tells whether the hoover stays clear of the walls, so that no move of the program is clamped.
+     *
+     * @param x          The initial X coordinate of the hoover.
+     * @param y          The initial Y coordinate of the hoover.
+     * @param roomWidth  The width of the room.
+     * @param roomHeight The height of the room.
+     * @return {@code true} if every position the program goes through from this start lies within the room.
+     */
+    public boolean staysInside(int x, int y, int roomWidth, int roomHeight) {
+        return (long) x + minX >= 0 && (long) x + maxX <= roomWidth
+                && (long) y + minY >= 0 && (long) y + maxY <= roomHeight;
+    }
+}
@@ -0,0 +1,31 @@
+package com.rationaldata.robotic_hoover.engine;
+
+import com.rationaldata.robotic_hoover.dto.HooverRequest;
+import com.rationaldata.robotic_hoover.dto.HooverResponse;
+import com.rationaldata.robotic_hoover.room.PreparedRoom;
+
+/**
+ * Simulates the hoover's movement through the room for an already validated request.
+ */
+public interface NavigationEngine {
+
+    /**
+     * Moves the hoover according to the instructions and cleans the dirt patches it passes over.
+     *
+     * @param room         The {@link PreparedRoom} of a validated request.
+     * @param instructions The validated instructions of the request.
+     * @return A {@link HooverResponse} with the final position of the hoover and the number of cleaned patches.
+     */
+    HooverResponse navigate(PreparedRoom room, String instructions);
+
+    /**
+     * Moves the hoover according to the instructions of the request and cleans the dirt patches it passes over.
+     * The request must have been validated beforehand.
+     *
+     * @param request The validated {@link HooverRequest}.
+     * @return A {@link HooverResponse} with the final position of the hoover and the number of cleaned patches.
+     */
+    default HooverResponse navigate(HooverRequest request) {
+        return navigate(PreparedRoom.of(request), request.getInstructions());
+    }
+}
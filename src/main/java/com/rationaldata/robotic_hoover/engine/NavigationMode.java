@@ -0,0 +1,29 @@
+package com.rationaldata.robotic_hoover.engine;
+
+/**
+ * The {@link NavigationEngine} used by {@link com.rationaldata.robotic_hoover.service.HooverService}.
+ */
+public enum NavigationMode {
+
+    /**
+     * Processes the instructions one move at a time, see {@link StepEngine}.
+     */
+    STEP,
+
+    /**
+     * Collapses each run of identical instructions into a single clamped move, see {@link RunLengthEngine}.
+     */
+    RUN_LENGTH,
+
+    /**
+     * Processes the instructions in blocks, skipping the wall checks of blocks that cannot reach a wall,
+     * see {@link VectorEngine}. Vectorized when the JVM runs with {@code --add-modules jdk.incubator.vector}.
+     */
+    VECTOR,
+
+    /**
+     * Turns the instructions into the segments of the path, then intersects their union with the patches,
+     * see {@link SweepLineEngine}.
+     */
+    SWEEP_LINE
+}
@@ -0,0 +1,71 @@
+package com.rationaldata.robotic_hoover.engine;
+
+import com.rationaldata.robotic_hoover.config.HooverProperties;
+import com.rationaldata.robotic_hoover.dto.HooverResponse;
+import com.rationaldata.robotic_hoover.room.ConcurrentRoomGrid;
+import com.rationaldata.robotic_hoover.room.PreparedRoom;
+import com.rationaldata.robotic_hoover.room.RoomGridFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Engine splitting a huge instruction string into chunks simulated on a {@link ForkJoinPool}.
+ * <p>
+ * Every chunk is first reduced in parallel to the {@link PositionTransfer} from its entry to its exit position.
+ * A parallel prefix over these transfers then gives the position at which each chunk starts, after which
+ * the chunks are replayed in parallel against a {@link ConcurrentRoomGrid}, where each patch is cleaned once
+ * whichever chunk reaches it.
+ */
+@Component
+@RequiredArgsConstructor
+public class ParallelChunkEngine implements NavigationEngine {
+
+    private final RoomGridFactory roomGridFactory;
+    private final HooverProperties properties;
+    private final ForkJoinPool navigationPool;
+
+    @Override
+    public HooverResponse navigate(PreparedRoom preparedRoom, String instructions) {
+        int roomWidth = preparedRoom.roomWidth();
+        int roomHeight = preparedRoom.roomHeight();
+        int[] start = {preparedRoom.startX(), preparedRoom.startY()};
+
+        int chunkSize = properties.getEngine().getParallelChunkSize();
+        int chunks = (int) ((instructions.length() + (long) chunkSize - 1) / chunkSize);
+
+        try (ConcurrentRoomGrid room = roomGridFactory.openConcurrent(preparedRoom)) {
+            int cleanedPatches = room.clean(start[0], start[1]) ? 1 : 0;
+            if (chunks == 0) {
+                return new HooverResponse(start, cleanedPatches);
+            }
+
+            PositionTransfer[] transfers = new PositionTransfer[chunks];
+            cleanedPatches += navigationPool.submit(() -> {
+                IntStream.range(0, chunks).parallel().forEach(chunk -> transfers[chunk] = PositionTransfer.of(
+                        instructions, chunkStart(chunk, chunkSize), chunkEnd(chunk, chunkSize, instructions), roomWidth, roomHeight));
+
+                Arrays.parallelPrefix(transfers, PositionTransfer::andThen);
+
+                return IntStream.range(0, chunks).parallel().map(chunk -> {
+                    int[] position = chunk == 0 ? start.clone() : transfers[chunk - 1].apply(start);
+                    return RunLengthEngine.simulate(room, instructions, chunkStart(chunk, chunkSize),
+                            chunkEnd(chunk, chunkSize, instructions), position, roomWidth, roomHeight);
+                }).sum();
+            }).join();
+
+            return new HooverResponse(transfers[chunks - 1].apply(start), cleanedPatches);
+        }
+    }
+
+    private static int chunkStart(int chunk, int chunkSize) {
+        return chunk * chunkSize;
+    }
+
+    private static int chunkEnd(int chunk, int chunkSize, String instructions) {
+        return (int) Math.min(instructions.length(), (long) (chunk + 1) * chunkSize);
+    }
+}
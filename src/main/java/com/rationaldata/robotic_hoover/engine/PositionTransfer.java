@@ -0,0 +1,64 @@
+package com.rationaldata.robotic_hoover.engine;
+
+/**
+ * Function from the position of the hoover before a piece of instructions to its position after it.
+ * Moves along one axis never affect the other one, so the transfer is a {@link ClampedTranslation} per axis.
+ *
+ * @param x The movement along the X axis.
+ * @param y The movement along the Y axis.
+ */
+public record PositionTransfer(ClampedTranslation x, ClampedTranslation y) {
+
+    public static final PositionTransfer IDENTITY = new PositionTransfer(ClampedTranslation.IDENTITY, ClampedTranslation.IDENTITY);
+
+    /**
+     * Reduces a range of instructions to a single transfer, one run of identical instructions at a time.
+     *
+     * @param instructions The instructions, a series of 'N', 'E', 'S', 'W' characters.
+     * @param from         The index of the first instruction of the range, inclusive.
+     * @param to           The index of the last instruction of the range, exclusive.
+     * @param roomWidth    The width of the room.
+     * @param roomHeight   The height of the room.
+     * @return The transfer of the whole range.
+     * @throws com.rationaldata.robotic_hoover.exception.InvalidInstructionsException if the range holds a character
+     *         that is not an instruction.
+     */
+    public static PositionTransfer of(CharSequence instructions, int from, int to, int roomWidth, int roomHeight) {
+        ClampedTranslation x = ClampedTranslation.IDENTITY;
+        ClampedTranslation y = ClampedTranslation.IDENTITY;
+        int runStart = from;
+        while (runStart < to) {
+            char instruction = instructions.charAt(runStart);
+            int direction = InstructionDecoder.decodeAt(instructions, runStart);
+            int runEnd = runStart + 1;
+            while (runEnd < to && instructions.charAt(runEnd) == instruction) {
+                runEnd++;
+            }
+            int steps = runEnd - runStart;
+            switch (direction) {
+                case InstructionDecoder.NORTH -> y = y.andThen(ClampedTranslation.forward(steps, roomHeight));
+                case InstructionDecoder.SOUTH -> y = y.andThen(ClampedTranslation.backward(steps));
+                case InstructionDecoder.EAST -> x = x.andThen(ClampedTranslation.forward(steps, roomWidth));
+                case InstructionDecoder.WEST -> x = x.andThen(ClampedTranslation.backward(steps));
+                default -> throw new IllegalStateException("Unknown direction " + direction);
+            }
+            runStart = runEnd;
+        }
+        return new PositionTransfer(x, y);
+    }
+
+    /**
+     * @return The transfer equivalent to this one followed by {@code next}.
+     */
+    public PositionTransfer andThen(PositionTransfer next) {
+        return new PositionTransfer(x.andThen(next.x), y.andThen(next.y));
+    }
+
+    /**
+     * @param position The position before the transfer, as [x, y].
+     * @return The position after the transfer, as [x, y].
+     */
+    public int[] apply(int[] position) {
+        return new int[]{(int) x.apply(position[0]), (int) y.apply(position[1])};
+    }
+}
@@ -0,0 +1,20 @@
+package com.rationaldata.robotic_hoover.engine;
+
+import com.rationaldata.robotic_hoover.dto.HooverResponse;
+import com.rationaldata.robotic_hoover.room.PreparedRoom;
+
+/**
+ * A {@link NavigationEngine} that also runs compiled {@link InstructionProgram}s, so that instructions shared by
+ * many requests are decoded once.
+ */
+public interface ProgramEngine extends NavigationEngine {
+
+    /**
+     * Moves the hoover according to a compiled program and cleans the dirt patches it passes over.
+     *
+     * @param room    The {@link PreparedRoom} of a validated request.
+     * @param program The program compiled from the validated instructions of the request.
+     * @return A {@link HooverResponse} with the final position of the hoover and the number of cleaned patches.
+     */
+    HooverResponse navigate(PreparedRoom room, InstructionProgram program);
+}
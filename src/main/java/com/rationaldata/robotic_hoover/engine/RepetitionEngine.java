@@ -0,0 +1,301 @@
+package com.rationaldata.robotic_hoover.engine;
+
+import com.rationaldata.robotic_hoover.dto.HooverResponse;
+import com.rationaldata.robotic_hoover.room.PatchIndex;
+import com.rationaldata.robotic_hoover.room.PreparedRoom;
+import com.rationaldata.robotic_hoover.room.RoomGrid;
+import com.rationaldata.robotic_hoover.room.RoomGridFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Engine running {@link CompressedInstructions} without expanding them, so that a sweep written in a few bytes costs
+ * about as little to simulate as to send.
+ * <p>
+ * Runs are moved in one go like in {@link RunLengthEngine}, and groups iteration by iteration, with two shortcuts.
+ * An iteration ending where it started leaves the hoover where every further iteration would start, so the rest
+ * are skipped. And the iterations that stay clear of the walls, counted in closed form, are each the previous one
+ * translated by the displacement of the group: they are fast-forwarded, finding for every segment of the group's path
+ * the patches it reaches under any of the translations with one range of the patches sorted by row or by column.
+ * Only the iterations reaching a wall are run one by one, and one that is clamped the same way as the next, such as
+ * when sliding along a wall, is fast-forwarded in turn with the moves it made as its path. The cost of a group then
+ * depends on its path, its walls and the patches along its sweep, not on its repeat count.
+ */
+@Component
+@RequiredArgsConstructor
+public class RepetitionEngine {
+
+    private final RoomGridFactory roomGridFactory;
+
+    /**
+     * @param preparedRoom The {@link PreparedRoom} of a validated request.
+     * @param instructions The parsed instructions of the request.
+     * @return A {@link HooverResponse} with the final position of the hoover and the number of cleaned patches.
+     */
+    public HooverResponse navigate(PreparedRoom preparedRoom, CompressedInstructions instructions) {
+        try (RoomGrid room = roomGridFactory.openForSegments(preparedRoom);
+             Simulation simulation = new Simulation(roomGridFactory, preparedRoom, room)) {
+            simulation.cleanedPatches = room.clean(simulation.x, simulation.y) ? 1 : 0;
+            simulation.repeat(instructions.program());
+            return new HooverResponse(new int[]{simulation.x, simulation.y}, simulation.cleanedPatches);
+        }
+    }
+
+    private static final class Simulation implements AutoCloseable {
+
+        private final RoomGridFactory roomGridFactory;
+        private final PreparedRoom preparedRoom;
+        private final RoomGrid room;
+        private final int roomWidth;
+        private final int roomHeight;
+        private final int[] position = new int[2];
+        private final List<PathRecorder> recorders = new ArrayList<>();
+        private PatchIndex index;
+        private int x;
+        private int y;
+        private int cleanedPatches;
+
+        Simulation(RoomGridFactory roomGridFactory, PreparedRoom preparedRoom, RoomGrid room) {
+            this.roomGridFactory = roomGridFactory;
+            this.preparedRoom = preparedRoom;
+            this.room = room;
+            this.roomWidth = preparedRoom.roomWidth();
+            this.roomHeight = preparedRoom.roomHeight();
+            this.x = preparedRoom.startX();
+            this.y = preparedRoom.startY();
+        }
+
+        void repeat(CompressedInstructions.Group group) {
+            long done = 0;
+            while (done < group.count) {
+                long inside = group.path == null ? 0
+                        : group.iterationsInside(x, y, group.count - done, roomWidth, roomHeight);
+                if (inside > 0) {
+                    fastForward(group, inside);
+                    done += inside;
+                    continue;
+                }
+                // An iteration near a wall, recorded if others follow, in case it is repeated as is
+                int startX = x;
+                int startY = y;
+                PathRecorder recorder = group.count - done > 1 ? new PathRecorder(x, y) : null;
+                if (recorder != null) {
+                    recorders.add(recorder);
+                }
+                for (CompressedInstructions.Node node : group.body) {
+                    if (node instanceof CompressedInstructions.Run run) {
+                        move(run.direction(), run.length());
+                    } else {
+                        repeat((CompressedInstructions.Group) node);
+                    }
+                }
+                if (recorder != null) {
+                    recorders.removeLast();
+                }
+                done++;
+                if (x == startX && y == startY) {
+                    // Every further iteration starts from here and does the same
+                    return;
+                }
+                CompressedInstructions.Group translated = recorder == null ? null : recorder.translation(x, y);
+                if (translated != null) {
+                    // Such as sliding along a wall: the next iterations repeat the same moves until another wall
+                    inside = translated.iterationsInside(x, y, group.count - done, roomWidth, roomHeight);
+                    if (inside > 0) {
+                        fastForward(translated, inside);
+                        done += inside;
+                    }
+                }
+            }
+        }
+
+        private void move(int direction, long length) {
+            position[0] = x;
+            position[1] = y;
+            cleanedPatches += RunLengthEngine.moveRun(room, direction, length, position, roomWidth, roomHeight);
+            long moved = Math.abs(position[0] - x) + Math.abs(position[1] - y);
+            for (PathRecorder recorder : recorders) {
+                recorder.move(direction, x, y, length, moved);
+            }
+            x = position[0];
+            y = position[1];
+        }
+
+        /**
+         * Runs the iterations of a group that stay clear of the walls, each translated from the previous one.
+         */
+        private void fastForward(CompressedInstructions.Group group, long iterations) {
+            if (group.dx == 0 && group.dy == 0) {
+                // Every iteration covers the same tiles as the first
+                iterations = 1;
+            }
+            if (preparedRoom.patchCount() > 0) {
+                if (index == null) {
+                    index = roomGridFactory.openIndex(preparedRoom);
+                }
+                for (long[] run : group.path) {
+                    int direction = (int) run[0];
+                    long length = run[3];
+                    long fromX = x + run[1] + InstructionDecoder.DX[direction];
+                    long fromY = y + run[2] + InstructionDecoder.DY[direction];
+                    long toX = x + run[1] + InstructionDecoder.DX[direction] * length;
+                    long toY = y + run[2] + InstructionDecoder.DY[direction] * length;
+                    if (direction == InstructionDecoder.EAST || direction == InstructionDecoder.WEST) {
+                        sweep(false, fromY, Math.min(fromX, toX), Math.max(fromX, toX), group.dy, group.dx,
+                                iterations);
+                    } else {
+                        sweep(true, fromX, Math.min(fromY, toY), Math.max(fromY, toY), group.dx, group.dy,
+                                iterations);
+                    }
+                }
+            }
+            for (PathRecorder recorder : recorders) {
+                recorder.sweep(group, x, y, iterations);
+            }
+            x = (int) (x + iterations * group.dx);
+            y = (int) (y + iterations * group.dy);
+        }
+
+        /**
+         * Cleans the patches covered by a segment translated {@code iterations} times, each time by
+         * {@code (lineStep, alongStep)}, looking the patches up as {@code line << 32 | along} in the index.
+         *
+         * @param line      The row of a horizontal segment, or the column of a vertical one, in the first iteration.
+         * @param from      The lowest coordinate of the segment along its line in the first iteration.
+         * @param to        The highest coordinate of the segment along its line in the first iteration.
+         * @param transpose Whether the lines are columns, looked up by column key with X in its high bits.
+         */
+        private void sweep(boolean transpose, long line, long from, long to, long lineStep, long alongStep,
+                           long iterations) {
+            long lastLine = line + (iterations - 1) * lineStep;
+            long lowLine = Math.min(line, lastLine);
+            long highLine = Math.max(line, lastLine);
+            long lowAlong = lineStep == 0 ? from + Math.min(0, (iterations - 1) * alongStep) : 0;
+            long highAlong = lineStep == 0 ? to + Math.max(0, (iterations - 1) * alongStep) : Integer.MAX_VALUE;
+            int first = lowerBound(transpose, PreparedRoom.key((int) lowAlong, (int) lowLine));
+            int last = lowerBound(transpose, PreparedRoom.key((int) highAlong, (int) highLine) + 1);
+            for (int i = first; i < last; i++) {
+                long key = transpose ? index.columnKey(i) : index.rowKey(i);
+                long patchLine = PreparedRoom.y(key);
+                long patchAlong = PreparedRoom.x(key);
+                if (covers(patchLine - line, patchAlong, from, to, lineStep, alongStep, iterations)) {
+                    boolean cleaned = transpose
+                            ? room.clean((int) patchLine, (int) patchAlong)
+                            : room.clean((int) patchAlong, (int) patchLine);
+                    if (cleaned) {
+                        cleanedPatches++;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Tells whether some iteration {@code i} in {@code [0, iterations)} puts the patch on the segment, that is
+         * {@code lineOffset == i * lineStep} and {@code from <= along - i * alongStep <= to}.
+         */
+        private static boolean covers(long lineOffset, long along, long from, long to, long lineStep, long alongStep,
+                                      long iterations) {
+            long low = 0;
+            long high = iterations - 1;
+            if (lineStep != 0) {
+                if (lineOffset % lineStep != 0) {
+                    return false;
+                }
+                low = high = lineOffset / lineStep;
+            } else if (lineOffset != 0) {
+                return false;
+            }
+            if (alongStep > 0) {
+                low = Math.max(low, Math.ceilDiv(along - to, alongStep));
+                high = Math.min(high, Math.floorDiv(along - from, alongStep));
+            } else if (alongStep < 0) {
+                low = Math.max(low, Math.ceilDiv(from - along, -alongStep));
+                high = Math.min(high, Math.floorDiv(to - along, -alongStep));
+            } else if (along < from || along > to) {
+                return false;
+            }
+            return low <= high && low >= 0 && high <= iterations - 1;
+        }
+
+        private int lowerBound(boolean transpose, long key) {
+            return transpose ? index.lowerBoundColumn(key) : index.lowerBoundRow(key);
+        }
+
+        @Override
+        public void close() {
+            if (index != null) {
+                index.close();
+            }
+        }
+    }
+
+    /**
+     * Records the moves one iteration of a group makes, to tell whether the next iterations make the same ones
+     * translated. They do as long as they stay clear of the walls, unless a move of the iteration was clamped along an
+     * axis the iteration moves along: the next iteration starts further or closer to that wall and clamps differently.
+     */
+    private static final class PathRecorder {
+
+        private final long startX;
+        private final long startY;
+        private final List<long[]> path = new ArrayList<>();
+        private boolean clampedX;
+        private boolean clampedY;
+        private boolean overflow;
+
+        PathRecorder(long startX, long startY) {
+            this.startX = startX;
+            this.startY = startY;
+        }
+
+        void move(int direction, long fromX, long fromY, long length, long moved) {
+            if (moved < length) {
+                if (direction == InstructionDecoder.EAST || direction == InstructionDecoder.WEST) {
+                    clampedX = true;
+                } else {
+                    clampedY = true;
+                }
+            }
+            if (moved > 0) {
+                add(new long[]{direction, fromX - startX, fromY - startY, moved});
+            }
+        }
+
+        void sweep(CompressedInstructions.Group group, long fromX, long fromY, long iterations) {
+            if (overflow || iterations > (CompressedInstructions.MAX_PATH_RUNS - path.size()) / Math.max(1, group.path.length)) {
+                overflow = true;
+                return;
+            }
+            for (long i = 0; i < iterations; i++) {
+                for (long[] run : group.path) {
+                    add(new long[]{run[0], fromX - startX + i * group.dx + run[1], fromY - startY + i * group.dy + run[2],
+                            run[3]});
+                }
+            }
+        }
+
+        /**
+         * @return The moves of the iteration as a group the next iterations repeat translated, or {@code null} if
+         *         they may not or the iteration made too many moves to keep.
+         */
+        CompressedInstructions.Group translation(long endX, long endY) {
+            long dx = endX - startX;
+            long dy = endY - startY;
+            if (overflow || clampedX && dx != 0 || clampedY && dy != 0) {
+                return null;
+            }
+            return CompressedInstructions.Group.ofPath(path, dx, dy);
+        }
+
+        private void add(long[] run) {
+            if (overflow || path.size() == CompressedInstructions.MAX_PATH_RUNS) {
+                overflow = true;
+                return;
+            }
+            path.add(run);
+        }
+    }
+}
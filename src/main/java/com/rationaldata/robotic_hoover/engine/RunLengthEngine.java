@@ -0,0 +1,184 @@
+package com.rationaldata.robotic_hoover.engine;
+
+import com.rationaldata.robotic_hoover.dto.HooverResponse;
+import com.rationaldata.robotic_hoover.room.PreparedRoom;
+import com.rationaldata.robotic_hoover.room.RoomGrid;
+import com.rationaldata.robotic_hoover.room.RoomGridFactory;
+import com.rationaldata.robotic_hoover.room.SegmentCleaner;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Engine collapsing every run of identical instructions, such as {@code "NNNNNNNN"}, into a single move
+ * clamped by the walls. The patches on the covered segment are cleaned with one range query on the
+ * {@link RoomGrid}, so a run of k moves costs O(log P + patches cleaned) instead of O(k).
+ * <p>
+ * Compiled {@link InstructionProgram}s come with their runs already found, and when the program stays clear of
+ * the walls from the start, its runs are moved without clamping.
+ */
+@Component
+@RequiredArgsConstructor
+public class RunLengthEngine implements ProgramEngine {
+
+    private final RoomGridFactory roomGridFactory;
+
+    @Override
+    public HooverResponse navigate(PreparedRoom preparedRoom, String instructions) {
+        int roomWidth = preparedRoom.roomWidth();
+        int roomHeight = preparedRoom.roomHeight();
+        int[] position = {preparedRoom.startX(), preparedRoom.startY()};
+
+        try (RoomGrid room = roomGridFactory.openForSegments(preparedRoom)) {
+            int cleanedPatches = room.clean(position[0], position[1]) ? 1 : 0;
+
+            cleanedPatches += simulate(room, instructions, 0, instructions.length(), position, roomWidth, roomHeight);
+
+            return new HooverResponse(position, cleanedPatches);
+        }
+    }
+
+    @Override
+    public HooverResponse navigate(PreparedRoom preparedRoom, InstructionProgram program) {
+        int roomWidth = preparedRoom.roomWidth();
+        int roomHeight = preparedRoom.roomHeight();
+        int[] position = {preparedRoom.startX(), preparedRoom.startY()};
+
+        try (RoomGrid room = roomGridFactory.openForSegments(preparedRoom)) {
+            int cleanedPatches = room.clean(position[0], position[1]) ? 1 : 0;
+
+            cleanedPatches += simulate(room, program, position, roomWidth, roomHeight);
+
+            return new HooverResponse(position, cleanedPatches);
+        }
+    }
+
+    /**
+     * Runs a compiled program, cleaning the covered segments of the room.
+     *
+     * @param room       The grid holding the remaining patches, or any receiver of the covered segments.
+     * @param program    The compiled instructions.
+     * @param position   The hoover position as [x, y], updated in place.
+     * @param roomWidth  The width of the room.
+     * @param roomHeight The height of the room.
+     * @return The number of patches cleaned by the program.
+     */
+    static int simulate(SegmentCleaner room, InstructionProgram program, int[] position, int roomWidth, int roomHeight) {
+        int cleanedPatches = 0;
+        if (!program.staysInside(position[0], position[1], roomWidth, roomHeight)) {
+            for (int run = 0; run < program.runCount(); run++) {
+                cleanedPatches += moveRun(room, program.direction(run), program.length(run), position, roomWidth, roomHeight);
+            }
+            return cleanedPatches;
+        }
+
+        // No run reaches a wall: every run covers its whole length
+        int x = position[0];
+        int y = position[1];
+        for (int run = 0; run < program.runCount(); run++) {
+            int length = program.length(run);
+            switch (program.direction(run)) {
+                case InstructionDecoder.NORTH -> {
+                    cleanedPatches += room.cleanColumn(x, y + 1, y + length);
+                    y += length;
+                }
+                case InstructionDecoder.SOUTH -> {
+                    cleanedPatches += room.cleanColumn(x, y - length, y - 1);
+                    y -= length;
+                }
+                case InstructionDecoder.EAST -> {
+                    cleanedPatches += room.cleanRow(y, x + 1, x + length);
+                    x += length;
+                }
+                case InstructionDecoder.WEST -> {
+                    cleanedPatches += room.cleanRow(y, x - length, x - 1);
+                    x -= length;
+                }
+                default -> {
+                }
+            }
+        }
+        position[0] = x;
+        position[1] = y;
+        return cleanedPatches;
+    }
+
+    /**
+     * Runs a range of instructions run by run, cleaning the covered segments of the room.
+     *
+     * @param room         The grid holding the remaining patches, or any receiver of the covered segments.
+     * @param instructions The instructions, a series of 'N', 'E', 'S', 'W' characters.
+     * @param from         The index of the first instruction of the range, inclusive.
+     * @param to           The index of the last instruction of the range, exclusive.
+     * @param position     The hoover position as [x, y], updated in place.
+     * @param roomWidth    The width of the room.
+     * @param roomHeight   The height of the room.
+     * @return The number of patches cleaned by the range.
+     * @throws com.rationaldata.robotic_hoover.exception.InvalidInstructionsException if the range holds a character
+     *         that is not an instruction, with its offset.
+     */
+    static int simulate(SegmentCleaner room, CharSequence instructions, int from, int to, int[] position, int roomWidth, int roomHeight) {
+        int cleanedPatches = 0;
+        int runStart = from;
+        while (runStart < to) {
+            char instruction = instructions.charAt(runStart);
+            int direction = InstructionDecoder.decodeAt(instructions, runStart);
+            int runEnd = runStart + 1;
+            while (runEnd < to && instructions.charAt(runEnd) == instruction) {
+                runEnd++;
+            }
+            cleanedPatches += moveRun(room, direction, runEnd - runStart, position, roomWidth, roomHeight);
+            runStart = runEnd;
+        }
+        return cleanedPatches;
+    }
+
+    /**
+     * Moves the hoover {@code steps} tiles in one direction, stopping at the wall, and cleans the covered segment.
+     *
+     * @param room       The grid holding the remaining patches, or any receiver of the covered segments.
+     * @param direction  The direction of the run, as decoded by {@link InstructionDecoder}.
+     * @param steps      The length of the run.
+     * @param position   The hoover position as [x, y], updated in place.
+     * @param roomWidth  The width of the room.
+     * @param roomHeight The height of the room.
+     * @return The number of patches cleaned by the run.
+     */
+    static int moveRun(SegmentCleaner room, int direction, long steps, int[] position, int roomWidth, int roomHeight) {
+        int x = position[0];
+        int y = position[1];
+        int cleanedPatches = 0;
+        switch (direction) {
+            case InstructionDecoder.NORTH -> {
+                int target = (int) Math.min(roomHeight, y + steps);
+                if (target > y) {
+                    cleanedPatches = room.cleanColumn(x, y + 1, target);
+                    position[1] = target;
+                }
+            }
+            case InstructionDecoder.SOUTH -> {
+                int target = (int) Math.max(0, y - steps);
+                if (target < y) {
+                    cleanedPatches = room.cleanColumn(x, target, y - 1);
+                    position[1] = target;
+                }
+            }
+            case InstructionDecoder.EAST -> {
+                int target = (int) Math.min(roomWidth, x + steps);
+                if (target > x) {
+                    cleanedPatches = room.cleanRow(y, x + 1, target);
+                    position[0] = target;
+                }
+            }
+            case InstructionDecoder.WEST -> {
+                int target = (int) Math.max(0, x - steps);
+                if (target < x) {
+                    cleanedPatches = room.cleanRow(y, target, x - 1);
+                    position[0] = target;
+                }
+            }
+            default -> {
+            }
+        }
+        return cleanedPatches;
+    }
+}
@@ -0,0 +1,45 @@
+package com.rationaldata.robotic_hoover.engine;
+
+/**
+ * {@link BlockKernel} decoding one character at a time with the {@link InstructionDecoder} table.
+ */
+class ScalarBlockKernel implements BlockKernel {
+
+    @Override
+    public int summarize(char[] block, int length, int[] summary) {
+        return summarize(block, 0, length, summary);
+    }
+
+    /**
+     * Summarizes a range of a block, as if it were a block of its own.
+     *
+     * @return The index in the block of the first character that is not an instruction, or -1 if the range is valid.
+     */
+    static int summarize(char[] block, int from, int to, int[] summary) {
+        int dx = 0;
+        int dy = 0;
+        int minDx = 0;
+        int maxDx = 0;
+        int minDy = 0;
+        int maxDy = 0;
+        for (int i = from; i < to; i++) {
+            int direction = InstructionDecoder.decode(block[i]);
+            if (direction == InstructionDecoder.INVALID) {
+                return i;
+            }
+            dx += InstructionDecoder.DX[direction];
+            dy += InstructionDecoder.DY[direction];
+            minDx = Math.min(minDx, dx);
+            maxDx = Math.max(maxDx, dx);
+            minDy = Math.min(minDy, dy);
+            maxDy = Math.max(maxDy, dy);
+        }
+        summary[DX] = dx;
+        summary[DY] = dy;
+        summary[MIN_DX] = minDx;
+        summary[MAX_DX] = maxDx;
+        summary[MIN_DY] = minDy;
+        summary[MAX_DY] = maxDy;
+        return -1;
+    }
+}
@@ -0,0 +1,51 @@
+package com.rationaldata.robotic_hoover.engine;
+
+import com.rationaldata.robotic_hoover.dto.HooverResponse;
+import com.rationaldata.robotic_hoover.room.PreparedRoom;
+import com.rationaldata.robotic_hoover.room.RoomGrid;
+import com.rationaldata.robotic_hoover.room.RoomGridFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Engine moving the hoover one tile at a time and checking the {@link RoomGrid} after every move.
+ * Each instruction is decoded with the {@link InstructionDecoder} table and applied as a delta clamped
+ * by the walls, without branching on the direction.
+ */
+@Component
+@RequiredArgsConstructor
+public class StepEngine implements NavigationEngine {
+
+    private final RoomGridFactory roomGridFactory;
+
+    @Override
+    public HooverResponse navigate(PreparedRoom preparedRoom, String instructions) {
+        int roomWidth = preparedRoom.roomWidth();
+        int roomHeight = preparedRoom.roomHeight();
+
+        int x = preparedRoom.startX();
+        int y = preparedRoom.startY();
+
+        try (RoomGrid room = roomGridFactory.open(preparedRoom)) {
+            int cleanedPatches = 0;
+
+            if (room.clean(x, y)) {
+                cleanedPatches++;
+            }
+
+            for (int i = 0; i < instructions.length(); i++) {
+                int direction = InstructionDecoder.decodeAt(instructions, i);
+
+                // Moving into a wall leaves the hoover where it is; long arithmetic keeps walls at Integer.MAX_VALUE
+                x = (int) Math.min(roomWidth, Math.max(0, (long) x + InstructionDecoder.DX[direction]));
+                y = (int) Math.min(roomHeight, Math.max(0, (long) y + InstructionDecoder.DY[direction]));
+
+                if (room.clean(x, y)) {
+                    cleanedPatches++;
+                }
+            }
+
+            return new HooverResponse(new int[]{x, y}, cleanedPatches);
+        }
+    }
+}
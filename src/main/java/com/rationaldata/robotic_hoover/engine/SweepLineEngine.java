@@ -0,0 +1,223 @@
+package com.rationaldata.robotic_hoover.engine;
+
+import com.rationaldata.robotic_hoover.dto.HooverResponse;
+import com.rationaldata.robotic_hoover.room.PreparedRoom;
+import com.rationaldata.robotic_hoover.room.RoomGrid;
+import com.rationaldata.robotic_hoover.room.RoomGridFactory;
+import com.rationaldata.robotic_hoover.room.SegmentCleaner;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+
+/**
+ * Engine splitting the navigation into two passes. The first pass turns the instructions into the clamped
+ * row and column segments of the hoover's path, run by run like {@link RunLengthEngine}, keeping only the
+ * segments lying on a row or column that holds a patch. The second pass sorts and merges the segments of every
+ * such line into disjoint intervals, then looks each patch up in the intervals of its row and of its column.
+ * <p>
+ * A patch is cleaned if the path covers it at least once, so the order of the visits does not matter and the
+ * cost is O(S log P + (S + P) log S) for S segments and P patches, whatever the number of moves. Nothing is
+ * allocated per tile, which suits rooms with a few thousand patches and paths of millions of moves.
+ * <p>
+ * The lines of the patches live on the heap, so off-heap rooms are instead cleaned segment by segment in the grid
+ * {@link RoomGridFactory#openForSegments(PreparedRoom)} opens for them, which gives the same result.
+ */
+@Component
+@RequiredArgsConstructor
+public class SweepLineEngine implements ProgramEngine {
+
+    private final RoomGridFactory roomGridFactory;
+
+    @Override
+    public HooverResponse navigate(PreparedRoom preparedRoom, String instructions) {
+        int[] position = {preparedRoom.startX(), preparedRoom.startY()};
+        if (preparedRoom.isOffHeap()) {
+            try (RoomGrid room = roomGridFactory.openForSegments(preparedRoom)) {
+                int cleanedPatches = room.clean(position[0], position[1]) ? 1 : 0;
+                cleanedPatches += RunLengthEngine.simulate(room, instructions, 0, instructions.length(), position,
+                        preparedRoom.roomWidth(), preparedRoom.roomHeight());
+                return new HooverResponse(position, cleanedPatches);
+            }
+        }
+
+        PathSegments path = new PathSegments(preparedRoom);
+        path.cleanRow(position[1], position[0], position[0]);
+        RunLengthEngine.simulate(path, instructions, 0, instructions.length(), position,
+                preparedRoom.roomWidth(), preparedRoom.roomHeight());
+
+        return new HooverResponse(position, path.countCoveredPatches());
+    }
+
+    @Override
+    public HooverResponse navigate(PreparedRoom preparedRoom, InstructionProgram program) {
+        int[] position = {preparedRoom.startX(), preparedRoom.startY()};
+        if (preparedRoom.isOffHeap()) {
+            try (RoomGrid room = roomGridFactory.openForSegments(preparedRoom)) {
+                int cleanedPatches = room.clean(position[0], position[1]) ? 1 : 0;
+                cleanedPatches += RunLengthEngine.simulate(room, program, position, preparedRoom.roomWidth(),
+                        preparedRoom.roomHeight());
+                return new HooverResponse(position, cleanedPatches);
+            }
+        }
+
+        PathSegments path = new PathSegments(preparedRoom);
+        path.cleanRow(position[1], position[0], position[0]);
+        RunLengthEngine.simulate(path, program, position, preparedRoom.roomWidth(), preparedRoom.roomHeight());
+
+        return new HooverResponse(position, path.countCoveredPatches());
+    }
+
+    /**
+     * {@link SegmentCleaner} recording the segments covered by the hoover instead of cleaning them, so that the
+     * run-length simulation can produce the path. Its methods always report no patch cleaned.
+     */
+    private static final class PathSegments implements SegmentCleaner {
+
+        private final PreparedRoom room;
+        private final Lines rows;
+        private final Lines columns;
+
+        PathSegments(PreparedRoom room) {
+            this.room = room;
+            int[] patchRows = new int[room.patchCount()];
+            int[] patchColumns = new int[room.patchCount()];
+            for (int i = 0; i < room.patchCount(); i++) {
+                patchRows[i] = PreparedRoom.y(room.patchKey(i));
+                patchColumns[i] = PreparedRoom.x(room.patchKey(i));
+            }
+            this.rows = new Lines(patchRows);
+            this.columns = new Lines(patchColumns);
+        }
+
+        @Override
+        public int cleanRow(int y, int fromX, int toX) {
+            rows.add(y, fromX, toX);
+            return 0;
+        }
+
+        @Override
+        public int cleanColumn(int x, int fromY, int toY) {
+            columns.add(x, fromY, toY);
+            return 0;
+        }
+
+        int countCoveredPatches() {
+            rows.merge();
+            columns.merge();
+            int covered = 0;
+            for (int i = 0; i < room.patchCount(); i++) {
+                int x = PreparedRoom.x(room.patchKey(i));
+                int y = PreparedRoom.y(room.patchKey(i));
+                if (rows.covers(y, x) || columns.covers(x, y)) {
+                    covered++;
+                }
+            }
+            return covered;
+        }
+    }
+
+    /**
+     * The segments recorded on a set of parallel lines, each segment packed as {@code from << 32 | to}.
+     * A line's segments are sorted and merged into disjoint intervals whenever its array is full, so memory stays
+     * proportional to the distinct intervals rather than to the number of times the hoover went over the line.
+     */
+    private static final class Lines {
+
+        private final int[] lines;
+        private final long[][] segments;
+        private final int[] sizes;
+
+        Lines(int[] patchLines) {
+            int[] sorted = patchLines.clone();
+            Arrays.sort(sorted);
+            int distinct = 0;
+            for (int i = 0; i < sorted.length; i++) {
+                if (i == 0 || sorted[i] != sorted[i - 1]) {
+                    sorted[distinct++] = sorted[i];
+                }
+            }
+            this.lines = Arrays.copyOf(sorted, distinct);
+            this.segments = new long[distinct][];
+            this.sizes = new int[distinct];
+        }
+
+        void add(int line, int from, int to) {
+            int index = Arrays.binarySearch(lines, line);
+            if (index < 0) {
+                return;
+            }
+            long segment = (long) from << 32 | to;
+            long[] lineSegments = segments[index];
+            int size = sizes[index];
+            if (lineSegments == null) {
+                lineSegments = segments[index] = new long[4];
+            } else if (lineSegments[size - 1] == segment) {
+                return;
+            } else if (size == lineSegments.length) {
+                size = sizes[index] = merge(lineSegments, size);
+                if (size * 2 > lineSegments.length) {
+                    lineSegments = segments[index] = Arrays.copyOf(lineSegments, lineSegments.length * 2);
+                }
+            }
+            lineSegments[size] = segment;
+            sizes[index] = size + 1;
+        }
+
+        void merge() {
+            for (int index = 0; index < lines.length; index++) {
+                if (segments[index] != null) {
+                    sizes[index] = merge(segments[index], sizes[index]);
+                }
+            }
+        }
+
+        /**
+         * @return {@code true} if the merged intervals of the line cover the given position.
+         */
+        boolean covers(int line, int position) {
+            int index = Arrays.binarySearch(lines, line);
+            long[] lineSegments = segments[index];
+            if (lineSegments == null) {
+                return false;
+            }
+            // The last interval starting at or before the position
+            int low = 0;
+            int high = sizes[index] - 1;
+            int found = -1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if ((int) (lineSegments[mid] >>> 32) <= position) {
+                    found = mid;
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return found >= 0 && (int) lineSegments[found] >= position;
+        }
+
+        /**
+         * Sorts the segments by start and merges overlapping or adjacent ones in place.
+         *
+         * @return The number of disjoint intervals left at the start of the array.
+         */
+        private static int merge(long[] segments, int size) {
+            Arrays.sort(segments, 0, size);
+            int merged = 0;
+            for (int i = 0; i < size; i++) {
+                int from = (int) (segments[i] >>> 32);
+                int to = (int) segments[i];
+                if (merged > 0 && from <= (long) (int) segments[merged - 1] + 1) {
+                    int previousTo = (int) segments[merged - 1];
+                    if (to > previousTo) {
+                        segments[merged - 1] = segments[merged - 1] & 0xFFFFFFFF00000000L | to;
+                    }
+                } else {
+                    segments[merged++] = (long) from << 32 | to;
+                }
+            }
+            return merged;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.rationaldata.robotic_hoover.engine;
+
+import com.rationaldata.robotic_hoover.dto.HooverResponse;
+import com.rationaldata.robotic_hoover.room.PatchIndex;
+import com.rationaldata.robotic_hoover.room.PatchWords;
+import com.rationaldata.robotic_hoover.room.PreparedRoom;
+import com.rationaldata.robotic_hoover.room.RoomGridFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Engine reporting the whole trajectory of the hoover to a {@link TraceListener} while it navigates: every run of
+ * identical instructions with the tiles moved and the moves blocked by a wall, and every patch cleaned with the
+ * step it was cleaned at.
+ * <p>
+ * Runs are moved in one go like in {@link RunLengthEngine}. The patches of the covered segment are found by binary
+ * search in the {@link PatchIndex} of the room, by row or by column, and reported in the order the hoover reaches
+ * them, so a run costs O(log P + patches on the segment) and the memory used does not depend on the number of moves.
+ */
+@Component
+@RequiredArgsConstructor
+public class TraceEngine implements NavigationEngine {
+
+    private static final TraceListener NO_TRACE = new TraceListener() {
+        @Override
+        public void onStart(int x, int y) {
+        }
+
+        @Override
+        public void onRun(int direction, int steps, int blocked) {
+        }
+
+        @Override
+        public void onCleaned(int patch, int x, int y, int step) {
+        }
+    };
+
+    private final RoomGridFactory roomGridFactory;
+
+    @Override
+    public HooverResponse navigate(PreparedRoom room, String instructions) {
+        return navigate(room, instructions, NO_TRACE);
+    }
+
+    /**
+     * Navigates like {@link #navigate(PreparedRoom, String)}, reporting the trajectory as it goes.
+     *
+     * @param room         The {@link PreparedRoom} of a validated request.
+     * @param instructions The validated instructions of the request.
+     * @param listener     Receives the runs and the cleaned patches, in order.
+     * @return A {@link HooverResponse} with the final position of the hoover and the number of cleaned patches.
+     */
+    public HooverResponse navigate(PreparedRoom room, String instructions, TraceListener listener) {
+        try (PatchIndex index = roomGridFactory.openIndex(room)) {
+            return navigate(index, room.startX(), room.startY(), instructions, listener);
+        }
+    }
+
+    /**
+     * Navigates a hoover from the given start in an indexed room, which several navigations may share.
+     */
+    HooverResponse navigate(PatchIndex index, int startX, int startY, String instructions, TraceListener listener) {
+        try (Trace trace = new Trace(index, startX, startY, listener)) {
+            return trace.run(instructions);
+        }
+    }
+
+    private static final class Trace implements AutoCloseable {
+
+        private final PreparedRoom room;
+        private final TraceListener listener;
+        private final PatchIndex index;
+        private final PatchWords cleaned;
+        private int x;
+        private int y;
+        private int cleanedPatches;
+
+        Trace(PatchIndex index, int startX, int startY, TraceListener listener) {
+            this.room = index.room();
+            this.listener = listener;
+            this.index = index;
+            this.cleaned = index.openWords(PatchWords.wordsFor(index.size()));
+            this.x = startX;
+            this.y = startY;
+        }
+
+        HooverResponse run(String instructions) {
+            listener.onStart(x, y);
+            int start = index.row(x, y);
+            if (start >= 0) {
+                clean(start, x, y, 0);
+            }
+            int runStart = 0;
+            while (runStart < instructions.length()) {
+                char instruction = instructions.charAt(runStart);
+                int direction = InstructionDecoder.decodeAt(instructions, runStart);
+                int runEnd = runStart + 1;
+                while (runEnd < instructions.length() && instructions.charAt(runEnd) == instruction) {
+                    runEnd++;
+                }
+                move(direction, runEnd - runStart, runStart);
+                runStart = runEnd;
+            }
+            return new HooverResponse(new int[]{x, y}, cleanedPatches);
+        }
+
+        /**
+         * Moves a run and reports it, then the patches it cleaned.
+         *
+         * @param executed The number of instructions executed before the run.
+         */
+        private void move(int direction, int length, int executed) {
+            int fromX = x;
+            int fromY = y;
+            x = Math.clamp((long) x + (long) InstructionDecoder.DX[direction] * length, 0, room.roomWidth());
+            y = Math.clamp((long) y + (long) InstructionDecoder.DY[direction] * length, 0, room.roomHeight());
+            int steps = Math.abs(x - fromX) + Math.abs(y - fromY);
+            listener.onRun(direction, steps, length - steps);
+            if (steps == 0) {
+                return;
+            }
+            switch (direction) {
+                case InstructionDecoder.EAST -> cleanRow(fromY, fromX + 1, x, fromX, executed, true);
+                case InstructionDecoder.WEST -> cleanRow(fromY, x, fromX - 1, fromX, executed, false);
+                case InstructionDecoder.NORTH -> cleanColumn(fromX, fromY + 1, y, fromY, executed, true);
+                case InstructionDecoder.SOUTH -> cleanColumn(fromX, y, fromY - 1, fromY, executed, false);
+                default -> {
+                }
+            }
+        }
+
+        private void cleanRow(int row, int from, int to, int origin, int executed, boolean ascending) {
+            int first = index.lowerBoundRow(PreparedRoom.key(from, row));
+            int last = index.lowerBoundRow(PreparedRoom.key(to, row) + 1) - 1;
+            for (int i = first; i <= last; i++) {
+                int patch = ascending ? i : first + last - i;
+                int patchX = PreparedRoom.x(index.rowKey(patch));
+                clean(patch, patchX, row, executed + Math.abs(patchX - origin));
+            }
+        }
+
+        private void cleanColumn(int column, int from, int to, int origin, int executed, boolean ascending) {
+            int first = index.lowerBoundColumn(PreparedRoom.key(from, column));
+            int last = index.lowerBoundColumn(PreparedRoom.key(to, column) + 1) - 1;
+            for (int i = first; i <= last; i++) {
+                int patch = ascending ? i : first + last - i;
+                int patchY = PreparedRoom.x(index.columnKey(patch));
+                clean(index.columnToRow(patch), column, patchY, executed + Math.abs(patchY - origin));
+            }
+        }
+
+        private void clean(int patch, int patchX, int patchY, int step) {
+            if (!cleaned.isSet(patch)) {
+                cleaned.setBit(patch);
+                cleanedPatches++;
+                listener.onCleaned(patch, patchX, patchY, step);
+            }
+        }
+
+        @Override
+        public void close() {
+            cleaned.close();
+        }
+    }
+}
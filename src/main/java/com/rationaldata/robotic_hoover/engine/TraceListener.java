@@ -0,0 +1,35 @@
+package com.rationaldata.robotic_hoover.engine;
+
+/**
+ * Receives the trajectory of a navigation traced by the {@link TraceEngine}, in order, as it is computed.
+ * The positions are not reported one by one: they follow from the start position and the runs.
+ */
+public interface TraceListener {
+
+    /**
+     * The start of the navigation, reported first.
+     *
+     * @param x The initial X coordinate of the hoover.
+     * @param y The initial Y coordinate of the hoover.
+     */
+    void onStart(int x, int y);
+
+    /**
+     * A run of identical instructions.
+     *
+     * @param direction The direction of the run, as decoded by {@link InstructionDecoder}.
+     * @param steps     The number of tiles the hoover moved.
+     * @param blocked   The number of instructions of the run that pushed against a wall without moving.
+     */
+    void onRun(int direction, int steps, int blocked);
+
+    /**
+     * A patch cleaned, after the run that cleaned it was reported.
+     *
+     * @param patch The index of the patch in the prepared room.
+     * @param x     The X coordinate of the patch.
+     * @param y     The Y coordinate of the patch.
+     * @param step  The number of instructions executed when the hoover reached the patch, 0 for the start tile.
+     */
+    void onCleaned(int patch, int x, int y, int step);
+}
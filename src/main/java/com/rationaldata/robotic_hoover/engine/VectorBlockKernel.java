@@ -0,0 +1,113 @@
+package com.rationaldata.robotic_hoover.engine;
+
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShuffle;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link BlockKernel} built on the incubating Vector API, processing a full vector of instructions at a time.
+ * <p>
+ * The characters are loaded into 16-bit lanes, so that no character outside Latin-1 can pass for an instruction,
+ * and compared against 'N', 'E', 'S' and 'W' to get one mask per direction, which are blended into
+ * lanes of dx and dy deltas of -1, 0 or 1. An in-register prefix sum (log2 of the vector length shift-and-add
+ * steps) gives the unclamped displacement after every instruction, whose minimum and maximum are lane reductions.
+ * <p>
+ * Only loaded by {@link BlockKernel#best()} when the {@code jdk.incubator.vector} module is enabled.
+ */
+class VectorBlockKernel implements BlockKernel {
+
+    private static final VectorSpecies<Short> SPECIES = ShortVector.SPECIES_PREFERRED;
+    private static final ShortVector ZERO = ShortVector.zero(SPECIES);
+    private static final int STEPS = Integer.numberOfTrailingZeros(SPECIES.length());
+    /**
+     * For every step of the prefix sum, the shuffle moving lanes up by 2^step and the mask of the lanes it fills.
+     */
+    private static final VectorShuffle<Short>[] SHIFTS = shifts();
+    private static final VectorMask<Short>[] SHIFTED = shifted();
+
+    @Override
+    public int summarize(char[] block, int length, int[] summary) {
+        int dx = 0;
+        int dy = 0;
+        int minDx = 0;
+        int maxDx = 0;
+        int minDy = 0;
+        int maxDy = 0;
+        int lanes = SPECIES.length();
+        int bound = SPECIES.loopBound(length);
+        for (int i = 0; i < bound; i += lanes) {
+            ShortVector chars = ShortVector.fromCharArray(SPECIES, block, i);
+            VectorMask<Short> north = chars.eq((short) 'N');
+            VectorMask<Short> east = chars.eq((short) 'E');
+            VectorMask<Short> south = chars.eq((short) 'S');
+            VectorMask<Short> west = chars.eq((short) 'W');
+            VectorMask<Short> valid = north.or(east).or(south).or(west);
+            if (!valid.allTrue()) {
+                return i + valid.not().firstTrue();
+            }
+
+            ShortVector prefixX = prefixSum(ZERO.blend((short) 1, east).blend((short) -1, west));
+            ShortVector prefixY = prefixSum(ZERO.blend((short) 1, north).blend((short) -1, south));
+            minDx = Math.min(minDx, dx + prefixX.reduceLanes(VectorOperators.MIN));
+            maxDx = Math.max(maxDx, dx + prefixX.reduceLanes(VectorOperators.MAX));
+            minDy = Math.min(minDy, dy + prefixY.reduceLanes(VectorOperators.MIN));
+            maxDy = Math.max(maxDy, dy + prefixY.reduceLanes(VectorOperators.MAX));
+            dx += prefixX.lane(lanes - 1);
+            dy += prefixY.lane(lanes - 1);
+        }
+
+        if (bound < length) {
+            // The tail shorter than a vector goes through the scalar kernel, whose summary is then merged in
+            int invalid = ScalarBlockKernel.summarize(block, bound, length, summary);
+            if (invalid >= 0) {
+                return invalid;
+            }
+            minDx = Math.min(minDx, dx + summary[MIN_DX]);
+            maxDx = Math.max(maxDx, dx + summary[MAX_DX]);
+            minDy = Math.min(minDy, dy + summary[MIN_DY]);
+            maxDy = Math.max(maxDy, dy + summary[MAX_DY]);
+            dx += summary[DX];
+            dy += summary[DY];
+        }
+
+        summary[DX] = dx;
+        summary[DY] = dy;
+        summary[MIN_DX] = minDx;
+        summary[MAX_DX] = maxDx;
+        summary[MIN_DY] = minDy;
+        summary[MAX_DY] = maxDy;
+        return -1;
+    }
+
+    /**
+     * Inclusive prefix sum of the lanes: lane i becomes the sum of lanes 0 to i.
+     */
+    private static ShortVector prefixSum(ShortVector deltas) {
+        ShortVector sums = deltas;
+        for (int step = 0; step < STEPS; step++) {
+            sums = sums.add(sums.rearrange(SHIFTS[step]), SHIFTED[step]);
+        }
+        return sums;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static VectorShuffle<Short>[] shifts() {
+        VectorShuffle<Short>[] shifts = new VectorShuffle[STEPS];
+        for (int step = 0; step < STEPS; step++) {
+            shifts[step] = VectorShuffle.iota(SPECIES, -(1 << step), 1, true);
+        }
+        return shifts;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static VectorMask<Short>[] shifted() {
+        ShortVector lanes = ZERO.addIndex(1);
+        VectorMask<Short>[] masks = new VectorMask[STEPS];
+        for (int step = 0; step < STEPS; step++) {
+            masks[step] = lanes.compare(VectorOperators.GE, (short) (1 << step));
+        }
+        return masks;
+    }
+}
@@ -0,0 +1,127 @@
+package com.rationaldata.robotic_hoover.engine;
+
+import com.rationaldata.robotic_hoover.dto.HooverResponse;
+import com.rationaldata.robotic_hoover.exception.InvalidInstructionsException;
+import com.rationaldata.robotic_hoover.room.PreparedRoom;
+import com.rationaldata.robotic_hoover.room.RoomGrid;
+import com.rationaldata.robotic_hoover.room.RoomGridFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Engine processing the instructions in blocks summarized by a {@link BlockKernel}, vectorized with the
+ * {@code jdk.incubator.vector} API when the JVM runs with {@code --add-modules jdk.incubator.vector},
+ * scalar otherwise.
+ * <p>
+ * The summary gives the range of the unclamped displacements within the block. A block that provably never
+ * reaches a wall from the current position is walked without clamping the moves, and when it also stays clear of
+ * the bounding box of the patches, or every patch has been cleaned, it is not walked at all: the hoover just moves
+ * by the block's displacement. Only the blocks that may reach a wall are walked one clamped move at a time,
+ * like in {@link StepEngine}.
+ */
+@Component
+public class VectorEngine implements NavigationEngine {
+
+    /**
+     * Instructions per block: long enough to amortize the summary, short enough for most blocks of a random walk
+     * to stay clear of the walls of a large room.
+     */
+    static final int BLOCK_SIZE = 1_024;
+
+    private final RoomGridFactory roomGridFactory;
+    private final BlockKernel kernel;
+
+    @Autowired
+    public VectorEngine(RoomGridFactory roomGridFactory) {
+        this(roomGridFactory, BlockKernel.best());
+    }
+
+    VectorEngine(RoomGridFactory roomGridFactory, BlockKernel kernel) {
+        this.roomGridFactory = roomGridFactory;
+        this.kernel = kernel;
+    }
+
+    /**
+     * @return {@code true} if the blocks are summarized with the Vector API rather than the scalar fallback.
+     */
+    public boolean isVectorized() {
+        return !(kernel instanceof ScalarBlockKernel);
+    }
+
+    @Override
+    public HooverResponse navigate(PreparedRoom preparedRoom, String instructions) {
+        int roomWidth = preparedRoom.roomWidth();
+        int roomHeight = preparedRoom.roomHeight();
+        int x = preparedRoom.startX();
+        int y = preparedRoom.startY();
+
+        try (RoomGrid room = roomGridFactory.open(preparedRoom)) {
+            int cleanedPatches = room.clean(x, y) ? 1 : 0;
+            int remainingPatches = preparedRoom.patchCount() - cleanedPatches;
+            int[] patchBounds = patchBounds(preparedRoom);
+
+            char[] block = new char[BLOCK_SIZE];
+            int[] summary = new int[BlockKernel.SUMMARY_LENGTH];
+            for (int blockStart = 0; blockStart < instructions.length(); blockStart += BLOCK_SIZE) {
+                int length = Math.min(BLOCK_SIZE, instructions.length() - blockStart);
+                instructions.getChars(blockStart, blockStart + length, block, 0);
+
+                int invalid = kernel.summarize(block, length, summary);
+                if (invalid >= 0) {
+                    throw new InvalidInstructionsException(blockStart + invalid, block[invalid]);
+                }
+
+                long minX = x + (long) summary[BlockKernel.MIN_DX];
+                long maxX = x + (long) summary[BlockKernel.MAX_DX];
+                long minY = y + (long) summary[BlockKernel.MIN_DY];
+                long maxY = y + (long) summary[BlockKernel.MAX_DY];
+                boolean clearOfWalls = minX >= 0 && maxX <= roomWidth && minY >= 0 && maxY <= roomHeight;
+                boolean clearOfPatches = remainingPatches == 0
+                        || maxX < patchBounds[0] || minX > patchBounds[1] || maxY < patchBounds[2] || minY > patchBounds[3];
+
+                if (clearOfWalls && clearOfPatches) {
+                    x += summary[BlockKernel.DX];
+                    y += summary[BlockKernel.DY];
+                } else if (clearOfWalls) {
+                    for (int i = 0; i < length; i++) {
+                        int direction = InstructionDecoder.decode(block[i]);
+                        x += InstructionDecoder.DX[direction];
+                        y += InstructionDecoder.DY[direction];
+                        if (room.clean(x, y)) {
+                            cleanedPatches++;
+                            remainingPatches--;
+                        }
+                    }
+                } else {
+                    for (int i = 0; i < length; i++) {
+                        int direction = InstructionDecoder.decode(block[i]);
+                        x = (int) Math.min(roomWidth, Math.max(0, (long) x + InstructionDecoder.DX[direction]));
+                        y = (int) Math.min(roomHeight, Math.max(0, (long) y + InstructionDecoder.DY[direction]));
+                        if (room.clean(x, y)) {
+                            cleanedPatches++;
+                            remainingPatches--;
+                        }
+                    }
+                }
+            }
+
+            return new HooverResponse(new int[]{x, y}, cleanedPatches);
+        }
+    }
+
+    /**
+     * @return The smallest and largest X, then the smallest and largest Y, of the patches of the room.
+     */
+    private static int[] patchBounds(PreparedRoom room) {
+        int[] bounds = {Integer.MAX_VALUE, Integer.MIN_VALUE, Integer.MAX_VALUE, Integer.MIN_VALUE};
+        for (int i = 0; i < room.patchCount(); i++) {
+            int x = PreparedRoom.x(room.patchKey(i));
+            int y = PreparedRoom.y(room.patchKey(i));
+            bounds[0] = Math.min(bounds[0], x);
+            bounds[1] = Math.max(bounds[1], x);
+            bounds[2] = Math.min(bounds[2], y);
+            bounds[3] = Math.max(bounds[3], y);
+        }
+        return bounds;
+    }
+}
@@ -1,6 +1,9 @@
 package com.rationaldata.robotic_hoover.exception;
 
+import com.rationaldata.robotic_hoover.metrics.NavigationMetrics;
 import jakarta.validation.ConstraintViolationException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -13,8 +16,11 @@ import java.util.HashMap;
 import java.util.Map;
 
 @ControllerAdvice
+@Slf4j
+@RequiredArgsConstructor
 public class GlobalExceptionHandler {
 
+    private final NavigationMetrics metrics;
 
     private ErrorResponse createErrorResponse(String error, String message, HttpStatus status) {
         return new ErrorResponse(error, message, status.value(), LocalDateTime.now());
@@ -22,31 +28,44 @@ public class GlobalExceptionHandler {
 
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ErrorResponse> handleMethodArgumentNotValid(MethodArgumentNotValidException ex, WebRequest request) {
+        metrics.recordError(ex);
         Map<String, String> errors = new HashMap<>();
         ex.getBindingResult().getFieldErrors().forEach(error -> {
             errors.put(error.getField(), error.getDefaultMessage());
         });
-        String errorMessage = errors.toString();
-        ErrorResponse errorResponse = createErrorResponse("Validation Failed", errorMessage, HttpStatus.BAD_REQUEST);
+        ErrorResponse errorResponse = validationFailed(errors);
         return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
     }
 
+    private ErrorResponse validationFailed(Map<String, String> errors) {
+        return createErrorResponse("Validation Failed", errors.toString(), HttpStatus.BAD_REQUEST);
+    }
+
 
     @ExceptionHandler(ConstraintViolationException.class)
     public ResponseEntity<ErrorResponse> handleConstraintViolationException(ConstraintViolationException ex, WebRequest request) {
+        metrics.recordError(ex);
+        ErrorResponse errorResponse = createErrorResponse("Constraint Violation", constraintViolationMessage(ex), HttpStatus.BAD_REQUEST);
+        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+    }
+
+    private String constraintViolationMessage(ConstraintViolationException ex) {
+        return constraintViolations(ex).toString();
+    }
+
+    private static Map<String, String> constraintViolations(ConstraintViolationException ex) {
         Map<String, String> errors = new HashMap<>();
         ex.getConstraintViolations().forEach(violation -> {
             String fieldName = violation.getPropertyPath().toString();
             String errorMessage = violation.getMessage();
             errors.put(fieldName, errorMessage);
         });
-        String errorMessage = errors.toString();
-        ErrorResponse errorResponse = createErrorResponse("Constraint Violation", errorMessage, HttpStatus.BAD_REQUEST);
-        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+        return errors;
     }
 
     @ExceptionHandler(InvalidRoomSizeException.class)
     public ResponseEntity<ErrorResponse> handleInvalidRoomSizeException(InvalidRoomSizeException ex, WebRequest request) {
+        metrics.recordError(ex);
         ErrorResponse errorResponse = createErrorResponse("Invalid Room Size", ex.getMessage(), HttpStatus.BAD_REQUEST);
         return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
     }
@@ -54,19 +73,66 @@ public class GlobalExceptionHandler {
 
     @ExceptionHandler(OutOfRoomBoundsCoordinatesException.class)
     public ResponseEntity<ErrorResponse> handleOutOfRoomBoundsCoordinatesException(OutOfRoomBoundsCoordinatesException ex, WebRequest request) {
+        metrics.recordError(ex);
         ErrorResponse errorResponse = createErrorResponse("Out of Room Bounds", ex.getMessage(), HttpStatus.BAD_REQUEST);
         return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
     }
 
     @ExceptionHandler(NegativeValuesException.class)
     public ResponseEntity<ErrorResponse> handleNegativeValuesException(NegativeValuesException ex, WebRequest request) {
+        metrics.recordError(ex);
         ErrorResponse errorResponse = createErrorResponse("Negative Values Error", ex.getMessage(), HttpStatus.BAD_REQUEST);
         return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(InvalidInstructionsException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidInstructionsException(InvalidInstructionsException ex, WebRequest request) {
+        metrics.recordError(ex);
+        ErrorResponse errorResponse = createErrorResponse("Invalid Instructions", ex.getMessage(), HttpStatus.BAD_REQUEST);
+        return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<ErrorResponse> handleIllegalArgumentException(IllegalArgumentException ex, WebRequest request) {
+        metrics.recordError(ex);
         ErrorResponse errorResponse = createErrorResponse("Illegal argument", ex.getMessage(), HttpStatus.BAD_REQUEST);
         return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
     }
+
+    @ExceptionHandler(SessionNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleSessionNotFoundException(SessionNotFoundException ex, WebRequest request) {
+        metrics.recordError(ex);
+        ErrorResponse errorResponse = createErrorResponse("Session Not Found", ex.getMessage(), HttpStatus.NOT_FOUND);
+        return new ResponseEntity<>(errorResponse, HttpStatus.NOT_FOUND);
+    }
+
+    /**
+     * Builds the error response the handlers above give for the given exception, for endpoints
+     * reporting an error per item instead of failing the whole request. The error is counted like those of the handlers.
+     *
+     * Items failing bean validation get the error of a single request failing it.
+     *
+     * @param ex The exception an item failed with.
+     * @return The error response of the matching handler, or an internal server error for unexpected exceptions,
+     *         whose details are logged rather than returned.
+     */
+    public ErrorResponse toErrorResponse(Exception ex) {
+        metrics.recordError(ex);
+        if (ex instanceof ConstraintViolationException constraintViolationException) {
+            return validationFailed(constraintViolations(constraintViolationException));
+        }
+        String error = switch (ex) {
+            case InvalidRoomSizeException e -> "Invalid Room Size";
+            case OutOfRoomBoundsCoordinatesException e -> "Out of Room Bounds";
+            case NegativeValuesException e -> "Negative Values Error";
+            case InvalidInstructionsException e -> "Invalid Instructions";
+            case IllegalArgumentException e -> "Illegal argument";
+            default -> null;
+        };
+        if (error == null) {
+            log.error("Batch item failed", ex);
+            return createErrorResponse("Internal Server Error", "An unexpected error occurred", HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+        return createErrorResponse(error, ex.getMessage(), HttpStatus.BAD_REQUEST);
+    }
 }
@@ -0,0 +1,21 @@
+package com.rationaldata.robotic_hoover.exception;
+
+public class InvalidInstructionsException extends IllegalArgumentException {
+    public InvalidInstructionsException(String message) {
+        super(message);
+    }
+
+    public InvalidInstructionsException(long offset, int character) {
+        super(message(offset, character));
+    }
+
+    /**
+     * @param offset    The offset of the first character that is not an instruction.
+     * @param character The character.
+     * @return The message reporting the character, as given to the exception.
+     */
+    public static String message(long offset, int character) {
+        return "Instructions must only contain the characters N, E, S, W, found '" + (char) character
+                + "' at offset " + offset;
+    }
+}
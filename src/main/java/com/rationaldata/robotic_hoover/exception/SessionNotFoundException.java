@@ -0,0 +1,7 @@
+package com.rationaldata.robotic_hoover.exception;
+
+public class SessionNotFoundException extends RuntimeException {
+    public SessionNotFoundException(String sessionId) {
+        super("No room session with id " + sessionId + ", it may have expired");
+    }
+}
@@ -0,0 +1,124 @@
+package com.rationaldata.robotic_hoover.metrics;
+
+import com.rationaldata.robotic_hoover.dto.HooverRequest;
+import com.rationaldata.robotic_hoover.dto.HooverResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+/**
+ * Micrometer meters of the navigation, exposed through {@code /actuator/metrics} and {@code /actuator/prometheus}.
+ * <ul>
+ *     <li>{@code hoover.navigate.phase}: time spent per phase of a request, tagged {@code phase} with
+ *     {@code binding}, {@code bean-validation}, {@code validation} or {@code simulation}.</li>
+ *     <li>{@code hoover.request.instructions}, {@code hoover.request.patches}, {@code hoover.request.room.area}:
+ *     the size of the validated requests.</li>
+ *     <li>{@code hoover.response.patches.cleaned}: the patches cleaned per navigation.</li>
+ *     <li>{@code hoover.errors}: the errors reported to clients, tagged {@code exception} with the exception type.</li>
+ * </ul>
+ * The timers and summaries publish histograms, so that latency can be broken down by input size in Prometheus.
+ */
+@Component
+public class NavigationMetrics {
+
+    private final MeterRegistry registry;
+    private final Timer binding;
+    private final Timer beanValidation;
+    private final Timer validation;
+    private final Timer simulation;
+    private final DistributionSummary instructions;
+    private final DistributionSummary patches;
+    private final DistributionSummary roomArea;
+    private final DistributionSummary patchesCleaned;
+
+    public NavigationMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.binding = phase("binding");
+        this.beanValidation = phase("bean-validation");
+        this.validation = phase("validation");
+        this.simulation = phase("simulation");
+        this.instructions = summary("hoover.request.instructions", "instructions", "Instructions per request");
+        this.patches = summary("hoover.request.patches", "patches", "Dirt patches per request");
+        this.roomArea = summary("hoover.request.room.area", "cells", "Cells of the room per request");
+        this.patchesCleaned = summary("hoover.response.patches.cleaned", "patches", "Dirt patches cleaned per navigation");
+    }
+
+    /**
+     * @return The timer of reading the request body.
+     */
+    public Timer binding() {
+        return binding;
+    }
+
+    /**
+     * @return The timer of the Bean Validation constraints of the request.
+     */
+    public Timer beanValidation() {
+        return beanValidation;
+    }
+
+    /**
+     * @return The timer of {@link com.rationaldata.robotic_hoover.validation.HooverRequestValidator}.
+     */
+    public Timer validation() {
+        return validation;
+    }
+
+    /**
+     * @return The timer of the hoover's movement, for navigations not served from the cache.
+     */
+    public Timer simulation() {
+        return simulation;
+    }
+
+    /**
+     * Records the size of a validated request.
+     *
+     * @param request A request that passed validation.
+     */
+    public void recordRequest(HooverRequest request) {
+        instructions.record(request.getInstructions().length());
+        patches.record(request.getPatches().size());
+        roomArea.record((request.getRoomSize()[0] + 1.0) * (request.getRoomSize()[1] + 1.0));
+    }
+
+    /**
+     * Records the outcome of a navigation.
+     *
+     * @param response The result of the navigation.
+     */
+    public void recordResponse(HooverResponse response) {
+        patchesCleaned.record(response.getPatches());
+    }
+
+    /**
+     * Counts an error reported to a client.
+     *
+     * @param exception The exception the error was built from.
+     */
+    public void recordError(Exception exception) {
+        Counter.builder("hoover.errors")
+                .description("Errors reported to clients")
+                .tag("exception", exception.getClass().getSimpleName())
+                .register(registry)
+                .increment();
+    }
+
+    private Timer phase(String phase) {
+        return Timer.builder("hoover.navigate.phase")
+                .description("Time spent per phase of a navigation request")
+                .tag("phase", phase)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    private DistributionSummary summary(String name, String baseUnit, String description) {
+        return DistributionSummary.builder(name)
+                .description(description)
+                .baseUnit(baseUnit)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+}
@@ -0,0 +1,38 @@
+package com.rationaldata.robotic_hoover.metrics;
+
+import io.micrometer.core.instrument.Timer;
+import org.springframework.validation.Errors;
+import org.springframework.validation.SmartValidator;
+
+/**
+ * {@link SmartValidator} recording the time spent validating {@code @Valid} request bodies.
+ */
+public class TimedValidator implements SmartValidator {
+
+    private final SmartValidator delegate;
+    private final Timer timer;
+
+    /**
+     * @param delegate The validator doing the validation.
+     * @param timer    The timer to record validations with.
+     */
+    public TimedValidator(SmartValidator delegate, Timer timer) {
+        this.delegate = delegate;
+        this.timer = timer;
+    }
+
+    @Override
+    public boolean supports(Class<?> clazz) {
+        return delegate.supports(clazz);
+    }
+
+    @Override
+    public void validate(Object target, Errors errors) {
+        timer.record(() -> delegate.validate(target, errors));
+    }
+
+    @Override
+    public void validate(Object target, Errors errors, Object... validationHints) {
+        timer.record(() -> delegate.validate(target, errors, validationHints));
+    }
+}
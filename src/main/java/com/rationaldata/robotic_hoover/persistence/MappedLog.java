@@ -0,0 +1,228 @@
+package com.rationaldata.robotic_hoover.persistence;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log of instruction fragments, written through memory-mapped regions of the file.
+ * <p>
+ * Each record is the payload length, the CRC32C of the payload, then the payload. The length is written last, so a
+ * record whose pages only partly reached the disk reads back as the end of the log or fails its checksum, and the log
+ * is cut there. A sealed log ends with a length of {@link #SEALED}, which tells recovery that the log is complete.
+ * <p>
+ * Appending only copies the record into the page cache; {@link #force()} is left to a background flusher, so
+ * requests never wait for the disk.
+ */
+final class MappedLog implements Closeable {
+
+    private static final int HEADER_BYTES = 2 * Integer.BYTES;
+    private static final int SEALED = -1;
+
+    private final FileChannel channel;
+    private final int chunkSize;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final List<MappedByteBuffer> unforced = new ArrayList<>();
+    private MappedByteBuffer chunk;
+    private long chunkStart;
+    private long size;
+    private long forced;
+    private boolean closed;
+
+    private MappedLog(FileChannel channel, int chunkSize, long size) {
+        this.channel = channel;
+        this.chunkSize = chunkSize;
+        this.size = size;
+        this.forced = size;
+    }
+
+    /**
+     * Opens a log for appending, dropping anything after its valid records.
+     *
+     * @param file      The log file, created if missing.
+     * @param chunkSize The size of the regions mapped at a time.
+     * @param size      The length of the valid records, as found by {@link #replay(Path, Consumer)}.
+     * @return The log, positioned after its valid records.
+     * @throws IOException if the file cannot be opened.
+     */
+    static MappedLog open(Path file, int chunkSize, long size) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        channel.truncate(size);
+        return new MappedLog(channel, chunkSize, size);
+    }
+
+    /**
+     * Reads the valid records of a log, in order.
+     *
+     * @param file    The log file.
+     * @param records Receives the payload of every valid record.
+     * @return The outcome of the replay.
+     * @throws IOException if the file cannot be read.
+     */
+    static Replay replay(Path file, Consumer<byte[]> records) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize > Integer.MAX_VALUE) {
+                throw new IOException("Log " + file + " exceeds " + Integer.MAX_VALUE + " bytes");
+            }
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+            CRC32C crc = new CRC32C();
+            while (buffer.remaining() >= Integer.BYTES) {
+                int start = buffer.position();
+                int length = buffer.getInt();
+                if (length == SEALED) {
+                    return new Replay(start, true);
+                }
+                if (length <= 0 || buffer.remaining() < Integer.BYTES || length > buffer.remaining() - Integer.BYTES) {
+                    return new Replay(start, false);
+                }
+                int checksum = buffer.getInt();
+                byte[] payload = new byte[length];
+                buffer.get(payload);
+                crc.reset();
+                crc.update(payload);
+                if ((int) crc.getValue() != checksum) {
+                    return new Replay(start, false);
+                }
+                records.accept(payload);
+            }
+            return new Replay(buffer.position(), false);
+        }
+    }
+
+    /**
+     * Appends a record.
+     *
+     * @param payload The record, not empty.
+     */
+    void append(byte[] payload) {
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        lock.lock();
+        try {
+            MappedByteBuffer region = reserve(HEADER_BYTES + payload.length);
+            int position = (int) (size - chunkStart);
+            region.put(position + HEADER_BYTES, payload);
+            region.putInt(position + Integer.BYTES, (int) crc.getValue());
+            region.putInt(position, payload.length);
+            size += HEADER_BYTES + payload.length;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Marks the log as complete. Later appends are not allowed.
+     */
+    void seal() {
+        lock.lock();
+        try {
+            reserve(Integer.BYTES).putInt((int) (size - chunkStart), SEALED);
+            size += Integer.BYTES;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes the records appended since the last call to the disk: the regions filled since, whole, and the part
+     * of the current region written since.
+     */
+    void force() {
+        List<MappedByteBuffer> regions;
+        MappedByteBuffer active;
+        int from;
+        int to;
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            regions = new ArrayList<>(unforced);
+            unforced.clear();
+            active = chunk;
+            from = (int) (Math.max(forced, chunkStart) - chunkStart);
+            to = (int) (size - chunkStart);
+            forced = size;
+        } finally {
+            lock.unlock();
+        }
+        for (MappedByteBuffer region : regions) {
+            region.force();
+        }
+        if (active != null && to > from) {
+            active.force(from, to - from);
+        }
+    }
+
+    /**
+     * @return The length of the records appended so far, in bytes.
+     */
+    long size() {
+        return size;
+    }
+
+    /**
+     * Forces the log to disk and closes it.
+     */
+    @Override
+    public void close() throws IOException {
+        force();
+        lock.lock();
+        try {
+            if (!closed) {
+                closed = true;
+                if (chunk != null) {
+                    chunk.force();
+                }
+                chunk = null;
+                channel.truncate(size);
+                channel.close();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the region the next {@code length} bytes go to, mapping a new one at the end of the log
+     * if they do not fit in the current one. Records never span two regions.
+     */
+    private MappedByteBuffer reserve(int length) {
+        if (closed) {
+            throw new IllegalStateException("Log is closed");
+        }
+        if (chunk == null || size + length > chunkStart + chunk.capacity()) {
+            try {
+                MappedByteBuffer next = channel.map(FileChannel.MapMode.READ_WRITE, size, Math.max(chunkSize, length));
+                if (chunk != null) {
+                    unforced.add(chunk);
+                }
+                chunk = next;
+                chunkStart = size;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return chunk;
+    }
+
+    /**
+     * Outcome of a replay.
+     *
+     * @param validLength The length of the valid records, where appending resumes.
+     * @param sealed      Whether the log was sealed, as opposed to cut by a crash.
+     */
+    record Replay(long validLength, boolean sealed) {
+    }
+}
@@ -0,0 +1,283 @@
+package com.rationaldata.robotic_hoover.persistence;
+
+import com.rationaldata.robotic_hoover.room.PreparedRoom;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+
+/**
+ * The files of one room session: the room itself, written once, the latest snapshot, and the instruction logs
+ * appended since. Logs are numbered by generation: taking a snapshot seals the current log and starts the next one,
+ * and once the snapshot is on disk the logs it covers are deleted.
+ * <p>
+ * Appends and rollovers are serialized by the session; snapshots are written and old logs deleted by the
+ * {@link SessionStore} flusher thread, so neither waits for the disk on the request path.
+ */
+public final class SessionJournal {
+
+    static final String ROOM_FILE = "room.bin";
+    static final String SNAPSHOT_FILE = "snapshot.bin";
+    private static final String LOG_PREFIX = "log-";
+    private static final String LOG_SUFFIX = ".bin";
+    private static final int ROOM_MAGIC = 0x48565231;
+    private static final int SNAPSHOT_MAGIC = 0x48565331;
+
+    private final Path directory;
+    private final int chunkSize;
+    private final long snapshotThreshold;
+    private final ReentrantLock files = new ReentrantLock();
+    private final List<MappedLog> sealedLogs = new ArrayList<>();
+    private volatile MappedLog log;
+    private long generation;
+    private SessionSnapshot pendingSnapshot;
+    private boolean closed;
+
+    SessionJournal(Path directory, int chunkSize, long snapshotThreshold, long generation, MappedLog log) {
+        this.directory = directory;
+        this.chunkSize = chunkSize;
+        this.snapshotThreshold = snapshotThreshold;
+        this.generation = generation;
+        this.log = log;
+    }
+
+    /**
+     * Appends a fragment of instructions to the current log.
+     *
+     * @param fragment The fragment, already validated.
+     */
+    public void append(byte[] fragment) {
+        log.append(fragment);
+    }
+
+    /**
+     * @return {@code true} once the current log is large enough to be folded into a snapshot.
+     */
+    public boolean needsSnapshot() {
+        return log.size() >= snapshotThreshold;
+    }
+
+    /**
+     * Seals the current log and starts the next generation. The snapshot of the session taken right after,
+     * before any other append, must carry the returned generation.
+     *
+     * @return The generation of the new log.
+     */
+    public long rollover() {
+        files.lock();
+        try {
+            MappedLog next = MappedLog.open(logFile(directory, generation + 1), chunkSize, 0);
+            log.seal();
+            sealedLogs.add(log);
+            log = next;
+            return ++generation;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            files.unlock();
+        }
+    }
+
+    /**
+     * Forces the current log to disk.
+     */
+    void force() {
+        log.force();
+    }
+
+    /**
+     * Hands over a snapshot to be written by {@link #writePendingSnapshot()}. A newer snapshot replaces
+     * one not written yet.
+     */
+    void offerSnapshot(SessionSnapshot snapshot) {
+        files.lock();
+        try {
+            pendingSnapshot = snapshot;
+        } finally {
+            files.unlock();
+        }
+    }
+
+    /**
+     * Writes the pending snapshot, if any, then deletes the logs it covers.
+     */
+    void writePendingSnapshot() throws IOException {
+        files.lock();
+        try {
+            SessionSnapshot snapshot = pendingSnapshot;
+            if (snapshot == null) {
+                return;
+            }
+            pendingSnapshot = null;
+            for (MappedLog sealed : sealedLogs) {
+                sealed.close();
+            }
+            sealedLogs.clear();
+            writeSnapshot(directory, snapshot);
+            for (long covered : generations(directory)) {
+                if (covered < snapshot.generation()) {
+                    Files.deleteIfExists(logFile(directory, covered));
+                }
+            }
+        } finally {
+            files.unlock();
+        }
+    }
+
+    /**
+     * Writes the pending snapshot and closes the logs, leaving the files for a later recovery.
+     */
+    void close() throws IOException {
+        files.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            writePendingSnapshot();
+            log.close();
+        } finally {
+            files.unlock();
+        }
+    }
+
+    Path directory() {
+        return directory;
+    }
+
+    static Path logFile(Path directory, long generation) {
+        return directory.resolve(LOG_PREFIX + generation + LOG_SUFFIX);
+    }
+
+    /**
+     * @return The generations of the logs in the directory, in ascending order.
+     */
+    static List<Long> generations(Path directory) throws IOException {
+        List<Long> generations = new ArrayList<>();
+        try (var files = Files.newDirectoryStream(directory, LOG_PREFIX + "*" + LOG_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    generations.add(Long.parseLong(name, LOG_PREFIX.length(), name.length() - LOG_SUFFIX.length(), 10));
+                } catch (NumberFormatException e) {
+                    // Not a log of ours
+                }
+            }
+        }
+        generations.sort(null);
+        return generations;
+    }
+
+    static void writeRoom(Path directory, PreparedRoom room) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(7 * Integer.BYTES + room.patchCount() * Long.BYTES);
+        buffer.putInt(ROOM_MAGIC)
+                .putInt(room.roomWidth())
+                .putInt(room.roomHeight())
+                .putInt(room.startX())
+                .putInt(room.startY())
+                .putInt(room.patchCount());
+        for (int i = 0; i < room.patchCount(); i++) {
+            buffer.putLong(room.patchKey(i));
+        }
+        writeAtomically(directory.resolve(ROOM_FILE), buffer);
+    }
+
+    static PreparedRoom readRoom(Path directory) throws IOException {
+        ByteBuffer buffer = readChecked(directory.resolve(ROOM_FILE), ROOM_MAGIC);
+        int roomWidth = buffer.getInt();
+        int roomHeight = buffer.getInt();
+        int startX = buffer.getInt();
+        int startY = buffer.getInt();
+        long[] keys = new long[buffer.getInt()];
+        buffer.asLongBuffer().get(keys);
+        return new PreparedRoom(roomWidth, roomHeight, startX, startY, keys);
+    }
+
+    static void writeSnapshot(Path directory, SessionSnapshot snapshot) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(6 * Integer.BYTES + 2 * Long.BYTES + snapshot.cleaned().length * Long.BYTES);
+        buffer.putInt(SNAPSHOT_MAGIC)
+                .putLong(snapshot.generation())
+                .putInt(snapshot.x())
+                .putInt(snapshot.y())
+                .putInt(snapshot.cleanedPatches())
+                .putLong(snapshot.moveCount())
+                .putInt(snapshot.cleaned().length);
+        for (long word : snapshot.cleaned()) {
+            buffer.putLong(word);
+        }
+        writeAtomically(directory.resolve(SNAPSHOT_FILE), buffer);
+    }
+
+    static SessionSnapshot readSnapshot(Path directory) throws IOException {
+        ByteBuffer buffer = readChecked(directory.resolve(SNAPSHOT_FILE), SNAPSHOT_MAGIC);
+        long generation = buffer.getLong();
+        int x = buffer.getInt();
+        int y = buffer.getInt();
+        int cleanedPatches = buffer.getInt();
+        long moveCount = buffer.getLong();
+        long[] cleaned = new long[buffer.getInt()];
+        buffer.asLongBuffer().get(cleaned);
+        return new SessionSnapshot(generation, x, y, cleanedPatches, moveCount, cleaned);
+    }
+
+    /**
+     * Writes the buffer followed by its CRC32C to a temporary file, forces it, then renames it over the target
+     * and forces the directory, so a crash leaves either the previous file or the new one.
+     */
+    private static void writeAtomically(Path file, ByteBuffer content) throws IOException {
+        content.flip();
+        CRC32C crc = new CRC32C();
+        crc.update(content.duplicate());
+        ByteBuffer checksum = ByteBuffer.allocate(Integer.BYTES).putInt((int) crc.getValue()).flip();
+
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (content.hasRemaining() || checksum.hasRemaining()) {
+                channel.write(new ByteBuffer[]{content, checksum});
+            }
+            channel.force(true);
+        }
+        Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        forceDirectory(file.getParent());
+    }
+
+    /**
+     * Forces the entries of a directory to disk, so that files created or renamed in it survive a crash.
+     * Platforms that cannot open a directory, such as Windows, are left to their own guarantees.
+     */
+    static void forceDirectory(Path directory) throws IOException {
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(directory, StandardOpenOption.READ);
+        } catch (IOException e) {
+            return;
+        }
+        try (channel) {
+            channel.force(true);
+        }
+    }
+
+    private static ByteBuffer readChecked(Path file, int magic) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        if (buffer.remaining() < 2 * Integer.BYTES) {
+            throw new IOException("Truncated file " + file);
+        }
+        ByteBuffer content = buffer.slice(0, buffer.remaining() - Integer.BYTES);
+        CRC32C crc = new CRC32C();
+        crc.update(content.duplicate());
+        if ((int) crc.getValue() != buffer.getInt(buffer.remaining() - Integer.BYTES) || content.getInt() != magic) {
+            throw new IOException("Corrupt file " + file);
+        }
+        return content;
+    }
+}
@@ -0,0 +1,28 @@
+package com.rationaldata.robotic_hoover.persistence;
+
+/**
+ * Compact state of a room session: the hoover position and which patches it cleaned.
+ *
+ * @param generation     The generation of the first instruction log to replay on top of the snapshot.
+ * @param x              The X coordinate of the hoover.
+ * @param y              The Y coordinate of the hoover.
+ * @param cleanedPatches The number of patches cleaned.
+ * @param moveCount      The number of moves processed.
+ * @param cleaned        One bit per patch, in the order of the prepared room's patches, set if it was cleaned.
+ */
+public record SessionSnapshot(long generation, int x, int y, int cleanedPatches, long moveCount, long[] cleaned) {
+
+    /**
+     * @return {@code true} if the patch at the given index of the prepared room was cleaned.
+     */
+    public boolean isCleaned(int patch) {
+        return (cleaned[patch >>> 6] & 1L << patch) != 0;
+    }
+
+    /**
+     * @return A bitmap of one bit per patch, all clear.
+     */
+    public static long[] bitmap(int patchCount) {
+        return new long[(patchCount + 63) >>> 6];
+    }
+}
@@ -0,0 +1,310 @@
+package com.rationaldata.robotic_hoover.persistence;
+
+import com.rationaldata.robotic_hoover.config.HooverProperties;
+import com.rationaldata.robotic_hoover.room.PreparedRoom;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Keeps room sessions on disk under {@code hoover.session.persistence.directory}, one directory per session,
+ * so that they survive a restart. See {@link SessionJournal} for the files of a session.
+ * <p>
+ * A single flusher thread forces the instruction logs to disk every {@code hoover.session.persistence.flush-interval}
+ * and writes the snapshots handed over by the sessions, so requests never wait for an {@code fsync}. A crash
+ * loses at most the fragments of the last interval; recovery loads the snapshot and replays only the logs since.
+ * Sessions are recovered lazily, on their first use after a restart or an eviction, and the flusher deletes the
+ * sessions on disk left idle for longer than {@code hoover.session.idle-timeout}, at startup and then once
+ * per timeout.
+ */
+@Slf4j
+@Component
+public class SessionStore {
+
+    private final HooverProperties.Persistence settings;
+    private final Map<Path, SessionJournal> journals = new ConcurrentHashMap<>();
+    private final ReentrantLock sweep = new ReentrantLock();
+    private final ScheduledExecutorService flusher;
+
+    public SessionStore(HooverProperties properties) {
+        this.settings = properties.getSession().getPersistence();
+        if (!settings.isEnabled()) {
+            this.flusher = null;
+            return;
+        }
+        Duration idleTimeout = properties.getSession().getIdleTimeout();
+        try {
+            Files.createDirectories(settings.getDirectory());
+            deleteIdleSessions(Instant.now().minus(idleTimeout));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        long interval = settings.getFlushInterval().toMillis();
+        this.flusher = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("hoover-session-flusher").daemon().factory());
+        flusher.scheduleWithFixedDelay(this::forceAll, interval, interval, TimeUnit.MILLISECONDS);
+        flusher.scheduleWithFixedDelay(() -> {
+            try {
+                deleteIdleSessions(Instant.now().minus(idleTimeout));
+            } catch (IOException | UncheckedIOException e) {
+                log.error("Failed to delete idle sessions", e);
+            }
+        }, idleTimeout.toMillis(), idleTimeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return {@code true} if sessions are persisted.
+     */
+    public boolean isEnabled() {
+        return flusher != null;
+    }
+
+    /**
+     * Writes a new session to disk and opens its first instruction log. The room, initial snapshot and session
+     * directory are forced to disk before returning, so a created session is never lost.
+     *
+     * @param sessionId The id of the session.
+     * @param room      The prepared room of the session.
+     * @param initial   The state of the session before any instruction, of generation 0.
+     * @return The journal the session appends its fragments to.
+     */
+    public SessionJournal create(String sessionId, PreparedRoom room, SessionSnapshot initial) {
+        Path directory = settings.getDirectory().resolve(sessionId);
+        try {
+            Files.createDirectories(directory);
+            SessionJournal.forceDirectory(settings.getDirectory());
+            SessionJournal.writeRoom(directory, room);
+            SessionJournal.writeSnapshot(directory, initial);
+            return register(new SessionJournal(directory, chunkSize(), settings.getSnapshotThreshold().toBytes(),
+                    initial.generation(), MappedLog.open(SessionJournal.logFile(directory, initial.generation()), chunkSize(), 0)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Loads the room and the latest snapshot of a session kept on disk, marking it as used so that the idle sweep
+     * leaves it alone while it is being recovered.
+     *
+     * @param sessionId The id of the session.
+     * @return The stored session, or empty if there is none with this id.
+     */
+    public Optional<StoredSession> load(String sessionId) {
+        Optional<Path> directory = directoryOf(sessionId).filter(Files::isDirectory);
+        if (directory.isEmpty()) {
+            return Optional.empty();
+        }
+        sweep.lock();
+        try {
+            if (!Files.isDirectory(directory.get())) {
+                return Optional.empty();
+            }
+            Files.setLastModifiedTime(directory.get(), FileTime.from(Instant.now()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            sweep.unlock();
+        }
+        try {
+            return Optional.of(new StoredSession(SessionJournal.readRoom(directory.get()),
+                    SessionJournal.readSnapshot(directory.get())));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Replays the logs written since the snapshot of a stored session, then reopens the last one for appending.
+     * Replay stops at the first record cut by a crash, and any later log is discarded.
+     *
+     * @param sessionId The id of the session, as loaded by {@link #load(String)}.
+     * @param stored    The stored session.
+     * @param fragments Receives the fragments to apply on top of the snapshot, in order.
+     * @return The journal the session appends its next fragments to.
+     */
+    public SessionJournal reopen(String sessionId, StoredSession stored, Consumer<byte[]> fragments) {
+        Path directory = settings.getDirectory().resolve(sessionId);
+        try {
+            long generation = stored.snapshot().generation();
+            long validLength = 0;
+            boolean complete = true;
+            for (long logGeneration : SessionJournal.generations(directory)) {
+                if (logGeneration < stored.snapshot().generation()) {
+                    continue;
+                }
+                Path file = SessionJournal.logFile(directory, logGeneration);
+                if (!complete || logGeneration != generation) {
+                    Files.delete(file);
+                    continue;
+                }
+                MappedLog.Replay replay = MappedLog.replay(file, fragments);
+                if (replay.sealed()) {
+                    generation++;
+                } else {
+                    validLength = replay.validLength();
+                    complete = false;
+                }
+            }
+            MappedLog log = MappedLog.open(SessionJournal.logFile(directory, generation), chunkSize(), validLength);
+            return register(new SessionJournal(directory, chunkSize(), settings.getSnapshotThreshold().toBytes(), generation, log));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Has the flusher thread write a snapshot of a session.
+     *
+     * @param journal  The journal of the session, just rolled over.
+     * @param snapshot The snapshot taken right after the rollover.
+     */
+    public void snapshotLater(SessionJournal journal, SessionSnapshot snapshot) {
+        journal.offerSnapshot(snapshot);
+        flusher.execute(() -> {
+            try {
+                journal.writePendingSnapshot();
+            } catch (IOException e) {
+                log.error("Failed to write the snapshot of {}", journal.directory(), e);
+            }
+        });
+    }
+
+    /**
+     * Closes the journal of a session leaving memory, keeping its files for a later recovery.
+     */
+    public void close(SessionJournal journal) {
+        journals.remove(journal.directory());
+        try {
+            journal.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Closes the journal of a session that ended and deletes its files.
+     */
+    public void delete(SessionJournal journal) {
+        close(journal);
+        try {
+            FileSystemUtils.deleteRecursively(journal.directory());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Stops the flusher and closes every journal, so that the sessions are fully on disk at shutdown.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (flusher == null) {
+            return;
+        }
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (SessionJournal journal : List.copyOf(journals.values())) {
+            close(journal);
+        }
+    }
+
+    private SessionJournal register(SessionJournal journal) {
+        journals.put(journal.directory(), journal);
+        return journal;
+    }
+
+    private void forceAll() {
+        for (SessionJournal journal : journals.values()) {
+            try {
+                journal.force();
+            } catch (RuntimeException e) {
+                log.error("Failed to force the log of {}", journal.directory(), e);
+            }
+        }
+    }
+
+    /**
+     * Resolves the directory of a session, only for well-formed ids so that an id can never point elsewhere.
+     */
+    private Optional<Path> directoryOf(String sessionId) {
+        try {
+            if (!UUID.fromString(sessionId).toString().equals(sessionId)) {
+                return Optional.empty();
+            }
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+        return Optional.of(settings.getDirectory().resolve(sessionId));
+    }
+
+    /**
+     * Deletes the sessions on disk not modified since the given instant, skipping those open in memory, whose
+     * expiry is left to the session cache.
+     */
+    private void deleteIdleSessions(Instant idleSince) throws IOException {
+        List<Path> directories;
+        try (Stream<Path> files = Files.list(settings.getDirectory())) {
+            directories = files.filter(Files::isDirectory).toList();
+        }
+        for (Path directory : directories) {
+            sweep.lock();
+            try {
+                if (!journals.containsKey(directory) && Files.isDirectory(directory)
+                        && lastModified(directory).toInstant().isBefore(idleSince)) {
+                    FileSystemUtils.deleteRecursively(directory);
+                }
+            } finally {
+                sweep.unlock();
+            }
+        }
+    }
+
+    private static FileTime lastModified(Path directory) throws IOException {
+        FileTime latest = Files.getLastModifiedTime(directory);
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                FileTime modified = Files.getLastModifiedTime(file);
+                if (modified.compareTo(latest) > 0) {
+                    latest = modified;
+                }
+            }
+        }
+        return latest;
+    }
+
+    private int chunkSize() {
+        return (int) Math.min(Integer.MAX_VALUE, settings.getLogChunkSize().toBytes());
+    }
+
+    /**
+     * A session as found on disk, before its logs are replayed.
+     *
+     * @param room     The prepared room of the session.
+     * @param snapshot The latest snapshot of the session.
+     */
+    public record StoredSession(PreparedRoom room, SessionSnapshot snapshot) {
+    }
+}
@@ -0,0 +1,134 @@
+package com.rationaldata.robotic_hoover.room;
+
+/**
+ * Thread-safe {@link RoomGrid} for engines simulating several parts of the instructions at the same time.
+ * Each patch is a bit of {@link PatchWords} cleared with a compare-and-set, so that a patch visited
+ * by several workers is cleaned, and counted, by exactly one of them.
+ * <p>
+ * Dense rooms address the bits by tile like {@link DenseRoomGrid}, sparse rooms by the rank of the patch in the
+ * row order of a {@link PatchIndex}, which like the bits stays off the heap for an off-heap room. Either way the tiles
+ * of a row segment are contiguous bits, cleared a word at a time; a column segment is a range of the column-sorted
+ * patches in sparse rooms, and no longer than the room height in dense ones. The grid must be closed after use.
+ */
+public class ConcurrentRoomGrid implements RoomGrid {
+
+    private final PatchWords dirt;
+    private final int rowLength;
+    private final PatchIndex index;
+
+    private ConcurrentRoomGrid(PatchWords dirt, int rowLength, PatchIndex index) {
+        this.dirt = dirt;
+        this.rowLength = rowLength;
+        this.index = index;
+    }
+
+    static ConcurrentRoomGrid dense(PreparedRoom room) {
+        int rowLength = room.roomWidth() + 1;
+        PatchWords dirt = PatchWords.onHeap(PatchWords.wordsFor(DenseRoomGrid.cells(room.roomWidth(), room.roomHeight())));
+        for (int i = 0; i < room.patchCount(); i++) {
+            long key = room.patchKey(i);
+            long index = (long) PreparedRoom.y(key) * rowLength + PreparedRoom.x(key);
+            int word = (int) (index >>> 6);
+            dirt.set(word, dirt.get(word) | 1L << index);
+        }
+        return new ConcurrentRoomGrid(dirt, rowLength, null);
+    }
+
+    static ConcurrentRoomGrid sparse(PreparedRoom room) {
+        PatchIndex index = new PatchIndex(room);
+        try {
+            int size = index.size();
+            PatchWords dirt = index.openWords(PatchWords.wordsFor(size));
+            for (int word = 0; word < dirt.length(); word++) {
+                int bits = Math.min(64, size - (word << 6));
+                dirt.set(word, bits == 64 ? -1L : (1L << bits) - 1);
+            }
+            return new ConcurrentRoomGrid(dirt, 0, index);
+        } catch (RuntimeException | Error e) {
+            index.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean clean(int x, int y) {
+        long index = index(x, y);
+        return index >= 0 && clear(index, index + 1) == 1;
+    }
+
+    @Override
+    public boolean isDirty(int x, int y) {
+        long index = index(x, y);
+        return index >= 0 && (dirt.getVolatile((int) (index >>> 6)) & 1L << index) != 0;
+    }
+
+    @Override
+    public int cleanRow(int y, int fromX, int toX) {
+        if (index == null) {
+            return clear((long) y * rowLength + fromX, (long) y * rowLength + toX + 1);
+        }
+        return clear(index.lowerBoundRow(PreparedRoom.key(fromX, y)), index.lowerBoundRow(PreparedRoom.key(toX, y) + 1));
+    }
+
+    @Override
+    public int cleanColumn(int x, int fromY, int toY) {
+        if (index == null) {
+            return RoomGrid.super.cleanColumn(x, fromY, toY);
+        }
+        int cleaned = 0;
+        int last = index.lowerBoundColumn(PreparedRoom.key(toY, x) + 1);
+        for (int column = index.lowerBoundColumn(PreparedRoom.key(fromY, x)); column < last; column++) {
+            int row = index.columnToRow(column);
+            cleaned += clear(row, row + 1);
+        }
+        return cleaned;
+    }
+
+    /**
+     * @return The bit of the tile in dense rooms, or of the patch on the tile in sparse rooms, -1 if there is none.
+     */
+    private long index(int x, int y) {
+        if (index == null) {
+            return (long) y * rowLength + x;
+        }
+        return index.row(x, y);
+    }
+
+    /**
+     * Clears the bits in {@code [from, to)} a word at a time, skipping words with none of them left.
+     *
+     * @return The number of bits this call cleared.
+     */
+    private int clear(long from, long to) {
+        int cleaned = 0;
+        while (from < to) {
+            int word = (int) (from >>> 6);
+            int end = (int) Math.min(to - ((long) word << 6), 64);
+            long range = -1L << from;
+            if (end < 64) {
+                range &= (1L << end) - 1;
+            }
+            long current;
+            do {
+                current = dirt.getVolatile(word);
+                if ((current & range) == 0) {
+                    break;
+                }
+            } while (!dirt.compareAndSet(word, current, current & ~range));
+            cleaned += Long.bitCount(current & range);
+            from = ((long) word + 1) << 6;
+        }
+        return cleaned;
+    }
+
+    /**
+     * Gives the buffers of an off-heap room back to the pool. The grid must not be used afterwards.
+     */
+    @Override
+    public void close() {
+        dirt.close();
+        if (index != null) {
+            index.close();
+        }
+    }
+}
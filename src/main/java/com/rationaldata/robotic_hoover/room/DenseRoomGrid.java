@@ -0,0 +1,91 @@
+package com.rationaldata.robotic_hoover.room;
+
+import java.util.List;
+
+/**
+ * Bitmap of the room with one bit per tile, indexed by {@code y * (roomWidth + 1) + x}.
+ * Checking and cleaning a tile is a single load, mask and store, which beats any hash structure
+ * as long as the room is small enough for the bitmap to stay cache friendly.
+ */
+public class DenseRoomGrid implements RoomGrid {
+
+    private final long[] dirt;
+    private final int rowLength;
+
+    /**
+     * @param roomWidth  The width of the room. Valid X coordinates range from 0 to {@code roomWidth}.
+     * @param roomHeight The height of the room. Valid Y coordinates range from 0 to {@code roomHeight}.
+     * @param patches    The list of patches, each an array of [x, y].
+     */
+    public DenseRoomGrid(int roomWidth, int roomHeight, List<int[]> patches) {
+        this.rowLength = roomWidth + 1;
+        this.dirt = new long[(int) ((cells(roomWidth, roomHeight) + 63) >>> 6)];
+        for (int[] patch : patches) {
+            long index = index(patch[0], patch[1]);
+            dirt[(int) (index >>> 6)] |= 1L << index;
+        }
+    }
+
+    /**
+     * @param room The prepared room, whose patches are all marked as dirty.
+     */
+    public DenseRoomGrid(PreparedRoom room) {
+        this.rowLength = room.roomWidth() + 1;
+        this.dirt = new long[(int) ((cells(room.roomWidth(), room.roomHeight()) + 63) >>> 6)];
+        for (int i = 0; i < room.patchCount(); i++) {
+            long key = room.patchKey(i);
+            long index = index(PreparedRoom.x(key), PreparedRoom.y(key));
+            dirt[(int) (index >>> 6)] |= 1L << index;
+        }
+    }
+
+    /**
+     * @return The number of tiles in a room of the given size, walls included.
+     */
+    public static long cells(int roomWidth, int roomHeight) {
+        return ((long) roomWidth + 1) * ((long) roomHeight + 1);
+    }
+
+    @Override
+    public boolean clean(int x, int y) {
+        long index = index(x, y);
+        int word = (int) (index >>> 6);
+        long bit = 1L << index;
+        long current = dirt[word];
+        dirt[word] = current & ~bit;
+        return (current & bit) != 0;
+    }
+
+    @Override
+    public boolean isDirty(int x, int y) {
+        long index = index(x, y);
+        return (dirt[(int) (index >>> 6)] & 1L << index) != 0;
+    }
+
+    /**
+     * Rows are contiguous in the bitmap, so a row segment is cleared a whole word at a time.
+     * Columns keep the per-tile default, a column segment being no longer than the room height.
+     */
+    @Override
+    public int cleanRow(int y, int fromX, int toX) {
+        long from = index(fromX, y);
+        long to = index(toX, y) + 1;
+        int cleaned = 0;
+        while (from < to) {
+            int word = (int) (from >>> 6);
+            int end = (int) Math.min(to - ((long) word << 6), 64);
+            long range = -1L << from;
+            if (end < 64) {
+                range &= (1L << end) - 1;
+            }
+            cleaned += Long.bitCount(dirt[word] & range);
+            dirt[word] &= ~range;
+            from = ((long) word + 1) << 6;
+        }
+        return cleaned;
+    }
+
+    private long index(int x, int y) {
+        return (long) y * rowLength + x;
+    }
+}
@@ -0,0 +1,132 @@
+package com.rationaldata.robotic_hoover.room;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pool of direct buffers in power-of-two size classes, so that navigations of huge rooms keep their patch
+ * structures off the heap without paying for a fresh native allocation each time.
+ * <p>
+ * Released buffers are kept for the next navigation up to {@code maxPooledBytes} in all; beyond that, and for
+ * buffers larger than the largest class, they are left to the garbage collector, which frees their memory with them.
+ */
+public final class DirectBufferPool {
+
+    private static final int MIN_CLASS = 16;
+    private static final int MAX_CLASS = 30;
+
+    private final long maxPooledBytes;
+    private final AtomicLong pooledBytes = new AtomicLong();
+    @SuppressWarnings("unchecked")
+    private final ConcurrentLinkedDeque<ByteBuffer>[] free = new ConcurrentLinkedDeque[MAX_CLASS + 1];
+
+    /**
+     * @param maxPooledBytes The most bytes of released buffers kept for reuse.
+     */
+    public DirectBufferPool(long maxPooledBytes) {
+        this.maxPooledBytes = maxPooledBytes;
+        for (int sizeClass = MIN_CLASS; sizeClass <= MAX_CLASS; sizeClass++) {
+            free[sizeClass] = new ConcurrentLinkedDeque<>();
+        }
+    }
+
+    /**
+     * Takes a buffer from the pool, or allocates one.
+     *
+     * @param bytes The number of bytes needed, at most {@link Integer#MAX_VALUE}.
+     * @return A direct buffer in native byte order, positioned at 0 with {@code bytes} remaining, and holding
+     *         whatever its previous user left in it.
+     */
+    public ByteBuffer acquire(long bytes) {
+        if (bytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Cannot allocate a buffer of " + bytes + " bytes");
+        }
+        int sizeClass = sizeClass(bytes);
+        ByteBuffer buffer = null;
+        if (sizeClass <= MAX_CLASS) {
+            buffer = free[sizeClass].poll();
+            if (buffer != null) {
+                pooledBytes.addAndGet(-buffer.capacity());
+            } else {
+                buffer = ByteBuffer.allocateDirect(1 << sizeClass);
+            }
+        } else {
+            buffer = ByteBuffer.allocateDirect((int) bytes);
+        }
+        return buffer.clear().limit((int) bytes).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Gives a buffer back once nothing refers to its memory anymore.
+     *
+     * @param buffer A buffer returned by {@link #acquire(long)}.
+     */
+    public void release(ByteBuffer buffer) {
+        int sizeClass = Integer.numberOfTrailingZeros(buffer.capacity());
+        if (buffer.capacity() != 1 << sizeClass || sizeClass < MIN_CLASS || sizeClass > MAX_CLASS) {
+            return;
+        }
+        if (pooledBytes.addAndGet(buffer.capacity()) > maxPooledBytes) {
+            pooledBytes.addAndGet(-buffer.capacity());
+            return;
+        }
+        free[sizeClass].push(buffer);
+    }
+
+    /**
+     * Sorts non-negative keys in place with a least significant digit radix sort, one byte per pass, through a
+     * scratch buffer borrowed from the pool. Passes where every key has the same byte are skipped.
+     *
+     * @param keys The keys, read and written by absolute index from 0.
+     * @param size The number of keys to sort.
+     */
+    public void sort(LongBuffer keys, int size) {
+        ByteBuffer scratchBuffer = acquire((long) size * Long.BYTES);
+        try {
+            LongBuffer source = keys;
+            LongBuffer target = scratchBuffer.asLongBuffer();
+            int[] counts = new int[256];
+            for (int shift = 0; shift < Long.SIZE; shift += 8) {
+                Arrays.fill(counts, 0);
+                for (int i = 0; i < size; i++) {
+                    counts[(int) (source.get(i) >>> shift) & 0xFF]++;
+                }
+                if (size == 0 || counts[(int) (source.get(0) >>> shift) & 0xFF] == size) {
+                    continue;
+                }
+                for (int digit = 0, offset = 0; digit < 256; digit++) {
+                    int count = counts[digit];
+                    counts[digit] = offset;
+                    offset += count;
+                }
+                for (int i = 0; i < size; i++) {
+                    long key = source.get(i);
+                    target.put(counts[(int) (key >>> shift) & 0xFF]++, key);
+                }
+                LongBuffer sorted = target;
+                target = source;
+                source = sorted;
+            }
+            if (source != keys) {
+                keys.put(0, source, 0, size);
+            }
+        } finally {
+            release(scratchBuffer);
+        }
+    }
+
+    /**
+     * @return The bytes of the buffers waiting in the pool.
+     */
+    public long pooledBytes() {
+        return pooledBytes.get();
+    }
+
+    private static int sizeClass(long bytes) {
+        return Math.max(MIN_CLASS, 64 - Long.numberOfLeadingZeros(Math.max(1, bytes) - 1));
+    }
+}
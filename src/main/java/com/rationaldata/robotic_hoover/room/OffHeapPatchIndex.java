@@ -0,0 +1,107 @@
+package com.rationaldata.robotic_hoover.room;
+
+/**
+ * Sparse {@link RoomGrid} for off-heap rooms like the {@link PatchLineIndex}, built on a {@link PatchIndex} whose
+ * column order and ranks sit in a direct buffer next to the keys of the {@link PreparedRoom}, so that the grid of a
+ * room with millions of patches adds nothing to the heap for the garbage collector to trace.
+ * <p>
+ * The cleaned patches are marked in two bitsets of {@link PatchWords}, one in row order and one in column order,
+ * scanned a word of 64 patches at a time. The buffers go back to the pool when the grid is closed, which must happen
+ * exactly once, after its last use.
+ */
+public class OffHeapPatchIndex implements RoomGrid {
+
+    private final PatchIndex index;
+    private final int size;
+    private final PatchWords cleanedRows;
+    private final PatchWords cleanedColumns;
+
+    /**
+     * @param room The prepared room, whose keys already are the distinct patches in row order.
+     */
+    public OffHeapPatchIndex(PreparedRoom room) {
+        PatchIndex patchIndex = new PatchIndex(room);
+        PatchWords rows = null;
+        PatchWords columns;
+        try {
+            int words = PatchWords.wordsFor(patchIndex.size());
+            rows = patchIndex.openWords(words);
+            columns = patchIndex.openWords(words);
+        } catch (RuntimeException | Error e) {
+            if (rows != null) {
+                rows.close();
+            }
+            patchIndex.close();
+            throw e;
+        }
+        this.index = patchIndex;
+        this.size = patchIndex.size();
+        this.cleanedRows = rows;
+        this.cleanedColumns = columns;
+    }
+
+    /**
+     * @param patchCount The number of distinct patches.
+     * @return The bytes of direct memory an index of that many patches uses, besides the keys of the room.
+     */
+    static long bytes(long patchCount) {
+        return PatchIndex.bytes(patchCount) + 2L * PatchWords.wordsFor(patchCount) * Long.BYTES;
+    }
+
+    @Override
+    public boolean clean(int x, int y) {
+        int row = index.row(x, y);
+        if (row < 0 || cleanedRows.isSet(row)) {
+            return false;
+        }
+        remove(row);
+        return true;
+    }
+
+    @Override
+    public boolean isDirty(int x, int y) {
+        int row = index.row(x, y);
+        return row >= 0 && !cleanedRows.isSet(row);
+    }
+
+    @Override
+    public int cleanRow(int y, int fromX, int toX) {
+        long last = PreparedRoom.key(toX, y);
+        int cleaned = 0;
+        for (int row = cleanedRows.nextClearBit(index.lowerBoundRow(PreparedRoom.key(fromX, y)), size);
+             row < size && index.rowKey(row) <= last;
+             row = cleanedRows.nextClearBit(row + 1, size)) {
+            remove(row);
+            cleaned++;
+        }
+        return cleaned;
+    }
+
+    @Override
+    public int cleanColumn(int x, int fromY, int toY) {
+        long last = PreparedRoom.key(toY, x);
+        int cleaned = 0;
+        for (int column = cleanedColumns.nextClearBit(index.lowerBoundColumn(PreparedRoom.key(fromY, x)), size);
+             column < size && index.columnKey(column) <= last;
+             column = cleanedColumns.nextClearBit(column + 1, size)) {
+            remove(index.columnToRow(column));
+            cleaned++;
+        }
+        return cleaned;
+    }
+
+    /**
+     * Gives the buffers back to the pool. The grid must not be used afterwards.
+     */
+    @Override
+    public void close() {
+        cleanedRows.close();
+        cleanedColumns.close();
+        index.close();
+    }
+
+    private void remove(int row) {
+        cleanedRows.setBit(row);
+        cleanedColumns.setBit(index.rowToColumn(row));
+    }
+}
@@ -0,0 +1,176 @@
+package com.rationaldata.robotic_hoover.room;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+
+/**
+ * The patches of a {@link PreparedRoom} sorted by row and by column, with the rank of every patch in each order.
+ * Read-only once built, so that several navigations may share it, such as the hoovers of a fleet.
+ * <p>
+ * The row order is the room's own keys. The column order and the ranks are built next to them: in a direct buffer
+ * taken from the room's {@link DirectBufferPool} for an off-heap room, on the heap otherwise, and the
+ * {@link PatchWords} the index opens for its navigations live in the same place. The buffer goes back to the pool
+ * when the index is closed, which must happen exactly once, after its last use.
+ */
+public final class PatchIndex implements AutoCloseable {
+
+    private final PreparedRoom room;
+    private final DirectBufferPool pool;
+    private final ByteBuffer buffer;
+    private final int size;
+    private final LongBuffer rowKeys;
+    private final LongBuffer columnKeys;
+    private final IntBuffer rowToColumn;
+    private final IntBuffer columnToRow;
+
+    /**
+     * @param room The prepared room, off the heap or not.
+     */
+    PatchIndex(PreparedRoom room) {
+        this.room = room;
+        this.pool = room.pool();
+        this.size = room.patchCount();
+        this.rowKeys = room.keyBuffer();
+        if (pool == null) {
+            this.buffer = null;
+            this.columnKeys = LongBuffer.wrap(new long[size]);
+            this.rowToColumn = IntBuffer.wrap(new int[size]);
+            this.columnToRow = IntBuffer.wrap(new int[size]);
+        } else {
+            this.buffer = pool.acquire(bytes(size));
+            this.columnKeys = slice(0, (long) size * Long.BYTES).asLongBuffer();
+            this.rowToColumn = slice((long) size * Long.BYTES, (long) size * Integer.BYTES).asIntBuffer();
+            this.columnToRow = slice((long) size * (Long.BYTES + Integer.BYTES), (long) size * Integer.BYTES)
+                    .asIntBuffer();
+        }
+        try {
+            for (int row = 0; row < size; row++) {
+                columnKeys.put(row, transpose(rowKeys.get(row)));
+            }
+            if (pool == null) {
+                Arrays.sort(columnKeys.array(), 0, size);
+            } else {
+                pool.sort(columnKeys, size);
+            }
+            for (int column = 0; column < size; column++) {
+                int row = lowerBound(rowKeys, transpose(columnKeys.get(column)));
+                rowToColumn.put(row, column);
+                columnToRow.put(column, row);
+            }
+        } catch (RuntimeException | Error e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * @param patchCount The number of distinct patches.
+     * @return The bytes of direct memory the index of an off-heap room of that many patches uses.
+     */
+    static long bytes(long patchCount) {
+        return patchCount * (Long.BYTES + 2 * Integer.BYTES);
+    }
+
+    public PreparedRoom room() {
+        return room;
+    }
+
+    /**
+     * @return The number of distinct patches.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return The patch of the given rank in the row order, as {@code y << 32 | x}.
+     */
+    public long rowKey(int row) {
+        return rowKeys.get(row);
+    }
+
+    /**
+     * @return The patch of the given rank in the column order, as {@code x << 32 | y}.
+     */
+    public long columnKey(int column) {
+        return columnKeys.get(column);
+    }
+
+    public int rowToColumn(int row) {
+        return rowToColumn.get(row);
+    }
+
+    public int columnToRow(int column) {
+        return columnToRow.get(column);
+    }
+
+    /**
+     * @return The rank in the row order of the patch on the tile, or -1 if there is none.
+     */
+    public int row(int x, int y) {
+        long key = PreparedRoom.key(x, y);
+        int row = lowerBoundRow(key);
+        return row < size && rowKeys.get(row) == key ? row : -1;
+    }
+
+    /**
+     * @return The rank in the row order of the first patch whose row key is not below {@code rowKey}.
+     */
+    public int lowerBoundRow(long rowKey) {
+        return lowerBound(rowKeys, rowKey);
+    }
+
+    /**
+     * @return The rank in the column order of the first patch whose column key is not below {@code columnKey}.
+     */
+    public int lowerBoundColumn(long columnKey) {
+        return lowerBound(columnKeys, columnKey);
+    }
+
+    /**
+     * Opens words for a navigation over this index, off the heap when the index is.
+     *
+     * @param length The number of words.
+     * @return Words all 0, to be closed after use.
+     */
+    public PatchWords openWords(int length) {
+        return pool == null ? PatchWords.onHeap(length) : PatchWords.offHeap(length, pool);
+    }
+
+    /**
+     * Gives the buffer of an off-heap index back to the pool. The index must not be used afterwards.
+     */
+    @Override
+    public void close() {
+        if (buffer != null) {
+            pool.release(buffer);
+        }
+    }
+
+    /**
+     * @return The key of the patch in the other order: {@code x << 32 | y} for a row key, and back.
+     */
+    public static long transpose(long key) {
+        return PreparedRoom.key(PreparedRoom.y(key), PreparedRoom.x(key));
+    }
+
+    private int lowerBound(LongBuffer keys, long key) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys.get(mid) < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private ByteBuffer slice(long offset, long length) {
+        return buffer.slice((int) offset, (int) length).order(buffer.order());
+    }
+}
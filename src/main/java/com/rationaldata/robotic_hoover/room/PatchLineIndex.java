@@ -0,0 +1,145 @@
+package com.rationaldata.robotic_hoover.room;
+
+import java.util.Arrays;
+
+/**
+ * Sparse {@link RoomGrid} keeping the patches sorted both by row and by column, so that all patches
+ * on a straight segment of the hoover's path are found with a binary search.
+ * <p>
+ * Cleaned patches are skipped through "next remaining patch" links with path compression, which makes
+ * cleaning a segment cost O(log P + patches cleaned) regardless of the segment length.
+ */
+public class PatchLineIndex implements RoomGrid {
+
+    private final long[] rowKeys;
+    private final long[] columnKeys;
+    private final int[] rowToColumn;
+    private final int[] columnToRow;
+    private final int[] nextInRow;
+    private final int[] nextInColumn;
+
+    /**
+     * @param room The prepared room, whose keys already are the distinct patches in row order.
+     */
+    public PatchLineIndex(PreparedRoom room) {
+        this.rowKeys = room.patchKeys();
+        int size = rowKeys.length;
+
+        this.columnKeys = new long[size];
+        for (int row = 0; row < size; row++) {
+            columnKeys[row] = key(x(rowKeys[row]), y(rowKeys[row]));
+        }
+        Arrays.sort(columnKeys);
+
+        this.rowToColumn = new int[size];
+        this.columnToRow = new int[size];
+        for (int column = 0; column < size; column++) {
+            long columnKey = columnKeys[column];
+            int row = Arrays.binarySearch(rowKeys, key((int) columnKey, (int) (columnKey >>> 32)));
+            rowToColumn[row] = column;
+            columnToRow[column] = row;
+        }
+        this.nextInRow = identity(size + 1);
+        this.nextInColumn = identity(size + 1);
+    }
+
+    /**
+     * @return The bytes used per patch: a row and a column key, two cross references and two skip links.
+     */
+    static long bytesPerPatch() {
+        return 2 * Long.BYTES + 4 * Integer.BYTES;
+    }
+
+    @Override
+    public boolean clean(int x, int y) {
+        int row = Arrays.binarySearch(rowKeys, key(y, x));
+        if (row < 0 || next(nextInRow, row) != row) {
+            return false;
+        }
+        remove(row);
+        return true;
+    }
+
+    @Override
+    public boolean isDirty(int x, int y) {
+        int row = Arrays.binarySearch(rowKeys, key(y, x));
+        return row >= 0 && next(nextInRow, row) == row;
+    }
+
+    @Override
+    public int cleanRow(int y, int fromX, int toX) {
+        long last = key(y, toX);
+        int cleaned = 0;
+        for (int row = next(nextInRow, lowerBound(rowKeys, key(y, fromX)));
+             row < rowKeys.length && rowKeys[row] <= last;
+             row = next(nextInRow, row + 1)) {
+            remove(row);
+            cleaned++;
+        }
+        return cleaned;
+    }
+
+    @Override
+    public int cleanColumn(int x, int fromY, int toY) {
+        long last = key(x, toY);
+        int cleaned = 0;
+        for (int column = next(nextInColumn, lowerBound(columnKeys, key(x, fromY)));
+             column < columnKeys.length && columnKeys[column] <= last;
+             column = next(nextInColumn, column + 1)) {
+            remove(columnToRow[column]);
+            cleaned++;
+        }
+        return cleaned;
+    }
+
+    private void remove(int row) {
+        nextInRow[row] = row + 1;
+        int column = rowToColumn[row];
+        nextInColumn[column] = column + 1;
+    }
+
+    /**
+     * Finds the first remaining position at or after {@code position}, halving the path on the way.
+     */
+    private static int next(int[] links, int position) {
+        while (links[position] != position) {
+            links[position] = links[links[position]];
+            position = links[position];
+        }
+        return position;
+    }
+
+    private static int lowerBound(long[] keys, long key) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static long key(int major, int minor) {
+        return ((long) major << 32) | (minor & 0xFFFFFFFFL);
+    }
+
+    private static int x(long rowKey) {
+        return (int) rowKey;
+    }
+
+    private static int y(long rowKey) {
+        return (int) (rowKey >>> 32);
+    }
+
+    private static int[] identity(int size) {
+        int[] links = new int[size];
+        for (int i = 0; i < size; i++) {
+            links[i] = i;
+        }
+        return links;
+    }
+}
@@ -0,0 +1,213 @@
+package com.rationaldata.robotic_hoover.room;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Open-addressing hash set holding the coordinates of the dirt patches still left in the room,
+ * used as the sparse {@link RoomGrid} of rooms too large for a bitmap.
+ * Every (x, y) pair is packed into a single primitive {@code long} key, so testing and removing
+ * a patch is O(1) and never boxes or allocates.
+ * <p>
+ * Collisions are resolved with linear probing and removals use backward-shift deletion,
+ * which keeps probe sequences short without the need for tombstones.
+ */
+public class PatchSet implements RoomGrid {
+
+    private static final long EMPTY = -1L;
+
+    private long[] keys;
+    private int mask;
+    private int size;
+
+    /**
+     * Creates an empty set sized so that {@code expectedSize} patches fit below a load factor of 0.5.
+     * The set grows when more patches are added.
+     *
+     * @param expectedSize The number of patches the set is expected to hold.
+     */
+    public PatchSet(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize) * 2 - 1) << 1;
+        this.keys = new long[capacity];
+        this.mask = capacity - 1;
+        Arrays.fill(keys, EMPTY);
+    }
+
+    /**
+     * Builds a set from the patch list of a request. Duplicate patches collapse into a single entry,
+     * which matches the rule that a dirt patch can only be cleaned once.
+     *
+     * @param patches The list of patches, each an array of [x, y].
+     * @return A new set containing every patch of the list.
+     */
+    public static PatchSet of(List<int[]> patches) {
+        PatchSet set = new PatchSet(patches.size());
+        for (int[] patch : patches) {
+            set.add(patch[0], patch[1]);
+        }
+        return set;
+    }
+
+    /**
+     * Builds a set from the distinct patches of a prepared room.
+     *
+     * @param room The prepared room.
+     * @return A new set containing every patch of the room.
+     */
+    public static PatchSet of(PreparedRoom room) {
+        PatchSet set = new PatchSet(room.patchCount());
+        for (int i = 0; i < room.patchCount(); i++) {
+            long key = room.patchKey(i);
+            set.add(PreparedRoom.x(key), PreparedRoom.y(key));
+        }
+        return set;
+    }
+
+    /**
+     * Packs a pair of non-negative coordinates into a single key.
+     *
+     * @param x The X coordinate.
+     * @param y The Y coordinate.
+     * @return The packed key, X in the high and Y in the low 32 bits.
+     */
+    public static long pack(int x, int y) {
+        return ((long) x << 32) | (y & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Adds a patch to the set.
+     *
+     * @return {@code true} if the patch was not already present.
+     */
+    public boolean add(int x, int y) {
+        long key = pack(x, y);
+        int slot = hash(key) & mask;
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        if (++size * 2 > keys.length) {
+            grow();
+        }
+        return true;
+    }
+
+    /**
+     * Checks if there is a dirt patch at the given coordinates.
+     *
+     * @return {@code true} if the patch is present.
+     */
+    public boolean contains(int x, int y) {
+        return slotOf(pack(x, y)) >= 0;
+    }
+
+    /**
+     * Removes the patch at the given coordinates, if any. Testing and removing happen in a single probe.
+     *
+     * @return {@code true} if a patch was present and has been removed.
+     */
+    public boolean remove(int x, int y) {
+        int slot = slotOf(pack(x, y));
+        if (slot < 0) {
+            return false;
+        }
+        shiftBack(slot);
+        size--;
+        return true;
+    }
+
+    @Override
+    public boolean clean(int x, int y) {
+        return remove(x, y);
+    }
+
+    @Override
+    public boolean isDirty(int x, int y) {
+        return contains(x, y);
+    }
+
+    /**
+     * Returns the slot holding the given patch. Slots are stable as long as the set is not modified,
+     * which lets callers keep per-patch state in a side array of {@link #capacity()} entries.
+     *
+     * @return The slot of the patch, or -1 if there is no patch at the given coordinates.
+     */
+    public int indexOf(int x, int y) {
+        return slotOf(pack(x, y));
+    }
+
+    /**
+     * @return The number of slots of the set, an upper bound of {@link #indexOf(int, int)}.
+     */
+    public int capacity() {
+        return keys.length;
+    }
+
+    /**
+     * @return The number of patches still in the set.
+     */
+    public int size() {
+        return size;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        keys = new long[oldKeys.length << 1];
+        mask = keys.length - 1;
+        Arrays.fill(keys, EMPTY);
+        for (long key : oldKeys) {
+            if (key != EMPTY) {
+                int slot = hash(key) & mask;
+                while (keys[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+            }
+        }
+    }
+
+    private int slotOf(long key) {
+        int slot = hash(key) & mask;
+        long current;
+        while ((current = keys[slot]) != EMPTY) {
+            if (current == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Closes the gap left by a removed key by moving back any following key of the same probe run
+     * whose home slot does not lie between the gap and its current slot.
+     */
+    private void shiftBack(int gap) {
+        int slot = gap;
+        while (true) {
+            slot = (slot + 1) & mask;
+            long key = keys[slot];
+            if (key == EMPTY) {
+                break;
+            }
+            int home = hash(key) & mask;
+            boolean movable = gap <= slot
+                    ? home <= gap || home > slot
+                    : home <= gap && home > slot;
+            if (movable) {
+                keys[gap] = key;
+                gap = slot;
+            }
+        }
+        keys[gap] = EMPTY;
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        h ^= h >>> 32;
+        return (int) (h ^ (h >>> 16));
+    }
+}
@@ -0,0 +1,137 @@
+package com.rationaldata.robotic_hoover.room;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Fixed array of {@code long} words holding what a navigation marks per patch, such as cleaned bits or claims,
+ * either on the heap or in a direct buffer taken from a {@link DirectBufferPool}. Words are read and written
+ * plainly by a single thread, or with volatile reads and compare-and-set by several.
+ * <p>
+ * Words of a {@link PatchIndex} are kept where the index is, so that an off-heap room stays off the heap.
+ * Pooled words go back to the pool when closed, which must happen exactly once, after their last use.
+ */
+public final class PatchWords implements AutoCloseable {
+
+    private static final VarHandle ARRAY = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final VarHandle BUFFER = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private final long[] array;
+    private final ByteBuffer buffer;
+    private final DirectBufferPool pool;
+    private final int length;
+
+    private PatchWords(long[] array, ByteBuffer buffer, DirectBufferPool pool, int length) {
+        this.array = array;
+        this.buffer = buffer;
+        this.pool = pool;
+        this.length = length;
+    }
+
+    /**
+     * @param length The number of words.
+     * @return Words on the heap, all 0.
+     */
+    static PatchWords onHeap(int length) {
+        return new PatchWords(new long[length], null, null, length);
+    }
+
+    /**
+     * @param length The number of words.
+     * @param pool   The pool the buffer is taken from and given back to.
+     * @return Words in a pooled direct buffer, all 0.
+     */
+    static PatchWords offHeap(int length, DirectBufferPool pool) {
+        PatchWords words = new PatchWords(null, pool.acquire((long) length * Long.BYTES), pool, length);
+        // Pooled buffers hold what their previous user left
+        words.fill(0);
+        return words;
+    }
+
+    /**
+     * @param bits The number of bits.
+     * @return The number of words holding that many bits.
+     */
+    public static int wordsFor(long bits) {
+        return (int) ((bits + 63) >>> 6);
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public long get(int index) {
+        return array != null ? array[index] : (long) BUFFER.get(buffer, index << 3);
+    }
+
+    public void set(int index, long value) {
+        if (array != null) {
+            array[index] = value;
+        } else {
+            BUFFER.set(buffer, index << 3, value);
+        }
+    }
+
+    public long getVolatile(int index) {
+        return array != null ? (long) ARRAY.getVolatile(array, index) : (long) BUFFER.getVolatile(buffer, index << 3);
+    }
+
+    /**
+     * Atomically replaces a word holding the expected value.
+     *
+     * @return {@code true} if the word held {@code expected} and now holds {@code value}.
+     */
+    public boolean compareAndSet(int index, long expected, long value) {
+        return array != null
+                ? ARRAY.compareAndSet(array, index, expected, value)
+                : BUFFER.compareAndSet(buffer, index << 3, expected, value);
+    }
+
+    public void fill(long value) {
+        for (int index = 0; index < length; index++) {
+            set(index, value);
+        }
+    }
+
+    public boolean isSet(int bit) {
+        return (get(bit >>> 6) & (1L << bit)) != 0;
+    }
+
+    public void setBit(int bit) {
+        int word = bit >>> 6;
+        set(word, get(word) | (1L << bit));
+    }
+
+    /**
+     * Finds the first bit at or after {@code bit} that is clear, scanning a word at a time.
+     *
+     * @param size The number of bits in use.
+     * @return The position of the bit, {@code size} if there is none.
+     */
+    public int nextClearBit(int bit, int size) {
+        if (bit >= size) {
+            return size;
+        }
+        int word = bit >>> 6;
+        long clear = ~get(word) & (-1L << bit);
+        while (clear == 0) {
+            if (++word << 6 >= size) {
+                return size;
+            }
+            clear = ~get(word);
+        }
+        return Math.min(size, (word << 6) + Long.numberOfTrailingZeros(clear));
+    }
+
+    /**
+     * Gives pooled words back to the pool. The words must not be used afterwards.
+     */
+    @Override
+    public void close() {
+        if (buffer != null) {
+            pool.release(buffer);
+        }
+    }
+}
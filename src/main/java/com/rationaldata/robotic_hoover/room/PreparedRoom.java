@@ -0,0 +1,259 @@
+package com.rationaldata.robotic_hoover.room;
+
+import com.rationaldata.robotic_hoover.dto.FleetRequest;
+import com.rationaldata.robotic_hoover.dto.HooverRequest;
+import com.rationaldata.robotic_hoover.dto.PackedPatches;
+
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A validated room ready for simulation: its size, the hoover's starting position, and its patches packed into
+ * {@code long} keys sorted row by row with duplicates removed.
+ * <p>
+ * It is built by {@link com.rationaldata.robotic_hoover.validation.HooverRequestValidator} in the same pass that
+ * validates the patches, and attached to the request, so that the grids, the engines and the result cache all read
+ * the patches from here instead of walking the request's patch list again. The keys are shared and must not be modified.
+ * <p>
+ * Patches decoded into a pooled direct buffer by a {@link PackedPatches} stay there: they are sorted and deduplicated
+ * in place and the room takes the buffer over, so that a room with millions of patches adds nothing to the heap.
+ * Such a room gives the buffer back to its pool when closed, after which it must not be used; closing a room on the
+ * heap does nothing.
+ */
+public final class PreparedRoom implements AutoCloseable {
+
+    private final int roomWidth;
+    private final int roomHeight;
+    private final int startX;
+    private final int startY;
+    private final long[] patchKeys;
+    private final LongBuffer offHeapKeys;
+    private final ByteBuffer buffer;
+    private final DirectBufferPool pool;
+    private final int patchCount;
+    private boolean closed;
+
+    /**
+     * @param roomWidth  The width of the room.
+     * @param roomHeight The height of the room.
+     * @param startX     The initial X coordinate of the hoover.
+     * @param startY     The initial Y coordinate of the hoover.
+     * @param patchKeys  The patches packed with {@link #key(int, int)}, in any order and possibly repeated.
+     *                   The array is sorted in place and owned by the new instance.
+     */
+    public PreparedRoom(int roomWidth, int roomHeight, int startX, int startY, long[] patchKeys) {
+        this.roomWidth = roomWidth;
+        this.roomHeight = roomHeight;
+        this.startX = startX;
+        this.startY = startY;
+        this.patchKeys = distinctSorted(patchKeys);
+        this.offHeapKeys = null;
+        this.buffer = null;
+        this.pool = null;
+        this.patchCount = this.patchKeys.length;
+    }
+
+    private PreparedRoom(int roomWidth, int roomHeight, int startX, int startY, ByteBuffer buffer, int patchCount,
+                         DirectBufferPool pool) {
+        this.roomWidth = roomWidth;
+        this.roomHeight = roomHeight;
+        this.startX = startX;
+        this.startY = startY;
+        this.patchKeys = null;
+        this.buffer = buffer;
+        this.offHeapKeys = buffer.asLongBuffer();
+        this.pool = pool;
+        this.patchCount = patchCount;
+    }
+
+    /**
+     * Returns the room prepared for a request during its validation, or prepares it now for requests that were
+     * not validated by {@link com.rationaldata.robotic_hoover.validation.HooverRequestValidator}.
+     * The request is assumed to be valid either way.
+     *
+     * @param request A valid request.
+     * @return The prepared room of the request.
+     */
+    public static PreparedRoom of(HooverRequest request) {
+        if (request.getPreparedRoom() != null) {
+            return request.getPreparedRoom();
+        }
+        return of(request.getRoomSize()[0], request.getRoomSize()[1], request.getCoords()[0], request.getCoords()[1],
+                request.getPatches());
+    }
+
+    /**
+     * Returns the room prepared for a fleet during its validation, or prepares it now, started at the first hoover,
+     * for fleets that were not validated by {@link com.rationaldata.robotic_hoover.validation.HooverRequestValidator}.
+     *
+     * @param request A valid fleet.
+     * @return The prepared room of the fleet.
+     */
+    public static PreparedRoom of(FleetRequest request) {
+        if (request.getPreparedRoom() != null) {
+            return request.getPreparedRoom();
+        }
+        int[] start = request.getHoovers().get(0).getCoords();
+        return of(request.getRoomSize()[0], request.getRoomSize()[1], start[0], start[1], request.getPatches());
+    }
+
+    /**
+     * Prepares a room from a list of valid patches.
+     *
+     * @param patches The list of patches, each an array of [x, y].
+     * @return The prepared room.
+     */
+    public static PreparedRoom of(int roomWidth, int roomHeight, int startX, int startY, List<int[]> patches) {
+        if (patches instanceof PackedPatches packed) {
+            return of(roomWidth, roomHeight, startX, startY, packed);
+        }
+        long[] keys = new long[patches.size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = key(patches.get(i)[0], patches.get(i)[1]);
+        }
+        return new PreparedRoom(roomWidth, roomHeight, startX, startY, keys);
+    }
+
+    /**
+     * Prepares a room from valid packed patches. Patches held off the heap are sorted and deduplicated in their
+     * buffer, which the room takes over: the patches cannot be read anymore, and the room must be closed.
+     *
+     * @param patches The patches, with non-negative coordinates.
+     * @return The prepared room.
+     */
+    public static PreparedRoom of(int roomWidth, int roomHeight, int startX, int startY, PackedPatches patches) {
+        int size = patches.size();
+        if (!patches.isOffHeap()) {
+            long[] keys = new long[size];
+            for (int i = 0; i < size; i++) {
+                keys[i] = patches.key(i);
+            }
+            return new PreparedRoom(roomWidth, roomHeight, startX, startY, keys);
+        }
+        DirectBufferPool pool = patches.pool();
+        boolean sorted = patches.isSorted();
+        ByteBuffer buffer = patches.handOverKeys();
+        try {
+            LongBuffer keys = buffer.asLongBuffer();
+            if (!sorted) {
+                pool.sort(keys, size);
+            }
+            int distinct = 0;
+            for (int i = 0; i < size; i++) {
+                long key = keys.get(i);
+                if (distinct == 0 || key != keys.get(distinct - 1)) {
+                    keys.put(distinct++, key);
+                }
+            }
+            return new PreparedRoom(roomWidth, roomHeight, startX, startY,
+                    buffer.limit(distinct * Long.BYTES), distinct, pool);
+        } catch (RuntimeException | Error e) {
+            pool.release(buffer);
+            throw e;
+        }
+    }
+
+    /**
+     * Packs the coordinates of a patch so that keys sort row by row, then by X within a row.
+     *
+     * @return The packed key, Y in the high and X in the low 32 bits.
+     */
+    public static long key(int x, int y) {
+        return ((long) y << 32) | (x & 0xFFFFFFFFL);
+    }
+
+    public static int x(long key) {
+        return (int) key;
+    }
+
+    public static int y(long key) {
+        return (int) (key >>> 32);
+    }
+
+    public int roomWidth() {
+        return roomWidth;
+    }
+
+    public int roomHeight() {
+        return roomHeight;
+    }
+
+    public int startX() {
+        return startX;
+    }
+
+    public int startY() {
+        return startY;
+    }
+
+    /**
+     * @return The number of distinct patches.
+     */
+    public int patchCount() {
+        return patchCount;
+    }
+
+    /**
+     * @return The key of the patch at the given index, in ascending key order.
+     */
+    public long patchKey(int index) {
+        return patchKeys != null ? patchKeys[index] : offHeapKeys.get(index);
+    }
+
+    /**
+     * @return {@code true} if the keys are held in a pooled direct buffer, which closing the room gives back.
+     */
+    public boolean isOffHeap() {
+        return patchKeys == null;
+    }
+
+    /**
+     * @return The sorted, distinct keys themselves for the heap grids of this package, copied for off-heap rooms.
+     */
+    long[] patchKeys() {
+        if (patchKeys != null) {
+            return patchKeys;
+        }
+        long[] keys = new long[patchCount];
+        offHeapKeys.get(0, keys);
+        return keys;
+    }
+
+    /**
+     * @return The sorted, distinct keys, to be read by absolute index only.
+     */
+    LongBuffer keyBuffer() {
+        return patchKeys != null ? LongBuffer.wrap(patchKeys) : offHeapKeys;
+    }
+
+    /**
+     * @return The pool of the keys of an off-heap room, {@code null} for a room on the heap.
+     */
+    DirectBufferPool pool() {
+        return pool;
+    }
+
+    /**
+     * Gives the buffer of an off-heap room back to its pool, once; the room must not be used afterwards.
+     */
+    @Override
+    public void close() {
+        if (buffer != null && !closed) {
+            closed = true;
+            pool.release(buffer);
+        }
+    }
+
+    private static long[] distinctSorted(long[] keys) {
+        Arrays.sort(keys);
+        int size = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (i == 0 || keys[i] != keys[i - 1]) {
+                keys[size++] = keys[i];
+            }
+        }
+        return size == keys.length ? keys : Arrays.copyOf(keys, size);
+    }
+}
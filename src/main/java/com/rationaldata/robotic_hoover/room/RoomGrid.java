@@ -0,0 +1,66 @@
+package com.rationaldata.robotic_hoover.room;
+
+/**
+ * Representation of the dirt left in the room while the hoover navigates it.
+ * Implementations are picked by {@link RoomGridFactory} depending on the room area and the patch density.
+ * Grids holding memory outside the heap release it when closed; the others need not be closed.
+ */
+public interface RoomGrid extends SegmentCleaner, AutoCloseable {
+
+    /**
+     * Cleans the tile at the given coordinates.
+     *
+     * @param x The X coordinate of the tile.
+     * @param y The Y coordinate of the tile.
+     * @return {@code true} if there was a dirt patch on the tile, {@code false} if it was already clean.
+     */
+    boolean clean(int x, int y);
+
+    /**
+     * Checks if the tile at the given coordinates still holds a dirt patch, without cleaning it.
+     *
+     * @param x The X coordinate of the tile.
+     * @param y The Y coordinate of the tile.
+     * @return {@code true} if there is a dirt patch on the tile.
+     */
+    boolean isDirty(int x, int y);
+
+    /**
+     * Cleans every tile of row {@code y} between {@code fromX} and {@code toX}, both inclusive.
+     *
+     * @return The number of dirt patches cleaned.
+     */
+    @Override
+    default int cleanRow(int y, int fromX, int toX) {
+        int cleaned = 0;
+        for (int x = fromX; x <= toX; x++) {
+            if (clean(x, y)) {
+                cleaned++;
+            }
+        }
+        return cleaned;
+    }
+
+    /**
+     * Cleans every tile of column {@code x} between {@code fromY} and {@code toY}, both inclusive.
+     *
+     * @return The number of dirt patches cleaned.
+     */
+    @Override
+    default int cleanColumn(int x, int fromY, int toY) {
+        int cleaned = 0;
+        for (int y = fromY; y <= toY; y++) {
+            if (clean(x, y)) {
+                cleaned++;
+            }
+        }
+        return cleaned;
+    }
+
+    /**
+     * Releases the memory held outside the heap, if any. The grid must not be used afterwards.
+     */
+    @Override
+    default void close() {
+    }
+}
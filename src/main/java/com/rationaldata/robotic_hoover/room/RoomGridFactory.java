@@ -0,0 +1,165 @@
+package com.rationaldata.robotic_hoover.room;
+
+import com.rationaldata.robotic_hoover.config.HooverProperties;
+import com.rationaldata.robotic_hoover.dto.PackedPatches;
+import org.springframework.stereotype.Component;
+
+/**
+ * Picks the {@link RoomGrid} implementation for a navigation.
+ * A {@link DenseRoomGrid} bitmap is used when the room is small enough or the patches dense enough
+ * for the bitmap to be cheaper than a hash set, otherwise the patches go into a sparse {@link PatchSet}.
+ * <p>
+ * Requests with at least {@code hoover.grid.off-heap-min-patches} patches are decoded into a pooled direct buffer
+ * and prepared there as off-heap rooms. The grids and indexes opened for such a room are built in pooled buffers
+ * too, except a dense bitmap, which is only used when no larger than {@code hoover.grid.dense-max-cells} tiles,
+ * so that the heap a navigation uses does not grow with its patches.
+ */
+@Component
+public class RoomGridFactory {
+
+    /**
+     * Upper bound imposed by the {@code long[]} backing a dense bitmap.
+     */
+    private static final long MAX_DENSE_CELLS = (long) Integer.MAX_VALUE << 6;
+
+    private final HooverProperties properties;
+    private final DirectBufferPool directBufferPool;
+
+    public RoomGridFactory(HooverProperties properties) {
+        this.properties = properties;
+        this.directBufferPool = new DirectBufferPool(properties.getGrid().getOffHeapPoolSize().toBytes());
+    }
+
+    /**
+     * Creates the grid holding the given patches.
+     *
+     * @param room The prepared room.
+     * @return A grid with every patch of the room marked as dirty.
+     */
+    public RoomGrid create(PreparedRoom room) {
+        if (useDenseGrid(room)) {
+            return new DenseRoomGrid(room);
+        }
+        return PatchSet.of(room);
+    }
+
+    /**
+     * Creates the grid for an engine cleaning whole row and column segments at once.
+     * Sparse rooms get a {@link PatchLineIndex} so that a segment costs a binary search rather than a probe per tile.
+     * Dense rooms keep the bitmap: rows are cleared word by word and columns are bounded by the room height.
+     *
+     * @param room The prepared room.
+     * @return A grid with every patch of the room marked as dirty.
+     */
+    public RoomGrid createForSegments(PreparedRoom room) {
+        if (useDenseGrid(room)) {
+            return new DenseRoomGrid(room);
+        }
+        return new PatchLineIndex(room);
+    }
+
+    /**
+     * Opens the grid for an engine checking the tiles one by one within a single navigation. Like
+     * {@link #create(PreparedRoom)} for rooms on the heap, while off-heap rooms get an {@link OffHeapPatchIndex}
+     * unless their dense bitmap is small.
+     *
+     * @param room The prepared room.
+     * @return A grid with every patch of the room marked as dirty, to be closed after use.
+     */
+    public RoomGrid open(PreparedRoom room) {
+        if (room.isOffHeap() && !useDenseGrid(room) && fitsOffHeap(room)) {
+            return new OffHeapPatchIndex(room);
+        }
+        return create(room);
+    }
+
+    /**
+     * Opens the grid for an engine cleaning whole row and column segments within a single navigation.
+     * Like {@link #createForSegments(PreparedRoom)} for rooms on the heap, while off-heap rooms get an
+     * {@link OffHeapPatchIndex} unless their dense bitmap is small.
+     *
+     * @param room The prepared room.
+     * @return A grid with every patch of the room marked as dirty, to be closed after use.
+     */
+    public RoomGrid openForSegments(PreparedRoom room) {
+        if (room.isOffHeap() && !useDenseGrid(room) && fitsOffHeap(room)) {
+            return new OffHeapPatchIndex(room);
+        }
+        return createForSegments(room);
+    }
+
+    /**
+     * Opens the patches of a room sorted by row and by column, off the heap for an off-heap room.
+     *
+     * @param room The prepared room.
+     * @return The index of the patches, to be closed after use.
+     */
+    public PatchIndex openIndex(PreparedRoom room) {
+        return new PatchIndex(room);
+    }
+
+    /**
+     * Creates the list the patches of a request are decoded into, which moves them off the heap once there are at
+     * least {@code hoover.grid.off-heap-min-patches} of them.
+     *
+     * @param expectedSize The number of patches expected.
+     * @return An empty list of patches.
+     */
+    public PackedPatches packedPatches(int expectedSize) {
+        return new PackedPatches(expectedSize, directBufferPool, properties.getGrid().getOffHeapMinPatches());
+    }
+
+    /**
+     * @return The pool of the off-heap rooms and their grids.
+     */
+    DirectBufferPool directBufferPool() {
+        return directBufferPool;
+    }
+
+    /**
+     * Estimates the heap used by the grid {@link #createForSegments(PreparedRoom)} creates for the given room.
+     *
+     * @param room The prepared room.
+     * @return The estimated size of the grid in bytes.
+     */
+    public long segmentGridBytes(PreparedRoom room) {
+        if (useDenseGrid(room)) {
+            return DenseRoomGrid.cells(room.roomWidth(), room.roomHeight()) / 8;
+        }
+        return PatchLineIndex.bytesPerPatch() * room.patchCount();
+    }
+
+    /**
+     * Opens a grid that can be cleaned by several threads at once, off the heap for an off-heap room unless its
+     * dense bitmap is small.
+     *
+     * @param room The prepared room.
+     * @return A thread-safe grid with every patch of the room marked as dirty, to be closed after use.
+     */
+    public ConcurrentRoomGrid openConcurrent(PreparedRoom room) {
+        if (useDenseGrid(room)) {
+            return ConcurrentRoomGrid.dense(room);
+        }
+        return ConcurrentRoomGrid.sparse(room);
+    }
+
+    private boolean useDenseGrid(PreparedRoom room) {
+        if (room.isOffHeap()) {
+            return DenseRoomGrid.cells(room.roomWidth(), room.roomHeight()) <= properties.getGrid().getDenseMaxCells();
+        }
+        return useDenseGrid(room.roomWidth(), room.roomHeight(), room.patchCount());
+    }
+
+    private static boolean fitsOffHeap(PreparedRoom room) {
+        return OffHeapPatchIndex.bytes(room.patchCount()) <= Integer.MAX_VALUE;
+    }
+
+    boolean useDenseGrid(int roomWidth, int roomHeight, int patchCount) {
+        HooverProperties.Grid grid = properties.getGrid();
+        long cells = DenseRoomGrid.cells(roomWidth, roomHeight);
+        if (cells > MAX_DENSE_CELLS) {
+            return false;
+        }
+        return cells <= grid.getDenseMaxCells() || cells <= (long) patchCount * grid.getDenseCellsPerPatch();
+    }
+}
@@ -0,0 +1,22 @@
+package com.rationaldata.robotic_hoover.room;
+
+/**
+ * Receives the straight segments the hoover covers, as produced run by run by the segment-based engines.
+ * Every {@link RoomGrid} cleans them; other implementations may only record them.
+ */
+public interface SegmentCleaner {
+
+    /**
+     * Covers every tile of row {@code y} between {@code fromX} and {@code toX}, both inclusive.
+     *
+     * @return The number of dirt patches cleaned.
+     */
+    int cleanRow(int y, int fromX, int toX);
+
+    /**
+     * Covers every tile of column {@code x} between {@code fromY} and {@code toY}, both inclusive.
+     *
+     * @return The number of dirt patches cleaned.
+     */
+    int cleanColumn(int x, int fromY, int toY);
+}
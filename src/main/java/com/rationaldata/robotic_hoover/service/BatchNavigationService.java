@@ -0,0 +1,270 @@
+package com.rationaldata.robotic_hoover.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.rationaldata.robotic_hoover.codec.HooverJsonMessageConverter;
+import com.rationaldata.robotic_hoover.config.HooverProperties;
+import com.rationaldata.robotic_hoover.dto.BatchItemResult;
+import com.rationaldata.robotic_hoover.dto.HooverRequest;
+import com.rationaldata.robotic_hoover.exception.GlobalExceptionHandler;
+import com.rationaldata.robotic_hoover.room.RoomGridFactory;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Service running a batch of independent navigations in parallel on a bounded executor.
+ * A failing navigation does not fail the batch: it gets the error response {@link GlobalExceptionHandler}
+ * would have returned for it alone.
+ * <p>
+ * Batches come either as a list, or as an NDJSON stream of any length whose results are written as a stream
+ * while it is being read.
+ */
+@Service
+public class BatchNavigationService {
+
+    private final HooverService hooverService;
+    private final Validator beanValidator;
+    private final GlobalExceptionHandler exceptionHandler;
+    private final Executor batchExecutor;
+    private final ObjectMapper objectMapper;
+    private final HooverProperties properties;
+    private final RoomGridFactory roomGridFactory;
+
+    public BatchNavigationService(HooverService hooverService, Validator beanValidator, GlobalExceptionHandler exceptionHandler,
+                                  @Qualifier("batchExecutor") Executor batchExecutor, ObjectMapper objectMapper,
+                                  HooverProperties properties, RoomGridFactory roomGridFactory) {
+        this.hooverService = hooverService;
+        this.beanValidator = beanValidator;
+        this.exceptionHandler = exceptionHandler;
+        this.batchExecutor = batchExecutor;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.roomGridFactory = roomGridFactory;
+    }
+
+    /**
+     * Navigates every request of the batch.
+     *
+     * @param requests The requests of the batch.
+     * @return One result per request, in the order of the requests.
+     * @throws IllegalArgumentException if the batch is larger than {@code hoover.batch.max-size}.
+     */
+    public List<BatchItemResult> navigate(List<HooverRequest> requests) {
+        int maxSize = properties.getBatch().getMaxSize();
+        if (requests.size() > maxSize) {
+            throw new IllegalArgumentException("A batch can contain at most " + maxSize + " requests.");
+        }
+
+        List<CompletableFuture<BatchItemResult>> futures = new ArrayList<>(requests.size());
+        for (HooverRequest request : requests) {
+            futures.add(CompletableFuture.supplyAsync(() -> navigate(request), batchExecutor));
+        }
+
+        List<BatchItemResult> results = new ArrayList<>(futures.size());
+        for (CompletableFuture<BatchItemResult> future : futures) {
+            results.add(future.join());
+        }
+        return results;
+    }
+
+    /**
+     * Navigates every request of an NDJSON stream, one JSON request per line, and writes one JSON result per line
+     * in the order of the requests. Navigations run in parallel on the batch executor, but at most
+     * {@code hoover.batch.max-in-flight} of them are running or waiting to be written: beyond that, reading waits
+     * for the oldest one to be written, so a producer faster than the navigations or than the consumer of the
+     * results is slowed down instead of filling the heap. A malformed line gets an error result of its own.
+     *
+     * @param requests The NDJSON stream of requests.
+     * @param results  Receives the NDJSON stream of results, flushed whenever the next results are not ready yet.
+     * @throws IOException if a stream cannot be read or written.
+     */
+    public void navigate(InputStream requests, OutputStream results) throws IOException {
+        HooverProperties.Batch settings = properties.getBatch();
+        ObjectWriter writer = objectMapper.writerFor(BatchItemResult.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        ArrayDeque<CompletableFuture<BatchItemResult>> inFlight = new ArrayDeque<>();
+        LineReader lines = new LineReader(requests, properties.getStream().getBufferSize(), settings.getMaxLineBytes());
+        try (JsonGenerator generator = objectMapper.createGenerator(results).setRootValueSeparator(null)) {
+            while (true) {
+                if (lines.wouldBlock()) {
+                    generator.flush();
+                }
+                byte[] line = lines.next();
+                if (line == null) {
+                    break;
+                }
+                if (!lines.oversized() && isBlank(line, lines.length())) {
+                    continue;
+                }
+                if (inFlight.size() >= settings.getMaxInFlight()) {
+                    writeNext(writer, generator, inFlight);
+                }
+                inFlight.add(lines.oversized() ? CompletableFuture.completedFuture(BatchItemResult.failure(
+                                exceptionHandler.toErrorResponse(new IllegalArgumentException(
+                                        "NDJSON line exceeds " + settings.getMaxLineBytes() + " bytes."))))
+                        : submit(line, lines.length()));
+                while (!inFlight.isEmpty() && inFlight.peek().isDone()) {
+                    writeNext(writer, generator, inFlight);
+                }
+            }
+            while (!inFlight.isEmpty()) {
+                writeNext(writer, generator, inFlight);
+            }
+        }
+    }
+
+    private CompletableFuture<BatchItemResult> submit(byte[] line, int length) {
+        HooverRequest request;
+        try (JsonParser parser = objectMapper.createParser(line, 0, length)) {
+            request = HooverJsonMessageConverter.readRequest(parser, roomGridFactory::packedPatches);
+            if (parser.nextToken() != null) {
+                throw new JsonParseException(parser, "Unexpected content after the request");
+            }
+        } catch (IOException e) {
+            String message = e instanceof JsonProcessingException json ? json.getOriginalMessage() : e.getMessage();
+            return CompletableFuture.completedFuture(BatchItemResult.failure(
+                    exceptionHandler.toErrorResponse(new IllegalArgumentException("Invalid JSON line: " + message))));
+        }
+        return CompletableFuture.supplyAsync(() -> navigate(request), batchExecutor);
+    }
+
+    /**
+     * Writes the oldest result, once ready. What was written so far is flushed first if it has to wait for it.
+     */
+    private static void writeNext(ObjectWriter writer, JsonGenerator generator,
+                                  ArrayDeque<CompletableFuture<BatchItemResult>> inFlight) throws IOException {
+        CompletableFuture<BatchItemResult> next = inFlight.poll();
+        if (!next.isDone()) {
+            generator.flush();
+        }
+        writer.writeValue(generator, next.join());
+        generator.writeRaw('\n');
+    }
+
+    private static boolean isBlank(byte[] line, int length) {
+        for (int i = 0; i < length; i++) {
+            if (line[i] != ' ' && line[i] != '\t' && line[i] != '\r') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private BatchItemResult navigate(HooverRequest request) {
+        try {
+            if (request == null) {
+                throw new IllegalArgumentException("Batch requests cannot be null");
+            }
+            Set<ConstraintViolation<HooverRequest>> violations = beanValidator.validate(request);
+            if (!violations.isEmpty()) {
+                throw new ConstraintViolationException(violations);
+            }
+            return BatchItemResult.success(hooverService.navigate(request));
+        } catch (Exception e) {
+            return BatchItemResult.failure(exceptionHandler.toErrorResponse(e));
+        }
+    }
+
+    /**
+     * Splits a stream into lines, reusing one buffer for all of them. A line longer than the limit is skipped up to
+     * its line break and reported as oversized, without being buffered.
+     */
+    private static final class LineReader {
+
+        private final InputStream in;
+        private final byte[] chunk;
+        private final int maxLineBytes;
+        private byte[] line = new byte[256];
+        private int length;
+        private boolean oversized;
+        private int position;
+        private int limit;
+
+        private LineReader(InputStream in, int chunkSize, int maxLineBytes) {
+            this.in = in;
+            this.chunk = new byte[chunkSize];
+            this.maxLineBytes = maxLineBytes;
+        }
+
+        /**
+         * @return The buffer holding the next line in its first {@link #length()} bytes, without the line break,
+         *         or {@code null} at the end of the stream. The buffer is overwritten by the next call.
+         */
+        byte[] next() throws IOException {
+            length = 0;
+            oversized = false;
+            boolean read = false;
+            while (true) {
+                if (position == limit) {
+                    limit = in.read(chunk);
+                    position = 0;
+                    if (limit <= 0) {
+                        limit = 0;
+                        return read ? line : null;
+                    }
+                }
+                read = true;
+                int end = position;
+                while (end < limit && chunk[end] != '\n') {
+                    end++;
+                }
+                append(end - position);
+                boolean complete = end < limit;
+                position = complete ? end + 1 : end;
+                if (complete) {
+                    return line;
+                }
+            }
+        }
+
+        int length() {
+            return length;
+        }
+
+        /**
+         * @return {@code true} if the last line was longer than the limit, in which case it was not kept.
+         */
+        boolean oversized() {
+            return oversized;
+        }
+
+        /**
+         * @return {@code true} if reading the next line may wait for the stream.
+         */
+        boolean wouldBlock() throws IOException {
+            return position == limit && in.available() == 0;
+        }
+
+        private void append(int count) {
+            if (oversized || length + count > maxLineBytes) {
+                oversized = true;
+                length = 0;
+                return;
+            }
+            if (length + count > line.length) {
+                line = Arrays.copyOf(line, Math.max(length + count, line.length * 2));
+            }
+            System.arraycopy(chunk, position, line, length, count);
+            length += count;
+        }
+    }
+}
@@ -1,7 +1,27 @@
 package com.rationaldata.robotic_hoover.service;
 
+import com.rationaldata.robotic_hoover.cache.NavigationCache;
+import com.rationaldata.robotic_hoover.cache.ProgramCache;
+import com.rationaldata.robotic_hoover.config.HooverProperties;
+import com.rationaldata.robotic_hoover.dto.FleetRequest;
+import com.rationaldata.robotic_hoover.dto.FleetResponse;
 import com.rationaldata.robotic_hoover.dto.HooverRequest;
 import com.rationaldata.robotic_hoover.dto.HooverResponse;
+import com.rationaldata.robotic_hoover.engine.CompressedInstructions;
+import com.rationaldata.robotic_hoover.engine.FleetEngine;
+import com.rationaldata.robotic_hoover.engine.InstructionDecoder;
+import com.rationaldata.robotic_hoover.engine.NavigationEngine;
+import com.rationaldata.robotic_hoover.engine.ParallelChunkEngine;
+import com.rationaldata.robotic_hoover.engine.ProgramEngine;
+import com.rationaldata.robotic_hoover.engine.RepetitionEngine;
+import com.rationaldata.robotic_hoover.engine.RunLengthEngine;
+import com.rationaldata.robotic_hoover.engine.StepEngine;
+import com.rationaldata.robotic_hoover.engine.SweepLineEngine;
+import com.rationaldata.robotic_hoover.engine.TraceEngine;
+import com.rationaldata.robotic_hoover.engine.TraceListener;
+import com.rationaldata.robotic_hoover.engine.VectorEngine;
+import com.rationaldata.robotic_hoover.metrics.NavigationMetrics;
+import com.rationaldata.robotic_hoover.room.PreparedRoom;
 import com.rationaldata.robotic_hoover.validation.HooverRequestValidator;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -18,6 +38,18 @@ import java.util.List;
 public class HooverService {
 
     private final HooverRequestValidator validator;
+    private final StepEngine stepEngine;
+    private final RunLengthEngine runLengthEngine;
+    private final ParallelChunkEngine parallelChunkEngine;
+    private final VectorEngine vectorEngine;
+    private final SweepLineEngine sweepLineEngine;
+    private final TraceEngine traceEngine;
+    private final FleetEngine fleetEngine;
+    private final RepetitionEngine repetitionEngine;
+    private final NavigationCache navigationCache;
+    private final ProgramCache programCache;
+    private final NavigationMetrics metrics;
+    private final HooverProperties properties;
 
     /**
      * Navigates the hoover through the room based on the provided instructions and
@@ -25,6 +57,16 @@ public class HooverService {
      * according to the instructions, which are a series of characters representing
      * cardinal directions ('N', 'E', 'S', 'W'). The hoover will clean a dirt patch
      * if it passes over it, and dirt patches can only be cleaned once.
+     * The simulation itself is delegated to the {@link NavigationEngine} selected by {@code hoover.engine.mode},
+     * or to the {@link ParallelChunkEngine} for instructions longer than {@code hoover.engine.parallel-threshold}.
+     * The engines run on the {@link PreparedRoom} built by the validator, so the patch list is only walked once,
+     * and the room is closed once navigated so that the buffer of an off-heap room goes back to its pool.
+     * Navigation being a pure function of the request, results are served from the {@link NavigationCache}
+     * when the same request was navigated recently. Engines running compiled programs get them from the
+     * {@link ProgramCache}, so instructions repeated across rooms and starts are only decoded once.
+     * Instructions written with repetitions are run by the {@link RepetitionEngine} without being expanded.
+     * The validation and simulation phases are timed, and the sizes of the request and result recorded,
+     * through {@link NavigationMetrics}.
      *
      * @param request The {@link HooverRequest} containing the room size, initial
      *                position of the hoover, list of dirt patches, and movement
@@ -37,113 +79,83 @@ public class HooverService {
      *         or any dirt patch coordinates are out of bounds.
      */
     public HooverResponse navigate(HooverRequest request) {
-        validator.validateHooverRequest(request);
-
-        int[] roomSize = request.getRoomSize();
-        int roomWidth = roomSize[0];
-        int roomHeight = roomSize[1];
-
-        int[] hooverPosition = request.getCoords();
-        String instructions = request.getInstructions();
-
-        List<int[]> patches = request.getPatches();
-        int cleanedPatches = 0;
-
-        if (containsPatch(patches, hooverPosition)) {
-            cleanedPatches++;
-            removePatch(patches, hooverPosition);
-        }
-
-        for (char instruction : instructions.toCharArray()) {
-            moveHoover(hooverPosition, instruction, roomWidth, roomHeight);
-
-            if (containsPatch(patches, hooverPosition)) {
-                cleanedPatches++;
-                removePatch(patches, hooverPosition);
-            }
+        metrics.validation().record(() -> validator.validateHooverRequest(request));
+        metrics.recordRequest(request);
+
+        try (PreparedRoom room = PreparedRoom.of(request)) {
+            String instructions = request.getInstructions();
+            HooverResponse response = navigationCache.get(room, instructions,
+                    () -> metrics.simulation().record(() -> simulate(room, instructions)));
+            metrics.recordResponse(response);
+            return response;
         }
-
-        return new HooverResponse(new int[]{hooverPosition[0], hooverPosition[1]}, cleanedPatches);
     }
 
     /**
-     * Moves the hoover in the specified direction within the room boundaries.
-     * The movement is determined by the direction character:
-     * <ul>
-     *   <li>'N' (North): Increases the Y coordinate by 1 (moves up).</li>
-     *   <li>'S' (South): Decreases the Y coordinate by 1 (moves down).</li>
-     *   <li>'E' (East): Increases the X coordinate by 1 (moves right).</li>
-     *   <li>'W' (West): Decreases the X coordinate by 1 (moves left).</li>
-     * </ul>
+     * Navigates like {@link #navigate(HooverRequest)}, reporting every run of moves and every cleaned patch to the
+     * listener as the {@link TraceEngine} computes them. Traced navigations are neither cached nor split in chunks,
+     * as the trajectory has to be produced in order.
      *
-     * @param position    The current hoover position (array of [x, y]).
-     * @param direction   The direction ('N', 'S', 'E', 'W') in which to move the hoover.
-     * @param roomWidth   The width of the room.
-     * @param roomHeight  The height of the room.
+     * @param request  The {@link HooverRequest} to navigate.
+     * @param listener Receives the trajectory, once the request is validated.
+     * @return A {@link HooverResponse} with the final position of the hoover and the number of cleaned patches.
      */
-    private void moveHoover(int[] position, char direction, int roomWidth, int roomHeight) {
-        if (headingToWall(position, direction, roomWidth, roomHeight)) {
-            return;
-        }
-
-        switch (direction) {
-            case 'N':
-                position[1]++;
-                break;
-            case 'S':
-                position[1]--;
-                break;
-            case 'E':
-                position[0]++;
-                break;
-            case 'W':
-                position[0]--;
-                break;
+    public HooverResponse trace(HooverRequest request, TraceListener listener) {
+        metrics.validation().record(() -> validator.validateHooverRequest(request));
+        metrics.recordRequest(request);
+
+        try (PreparedRoom room = PreparedRoom.of(request)) {
+            HooverResponse response = metrics.simulation().record(
+                    () -> traceEngine.navigate(room, request.getInstructions(), listener));
+            metrics.recordResponse(response);
+            return response;
         }
     }
 
     /**
-     * Checks if the hoover is attempting to move outside the room boundaries.
+     * Navigates several hoovers in the same room in parallel with the {@link FleetEngine}. Each patch is credited to
+     * exactly one hoover: the one reaching it in the fewest steps, or the one listed first among those reaching it
+     * in as many steps.
      *
-     * @param position    The current hoover position (array of [x, y]).
-     * @param direction   The direction in which the hoover intends to move ('N', 'S', 'E', 'W').
-     * @param roomWidth   The width of the room.
-     * @param roomHeight  The height of the room.
-     * @return {@code true} if the hoover is trying to move outside the room boundaries, {@code false} otherwise.
+     * @param request The {@link FleetRequest} with the room, its patches and the hoovers.
+     * @return A {@link FleetResponse} with the final position and the credited patches of every hoover.
      */
-    private boolean headingToWall(int[] position, char direction, int roomWidth, int roomHeight) {
-        switch (direction) {
-            case 'N':
-                return position[1] >= roomHeight;
-            case 'S':
-                return position[1] <= 0;
-            case 'E':
-                return position[0] >= roomWidth;
-            case 'W':
-                return position[0] <= 0;
-            default:
-                return false;
+    public FleetResponse navigate(FleetRequest request) {
+        metrics.validation().record(() -> validator.validateFleetRequest(request));
+
+        List<HooverResponse> hoovers;
+        try (PreparedRoom room = PreparedRoom.of(request)) {
+            hoovers = metrics.simulation().record(() -> fleetEngine.navigate(room, request.getHoovers()));
         }
+        int cleanedPatches = 0;
+        for (HooverResponse hoover : hoovers) {
+            cleanedPatches += hoover.getPatches();
+        }
+        return new FleetResponse(hoovers, cleanedPatches);
     }
 
-    /**
-     * Checks if the hoover is on a dirt patch.
-     *
-     * @param patches   The list of patches.
-     * @param position  The current hoover position.
-     * @return {@code true} if the hoover is on a patch, {@code false} otherwise.
-     */
-    private boolean containsPatch(List<int[]> patches, int[] position) {
-        return patches.stream().anyMatch(patch -> patch[0] == position[0] && patch[1] == position[1]);
+    private HooverResponse simulate(PreparedRoom room, String instructions) {
+        if (InstructionDecoder.indexOfInvalid(instructions) >= 0) {
+            // Validation accepted characters outside [NESW], so the instructions use repetitions
+            return repetitionEngine.navigate(room, CompressedInstructions.parse(instructions));
+        }
+        NavigationEngine engine = engine(instructions);
+        if (engine instanceof ProgramEngine programEngine) {
+            return programEngine.navigate(room, programCache.get(instructions));
+        }
+        return engine.navigate(room, instructions);
     }
 
-    /**
-     * Removes a patch from the list after it has been cleaned.
-     *
-     * @param patches   The list of patches.
-     * @param position  The current hoover position.
-     */
-    private void removePatch(List<int[]> patches, int[] position) {
-        patches.removeIf(patch -> patch[0] == position[0] && patch[1] == position[1]);
+    private NavigationEngine engine(String instructions) {
+        int parallelThreshold = properties.getEngine().getParallelThreshold();
+        if (parallelThreshold > 0 && instructions.length() >= parallelThreshold) {
+            return parallelChunkEngine;
+        }
+        return switch (properties.getEngine().getMode()) {
+            case STEP -> stepEngine;
+            case RUN_LENGTH -> runLengthEngine;
+            case VECTOR -> vectorEngine;
+            case SWEEP_LINE -> sweepLineEngine;
+        };
     }
 }
@@ -0,0 +1,153 @@
+package com.rationaldata.robotic_hoover.service;
+
+import com.rationaldata.robotic_hoover.dto.HooverResponse;
+import com.rationaldata.robotic_hoover.dto.RoomSessionState;
+import com.rationaldata.robotic_hoover.engine.HooverCursor;
+import com.rationaldata.robotic_hoover.exception.InvalidInstructionsException;
+import com.rationaldata.robotic_hoover.persistence.SessionJournal;
+import com.rationaldata.robotic_hoover.persistence.SessionSnapshot;
+import com.rationaldata.robotic_hoover.persistence.SessionStore;
+import com.rationaldata.robotic_hoover.room.PreparedRoom;
+import com.rationaldata.robotic_hoover.room.RoomGrid;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A room kept in memory between requests, with the {@link HooverCursor} holding the hoover position and
+ * the patches left. Fragments of the same session are applied one at a time, in the order they acquire the lock;
+ * a {@link ReentrantLock} rather than {@code synchronized} keeps virtual threads from pinning their carrier
+ * while they wait.
+ * <p>
+ * When sessions are persisted, every fragment is appended to the session's {@link SessionJournal} before being
+ * applied, and a snapshot is handed to the {@link SessionStore} whenever the log grows past its threshold.
+ */
+final class RoomSession {
+
+    private final String id;
+    private final PreparedRoom room;
+    private final RoomGrid grid;
+    private final HooverCursor cursor;
+    private final int weight;
+    private final SessionStore store;
+    private final SessionJournal journal;
+    private final ReentrantLock lock = new ReentrantLock();
+    private boolean closed;
+
+    /**
+     * @param id      The id of the session.
+     * @param room    The prepared room of the session.
+     * @param grid    The grid the cursor cleans.
+     * @param cursor  The cursor, at the current state of the session.
+     * @param weight  The estimated heap used by the session in bytes.
+     * @param store   The store persisting the session, or {@code null} if sessions are not persisted.
+     * @param journal The journal of the session, or {@code null} if sessions are not persisted.
+     */
+    RoomSession(String id, PreparedRoom room, RoomGrid grid, HooverCursor cursor, int weight,
+                SessionStore store, SessionJournal journal) {
+        this.id = id;
+        this.room = room;
+        this.grid = grid;
+        this.cursor = cursor;
+        this.weight = weight;
+        this.store = store;
+        this.journal = journal;
+    }
+
+    /**
+     * Applies a fragment of instructions. The fragment is validated as a whole first, so a rejected fragment
+     * leaves the session unchanged.
+     *
+     * @param instructions The instructions as ASCII bytes, line breaks allowed.
+     * @return The state after the fragment, or {@code null} if the session was closed in the meantime.
+     * @throws InvalidInstructionsException if the fragment holds no move or an invalid character.
+     */
+    RoomSessionState advance(byte[] instructions) {
+        if (HooverCursor.countMoves(instructions, 0, instructions.length) == 0) {
+            throw new InvalidInstructionsException("Instructions cannot be empty");
+        }
+        lock.lock();
+        try {
+            if (closed) {
+                return null;
+            }
+            if (journal != null) {
+                journal.append(instructions);
+            }
+            cursor.advance(instructions, 0, instructions.length);
+            if (journal != null && journal.needsSnapshot()) {
+                store.snapshotLater(journal, snapshot(journal.rollover()));
+            }
+            return state();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return The state after the fragments applied so far, or {@code null} if the session was closed.
+     */
+    RoomSessionState read() {
+        lock.lock();
+        try {
+            return closed ? null : state();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Takes the session out of service, after the fragment being applied if any.
+     *
+     * @param keepFiles {@code true} if the session only leaves memory and may be recovered later,
+     *                  {@code false} if it ended and its files are deleted.
+     */
+    void close(boolean keepFiles) {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (journal != null) {
+                if (keepFiles) {
+                    store.close(journal);
+                } else {
+                    store.delete(journal);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return The estimated heap used by the session in bytes, as weighed against the memory budget.
+     */
+    int weight() {
+        return weight;
+    }
+
+    /**
+     * Captures the current state of the session.
+     *
+     * @param generation The generation of the first log to replay on top of the snapshot.
+     * @return The snapshot.
+     */
+    SessionSnapshot snapshot(long generation) {
+        HooverResponse response = cursor.toResponse();
+        long[] cleaned = SessionSnapshot.bitmap(room.patchCount());
+        for (int i = 0; i < room.patchCount(); i++) {
+            long key = room.patchKey(i);
+            if (!grid.isDirty(PreparedRoom.x(key), PreparedRoom.y(key))) {
+                cleaned[i >>> 6] |= 1L << i;
+            }
+        }
+        return new SessionSnapshot(generation, response.getCoords()[0], response.getCoords()[1],
+                response.getPatches(), cursor.getMoveCount(), cleaned);
+    }
+
+    private RoomSessionState state() {
+        HooverResponse response = cursor.toResponse();
+        return new RoomSessionState(id, response.getCoords(), response.getPatches(), cursor.getMoveCount());
+    }
+}
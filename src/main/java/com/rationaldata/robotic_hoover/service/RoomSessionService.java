@@ -0,0 +1,194 @@
+package com.rationaldata.robotic_hoover.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.rationaldata.robotic_hoover.config.HooverProperties;
+import com.rationaldata.robotic_hoover.dto.HooverRequest;
+import com.rationaldata.robotic_hoover.dto.HooverStreamHeader;
+import com.rationaldata.robotic_hoover.dto.RoomSessionState;
+import com.rationaldata.robotic_hoover.engine.HooverCursor;
+import com.rationaldata.robotic_hoover.exception.InvalidInstructionsException;
+import com.rationaldata.robotic_hoover.exception.SessionNotFoundException;
+import com.rationaldata.robotic_hoover.persistence.SessionJournal;
+import com.rationaldata.robotic_hoover.persistence.SessionSnapshot;
+import com.rationaldata.robotic_hoover.persistence.SessionStore;
+import com.rationaldata.robotic_hoover.room.PreparedRoom;
+import com.rationaldata.robotic_hoover.room.RoomGrid;
+import com.rationaldata.robotic_hoover.room.RoomGridFactory;
+import com.rationaldata.robotic_hoover.validation.HooverRequestValidator;
+import org.springframework.stereotype.Service;
+
+import java.util.UUID;
+
+/**
+ * Service keeping rooms in memory so that robots reporting their moves in increments only send each increment,
+ * instead of the whole room and every instruction since the start.
+ * <p>
+ * A session holds the room grid and a {@link HooverCursor}, so a fragment costs time proportional to its own
+ * length. Sessions are weighed by the estimated size of their grid and kept within
+ * {@code hoover.session.memory-budget}, Caffeine evicting the sessions least likely to be used again,
+ * and expire after {@code hoover.session.idle-timeout} without being read or advanced.
+ * <p>
+ * With {@code hoover.session.persistence.enabled}, sessions are also kept on disk by the {@link SessionStore}:
+ * a session evicted for lack of memory, or lost to a restart, is recovered from its snapshot and logs
+ * on its next use, while expired and deleted sessions are removed from disk too.
+ */
+@Service
+public class RoomSessionService {
+
+    /**
+     * Estimated heap of a session besides its grid: the cursor, lock, id and cache entry.
+     */
+    private static final long SESSION_OVERHEAD_BYTES = 512;
+
+    private final HooverRequestValidator validator;
+    private final RoomGridFactory roomGridFactory;
+    private final SessionStore store;
+    private final long memoryBudget;
+    private final Cache<String, RoomSession> sessions;
+
+    public RoomSessionService(HooverRequestValidator validator, RoomGridFactory roomGridFactory, SessionStore store,
+                              HooverProperties properties) {
+        this.validator = validator;
+        this.roomGridFactory = roomGridFactory;
+        this.store = store;
+        this.memoryBudget = properties.getSession().getMemoryBudget().toBytes();
+        this.sessions = Caffeine.newBuilder()
+                .maximumWeight(memoryBudget)
+                .weigher((String id, RoomSession session) -> session.weight())
+                .expireAfterAccess(properties.getSession().getIdleTimeout())
+                .evictionListener((String id, RoomSession session, RemovalCause cause) -> {
+                    if (session != null) {
+                        session.close(cause == RemovalCause.SIZE);
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Creates a session for a room, the hoover standing at its initial position.
+     *
+     * @param room The room size, initial position and patches.
+     * @return The initial state of the session, with its id.
+     * @throws IllegalArgumentException if the room is invalid, or too large for the memory budget.
+     */
+    public RoomSessionState create(HooverStreamHeader room) {
+        HooverRequest request = new HooverRequest();
+        request.setRoomSize(room.getRoomSize());
+        request.setCoords(room.getCoords());
+        request.setPatches(room.getPatches());
+        validator.validateHooverRequest(request);
+
+        PreparedRoom preparedRoom = PreparedRoom.of(request);
+        long bytes = weight(preparedRoom);
+        if (bytes > memoryBudget || bytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("The room needs about " + bytes + " bytes, more than the session memory budget of "
+                    + memoryBudget + " bytes.");
+        }
+
+        String sessionId = UUID.randomUUID().toString();
+        RoomGrid grid = roomGridFactory.createForSegments(preparedRoom);
+        HooverCursor cursor = new HooverCursor(grid,
+                preparedRoom.roomWidth(), preparedRoom.roomHeight(), preparedRoom.startX(), preparedRoom.startY());
+        RoomSession session = new RoomSession(sessionId, preparedRoom, grid, cursor, (int) bytes, null, null);
+        if (store.isEnabled()) {
+            SessionJournal journal = store.create(sessionId, preparedRoom, session.snapshot(0));
+            session = new RoomSession(sessionId, preparedRoom, grid, cursor, (int) bytes, store, journal);
+        }
+        RoomSessionState state = session.read();
+        sessions.put(sessionId, session);
+        return state;
+    }
+
+    /**
+     * Moves the hoover of a session with the next fragment of instructions.
+     *
+     * @param sessionId    The id of the session.
+     * @param instructions The fragment, a series of 'N', 'E', 'S', 'W' characters.
+     * @return The state of the session after the fragment.
+     * @throws SessionNotFoundException if there is no such session, or it expired.
+     * @throws InvalidInstructionsException if the fragment is empty or holds an invalid character,
+     *         in which case the session is left unchanged.
+     */
+    public RoomSessionState advance(String sessionId, byte[] instructions) {
+        RoomSessionState state;
+        do {
+            // A session evicted while this request waited for it is recovered again, if persisted
+            state = find(sessionId).advance(instructions);
+        } while (state == null);
+        return state;
+    }
+
+    /**
+     * @param sessionId The id of the session.
+     * @return The current state of the session.
+     * @throws SessionNotFoundException if there is no such session, or it expired.
+     */
+    public RoomSessionState get(String sessionId) {
+        RoomSessionState state;
+        do {
+            state = find(sessionId).read();
+        } while (state == null);
+        return state;
+    }
+
+    /**
+     * Ends a session, releasing its room.
+     *
+     * @param sessionId The id of the session.
+     * @throws SessionNotFoundException if there is no such session, or it expired.
+     */
+    public void delete(String sessionId) {
+        RoomSession session = find(sessionId);
+        sessions.asMap().remove(sessionId, session);
+        session.close(false);
+    }
+
+    /**
+     * @return The underlying cache, for monitoring.
+     */
+    public Cache<String, ?> cache() {
+        return sessions;
+    }
+
+    private RoomSession find(String sessionId) {
+        RoomSession session = store.isEnabled()
+                ? sessions.get(sessionId, this::recover)
+                : sessions.getIfPresent(sessionId);
+        if (session == null) {
+            throw new SessionNotFoundException(sessionId);
+        }
+        return session;
+    }
+
+    /**
+     * Rebuilds a persisted session: the patches cleaned by its snapshot are cleaned again, then the fragments
+     * logged since are replayed.
+     *
+     * @return The recovered session, or {@code null} if there is none on disk.
+     */
+    private RoomSession recover(String sessionId) {
+        return store.load(sessionId).map(stored -> {
+            PreparedRoom room = stored.room();
+            SessionSnapshot snapshot = stored.snapshot();
+            RoomGrid grid = roomGridFactory.createForSegments(room);
+            for (int i = 0; i < room.patchCount(); i++) {
+                if (snapshot.isCleaned(i)) {
+                    grid.clean(PreparedRoom.x(room.patchKey(i)), PreparedRoom.y(room.patchKey(i)));
+                }
+            }
+            HooverCursor cursor = HooverCursor.resume(grid, room.roomWidth(), room.roomHeight(),
+                    snapshot.x(), snapshot.y(), snapshot.cleanedPatches(), snapshot.moveCount());
+            SessionJournal journal = store.reopen(sessionId, stored,
+                    fragment -> cursor.advance(fragment, 0, fragment.length));
+            return new RoomSession(sessionId, room, grid, cursor, (int) Math.min(Integer.MAX_VALUE, weight(room)),
+                    store, journal);
+        }).orElse(null);
+    }
+
+    private long weight(PreparedRoom room) {
+        return roomGridFactory.segmentGridBytes(room) + SESSION_OVERHEAD_BYTES;
+    }
+}
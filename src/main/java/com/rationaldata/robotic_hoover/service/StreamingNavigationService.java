@@ -0,0 +1,117 @@
+package com.rationaldata.robotic_hoover.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rationaldata.robotic_hoover.config.HooverProperties;
+import com.rationaldata.robotic_hoover.dto.HooverRequest;
+import com.rationaldata.robotic_hoover.dto.HooverResponse;
+import com.rationaldata.robotic_hoover.dto.HooverStreamHeader;
+import com.rationaldata.robotic_hoover.engine.HooverCursor;
+import com.rationaldata.robotic_hoover.exception.InvalidInstructionsException;
+import com.rationaldata.robotic_hoover.room.PreparedRoom;
+import com.rationaldata.robotic_hoover.room.RoomGridFactory;
+import com.rationaldata.robotic_hoover.validation.HooverRequestValidator;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Set;
+
+/**
+ * Service navigating the hoover with instructions read from a stream, for instruction payloads too large
+ * to be held in memory.
+ * <p>
+ * The stream starts with a single line of JSON describing the room, see {@link HooverStreamHeader},
+ * followed by the instructions. The instructions are read in fixed-size buffers, each validated and
+ * simulated as it arrives, so the memory used does not depend on the number of instructions.
+ */
+@Service
+@RequiredArgsConstructor
+public class StreamingNavigationService {
+
+    private final HooverRequestValidator validator;
+    private final RoomGridFactory roomGridFactory;
+    private final ObjectMapper objectMapper;
+    private final Validator beanValidator;
+    private final HooverProperties properties;
+
+    /**
+     * Navigates the hoover with the header and instructions read from the given stream.
+     *
+     * @param body The stream holding the JSON header line followed by the instructions.
+     * @return A {@link HooverResponse} with the final position of the hoover and the number of cleaned patches.
+     * @throws IOException if the stream cannot be read.
+     * @throws ConstraintViolationException if the header misses a field or has a malformed one.
+     * @throws InvalidInstructionsException if the instructions are empty or contain an invalid character.
+     */
+    public HooverResponse navigate(InputStream body) throws IOException {
+        HooverProperties.Stream settings = properties.getStream();
+        byte[] buffer = new byte[settings.getBufferSize()];
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+        HooverCursor cursor = null;
+
+        int read;
+        while (cursor == null && (read = body.read(buffer)) != -1) {
+            int lineEnd = indexOfLineEnd(buffer, read);
+            header.write(buffer, 0, lineEnd < 0 ? read : lineEnd);
+            if (header.size() > settings.getMaxHeaderBytes()) {
+                throw new IllegalArgumentException("Stream header exceeds " + settings.getMaxHeaderBytes() + " bytes.");
+            }
+            if (lineEnd >= 0) {
+                cursor = openCursor(header.toByteArray());
+                cursor.advance(buffer, lineEnd + 1, read);
+            }
+        }
+        if (cursor == null) {
+            throw new IllegalArgumentException("Stream header must be followed by a line break and the instructions.");
+        }
+
+        while ((read = body.read(buffer)) != -1) {
+            cursor.advance(buffer, 0, read);
+        }
+        if (cursor.getMoveCount() == 0) {
+            throw new InvalidInstructionsException("Instructions cannot be empty");
+        }
+        return cursor.toResponse();
+    }
+
+    private HooverCursor openCursor(byte[] headerLine) {
+        HooverStreamHeader header;
+        try {
+            header = objectMapper.readValue(headerLine, HooverStreamHeader.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid stream header: " + e.getOriginalMessage());
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid stream header: " + e.getMessage());
+        }
+
+        Set<ConstraintViolation<HooverStreamHeader>> violations = beanValidator.validate(header);
+        if (!violations.isEmpty()) {
+            throw new ConstraintViolationException(violations);
+        }
+
+        HooverRequest request = new HooverRequest();
+        request.setRoomSize(header.getRoomSize());
+        request.setCoords(header.getCoords());
+        request.setPatches(header.getPatches());
+        validator.validateHooverRequest(request);
+
+        PreparedRoom room = PreparedRoom.of(request);
+        return new HooverCursor(roomGridFactory.createForSegments(room),
+                room.roomWidth(), room.roomHeight(), room.startX(), room.startY());
+    }
+
+    private static int indexOfLineEnd(byte[] buffer, int length) {
+        for (int i = 0; i < length; i++) {
+            if (buffer[i] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,339 @@
+package com.rationaldata.robotic_hoover.tcp;
+
+import com.rationaldata.robotic_hoover.exception.ErrorResponse;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * One selector thread serving its own connections: it reads their frames and writes the responses back, leaving the
+ * navigations to an executor so that a long request never holds up the other connections of the loop.
+ * <p>
+ * Once a connection has complete frames, the loop hands the connection over to the executor, which answers all of
+ * them into the write buffer; the connection neither reads nor writes meanwhile, so its buffers belong to the task.
+ * The task then posts the connection back through a queue and wakes the selector, which writes the responses and
+ * carries on. With a single task per connection at a time, its frames are answered in order.
+ * <p>
+ * Connections read and write through direct buffers of {@code hoover.tcp.buffer-size} bytes, taken from a pool owned
+ * by the loop and returned when the connection closes, and frames are handed to the {@link NavigationFrameHandler}
+ * as a window of the read buffer, so nothing is allocated per frame on the I/O path. Only frames larger than a
+ * buffer are gathered in a heap buffer of their own. A connection stops reading while its write buffer lacks room
+ * for a response, which pushes back on clients pipelining faster than they read.
+ */
+@Slf4j
+final class EventLoop implements Runnable {
+
+    private final Selector selector;
+    private final NavigationFrameHandler handler;
+    private final Executor navigationExecutor;
+    private final int bufferSize;
+    private final int maxFrameBytes;
+    private final Queue<SocketChannel> registrations = new ConcurrentLinkedQueue<>();
+    private final Queue<Connection> completions = new ConcurrentLinkedQueue<>();
+    private final ArrayDeque<ByteBuffer> bufferPool = new ArrayDeque<>();
+    private final Consumer<SelectionKey> onSelected = this::process;
+    private ServerSocketChannel server;
+    private EventLoop[] loops;
+    private int nextLoop;
+    private volatile boolean running = true;
+
+    EventLoop(NavigationFrameHandler handler, Executor navigationExecutor, int bufferSize, int maxFrameBytes) throws IOException {
+        this.selector = Selector.open();
+        this.handler = handler;
+        this.navigationExecutor = navigationExecutor;
+        this.bufferSize = bufferSize;
+        this.maxFrameBytes = maxFrameBytes;
+    }
+
+    /**
+     * Makes this loop accept the connections of a server channel, spreading them over the given loops in turn.
+     * Must be called before the loop runs.
+     */
+    void listen(ServerSocketChannel server, EventLoop[] loops) throws IOException {
+        this.server = server;
+        this.loops = loops;
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    /**
+     * Hands a new connection over to this loop, from any thread.
+     */
+    void register(SocketChannel channel) {
+        registrations.add(channel);
+        selector.wakeup();
+    }
+
+    /**
+     * Stops the loop, which closes its connections on its way out.
+     */
+    void stop() {
+        running = false;
+        selector.wakeup();
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (running) {
+                selector.select(onSelected);
+                SocketChannel channel;
+                while ((channel = registrations.poll()) != null) {
+                    open(channel);
+                }
+                Connection connection;
+                while ((connection = completions.poll()) != null) {
+                    resume(connection);
+                }
+            }
+        } catch (IOException e) {
+            log.error("TCP event loop failed", e);
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                if (key.attachment() instanceof Connection connection) {
+                    close(connection);
+                }
+            }
+            try {
+                selector.close();
+            } catch (IOException e) {
+                log.warn("Failed to close the selector", e);
+            }
+        }
+    }
+
+    private void process(SelectionKey key) {
+        if (key.attachment() == null) {
+            accept();
+            return;
+        }
+        Connection connection = (Connection) key.attachment();
+        if (connection.navigating) {
+            return;
+        }
+        try {
+            if (key.isReadable() && connection.channel.read(connection.in) < 0) {
+                close(connection);
+                return;
+            }
+            serve(connection);
+        } catch (IOException | CancelledKeyException e) {
+            close(connection);
+        }
+    }
+
+    private void accept() {
+        try {
+            SocketChannel channel;
+            while ((channel = server.accept()) != null) {
+                loops[nextLoop].register(channel);
+                nextLoop = (nextLoop + 1) % loops.length;
+            }
+        } catch (IOException e) {
+            log.warn("Failed to accept a TCP connection", e);
+        }
+    }
+
+    private void open(SocketChannel channel) {
+        try {
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            Connection connection = new Connection(channel, buffer(), buffer());
+            connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+        } catch (IOException e) {
+            log.warn("Failed to register a TCP connection", e);
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+                // Already failing
+            }
+        }
+    }
+
+    /**
+     * Writes the pending responses, then hands the connection to the executor if it has complete frames and room
+     * for a response, or else waits for whatever blocks progress: more input or room to write.
+     */
+    private void serve(Connection connection) throws IOException {
+        connection.out.flip();
+        connection.channel.write(connection.out);
+        connection.out.compact();
+
+        if (!connection.closeAfterFlush && connection.out.remaining() >= NavigationFrames.MAX_RESPONSE_BYTES
+                && hasFrame(connection)) {
+            navigate(connection);
+            return;
+        }
+        if (connection.closeAfterFlush && connection.out.position() == 0) {
+            close(connection);
+            return;
+        }
+        int interest = 0;
+        if (!connection.closeAfterFlush && connection.in.hasRemaining()) {
+            interest |= SelectionKey.OP_READ;
+        }
+        if (connection.out.position() > 0) {
+            interest |= SelectionKey.OP_WRITE;
+        }
+        connection.key.interestOps(interest);
+    }
+
+    /**
+     * Answers the frames of a connection on the executor, posting the connection back to the loop once done.
+     */
+    private void navigate(Connection connection) {
+        connection.navigating = true;
+        connection.key.interestOps(0);
+        navigationExecutor.execute(() -> {
+            try {
+                readFrames(connection);
+            } finally {
+                completions.add(connection);
+                selector.wakeup();
+            }
+        });
+    }
+
+    private void resume(Connection connection) {
+        connection.navigating = false;
+        if (connection.in == null) {
+            return;
+        }
+        try {
+            serve(connection);
+        } catch (IOException | CancelledKeyException e) {
+            close(connection);
+        }
+    }
+
+    /**
+     * @return {@code true} if the read buffer holds something {@link #readFrames} acts on: a complete or oversized
+     * frame, an invalid length, or more of a large frame being gathered.
+     */
+    private boolean hasFrame(Connection connection) {
+        ByteBuffer in = connection.in;
+        if (connection.large != null) {
+            return in.position() > 0;
+        }
+        if (in.position() < NavigationFrames.LENGTH_BYTES) {
+            return false;
+        }
+        int length = in.getInt(0);
+        return length < 0 || length > maxFrameBytes || NavigationFrames.LENGTH_BYTES + length > in.capacity()
+                || in.position() >= NavigationFrames.LENGTH_BYTES + length;
+    }
+
+    /**
+     * Handles the complete frames of the read buffer.
+     *
+     * @return {@code true} if it stopped because the write buffer lacks room for another response.
+     */
+    private boolean readFrames(Connection connection) {
+        ByteBuffer in = connection.in;
+        ByteBuffer out = connection.out;
+        in.flip();
+        try {
+            while (!connection.closeAfterFlush) {
+                if (connection.large != null) {
+                    ByteBuffer large = connection.large;
+                    int length = Math.min(large.remaining(), in.remaining());
+                    large.put(large.position(), in, in.position(), length);
+                    large.position(large.position() + length);
+                    in.position(in.position() + length);
+                    if (large.hasRemaining()) {
+                        return false;
+                    }
+                    if (out.remaining() < NavigationFrames.MAX_RESPONSE_BYTES) {
+                        return true;
+                    }
+                    handler.handle(large.flip(), out);
+                    connection.large = null;
+                    continue;
+                }
+                if (out.remaining() < NavigationFrames.MAX_RESPONSE_BYTES) {
+                    return true;
+                }
+                if (in.remaining() < NavigationFrames.LENGTH_BYTES) {
+                    return false;
+                }
+                int length = in.getInt(in.position());
+                if (length < 0 || length > maxFrameBytes) {
+                    NavigationFrames.writeError(out, new ErrorResponse("Invalid Frame",
+                            "Frame length " + length + " is not between 0 and " + maxFrameBytes, 400, null));
+                    connection.closeAfterFlush = true;
+                    return false;
+                }
+                int start = in.position() + NavigationFrames.LENGTH_BYTES;
+                if (NavigationFrames.LENGTH_BYTES + length > in.capacity()) {
+                    in.position(start);
+                    connection.large = ByteBuffer.allocate(length);
+                    continue;
+                }
+                if (in.remaining() < NavigationFrames.LENGTH_BYTES + length) {
+                    return false;
+                }
+                int limit = in.limit();
+                in.position(start).limit(start + length);
+                handler.handle(in, out);
+                in.limit(limit).position(start + length);
+            }
+            return false;
+        } finally {
+            in.compact();
+        }
+    }
+
+    private void close(Connection connection) {
+        if (connection.key != null) {
+            connection.key.cancel();
+        }
+        try {
+            connection.channel.close();
+        } catch (IOException e) {
+            log.debug("Failed to close a TCP connection", e);
+        }
+        if (connection.in != null) {
+            bufferPool.push(connection.in.clear());
+            bufferPool.push(connection.out.clear());
+            connection.in = null;
+            connection.out = null;
+        }
+    }
+
+    private ByteBuffer buffer() {
+        ByteBuffer buffer = bufferPool.poll();
+        return buffer != null ? buffer : ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    /**
+     * A client connection. Both buffers are kept in write mode between events: {@code in} holds the bytes read
+     * and not yet handled, {@code out} the response bytes not yet written.
+     */
+    private static final class Connection {
+
+        private final SocketChannel channel;
+        private ByteBuffer in;
+        private ByteBuffer out;
+        private ByteBuffer large;
+        private SelectionKey key;
+        private boolean closeAfterFlush;
+        private boolean navigating;
+
+        private Connection(SocketChannel channel, ByteBuffer in, ByteBuffer out) {
+            this.channel = channel;
+            this.in = in;
+            this.out = out;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.rationaldata.robotic_hoover.tcp;
+
+import com.rationaldata.robotic_hoover.codec.HooverBinaryMessageConverter;
+import com.rationaldata.robotic_hoover.dto.HooverRequest;
+import com.rationaldata.robotic_hoover.dto.PackedPatches;
+import com.rationaldata.robotic_hoover.exception.GlobalExceptionHandler;
+import com.rationaldata.robotic_hoover.service.HooverService;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+
+import java.nio.ByteBuffer;
+import java.util.Set;
+import java.util.function.IntFunction;
+
+/**
+ * Navigates the request of one frame and writes the response frame, with the same validation and errors as
+ * {@code /hoover/navigate}: Bean Validation first, then {@link HooverService}, and any failure turned into the
+ * error response {@link GlobalExceptionHandler} gives for it.
+ */
+@RequiredArgsConstructor
+final class NavigationFrameHandler {
+
+    private final HooverService hooverService;
+    private final Validator beanValidator;
+    private final GlobalExceptionHandler exceptionHandler;
+    private final IntFunction<PackedPatches> patches;
+
+    /**
+     * @param request The payload of a request frame, consumed.
+     * @param out     Receives the response frame, with at least {@link NavigationFrames#MAX_RESPONSE_BYTES} remaining.
+     */
+    void handle(ByteBuffer request, ByteBuffer out) {
+        try {
+            HooverRequest hooverRequest = HooverBinaryMessageConverter.readRequest(request, patches);
+            Set<ConstraintViolation<HooverRequest>> violations = beanValidator.validate(hooverRequest);
+            if (!violations.isEmpty()) {
+                throw new ConstraintViolationException(violations);
+            }
+            NavigationFrames.writeSuccess(out, hooverService.navigate(hooverRequest));
+        } catch (Exception e) {
+            NavigationFrames.writeError(out, exceptionHandler.toErrorResponse(e));
+        }
+    }
+}
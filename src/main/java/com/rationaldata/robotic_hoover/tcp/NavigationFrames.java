@@ -0,0 +1,116 @@
+package com.rationaldata.robotic_hoover.tcp;
+
+import com.rationaldata.robotic_hoover.codec.HooverBinaryMessageConverter;
+import com.rationaldata.robotic_hoover.dto.BatchItemResult;
+import com.rationaldata.robotic_hoover.dto.HooverRequest;
+import com.rationaldata.robotic_hoover.dto.HooverResponse;
+import com.rationaldata.robotic_hoover.exception.ErrorResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The frame protocol of the {@link TcpNavigationServer}. Every frame is a 32-bit length in network byte order followed
+ * by that many bytes of payload, and a connection may send any number of request frames without waiting for the
+ * responses, which come back in the same order.
+ * <ul>
+ *     <li>A request payload is a request in the {@link HooverBinaryMessageConverter} format.</li>
+ *     <li>A response payload starts with a 16-bit status, the HTTP status {@code /hoover/navigate} would have
+ *     answered with. On success it is followed by the final X and Y coordinates and the number of cleaned patches
+ *     as three 32-bit ints; on failure by the error and the message of the {@link ErrorResponse}, each as a
+ *     16-bit length and ISO-8859-1 bytes, cut at {@value #MAX_TEXT_BYTES} bytes.</li>
+ * </ul>
+ * The static methods encode requests and decode responses for clients.
+ */
+public final class NavigationFrames {
+
+    public static final int LENGTH_BYTES = Integer.BYTES;
+    public static final int STATUS_OK = 200;
+
+    static final int MAX_TEXT_BYTES = 1_024;
+    /**
+     * The largest response frame, which a connection makes room for before reading the next request.
+     */
+    static final int MAX_RESPONSE_BYTES = LENGTH_BYTES + Short.BYTES + 2 * (Short.BYTES + MAX_TEXT_BYTES);
+
+    private NavigationFrames() {
+    }
+
+    /**
+     * Encodes a request frame, length included.
+     *
+     * @param request The request, as accepted by {@link HooverBinaryMessageConverter#writeRequest}.
+     * @return The frame.
+     */
+    public static byte[] requestFrame(HooverRequest request) {
+        ByteArrayOutputStream frame = new ByteArrayOutputStream();
+        try {
+            frame.write(new byte[LENGTH_BYTES]);
+            HooverBinaryMessageConverter.writeRequest(request, frame);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        byte[] bytes = frame.toByteArray();
+        ByteBuffer.wrap(bytes).putInt(bytes.length - LENGTH_BYTES);
+        return bytes;
+    }
+
+    /**
+     * Decodes a response payload.
+     *
+     * @param payload The payload of a response frame, its length already read; consumed.
+     * @return The response, or the error the request failed with.
+     */
+    public static BatchItemResult readResponse(ByteBuffer payload) {
+        int status = payload.getShort() & 0xFFFF;
+        if (status == STATUS_OK) {
+            int x = payload.getInt();
+            int y = payload.getInt();
+            return BatchItemResult.success(new HooverResponse(new int[]{x, y}, payload.getInt()));
+        }
+        String error = readText(payload);
+        String message = readText(payload);
+        return BatchItemResult.failure(new ErrorResponse(error, message, status, null));
+    }
+
+    /**
+     * Appends a success frame. The buffer must have {@link #MAX_RESPONSE_BYTES} remaining.
+     */
+    static void writeSuccess(ByteBuffer out, HooverResponse response) {
+        out.putInt(Short.BYTES + 3 * Integer.BYTES)
+                .putShort((short) STATUS_OK)
+                .putInt(response.getCoords()[0])
+                .putInt(response.getCoords()[1])
+                .putInt(response.getPatches());
+    }
+
+    /**
+     * Appends an error frame. The buffer must have {@link #MAX_RESPONSE_BYTES} remaining.
+     */
+    static void writeError(ByteBuffer out, ErrorResponse error) {
+        int start = out.position();
+        out.position(start + LENGTH_BYTES);
+        out.putShort((short) error.getStatus());
+        writeText(out, error.getError());
+        writeText(out, error.getMessage());
+        out.putInt(start, out.position() - start - LENGTH_BYTES);
+    }
+
+    private static void writeText(ByteBuffer out, String text) {
+        int length = text == null ? 0 : Math.min(text.length(), MAX_TEXT_BYTES);
+        out.putShort((short) length);
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            out.put((byte) (c <= 0xFF ? c : '?'));
+        }
+    }
+
+    private static String readText(ByteBuffer in) {
+        byte[] text = new byte[in.getShort() & 0xFFFF];
+        in.get(text);
+        return new String(text, StandardCharsets.ISO_8859_1);
+    }
+}
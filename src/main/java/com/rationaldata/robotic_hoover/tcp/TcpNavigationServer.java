@@ -0,0 +1,112 @@
+package com.rationaldata.robotic_hoover.tcp;
+
+import com.rationaldata.robotic_hoover.config.HooverProperties;
+import com.rationaldata.robotic_hoover.exception.GlobalExceptionHandler;
+import com.rationaldata.robotic_hoover.room.RoomGridFactory;
+import com.rationaldata.robotic_hoover.service.HooverService;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Optional TCP listener next to the HTTP server, for clients sending many small navigations: it speaks the
+ * length-prefixed binary frames of {@link NavigationFrames} and hands every request to the same {@link HooverService}
+ * as {@code /hoover/navigate}, without the HTTP parsing and servlet dispatch around each one.
+ * <p>
+ * Connections are spread over {@code hoover.tcp.io-threads} {@link EventLoop}s, which only do the I/O: the requests
+ * are navigated on virtual threads, so the loops keep serving their other connections meanwhile. The listener starts
+ * with the application context when {@code hoover.tcp.enabled} is set, and stops with it.
+ */
+@Slf4j
+@Component
+public class TcpNavigationServer implements SmartLifecycle {
+
+    private final NavigationFrameHandler handler;
+    private final HooverProperties.Tcp settings;
+    private ServerSocketChannel server;
+    private EventLoop[] loops;
+    private Thread[] threads;
+    private ExecutorService navigationExecutor;
+
+    public TcpNavigationServer(HooverService hooverService, Validator beanValidator,
+                               GlobalExceptionHandler exceptionHandler, HooverProperties properties,
+                               RoomGridFactory roomGridFactory) {
+        this.handler = new NavigationFrameHandler(hooverService, beanValidator, exceptionHandler,
+                roomGridFactory::packedPatches);
+        this.settings = properties.getTcp();
+    }
+
+    @Override
+    public synchronized void start() {
+        if (!settings.isEnabled() || server != null) {
+            return;
+        }
+        int ioThreads = settings.getIoThreads() > 0 ? settings.getIoThreads() : Runtime.getRuntime().availableProcessors();
+        int bufferSize = Math.max(settings.getBufferSize(), NavigationFrames.MAX_RESPONSE_BYTES);
+        try {
+            server = ServerSocketChannel.open().bind(new InetSocketAddress(settings.getPort()));
+            navigationExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("hoover-tcp-navigation-", 0).factory());
+            loops = new EventLoop[ioThreads];
+            for (int i = 0; i < ioThreads; i++) {
+                loops[i] = new EventLoop(handler, navigationExecutor, bufferSize, settings.getMaxFrameBytes());
+            }
+            loops[0].listen(server, loops);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to start the TCP listener on port " + settings.getPort(), e);
+        }
+        threads = new Thread[ioThreads];
+        for (int i = 0; i < ioThreads; i++) {
+            threads[i] = Thread.ofPlatform().name("hoover-tcp-" + i).start(loops[i]);
+        }
+        log.info("TCP navigation listener started on port {} with {} event loops", getPort(), ioThreads);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (server == null) {
+            return;
+        }
+        for (EventLoop loop : loops) {
+            loop.stop();
+        }
+        try {
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            navigationExecutor.close();
+            server.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            log.warn("Failed to close the TCP listener", e);
+        }
+        server = null;
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return server != null;
+    }
+
+    /**
+     * @return The port the listener is bound to, or -1 if it is not running.
+     */
+    public synchronized int getPort() {
+        if (server == null) {
+            return -1;
+        }
+        try {
+            return ((InetSocketAddress) server.getLocalAddress()).getPort();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -22,6 +22,30 @@ public class JsonExamples {
               "patches": 2
             }""";
 
+    // Example of streamed Hoover Request: JSON header line, then the instructions
+    public static final String HOOVER_STREAM_REQUEST = """
+            {"roomSize":[5,5],"coords":[1,2],"patches":[[1,0],[2,2],[2,3]]}
+            NNESEESWNWW""";
+
+    // Example of Hoover Batch Request JSON
+    public static final String HOOVER_BATCH_REQUEST_JSON = """
+            [
+            {"roomSize":[5,5],"coords":[1,2],"patches":[[1,0],[2,2],[2,3]],"instructions":"NNESEESWNWW"},
+            {"roomSize":[5,5],"coords":[1,2],"patches":[[1,0]],"instructions":"NNEA"}
+            ]""";
+
+    // Example of Hoover Batch Response JSON
+    public static final String HOOVER_BATCH_RESPONSE_JSON = """
+            [
+            {"result": {"coords": [1, 3], "patches": 1}},
+            {"error": {
+              "error": "Constraint Violation",
+              "message": "{instructions=Instructions must only contain the characters N, E, S, W}",
+              "status": 400,
+              "timestamp": "2024-10-10T11:59:00.487815"
+            }}
+            ]""";
+
     // Example of Validation Error JSON
     public static final String VALIDATION_ERROR_JSON = """
             {
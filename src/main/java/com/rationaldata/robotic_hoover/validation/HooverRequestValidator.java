@@ -1,25 +1,77 @@
 package com.rationaldata.robotic_hoover.validation;
 
+import com.rationaldata.robotic_hoover.dto.FleetHoover;
+import com.rationaldata.robotic_hoover.dto.FleetRequest;
 import com.rationaldata.robotic_hoover.dto.HooverRequest;
+import com.rationaldata.robotic_hoover.dto.PackedPatches;
 import com.rationaldata.robotic_hoover.exception.InvalidRoomSizeException;
 import com.rationaldata.robotic_hoover.exception.NegativeValuesException;
 import com.rationaldata.robotic_hoover.exception.OutOfRoomBoundsCoordinatesException;
+import com.rationaldata.robotic_hoover.room.PreparedRoom;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
 
 /**
  * This class is responsible for validating the {@link HooverRequest} before processing.
- * It ensures that the room size, initial position, and dirt patches are valid and within bounds.
+ * It ensures that the room size, initial position, and dirt patches are valid and within bounds,
+ * and prepares the room the simulation runs on.
  */
 @Component
 public class HooverRequestValidator {
 
+    /**
+     * Validates the request in a single pass over its patches, checking their arity, sign and bounds while
+     * packing them, then attaches the resulting {@link PreparedRoom} to the request for the simulation.
+     * Patches decoded into a {@link PackedPatches} are already packed, off the heap for the largest requests,
+     * and are handed over to the room as they are.
+     * When several checks fail, the error reported is the same as with one pass per check: arity first,
+     * then negative values, room size and bounds.
+     *
+     * @param request The request to validate.
+     */
     public void validateHooverRequest(HooverRequest request) {
         int roomWidth = request.getRoomSize()[0];
         int roomHeight = request.getRoomSize()[1];
+        int[] initialPosition = request.getCoords();
+        List<int[]> patches = request.getPatches();
+
+        // Room size and initial position take part in the sign and bounds checks like any patch
+        int minCoordinate = Math.min(Math.min(roomWidth, roomHeight), Math.min(initialPosition[0], initialPosition[1]));
+        int maxX = initialPosition[0];
+        int maxY = initialPosition[1];
+        boolean validArity = true;
+        PackedPatches packedPatches = patches instanceof PackedPatches packed ? packed : null;
+        long[] patchKeys = null;
+
+        if (packedPatches != null) {
+            // Arity, sign and bounds were recorded while parsing, the keys are packed already
+            validArity = packedPatches.hasValidArity();
+            if (!packedPatches.isEmpty()) {
+                minCoordinate = Math.min(minCoordinate, packedPatches.minCoordinate());
+                maxX = Math.max(maxX, packedPatches.maxX());
+                maxY = Math.max(maxY, packedPatches.maxY());
+            }
+        } else {
+            patchKeys = new long[patches.size()];
+            for (int i = 0; i < patchKeys.length; i++) {
+                int[] patch = patches.get(i);
+                if (patch == null || patch.length != 2) {
+                    validArity = false; // Patch does not have exactly 2 elements (x, y)
+                    break;
+                }
+                minCoordinate = Math.min(minCoordinate, Math.min(patch[0], patch[1]));
+                maxX = Math.max(maxX, patch[0]);
+                maxY = Math.max(maxY, patch[1]);
+                patchKeys[i] = PreparedRoom.key(patch[0], patch[1]);
+            }
+        }
 
-        if(!hasValidNonNegativeCoordinates(request)){
+        if (!validArity) {
+            throw new IllegalArgumentException("Invalid patch ,only exactly 2 integers must be contained in a patch array");
+        }
+
+        if (minCoordinate < 0) {
             throw new NegativeValuesException("Coordinates values regarding room size, patches and initial position can not be negative.");
         }
 
@@ -27,90 +79,46 @@ public class HooverRequestValidator {
             throw new InvalidRoomSizeException("Both room width and height must be greater than zero.");
         }
 
-        if (!areCoordinatesWithinRoomBounds(request, roomWidth, roomHeight)) {
+        if (maxX > roomWidth || maxY > roomHeight) {
             throw new OutOfRoomBoundsCoordinatesException("Initial coordinates or patch coordinates are out of bounds of the room size.");
         }
 
-        if(!patchesHavingValidSize(request.getPatches())){
-            throw new IllegalArgumentException("Invalid patch ,only exactly 2 integers must be contained in a patch array");
-        }
-    }
-
-    private boolean hasValidRoomSize(int roomWidth, int roomHeight) {
-        return roomWidth > 0 && roomHeight > 0;
+        request.setPreparedRoom(packedPatches != null
+                ? PreparedRoom.of(roomWidth, roomHeight, initialPosition[0], initialPosition[1], packedPatches)
+                : new PreparedRoom(roomWidth, roomHeight, initialPosition[0], initialPosition[1], patchKeys));
     }
 
-
     /**
-     * Checks if the request contains any negative coordinates in roomSize, initialPosition, or patches.
+     * Validates a fleet like a request for its first hoover, then checks the starts of the other hoovers against
+     * the room, so the patches are only walked once whatever the size of the fleet.
      *
-     * @param request The HooverRequest containing room size, initial position, and patches.
-     * @return true if all values are non-negative, false if any negative values are found.
+     * Attaches the resulting {@link PreparedRoom}, started at the first hoover, to the request.
+     *
+     * @param request The fleet to validate.
      */
-    private boolean hasValidNonNegativeCoordinates(HooverRequest request) {
-        int[] roomSize = request.getRoomSize();
-        int[] initialPosition = request.getCoords();
-
-        // Check for negative values in room size
-        if (roomSize[0] < 0 || roomSize[1] < 0) {
-            return false;
-        }
-
-        // Check for negative values in initial position
-        if (initialPosition[0] < 0 || initialPosition[1] < 0) {
-            return false;
-        }
-
-        // Check for negative values in patches
-        for (int[] patch : request.getPatches()) {
-            if (patch[0] < 0 || patch[1] < 0) {
-                return false;
+    public void validateFleetRequest(FleetRequest request) {
+        List<FleetHoover> hoovers = request.getHoovers();
+        HooverRequest first = new HooverRequest();
+        first.setRoomSize(request.getRoomSize());
+        first.setPatches(request.getPatches());
+        first.setCoords(hoovers.get(0).getCoords());
+        first.setInstructions(hoovers.get(0).getInstructions());
+        validateHooverRequest(first);
+
+        PreparedRoom room = first.getPreparedRoom();
+        for (FleetHoover hoover : hoovers) {
+            int[] start = hoover.getCoords();
+            if (start[0] < 0 || start[1] < 0) {
+                throw new NegativeValuesException("Coordinates values regarding room size, patches and initial position can not be negative.");
             }
-        }
-
-        return true;
-    }
-
-    /**
-     * Validates the coordinates (initial position and patches) to ensure they are
-     * within the room size bounds.
-     * @param request The HooverRequest containing the coordinates.
-     * @param roomWidth The width of the room.
-     * @param roomHeight The height of the room.
-     * @return true if all coordinates are non-negative and within the room bounds, false otherwise.
-     */
-    private boolean areCoordinatesWithinRoomBounds(HooverRequest request, int roomWidth, int roomHeight) {
-
-        int[] initialPosition = request.getCoords();
-
-        // Check if initial position is within room bounds
-        if (initialPosition[0] > roomWidth || initialPosition[1] > roomHeight) {
-            return false;
-        }
-
-        // Check if each patch is within room bounds
-        for (int[] patch : request.getPatches()) {
-            if (patch[0] > roomWidth || patch[1] > roomHeight) {
-                return false;
+            if (start[0] > room.roomWidth() || start[1] > room.roomHeight()) {
+                throw new OutOfRoomBoundsCoordinatesException("Initial coordinates or patch coordinates are out of bounds of the room size.");
             }
         }
-
-        return true;
+        request.setPreparedRoom(room);
     }
 
-    /**
-     * Validates that each patch in the list has exactly 2 elements representing x and y coordinates.
-     *
-     * @param patches The list of patches to validate.
-     * @return true if all patches are valid (i.e., each has exactly 2 elements), false otherwise.
-     */
-    private boolean patchesHavingValidSize(List<int[]> patches) {
-        for (int[] patch : patches) {
-            if (patch==null && patch.length != 2) {
-                return false; // Patch does not have exactly 2 elements (x, y)
-            }
-        }
-        return true;
+    private boolean hasValidRoomSize(int roomWidth, int roomHeight) {
+        return roomWidth > 0 && roomHeight > 0;
     }
-
 }
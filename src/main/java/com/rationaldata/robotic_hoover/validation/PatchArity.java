@@ -0,0 +1,26 @@
+package com.rationaldata.robotic_hoover.validation;
+
+import jakarta.validation.Constraint;
+import jakarta.validation.Payload;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Checks that every patch of a list is an array of exactly 2 integers [x, y].
+ * Lists parsed into {@link com.rationaldata.robotic_hoover.dto.PackedPatches} are checked in O(1),
+ * their arity having been recorded while parsing.
+ */
+@Target(ElementType.FIELD)
+@Retention(RetentionPolicy.RUNTIME)
+@Constraint(validatedBy = PatchArityValidator.class)
+public @interface PatchArity {
+
+    String message() default "Each patch must be an array of exactly 2 integers [x, y]";
+
+    Class<?>[] groups() default {};
+
+    Class<? extends Payload>[] payload() default {};
+}
@@ -0,0 +1,26 @@
+package com.rationaldata.robotic_hoover.validation;
+
+import com.rationaldata.robotic_hoover.dto.PackedPatches;
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+
+import java.util.List;
+
+public class PatchArityValidator implements ConstraintValidator<PatchArity, List<int[]>> {
+
+    @Override
+    public boolean isValid(List<int[]> patches, ConstraintValidatorContext context) {
+        if (patches == null) {
+            return true;
+        }
+        if (patches instanceof PackedPatches packedPatches) {
+            return packedPatches.hasValidArity();
+        }
+        for (int[] patch : patches) {
+            if (patch == null || patch.length != 2) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,33 @@
+package com.rationaldata.robotic_hoover.validation;
+
+import jakarta.validation.Constraint;
+import jakarta.validation.Payload;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Checks that instructions are a non-empty series of 'N', 'E', 'S', 'W' characters.
+ * Equivalent to {@code @Pattern(regexp = "^[NESW]+$")}, with a table lookup per character instead of a regex,
+ * and reporting the first invalid character with its offset.
+ * With {@link #compressed()}, instructions may also be written with repetitions, see
+ * {@link com.rationaldata.robotic_hoover.engine.CompressedInstructions}.
+ */
+@Target(ElementType.FIELD)
+@Retention(RetentionPolicy.RUNTIME)
+@Constraint(validatedBy = ValidInstructionsValidator.class)
+public @interface ValidInstructions {
+
+    String message() default "Instructions must only contain the characters N, E, S, W";
+
+    Class<?>[] groups() default {};
+
+    Class<? extends Payload>[] payload() default {};
+
+    /**
+     * Whether instructions written with repetitions, such as {@code (NNNNE SSSSE)500}, are accepted.
+     */
+    boolean compressed() default false;
+}
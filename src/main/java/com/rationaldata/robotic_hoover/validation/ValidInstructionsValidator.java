@@ -0,0 +1,61 @@
+package com.rationaldata.robotic_hoover.validation;
+
+import com.rationaldata.robotic_hoover.engine.CompressedInstructions;
+import com.rationaldata.robotic_hoover.engine.InstructionDecoder;
+import com.rationaldata.robotic_hoover.exception.InvalidInstructionsException;
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+
+public class ValidInstructionsValidator implements ConstraintValidator<ValidInstructions, CharSequence> {
+
+    private boolean compressed;
+
+    @Override
+    public void initialize(ValidInstructions constraint) {
+        this.compressed = constraint.compressed();
+    }
+
+    @Override
+    public boolean isValid(CharSequence instructions, ConstraintValidatorContext context) {
+        if (instructions == null) {
+            return true;
+        }
+        if (instructions.isEmpty()) {
+            return false;
+        }
+        int invalid = InstructionDecoder.indexOfInvalid(instructions);
+        if (invalid < 0) {
+            return true;
+        }
+        if (!compressed) {
+            return violation(context, InvalidInstructionsException.message(invalid, instructions.charAt(invalid)));
+        }
+        try {
+            CompressedInstructions.parse(instructions);
+            return true;
+        } catch (InvalidInstructionsException e) {
+            return violation(context, e.getMessage());
+        }
+    }
+
+    private static boolean violation(ConstraintValidatorContext context, String message) {
+        context.disableDefaultConstraintViolation();
+        context.buildConstraintViolationWithTemplate(escape(message)).addConstraintViolation();
+        return false;
+    }
+
+    /**
+     * Escapes a message quoting the instructions so that it is not interpolated as a message template.
+     */
+    private static String escape(String message) {
+        StringBuilder escaped = new StringBuilder(message.length());
+        for (int i = 0; i < message.length(); i++) {
+            char c = message.charAt(i);
+            if (c == '\\' || c == '{' || c == '}' || c == '$') {
+                escaped.append('\\');
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+}
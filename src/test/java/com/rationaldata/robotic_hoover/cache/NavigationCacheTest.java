@@ -0,0 +1,130 @@
+package com.rationaldata.robotic_hoover.cache;
+
+import com.rationaldata.robotic_hoover.config.HooverProperties;
+import com.rationaldata.robotic_hoover.dto.HooverRequest;
+import com.rationaldata.robotic_hoover.dto.HooverResponse;
+import com.rationaldata.robotic_hoover.room.PreparedRoom;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NavigationCacheTest {
+
+    private final NavigationCache cache = new NavigationCache(new HooverProperties());
+
+    @Test
+    void testFingerprintIgnoresPatchOrderAndDuplicates() {
+        // Given
+        HooverRequest request = request("NNESEESWNWW", new int[]{1, 0}, new int[]{2, 2}, new int[]{2, 3});
+        HooverRequest reordered = request("NNESEESWNWW", new int[]{2, 3}, new int[]{1, 0}, new int[]{2, 2}, new int[]{1, 0});
+        HooverRequest otherInstructions = request("NNESEESWNWE", new int[]{1, 0}, new int[]{2, 2}, new int[]{2, 3});
+
+        // When & Then
+        assertEquals(fingerprint(request), fingerprint(reordered));
+        assertNotEquals(fingerprint(request), fingerprint(otherInstructions));
+    }
+
+    @Test
+    void testRepeatedRequestIsServedFromCache() {
+        // Given
+        AtomicInteger navigations = new AtomicInteger();
+        HooverRequest request = request("NNESEESWNWW", new int[]{1, 0}, new int[]{2, 2}, new int[]{2, 3});
+
+        // When
+        HooverResponse first = get(request, () -> navigate(navigations));
+        first.getCoords()[0] = 42;
+        HooverResponse second = get(request, () -> navigate(navigations));
+
+        // Then
+        assertEquals(1, navigations.get());
+        assertArrayEquals(new int[]{1, 3}, second.getCoords(), "Cached results must not be shared with callers");
+        assertEquals(1, cache.stats().hitCount());
+        assertEquals(1, cache.stats().missCount());
+    }
+
+    @Test
+    void testConcurrentIdenticalRequestsShareOneNavigation() throws Exception {
+        // Given
+        int callers = 8;
+        AtomicInteger navigations = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        HooverRequest request = request("NNESEESWNWW", new int[]{1, 0});
+
+        // When
+        List<Future<HooverResponse>> responses = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < callers; i++) {
+                responses.add(executor.submit(() -> get(request, () -> {
+                    awaitQuietly(release);
+                    return navigate(navigations);
+                })));
+            }
+            while (cache.stats().requestCount() < callers) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+        }
+
+        // Then
+        assertEquals(1, navigations.get());
+        for (Future<HooverResponse> response : responses) {
+            assertArrayEquals(new int[]{1, 3}, response.get().getCoords());
+        }
+    }
+
+    @Test
+    void testFailedNavigationIsNotCached() {
+        // Given
+        AtomicInteger navigations = new AtomicInteger();
+        HooverRequest request = request("N", new int[]{1, 0});
+
+        // When
+        assertThrows(IllegalStateException.class, () -> get(request, () -> {
+            throw new IllegalStateException("Navigation failed");
+        }));
+        HooverResponse response = get(request, () -> navigate(navigations));
+
+        // Then
+        assertEquals(1, navigations.get());
+        assertEquals(1, response.getPatches());
+    }
+
+    private HooverResponse get(HooverRequest request, Supplier<HooverResponse> navigation) {
+        return cache.get(PreparedRoom.of(request), request.getInstructions(), navigation);
+    }
+
+    private static RequestFingerprint fingerprint(HooverRequest request) {
+        return RequestFingerprint.of(PreparedRoom.of(request), request.getInstructions());
+    }
+
+    private static HooverResponse navigate(AtomicInteger navigations) {
+        navigations.incrementAndGet();
+        return new HooverResponse(new int[]{1, 3}, 1);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static HooverRequest request(String instructions, int[]... patches) {
+        HooverRequest request = new HooverRequest();
+        request.setRoomSize(new int[]{5, 5});
+        request.setCoords(new int[]{1, 2});
+        request.setPatches(List.of(patches));
+        request.setInstructions(instructions);
+        return request;
+    }
+}
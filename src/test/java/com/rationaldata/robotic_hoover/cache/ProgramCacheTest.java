@@ -0,0 +1,58 @@
+package com.rationaldata.robotic_hoover.cache;
+
+import com.rationaldata.robotic_hoover.config.HooverProperties;
+import com.rationaldata.robotic_hoover.engine.InstructionProgram;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProgramCacheTest {
+
+    private final ProgramCache cache = new ProgramCache(new HooverProperties());
+
+    @Test
+    void testRepeatedInstructionsShareTheirProgram() {
+        // Given
+        String instructions = "NNESEESWNWW";
+
+        // When
+        InstructionProgram first = cache.get(instructions);
+        InstructionProgram second = cache.get(new String(instructions.toCharArray()));
+
+        // Then
+        assertSame(first, second);
+        assertEquals(1, cache.cache().stats().hitCount());
+        assertEquals(8, first.runCount());
+        assertEquals(11, first.instructionCount());
+    }
+
+    @Test
+    void testLongInstructionsWeighTheirKey() {
+        // Given
+        String instructions = "N".repeat(1_000_000);
+
+        // When
+        InstructionProgram program = cache.get(instructions);
+
+        // Then
+        assertEquals(1, program.runCount());
+        assertTrue(ProgramCache.weight(instructions, program) > 1_000_000);
+        assertEquals(Set.of(instructions), cache.cache().asMap().keySet());
+    }
+
+    @Test
+    void testExcursionsTellWhetherAWallIsReached() {
+        // Given
+        InstructionProgram program = cache.get("NNESEESWNWW");
+
+        // When & Then
+        assertEquals(0, program.displacementX());
+        assertEquals(1, program.displacementY());
+        assertTrue(program.staysInside(1, 2, 5, 5));
+        assertTrue(program.staysInside(0, 0, 3, 2));
+        assertFalse(program.staysInside(0, 0, 2, 2), "The program goes 3 tiles east");
+        assertFalse(program.staysInside(1, 4, 5, 5), "The program goes 2 tiles north");
+    }
+}
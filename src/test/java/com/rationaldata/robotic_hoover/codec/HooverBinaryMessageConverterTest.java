@@ -0,0 +1,131 @@
+package com.rationaldata.robotic_hoover.codec;
+
+import com.rationaldata.robotic_hoover.config.HooverProperties;
+import com.rationaldata.robotic_hoover.dto.HooverRequest;
+import com.rationaldata.robotic_hoover.dto.HooverResponse;
+import com.rationaldata.robotic_hoover.dto.PackedPatches;
+import com.rationaldata.robotic_hoover.metrics.NavigationMetrics;
+import com.rationaldata.robotic_hoover.room.PreparedRoom;
+import com.rationaldata.robotic_hoover.room.RoomGridFactory;
+import com.rationaldata.robotic_hoover.validation.HooverRequestValidator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HooverBinaryMessageConverterTest {
+
+    private final HooverBinaryMessageConverter converter =
+            new HooverBinaryMessageConverter(new NavigationMetrics(new SimpleMeterRegistry()));
+
+    @Test
+    void testRequestRoundTripsWithPatchesSortedByRow() throws Exception {
+        // Given
+        HooverRequest request = new HooverRequest();
+        request.setRoomSize(new int[]{300, 200});
+        request.setCoords(new int[]{1, 2});
+        request.setPatches(List.of(new int[]{2, 3}, new int[]{1, 0}, new int[]{200, 150}, new int[]{2, 2},
+                new int[]{299, 3}, new int[]{1, 0}));
+        request.setInstructions("NNESEESWNWW");
+
+        // When
+        byte[] body = write(request);
+        MockHttpInputMessage input = new MockHttpInputMessage(body);
+        input.getHeaders().setContentLength(body.length);
+        HooverRequest read = (HooverRequest) converter.read(HooverRequest.class, input);
+
+        // Then
+        assertEquals(4 * Integer.BYTES + 1 + (2 + 2 + 2 + 3 + 4) + 1 + 3, body.length);
+        assertArrayEquals(new int[]{300, 200}, read.getRoomSize());
+        assertArrayEquals(new int[]{1, 2}, read.getCoords());
+        assertEquals("NNESEESWNWW", read.getInstructions());
+        PackedPatches patches = assertInstanceOf(PackedPatches.class, read.getPatches());
+        assertEquals(List.of("[1, 0]", "[2, 2]", "[2, 3]", "[299, 3]", "[200, 150]"),
+                patches.stream().map(Arrays::toString).toList());
+        assertEquals(299, patches.maxX());
+        assertEquals(150, patches.maxY());
+    }
+
+    @Test
+    void testPatchesOfLargeRequestsStayOffHeapUntilTheRoomIsClosed() throws Exception {
+        // Given
+        HooverProperties properties = new HooverProperties();
+        properties.getGrid().setOffHeapMinPatches(3);
+        RoomGridFactory factory = new RoomGridFactory(properties);
+        HooverRequest request = new HooverRequest();
+        request.setRoomSize(new int[]{300, 200});
+        request.setCoords(new int[]{1, 2});
+        request.setPatches(List.of(new int[]{2, 3}, new int[]{1, 0}, new int[]{200, 150}, new int[]{1, 0}));
+        request.setInstructions("NNESEESWNWW");
+
+        // When
+        HooverRequest read = HooverBinaryMessageConverter.readRequest(ByteBuffer.wrap(write(request)),
+                factory::packedPatches);
+        new HooverRequestValidator().validateHooverRequest(read);
+
+        // Then
+        PackedPatches patches = assertInstanceOf(PackedPatches.class, read.getPatches());
+        assertTrue(patches.isOffHeap());
+        assertThrows(IllegalStateException.class, () -> patches.get(0));
+        try (PreparedRoom room = PreparedRoom.of(read)) {
+            assertTrue(room.isOffHeap());
+            assertEquals(3, room.patchCount());
+            assertEquals(PreparedRoom.key(200, 150), room.patchKey(2));
+        }
+    }
+
+    @Test
+    void testResponseRoundTrips() throws Exception {
+        // Given
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+
+        // When
+        converter.write(new HooverResponse(new int[]{1, 3}, 1), HooverBinaryMessageConverter.MEDIA_TYPE, output);
+        HooverResponse response = HooverBinaryMessageConverter.readResponse(new ByteArrayInputStream(output.getBodyAsBytes()));
+
+        // Then
+        assertEquals(12, output.getBodyAsBytes().length);
+        assertEquals(HooverBinaryMessageConverter.MEDIA_TYPE, output.getHeaders().getContentType());
+        assertArrayEquals(new int[]{1, 3}, response.getCoords());
+        assertEquals(1, response.getPatches());
+    }
+
+    @Test
+    void testRejectsMalformedRequests() throws Exception {
+        // Given
+        HooverRequest request = new HooverRequest();
+        request.setRoomSize(new int[]{5, 5});
+        request.setCoords(new int[]{1, 2});
+        request.setPatches(List.of(new int[]{1, 0}));
+        request.setInstructions("NNESEESWNWW");
+        byte[] body = write(request);
+        byte[] overflowingVarint = Arrays.copyOf(body, 4 * Integer.BYTES + 5);
+        Arrays.fill(overflowingVarint, 4 * Integer.BYTES, overflowingVarint.length, (byte) 0xFF);
+
+        // Then
+        assertThrows(HttpMessageNotReadableException.class,
+                () -> converter.read(HooverRequest.class, new MockHttpInputMessage(Arrays.copyOf(body, body.length - 1))));
+        assertThrows(HttpMessageNotReadableException.class,
+                () -> converter.read(HooverRequest.class, new MockHttpInputMessage(overflowingVarint)));
+        MockHttpInputMessage truncated = new MockHttpInputMessage(Arrays.copyOf(body, body.length - 1));
+        truncated.getHeaders().setContentLength(body.length);
+        assertThrows(HttpMessageNotReadableException.class, () -> converter.read(HooverRequest.class, truncated));
+        request.setInstructions("NNEA");
+        assertThrows(IllegalArgumentException.class, () -> write(request));
+    }
+
+    private static byte[] write(HooverRequest request) throws Exception {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        HooverBinaryMessageConverter.writeRequest(request, body);
+        return body.toByteArray();
+    }
+}
@@ -0,0 +1,108 @@
+package com.rationaldata.robotic_hoover.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rationaldata.robotic_hoover.dto.HooverRequest;
+import com.rationaldata.robotic_hoover.dto.HooverResponse;
+import com.rationaldata.robotic_hoover.dto.PackedPatches;
+import com.rationaldata.robotic_hoover.metrics.NavigationMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HooverJsonMessageConverterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HooverJsonMessageConverter converter = new HooverJsonMessageConverter(objectMapper.getFactory(),
+            new NavigationMetrics(new SimpleMeterRegistry()));
+
+    @Test
+    void testReadsRequestIntoPackedPatches() throws Exception {
+        // Given
+        String json = """
+                {"roomSize":[5,5],"coords":[1,2],"unknown":{"a":[1]},
+                 "patches":[[1,0],[2,2],["2",3.0]],"instructions":"NNESEESWNWW"}""";
+
+        // When
+        HooverRequest request = read(json);
+
+        // Then
+        assertArrayEquals(new int[]{5, 5}, request.getRoomSize());
+        assertArrayEquals(new int[]{1, 2}, request.getCoords());
+        assertEquals("NNESEESWNWW", request.getInstructions());
+        PackedPatches patches = assertInstanceOf(PackedPatches.class, request.getPatches());
+        assertEquals(3, patches.size());
+        assertArrayEquals(new int[]{2, 3}, patches.get(2));
+        assertTrue(patches.hasValidArity());
+        assertEquals(0, patches.minCoordinate());
+        assertEquals(2, patches.maxX());
+        assertEquals(3, patches.maxY());
+    }
+
+    @Test
+    void testReadsSameRequestAsDataBinding() throws Exception {
+        // Given
+        HooverRequest expected = new HooverRequest();
+        expected.setRoomSize(new int[]{7, 3});
+        expected.setCoords(new int[]{0, 1});
+        expected.setPatches(List.of(new int[]{4, 2}, new int[]{7, 3}));
+        expected.setInstructions("ESWN");
+
+        // When
+        HooverRequest request = read(objectMapper.writeValueAsString(expected));
+
+        // Then
+        assertArrayEquals(expected.getRoomSize(), request.getRoomSize());
+        assertArrayEquals(expected.getCoords(), request.getCoords());
+        assertEquals(expected.getInstructions(), request.getInstructions());
+        assertEquals(2, request.getPatches().size());
+        for (int i = 0; i < 2; i++) {
+            assertArrayEquals(expected.getPatches().get(i), request.getPatches().get(i));
+        }
+    }
+
+    @Test
+    void testRecordsPatchesWithWrongArity() throws Exception {
+        // When
+        HooverRequest request = read("{\"patches\":[[1,0],[1,2,3],null,[4]],\"roomSize\":null}");
+
+        // Then
+        assertNull(request.getRoomSize());
+        assertEquals(4, request.getPatches().size());
+        assertFalse(((PackedPatches) request.getPatches()).hasValidArity());
+    }
+
+    @Test
+    void testRejectsMalformedRequests() {
+        assertThrows(HttpMessageNotReadableException.class, () -> read("[1]"));
+        assertThrows(HttpMessageNotReadableException.class, () -> read("{\"roomSize\":5}"));
+        assertThrows(HttpMessageNotReadableException.class, () -> read("{\"patches\":[[1,\"a\"]]}"));
+        assertThrows(HttpMessageNotReadableException.class, () -> read("{\"patches\":[[1,2]"));
+    }
+
+    @Test
+    void testWritesResponseLikeDataBinding() throws Exception {
+        // Given
+        HooverResponse response = new HooverResponse(new int[]{1, 3}, 1);
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+
+        // When
+        converter.write(response, MediaType.APPLICATION_JSON, output);
+
+        // Then
+        assertEquals(objectMapper.writeValueAsString(response), output.getBodyAsString(StandardCharsets.UTF_8));
+        assertEquals(MediaType.APPLICATION_JSON, output.getHeaders().getContentType());
+    }
+
+    private HooverRequest read(String json) throws Exception {
+        MockHttpInputMessage input = new MockHttpInputMessage(json.getBytes(StandardCharsets.UTF_8));
+        return (HooverRequest) converter.read(HooverRequest.class, input);
+    }
+}
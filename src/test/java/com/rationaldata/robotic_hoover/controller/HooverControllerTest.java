@@ -1,7 +1,10 @@
 package com.rationaldata.robotic_hoover.controller;
 
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rationaldata.robotic_hoover.codec.HooverBinaryMessageConverter;
+import com.rationaldata.robotic_hoover.config.HooverProperties;
 import com.rationaldata.robotic_hoover.dto.HooverRequest;
 import com.rationaldata.robotic_hoover.dto.HooverResponse;
 import com.rationaldata.robotic_hoover.exception.InvalidRoomSizeException;
@@ -18,10 +21,15 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.util.Arrays;
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -41,6 +49,9 @@ class HooverControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private HooverProperties hooverProperties;
+
     @Test
     void testHooverNavigationSuccessfully() throws Exception {
         // Given
@@ -67,6 +78,141 @@ class HooverControllerTest {
 
         verify(hooverRequestValidator, times(1)).validateHooverRequest(any(HooverRequest.class));
     }
+    @Test
+    void testHooverNavigationWithBinaryFormat() throws Exception {
+        // Given
+        HooverRequest request = new HooverRequest();
+        request.setRoomSize(new int[]{5, 5});
+        request.setCoords(new int[]{1, 2});
+        request.setPatches(Arrays.asList(new int[]{1, 0}, new int[]{2, 2}, new int[]{2, 3}));
+        request.setInstructions("NNESEESWNWW");
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        HooverBinaryMessageConverter.writeRequest(request, body);
+
+        // When
+        MvcResult result = mockMvc.perform(post("/hoover/navigate")
+                        .contentType(HooverBinaryMessageConverter.MEDIA_TYPE)
+                        .accept(HooverBinaryMessageConverter.MEDIA_TYPE)
+                        .content(body.toByteArray()))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(HooverBinaryMessageConverter.MEDIA_TYPE))
+                .andReturn();
+
+        // Then
+        HooverResponse response = HooverBinaryMessageConverter.readResponse(
+                new ByteArrayInputStream(result.getResponse().getContentAsByteArray()));
+        assertArrayEquals(new int[]{1, 3}, response.getCoords());
+        assertEquals(1, response.getPatches());
+    }
+
+    @Test
+    void testBinaryRequestErrorsAreReportedAsJson() throws Exception {
+        // Given
+        HooverRequest request = new HooverRequest();
+        request.setRoomSize(new int[]{5, 5});
+        request.setCoords(new int[]{1, 2});
+        request.setPatches(List.of(new int[]{1, 0}));
+        request.setInstructions("N");
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        HooverBinaryMessageConverter.writeRequest(request, body);
+        doThrow(new OutOfRoomBoundsCoordinatesException("Initial coordinates are outside of room bounds"))
+                .when(hooverRequestValidator).validateHooverRequest(any(HooverRequest.class));
+
+        // When & Then
+        mockMvc.perform(post("/hoover/navigate")
+                        .contentType(HooverBinaryMessageConverter.MEDIA_TYPE)
+                        .accept(HooverBinaryMessageConverter.MEDIA_TYPE, MediaType.APPLICATION_JSON)
+                        .content(body.toByteArray()))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.error").value("Out of Room Bounds"));
+    }
+
+    @Test
+    void testHooverNavigationTraceRejectsCompressedInstructionsBeforeStreaming() throws Exception {
+        // Given
+        String request = "{\"roomSize\":[5,5],\"coords\":[1,2],\"patches\":[[1,0]],\"instructions\":\"N(NE)2\"}";
+
+        // When & Then
+        mockMvc.perform(post("/hoover/navigate/trace")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(request))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.message").value("Instructions must only contain the characters N, E, S, W, found '(' at offset 1"));
+    }
+
+    @Test
+    void testHooverNavigationTraceStreamsRunsAndCleanedPatches() throws Exception {
+        // Given
+        String request = "{\"roomSize\":[5,5],\"coords\":[1,2],\"patches\":[[1,0],[2,2],[2,3]],\"instructions\":\"NNESEESWNWW\"}";
+
+        // When
+        MvcResult result = mockMvc.perform(post("/hoover/navigate/trace")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(request))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn();
+
+        // Then
+        assertEquals("""
+                {"start":[1,2]}
+                {"move":"N","steps":2}
+                {"move":"E","steps":1}
+                {"move":"S","steps":1}
+                {"cleaned":[2,3],"step":4}
+                {"move":"E","steps":2}
+                {"move":"S","steps":1}
+                {"move":"W","steps":1}
+                {"move":"N","steps":1}
+                {"move":"W","steps":2}
+                {"coords":[1,3],"patches":1}
+                """, result.getResponse().getContentAsString());
+    }
+
+    @Test
+    void testFleetNavigationCreditsEachPatchOnce() throws Exception {
+        // Given
+        String request = "{\"roomSize\":[5,5],\"patches\":[[1,0],[2,2],[2,3]],\"hoovers\":["
+                + "{\"coords\":[1,2],\"instructions\":\"NNESEESWNWW\"},{\"coords\":[2,0],\"instructions\":\"NNN\"}]}";
+
+        // When & Then
+        mockMvc.perform(post("/hoover/navigate/fleet")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(request))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hoovers[0].coords[0]").value(1))
+                .andExpect(jsonPath("$.hoovers[0].coords[1]").value(3))
+                .andExpect(jsonPath("$.hoovers[0].patches").value(0))
+                .andExpect(jsonPath("$.hoovers[1].coords[0]").value(2))
+                .andExpect(jsonPath("$.hoovers[1].coords[1]").value(3))
+                .andExpect(jsonPath("$.hoovers[1].patches").value(2))
+                .andExpect(jsonPath("$.patches").value(2));
+    }
+
+    @Test
+    void testHooverNavigationWithCompressedInstructions() throws Exception {
+        // Given
+        String request = "{\"roomSize\":[5,5],\"coords\":[1,2],\"patches\":[[1,0],[2,2],[2,3]],"
+                + "\"instructions\":\"N2 E S E2 S W N W2\"}";
+        String unbalanced = "{\"roomSize\":[5,5],\"coords\":[1,2],\"patches\":[[1,0]],\"instructions\":\"(NE)3)\"}";
+
+        // When & Then
+        mockMvc.perform(post("/hoover/navigate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(request))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.coords[0]").value(1))
+                .andExpect(jsonPath("$.coords[1]").value(3))
+                .andExpect(jsonPath("$.patches").value(1));
+        mockMvc.perform(post("/hoover/navigate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(unbalanced))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("{instructions=Invalid compressed instructions: unmatched ')' at offset 5}"));
+    }
+
     @Test
     void testHooverNavigationWithInvalidInputOnDirections() throws Exception {
         // Given
@@ -83,7 +229,24 @@ class HooverControllerTest {
                         .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isBadRequest())
                 .andExpect(jsonPath("$.error").value("Validation Failed"))
-                .andExpect(jsonPath("$.message").value("{instructions=Instructions must only contain the characters N, E, S, W}"));
+                .andExpect(jsonPath("$.message").value("{instructions=Instructions must only contain the characters N, E, S, W, found 'A' at offset 3}"));
+    }
+
+    @Test
+    void testInvalidInstructionIsReportedVerbatimWithItsOffset() throws Exception {
+        // Given
+        HooverRequest request = new HooverRequest();
+        request.setRoomSize(new int[]{5, 5});
+        request.setCoords(new int[]{1, 2});
+        request.setPatches(Arrays.asList(new int[]{1, 1}));
+        request.setInstructions("NE{S");
+
+        // When & Then
+        mockMvc.perform(post("/hoover/navigate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("{instructions=Instructions must only contain the characters N, E, S, W, found '{' at offset 2}"));
     }
 
 //    @Test
@@ -107,7 +270,7 @@ class HooverControllerTest {
 //                        .content(requestJson))
 //                .andExpect(status().isBadRequest())
 //                .andExpect(jsonPath("$.error").value("Validation Failed"))
-//                .andExpect(jsonPath("$.message").value("{instructions=Instructions must only contain the characters N, E, S, W}"))
+//                .andExpect(jsonPath("$.message").value("{instructions=Instructions must only contain the characters N, E, S, W, found 'A' at offset 3}"))
 //                .andReturn();
 //
 //        // Print response JSON for debugging
@@ -175,6 +338,20 @@ class HooverControllerTest {
                 .andExpect(jsonPath("$.message").value("{patches=Patches list cannot be empty}"));
     }
 
+    @Test
+    void testHooverNavigationWithPatchOfWrongArity() throws Exception {
+        // Given
+        String body = "{\"roomSize\":[5,5],\"coords\":[1,2],\"patches\":[[1,1],[1,2,3]],\"instructions\":\"NNE\"}";
+
+        // When & Then
+        mockMvc.perform(post("/hoover/navigate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Validation Failed"))
+                .andExpect(jsonPath("$.message").value("{patches=Each patch must be an array of exactly 2 integers [x, y]}"));
+    }
+
     @Test
     void testHooverNavigationWithInvalidRoomSize() throws Exception {
         // Given
@@ -199,6 +376,34 @@ class HooverControllerTest {
         verify(hooverRequestValidator, times(1)).validateHooverRequest(any(HooverRequest.class));
     }
 
+    @Test
+    void testPhaseTimersAndErrorCountersAreExposed() throws Exception {
+        // Given
+        HooverRequest request = new HooverRequest();
+        request.setRoomSize(new int[]{5, 5});
+        request.setCoords(new int[]{1, 2});
+        request.setPatches(Arrays.asList(new int[]{1, 1}));
+        request.setInstructions("NNE");
+
+        doThrow(new NegativeValuesException("Coordinates values can not be negative."))
+                .when(hooverRequestValidator).validateHooverRequest(any(HooverRequest.class));
+
+        mockMvc.perform(post("/hoover/navigate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest());
+
+        // When & Then
+        mockMvc.perform(get("/actuator/metrics/hoover.errors").param("tag", "exception:NegativeValuesException"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.measurements[0].value").value(1.0));
+        for (String phase : List.of("binding", "bean-validation", "validation")) {
+            mockMvc.perform(get("/actuator/metrics/hoover.navigate.phase").param("tag", "phase:" + phase))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.measurements[?(@.statistic == 'COUNT')].value").isNotEmpty());
+        }
+    }
+
 
     @Test
     void testHooverNavigationWithOutOfBoundsPatchesCoordinates() throws Exception {
@@ -224,4 +429,173 @@ class HooverControllerTest {
         verify(hooverRequestValidator, times(1)).validateHooverRequest(any(HooverRequest.class));
     }
 
+    @Test
+    void testHooverNavigationWithStreamedInstructions() throws Exception {
+        // Given
+        String body = "{\"roomSize\":[5,5],\"coords\":[1,2],\"patches\":[[1,0],[2,2],[2,3]]}\nNNESEESWNWW\n";
+
+        // When & Then
+        mockMvc.perform(post("/hoover/navigate/stream")
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.coords[0]").value(1))
+                .andExpect(jsonPath("$.coords[1]").value(3))
+                .andExpect(jsonPath("$.patches").value(1));
+    }
+
+    @Test
+    void testHooverNavigationWithInvalidStreamedInstruction() throws Exception {
+        // Given
+        String body = "{\"roomSize\":[5,5],\"coords\":[1,2],\"patches\":[[1,0]]}\nNNEA";
+
+        // When & Then
+        mockMvc.perform(post("/hoover/navigate/stream")
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content(body))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Invalid Instructions"))
+                .andExpect(jsonPath("$.message").value("Instructions must only contain the characters N, E, S, W, found 'A' at offset 3"));
+    }
+
+    @Test
+    void testHooverNavigationWithStreamHeaderMissingField() throws Exception {
+        // Given
+        String body = "{\"coords\":[1,2],\"patches\":[[1,0]]}\nNNE";
+
+        // When & Then
+        mockMvc.perform(post("/hoover/navigate/stream")
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content(body))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Constraint Violation"))
+                .andExpect(jsonPath("$.message").value("{roomSize=Room size cannot be null}"));
+    }
+
+    @Test
+    void testHooverBatchNavigationReportsErrorsPerItem() throws Exception {
+        // Given
+        HooverRequest valid = new HooverRequest();
+        valid.setRoomSize(new int[]{5, 5});
+        valid.setCoords(new int[]{1, 2});
+        valid.setPatches(Arrays.asList(new int[]{1, 0}, new int[]{2, 2}, new int[]{2, 3}));
+        valid.setInstructions("NNESEESWNWW");
+
+        HooverRequest invalid = new HooverRequest();
+        invalid.setRoomSize(new int[]{5, 5});
+        invalid.setCoords(new int[]{1, 2});
+        invalid.setPatches(Arrays.asList(new int[]{1, 1}));
+        invalid.setInstructions("NNEA"); // Invalid instruction 'A'
+
+        // When & Then
+        mockMvc.perform(post("/hoover/navigate/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(valid, invalid, valid))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].result.coords[0]").value(1))
+                .andExpect(jsonPath("$[0].result.coords[1]").value(3))
+                .andExpect(jsonPath("$[0].result.patches").value(1))
+                .andExpect(jsonPath("$[0].error").doesNotExist())
+                .andExpect(jsonPath("$[1].result").doesNotExist())
+                .andExpect(jsonPath("$[1].error.error").value("Validation Failed"))
+                .andExpect(jsonPath("$[1].error.message").value("{instructions=Instructions must only contain the characters N, E, S, W, found 'A' at offset 3}"))
+                .andExpect(jsonPath("$[1].error.status").value(400))
+                .andExpect(jsonPath("$[2].result.patches").value(1));
+    }
+
+    @Test
+    void testHooverBatchStreamAnswersEachLineInOrder() throws Exception {
+        // Given
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 2_000; i++) {
+            body.append("{\"roomSize\":[5000,5],\"coords\":[0,0],\"patches\":[[1,0]],\"instructions\":\"")
+                    .append("E".repeat(i + 1)).append("\"}\n");
+        }
+        body.append("\n{\"roomSize\":[5,5],\"coords\":[1,2],\"patches\":[[1,0]],\"instructions\":\"NNEA\"}\n")
+                .append("{\"roomSize\":[5,5]\n")
+                .append("{\"roomSize\":[5,5],\"coords\":[1,2],\"patches\":[[1,0],[2,2],[2,3]],\"instructions\":\"NNESEESWNWW\"}");
+
+        // When
+        MvcResult result = mockMvc.perform(post("/hoover/navigate/batch")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(body.toString()))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn();
+
+        // Then
+        String[] lines = result.getResponse().getContentAsString().split("\n");
+        assertEquals(2_003, lines.length);
+        assertTrue(lines[1].startsWith("{"));
+        for (int i = 0; i < 2_000; i++) {
+            JsonNode line = objectMapper.readTree(lines[i]);
+            assertEquals(i + 1, line.at("/result/coords/0").asInt());
+            assertEquals(1, line.at("/result/patches").asInt());
+        }
+        assertEquals("Validation Failed", objectMapper.readTree(lines[2_000]).at("/error/error").asText());
+        assertEquals("Illegal argument", objectMapper.readTree(lines[2_001]).at("/error/error").asText());
+        assertEquals(3, objectMapper.readTree(lines[2_002]).at("/result/coords/1").asInt());
+    }
+
+    @Test
+    void testHooverBatchStreamAnswersOversizedLineWithAnError() throws Exception {
+        // Given
+        int maxLineBytes = hooverProperties.getBatch().getMaxLineBytes();
+        hooverProperties.getBatch().setMaxLineBytes(200);
+        String valid = "{\"roomSize\":[5,5],\"coords\":[1,2],\"patches\":[[1,0]],\"instructions\":\"N\"}\n";
+        String body = valid + "{\"roomSize\":[5,5],\"coords\":[1,2],\"patches\":[[1,0]],\"instructions\":\""
+                + "N".repeat(100_000) + "\"}\n" + valid;
+
+        try {
+            // When
+            MvcResult result = mockMvc.perform(post("/hoover/navigate/batch")
+                            .contentType(MediaType.APPLICATION_NDJSON)
+                            .content(body))
+                    .andExpect(status().isOk())
+                    .andReturn();
+
+            // Then
+            String[] lines = result.getResponse().getContentAsString().split("\n");
+            assertEquals(3, lines.length);
+            assertEquals(3, objectMapper.readTree(lines[0]).at("/result/coords/1").asInt());
+            assertEquals("NDJSON line exceeds 200 bytes.", objectMapper.readTree(lines[1]).at("/error/message").asText());
+            assertEquals(3, objectMapper.readTree(lines[2]).at("/result/coords/1").asInt());
+        } finally {
+            hooverProperties.getBatch().setMaxLineBytes(maxLineBytes);
+        }
+    }
+
+    @Test
+    void testRoomSessionAdvancesWithEachFragment() throws Exception {
+        // Given
+        String room = "{\"roomSize\":[5,5],\"coords\":[1,2],\"patches\":[[1,0],[2,2],[2,3]]}";
+        MvcResult created = mockMvc.perform(post("/hoover/sessions")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(room))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.coords[1]").value(2))
+                .andReturn();
+        String sessionId = objectMapper.readTree(created.getResponse().getContentAsString()).get("sessionId").asText();
+
+        // When & Then
+        mockMvc.perform(post("/hoover/sessions/" + sessionId + "/instructions")
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content("NNESEE"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.moves").value(6));
+        mockMvc.perform(post("/hoover/sessions/" + sessionId + "/instructions")
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content("SWNWW"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.coords[0]").value(1))
+                .andExpect(jsonPath("$.coords[1]").value(3))
+                .andExpect(jsonPath("$.patches").value(1))
+                .andExpect(jsonPath("$.moves").value(11));
+        mockMvc.perform(delete("/hoover/sessions/" + sessionId))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/hoover/sessions/" + sessionId))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.error").value("Session Not Found"));
+    }
 }
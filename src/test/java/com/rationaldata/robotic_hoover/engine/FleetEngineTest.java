@@ -0,0 +1,129 @@
+package com.rationaldata.robotic_hoover.engine;
+
+import com.rationaldata.robotic_hoover.config.HooverProperties;
+import com.rationaldata.robotic_hoover.dto.FleetHoover;
+import com.rationaldata.robotic_hoover.dto.HooverRequest;
+import com.rationaldata.robotic_hoover.dto.HooverResponse;
+import com.rationaldata.robotic_hoover.room.PreparedRoom;
+import com.rationaldata.robotic_hoover.room.RoomGridFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FleetEngineTest {
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+    private final RoomGridFactory roomGridFactory = new RoomGridFactory(new HooverProperties());
+    private final FleetEngine fleetEngine = new FleetEngine(new TraceEngine(roomGridFactory), roomGridFactory, pool);
+
+    @AfterEach
+    void shutdownPool() {
+        pool.shutdown();
+    }
+
+    @Test
+    void testPatchReachedAtTheSameStepIsCreditedToTheFirstHoover() {
+        // Given
+        PreparedRoom room = PreparedRoom.of(4, 4, 0, 0, List.of(new int[]{2, 2}, new int[]{0, 0}));
+        List<FleetHoover> hoovers = List.of(
+                new FleetHoover(new int[]{2, 4}, "SS"),
+                new FleetHoover(new int[]{0, 2}, "EEN"),
+                new FleetHoover(new int[]{0, 0}, ""));
+
+        // When
+        List<HooverResponse> responses = fleetEngine.navigate(room, hoovers);
+
+        // Then
+        assertArrayEquals(new int[]{2, 2}, responses.get(0).getCoords());
+        assertEquals(1, responses.get(0).getPatches());
+        assertArrayEquals(new int[]{2, 3}, responses.get(1).getCoords());
+        assertEquals(0, responses.get(1).getPatches());
+        assertEquals(1, responses.get(2).getPatches());
+    }
+
+    @Test
+    void testCreditsMatchSequentialSimulation() {
+        assertCreditsMatchSequentialSimulation(new HooverProperties());
+    }
+
+    @Test
+    void testCreditsMatchSequentialSimulationInOffHeapRooms() {
+        HooverProperties properties = new HooverProperties();
+        properties.getGrid().setOffHeapMinPatches(1);
+        assertCreditsMatchSequentialSimulation(properties);
+    }
+
+    private void assertCreditsMatchSequentialSimulation(HooverProperties properties) {
+        RoomGridFactory factory = new RoomGridFactory(properties);
+        FleetEngine engine = new FleetEngine(new TraceEngine(factory), factory, pool);
+        Random random = new Random(22);
+
+        // When & Then
+        for (int i = 0; i < 300; i++) {
+            HooverRequest request = RunLengthEngineTest.randomRequest(random);
+            int width = request.getRoomSize()[0];
+            int height = request.getRoomSize()[1];
+            List<FleetHoover> hoovers = new ArrayList<>();
+            for (int agent = 1 + random.nextInt(8); agent > 0; agent--) {
+                String instructions = RunLengthEngineTest.randomRequest(random).getInstructions();
+                hoovers.add(new FleetHoover(new int[]{random.nextInt(width + 1), random.nextInt(height + 1)}, instructions));
+            }
+            try (PreparedRoom room = RunLengthEngineTest.prepare(factory, request)) {
+                List<HooverResponse> actual = engine.navigate(room, hoovers);
+
+                List<HooverResponse> expected = simulate(room, hoovers);
+                for (int agent = 0; agent < hoovers.size(); agent++) {
+                    assertArrayEquals(expected.get(agent).getCoords(), actual.get(agent).getCoords());
+                    assertEquals(expected.get(agent).getPatches(), actual.get(agent).getPatches());
+                }
+            }
+        }
+    }
+
+    /**
+     * Moves the hoovers one after the other, keeping for every patch the lowest step and hoover that reached it.
+     */
+    private static List<HooverResponse> simulate(PreparedRoom room, List<FleetHoover> hoovers) {
+        Map<Long, long[]> claims = new HashMap<>();
+        for (int i = 0; i < room.patchCount(); i++) {
+            claims.put(room.patchKey(i), new long[]{Long.MAX_VALUE});
+        }
+        List<int[]> positions = new ArrayList<>();
+        for (int agent = 0; agent < hoovers.size(); agent++) {
+            int x = hoovers.get(agent).getCoords()[0];
+            int y = hoovers.get(agent).getCoords()[1];
+            String instructions = hoovers.get(agent).getInstructions();
+            for (int step = 0; step <= instructions.length(); step++) {
+                if (step > 0) {
+                    int direction = InstructionDecoder.decodeAt(instructions, step - 1);
+                    x = Math.clamp(x + InstructionDecoder.DX[direction], 0, room.roomWidth());
+                    y = Math.clamp(y + InstructionDecoder.DY[direction], 0, room.roomHeight());
+                }
+                long[] claim = claims.get(PreparedRoom.key(x, y));
+                if (claim != null) {
+                    claim[0] = Math.min(claim[0], (long) step << 32 | agent);
+                }
+            }
+            positions.add(new int[]{x, y});
+        }
+        int[] credited = new int[hoovers.size()];
+        for (long[] claim : claims.values()) {
+            if (claim[0] != Long.MAX_VALUE) {
+                credited[(int) claim[0]]++;
+            }
+        }
+        List<HooverResponse> responses = new ArrayList<>();
+        for (int agent = 0; agent < hoovers.size(); agent++) {
+            responses.add(new HooverResponse(positions.get(agent), credited[agent]));
+        }
+        return responses;
+    }
+}
@@ -0,0 +1,42 @@
+package com.rationaldata.robotic_hoover.engine;
+
+import com.rationaldata.robotic_hoover.config.HooverProperties;
+import com.rationaldata.robotic_hoover.exception.InvalidInstructionsException;
+import com.rationaldata.robotic_hoover.room.PreparedRoom;
+import com.rationaldata.robotic_hoover.room.RoomGridFactory;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InstructionDecoderTest {
+
+    @Test
+    void testDecodesOnlyTheFourDirections() {
+        // When & Then
+        for (int c = 0; c < 512; c++) {
+            boolean instruction = c == 'N' || c == 'E' || c == 'S' || c == 'W';
+            assertEquals(instruction, InstructionDecoder.decode((char) c) != InstructionDecoder.INVALID, "Character " + c);
+        }
+        assertEquals(InstructionDecoder.NORTH, InstructionDecoder.decode((byte) 'N'));
+        assertEquals(InstructionDecoder.INVALID, InstructionDecoder.decode((byte) 0xCE));
+        assertEquals(4, InstructionDecoder.indexOfInvalid("NESWnESW"));
+        assertEquals(-1, InstructionDecoder.indexOfInvalid("NESW"));
+    }
+
+    @Test
+    void testEnginesReportOffsetOfFirstInvalidInstruction() {
+        // Given
+        RoomGridFactory factory = new RoomGridFactory(new HooverProperties());
+        PreparedRoom room = PreparedRoom.of(5, 5, 1, 2, List.of(new int[]{1, 0}));
+
+        // When & Then
+        for (NavigationEngine engine : List.of(new StepEngine(factory), new RunLengthEngine(factory))) {
+            InvalidInstructionsException exception = assertThrows(InvalidInstructionsException.class,
+                    () -> engine.navigate(room, "NNEEx"));
+            assertEquals("Instructions must only contain the characters N, E, S, W, found 'x' at offset 4",
+                    exception.getMessage());
+        }
+    }
+}
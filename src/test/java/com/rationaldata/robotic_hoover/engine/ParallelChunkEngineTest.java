@@ -0,0 +1,75 @@
+package com.rationaldata.robotic_hoover.engine;
+
+import com.rationaldata.robotic_hoover.config.HooverProperties;
+import com.rationaldata.robotic_hoover.dto.HooverRequest;
+import com.rationaldata.robotic_hoover.dto.HooverResponse;
+import com.rationaldata.robotic_hoover.room.RoomGridFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelChunkEngineTest {
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @AfterEach
+    void shutdownPool() {
+        pool.shutdown();
+    }
+
+    @Test
+    void testPatchVisitedByEveryChunkIsCountedOnce() {
+        // Given
+        HooverRequest request = new HooverRequest();
+        request.setRoomSize(new int[]{5, 5});
+        request.setCoords(new int[]{0, 0});
+        request.setPatches(List.of(new int[]{1, 0}, new int[]{1, 0}, new int[]{5, 5}));
+        request.setInstructions("EW".repeat(1_000));
+
+        // When
+        HooverResponse response = engine(new HooverProperties(), 3).navigate(request);
+
+        // Then
+        assertArrayEquals(new int[]{0, 0}, response.getCoords());
+        assertEquals(1, response.getPatches());
+    }
+
+    @Test
+    void testMatchesStepEngineOnDenseGrid() {
+        assertMatchesStepEngine(new HooverProperties());
+    }
+
+    @Test
+    void testMatchesStepEngineOnSparseGrid() {
+        HooverProperties properties = new HooverProperties();
+        properties.getGrid().setDenseMaxCells(0);
+        properties.getGrid().setDenseCellsPerPatch(0);
+        assertMatchesStepEngine(properties);
+    }
+
+    private void assertMatchesStepEngine(HooverProperties properties) {
+        StepEngine stepEngine = new StepEngine(new RoomGridFactory(properties));
+        Random random = new Random(11);
+
+        for (int i = 0; i < 500; i++) {
+            HooverRequest request = RunLengthEngineTest.randomRequest(random);
+            HooverRequest copy = RunLengthEngineTest.copyOf(request);
+
+            HooverResponse expected = stepEngine.navigate(request);
+            HooverResponse actual = engine(properties, 1 + random.nextInt(16)).navigate(copy);
+
+            assertArrayEquals(expected.getCoords(), actual.getCoords());
+            assertEquals(expected.getPatches(), actual.getPatches());
+        }
+    }
+
+    private ParallelChunkEngine engine(HooverProperties properties, int chunkSize) {
+        properties.getEngine().setParallelChunkSize(chunkSize);
+        return new ParallelChunkEngine(new RoomGridFactory(properties), properties, pool);
+    }
+}
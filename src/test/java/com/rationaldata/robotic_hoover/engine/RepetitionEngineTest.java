@@ -0,0 +1,147 @@
+package com.rationaldata.robotic_hoover.engine;
+
+import com.rationaldata.robotic_hoover.config.HooverProperties;
+import com.rationaldata.robotic_hoover.dto.HooverRequest;
+import com.rationaldata.robotic_hoover.dto.HooverResponse;
+import com.rationaldata.robotic_hoover.exception.InvalidInstructionsException;
+import com.rationaldata.robotic_hoover.room.PreparedRoom;
+import com.rationaldata.robotic_hoover.room.RoomGridFactory;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RepetitionEngineTest {
+
+    private static final String DIRECTIONS = "NESW";
+
+    private final RoomGridFactory roomGridFactory = new RoomGridFactory(new HooverProperties());
+    private final RepetitionEngine repetitionEngine = new RepetitionEngine(roomGridFactory);
+
+    @Test
+    void testSweepIsFastForwardedWithoutExpansion() {
+        // Given
+        PreparedRoom room = PreparedRoom.of(2_000_000_000, 10, 0, 0, List.of(new int[]{1, 5}, new int[]{999_999_999, 7},
+                new int[]{1_000_000_000, 0}, new int[]{1_000_000_000, 3}, new int[]{1_500_000_000, 2}));
+        CompressedInstructions instructions = CompressedInstructions.parse("(N10 E S10 E)500000000");
+
+        // When
+        HooverResponse response = repetitionEngine.navigate(room, instructions);
+
+        // Then
+        assertEquals(11_000_000_000L, instructions.expandedLength());
+        assertArrayEquals(new int[]{1_000_000_000, 0}, response.getCoords());
+        assertEquals(3, response.getPatches());
+    }
+
+    @Test
+    void testIterationsBeyondTheWallsAreFastForwarded() {
+        // Given
+        PreparedRoom room = PreparedRoom.of(100_000_000, 100_000_000, 0, 0, List.of(new int[]{50_000_000, 50_000_000},
+                new int[]{99_999_999, 100_000_000}, new int[]{100_000_000, 100_000_000}, new int[]{3, 100_000_000}));
+
+        // When & Then
+        for (long count : List.of(100_000_001L, 1_100_000_000L)) {
+            HooverResponse response = assertTimeoutPreemptively(Duration.ofSeconds(5),
+                    () -> repetitionEngine.navigate(room, CompressedInstructions.parse("(N E)" + count)));
+
+            assertArrayEquals(new int[]{100_000_000, 100_000_000}, response.getCoords());
+            assertEquals(3, response.getPatches());
+        }
+    }
+
+    @Test
+    void testSlidingAlongAWallIsFastForwarded() {
+        // Given
+        PreparedRoom room = PreparedRoom.of(2_000_000_000, 10, 0, 0, List.of(new int[]{2, 5}, new int[]{1_000_000, 10},
+                new int[]{1_000_000, 9}, new int[]{1_999_999_999, 10}));
+
+        // When
+        HooverResponse response = assertTimeoutPreemptively(Duration.ofSeconds(5),
+                () -> repetitionEngine.navigate(room, CompressedInstructions.parse("(N2 E)1000000000")));
+
+        // Then
+        assertArrayEquals(new int[]{1_000_000_000, 10}, response.getCoords());
+        assertEquals(2, response.getPatches());
+    }
+
+    @Test
+    void testMatchesStepEngineOnExpandedInstructions() {
+        assertMatchesStepEngineOnExpandedInstructions(new HooverProperties());
+    }
+
+    @Test
+    void testMatchesStepEngineOnExpandedInstructionsInOffHeapRooms() {
+        HooverProperties properties = new HooverProperties();
+        properties.getGrid().setDenseMaxCells(0);
+        properties.getGrid().setOffHeapMinPatches(1);
+        assertMatchesStepEngineOnExpandedInstructions(properties);
+    }
+
+    private void assertMatchesStepEngineOnExpandedInstructions(HooverProperties properties) {
+        // Given
+        RoomGridFactory factory = new RoomGridFactory(properties);
+        RepetitionEngine engine = new RepetitionEngine(factory);
+        StepEngine stepEngine = new StepEngine(roomGridFactory);
+        Random random = new Random(24);
+
+        // When & Then
+        for (int i = 0; i < 1_000; i++) {
+            HooverRequest request = RunLengthEngineTest.randomRequest(random);
+            if (i % 2 == 0) {
+                request.setRoomSize(new int[]{40 + random.nextInt(80), 40 + random.nextInt(80)});
+                request.setCoords(new int[]{random.nextInt(request.getRoomSize()[0]), random.nextInt(request.getRoomSize()[1])});
+            }
+            StringBuilder compressed = new StringBuilder();
+            StringBuilder expanded = new StringBuilder();
+            randomSequence(random, 0, compressed, expanded);
+            request.setInstructions(expanded.toString());
+            try (PreparedRoom room = RunLengthEngineTest.prepare(factory, RunLengthEngineTest.copyOf(request))) {
+                HooverResponse expected = stepEngine.navigate(request);
+                HooverResponse actual = engine.navigate(room, CompressedInstructions.parse(compressed));
+
+                assertArrayEquals(expected.getCoords(), actual.getCoords(), compressed::toString);
+                assertEquals(expected.getPatches(), actual.getPatches(), compressed::toString);
+            }
+        }
+    }
+
+    @Test
+    void testMalformedInstructionsAreRejected() {
+        for (String instructions : List.of("(NE", "NE)", "N(E)3X", "", "()", "((N)99999999999)99999999999")) {
+            assertThrows(InvalidInstructionsException.class, () -> CompressedInstructions.parse(instructions), instructions);
+        }
+    }
+
+    /**
+     * Appends the same random instructions to both builders, compressed and expanded.
+     */
+    private static void randomSequence(Random random, int depth, StringBuilder compressed, StringBuilder expanded) {
+        for (int item = 1 + random.nextInt(4); item > 0; item--) {
+            if (depth < 3 && random.nextInt(3) == 0) {
+                int count = random.nextInt(12);
+                StringBuilder body = new StringBuilder();
+                StringBuilder expandedBody = new StringBuilder();
+                randomSequence(random, depth + 1, body, expandedBody);
+                compressed.append('(').append(body).append(')').append(count).append(' ');
+                expanded.append(expandedBody.toString().repeat(count));
+            } else {
+                char direction = DIRECTIONS.charAt(random.nextInt(4));
+                int count = 1 + random.nextInt(8);
+                compressed.append(direction);
+                if (count > 1 || random.nextBoolean()) {
+                    compressed.append(count);
+                }
+                expanded.append(String.valueOf(direction).repeat(count));
+            }
+        }
+        if (expanded.isEmpty()) {
+            compressed.append('N');
+            expanded.append('N');
+        }
+    }
+}
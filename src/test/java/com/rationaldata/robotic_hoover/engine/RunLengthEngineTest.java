@@ -0,0 +1,191 @@
+package com.rationaldata.robotic_hoover.engine;
+
+import com.rationaldata.robotic_hoover.config.HooverProperties;
+import com.rationaldata.robotic_hoover.dto.HooverRequest;
+import com.rationaldata.robotic_hoover.dto.HooverResponse;
+import com.rationaldata.robotic_hoover.dto.PackedPatches;
+import com.rationaldata.robotic_hoover.room.PreparedRoom;
+import com.rationaldata.robotic_hoover.room.RoomGridFactory;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RunLengthEngineTest {
+
+    private static final String DIRECTIONS = "NESW";
+
+    @Test
+    void testLongRunsAreClampedByTheWalls() {
+        // Given
+        HooverRequest request = new HooverRequest();
+        request.setRoomSize(new int[]{5, 5});
+        request.setCoords(new int[]{1, 1});
+        request.setPatches(List.of(new int[]{1, 3}, new int[]{1, 5}, new int[]{4, 5}, new int[]{3, 3}));
+        request.setInstructions("NNNNNNNNNNEEEEEEEEEESSWWWWWWWWW");
+
+        // When
+        HooverResponse response = new RunLengthEngine(new RoomGridFactory(new HooverProperties())).navigate(request);
+
+        // Then
+        assertArrayEquals(new int[]{0, 3}, response.getCoords());
+        assertEquals(4, response.getPatches());
+    }
+
+    @Test
+    void testMatchesStepEngineOnDenseGrid() {
+        assertMatchesStepEngine(new HooverProperties());
+    }
+
+    @Test
+    void testMatchesStepEngineOnSparseIndex() {
+        HooverProperties properties = new HooverProperties();
+        properties.getGrid().setDenseMaxCells(0);
+        properties.getGrid().setDenseCellsPerPatch(0);
+        assertMatchesStepEngine(properties);
+    }
+
+    @Test
+    void testMatchesStepEngineOnOffHeapIndex() {
+        HooverProperties properties = new HooverProperties();
+        properties.getGrid().setDenseMaxCells(0);
+        properties.getGrid().setDenseCellsPerPatch(0);
+        properties.getGrid().setOffHeapMinPatches(1);
+        assertMatchesStepEngine(properties);
+    }
+
+    @Test
+    void testEnginesMatchStepEngineOnOffHeapRooms() {
+        // Given
+        StepEngine stepEngine = new StepEngine(new RoomGridFactory(new HooverProperties()));
+        Random random = new Random(25);
+
+        // When & Then
+        try (ForkJoinPool pool = new ForkJoinPool(4)) {
+            for (int denseMaxCells : List.of(0, 4_194_304)) {
+                HooverProperties properties = new HooverProperties();
+                properties.getGrid().setDenseMaxCells(denseMaxCells);
+                properties.getGrid().setDenseCellsPerPatch(0);
+                properties.getGrid().setOffHeapMinPatches(1);
+                properties.getEngine().setParallelChunkSize(5);
+                RoomGridFactory factory = new RoomGridFactory(properties);
+                List<NavigationEngine> engines = List.of(new StepEngine(factory), new VectorEngine(factory),
+                        new RunLengthEngine(factory), new SweepLineEngine(factory), new TraceEngine(factory),
+                        new ParallelChunkEngine(factory, properties, pool));
+
+                for (int i = 0; i < 200; i++) {
+                    HooverRequest request = randomRequest(random);
+                    HooverResponse expected = stepEngine.navigate(copyOf(request));
+                    for (NavigationEngine engine : engines) {
+                        try (PreparedRoom room = prepare(factory, request)) {
+                            assertTrue(room.isOffHeap());
+
+                            HooverResponse actual = engine.navigate(room, request.getInstructions());
+
+                            assertArrayEquals(expected.getCoords(), actual.getCoords());
+                            assertEquals(expected.getPatches(), actual.getPatches());
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void testCompiledProgramsMatchStepEngine() {
+        // Given
+        RoomGridFactory factory = new RoomGridFactory(new HooverProperties());
+        StepEngine stepEngine = new StepEngine(factory);
+        List<ProgramEngine> programEngines = List.of(new RunLengthEngine(factory), new SweepLineEngine(factory));
+        Random random = new Random(23);
+        int unclamped = 0;
+
+        // When & Then
+        for (int i = 0; i < 500; i++) {
+            HooverRequest request = randomRequest(random);
+            if (i % 2 == 0) {
+                // Short programs often stay clear of the walls
+                request.setInstructions(request.getInstructions().substring(0, Math.min(6, request.getInstructions().length())));
+            }
+            InstructionProgram program = InstructionProgram.compile(request.getInstructions());
+            if (program.staysInside(request.getCoords()[0], request.getCoords()[1], request.getRoomSize()[0], request.getRoomSize()[1])) {
+                unclamped++;
+            }
+
+            HooverResponse expected = stepEngine.navigate(copyOf(request));
+            for (ProgramEngine engine : programEngines) {
+                HooverResponse actual = engine.navigate(PreparedRoom.of(copyOf(request)), program);
+
+                assertArrayEquals(expected.getCoords(), actual.getCoords());
+                assertEquals(expected.getPatches(), actual.getPatches());
+            }
+        }
+        assertTrue(unclamped > 0);
+    }
+
+    private void assertMatchesStepEngine(HooverProperties properties) {
+        RoomGridFactory factory = new RoomGridFactory(properties);
+        StepEngine stepEngine = new StepEngine(factory);
+        RunLengthEngine runLengthEngine = new RunLengthEngine(factory);
+        Random random = new Random(7);
+
+        for (int i = 0; i < 500; i++) {
+            HooverRequest request = randomRequest(random);
+            HooverRequest copy = copyOf(request);
+
+            HooverResponse expected = stepEngine.navigate(request);
+            try (PreparedRoom room = prepare(factory, copy)) {
+                HooverResponse actual = runLengthEngine.navigate(room, copy.getInstructions());
+
+                assertArrayEquals(expected.getCoords(), actual.getCoords());
+                assertEquals(expected.getPatches(), actual.getPatches());
+            }
+        }
+    }
+
+    static HooverRequest randomRequest(Random random) {
+        int width = 1 + random.nextInt(20);
+        int height = 1 + random.nextInt(20);
+        List<int[]> patches = new ArrayList<>();
+        for (int p = random.nextInt(60); p >= 0; p--) {
+            patches.add(new int[]{random.nextInt(width + 1), random.nextInt(height + 1)});
+        }
+        StringBuilder instructions = new StringBuilder();
+        for (int run = 1 + random.nextInt(30); run > 0; run--) {
+            instructions.repeat(DIRECTIONS.charAt(random.nextInt(4)), 1 + random.nextInt(12));
+        }
+
+        HooverRequest request = new HooverRequest();
+        request.setRoomSize(new int[]{width, height});
+        request.setCoords(new int[]{random.nextInt(width + 1), random.nextInt(height + 1)});
+        request.setPatches(patches);
+        request.setInstructions(instructions.toString());
+        return request;
+    }
+
+    /**
+     * Prepares the room of a request from patches decoded like the converters do, so off the heap when the factory
+     * moves that many patches there.
+     */
+    static PreparedRoom prepare(RoomGridFactory factory, HooverRequest request) {
+        PackedPatches patches = factory.packedPatches(request.getPatches().size());
+        for (int[] patch : request.getPatches()) {
+            patches.add(patch[0], patch[1]);
+        }
+        return PreparedRoom.of(request.getRoomSize()[0], request.getRoomSize()[1], request.getCoords()[0],
+                request.getCoords()[1], patches);
+    }
+
+    static HooverRequest copyOf(HooverRequest request) {
+        HooverRequest copy = new HooverRequest();
+        copy.setRoomSize(request.getRoomSize().clone());
+        copy.setCoords(request.getCoords().clone());
+        copy.setPatches(new ArrayList<>(request.getPatches()));
+        copy.setInstructions(request.getInstructions());
+        return copy;
+    }
+}
@@ -0,0 +1,57 @@
+package com.rationaldata.robotic_hoover.engine;
+
+import com.rationaldata.robotic_hoover.config.HooverProperties;
+import com.rationaldata.robotic_hoover.dto.HooverRequest;
+import com.rationaldata.robotic_hoover.dto.HooverResponse;
+import com.rationaldata.robotic_hoover.room.PreparedRoom;
+import com.rationaldata.robotic_hoover.room.RoomGridFactory;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SweepLineEngineTest {
+
+    @Test
+    void testMatchesStepEngine() {
+        // Given
+        StepEngine stepEngine = new StepEngine(new RoomGridFactory(new HooverProperties()));
+        SweepLineEngine sweepLineEngine = new SweepLineEngine(new RoomGridFactory(new HooverProperties()));
+        Random random = new Random(15);
+
+        // When & Then
+        for (int i = 0; i < 1_000; i++) {
+            HooverRequest request = RunLengthEngineTest.randomRequest(random);
+
+            HooverResponse expected = stepEngine.navigate(request);
+            HooverResponse actual = sweepLineEngine.navigate(RunLengthEngineTest.copyOf(request));
+
+            assertArrayEquals(expected.getCoords(), actual.getCoords());
+            assertEquals(expected.getPatches(), actual.getPatches());
+        }
+    }
+
+    @Test
+    void testCountsEachPatchOnceOverRepeatedSweeps() {
+        // Given
+        List<int[]> patches = new ArrayList<>();
+        for (int x = 0; x <= 1_000; x += 10) {
+            patches.add(new int[]{x, 500});
+            patches.add(new int[]{500, x});
+        }
+        patches.add(new int[]{1_000, 1_000});
+        PreparedRoom room = PreparedRoom.of(1_000, 1_000, 0, 500, patches);
+        String instructions = ("E".repeat(1_500) + "W".repeat(1_500)).repeat(100)
+                + "E".repeat(500) + ("N".repeat(700) + "S".repeat(1_000)).repeat(100);
+
+        // When
+        HooverResponse response = new SweepLineEngine(new RoomGridFactory(new HooverProperties())).navigate(room, instructions);
+
+        // Then
+        assertArrayEquals(new int[]{500, 0}, response.getCoords());
+        assertEquals(201, response.getPatches());
+    }
+}
@@ -0,0 +1,93 @@
+package com.rationaldata.robotic_hoover.engine;
+
+import com.rationaldata.robotic_hoover.config.HooverProperties;
+import com.rationaldata.robotic_hoover.dto.HooverRequest;
+import com.rationaldata.robotic_hoover.dto.HooverResponse;
+import com.rationaldata.robotic_hoover.room.PreparedRoom;
+import com.rationaldata.robotic_hoover.room.RoomGridFactory;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TraceEngineTest {
+
+    @Test
+    void testTraceReplaysToTheVisitedPositionsOfTheStepEngine() {
+        // Given
+        StepEngine stepEngine = new StepEngine(new RoomGridFactory(new HooverProperties()));
+        TraceEngine traceEngine = new TraceEngine(new RoomGridFactory(new HooverProperties()));
+        Random random = new Random(21);
+
+        // When & Then
+        for (int i = 0; i < 1_000; i++) {
+            HooverRequest request = RunLengthEngineTest.randomRequest(random);
+            PreparedRoom room = PreparedRoom.of(RunLengthEngineTest.copyOf(request));
+            String instructions = request.getInstructions();
+            RecordingListener trace = new RecordingListener();
+
+            HooverResponse expected = stepEngine.navigate(request);
+            HooverResponse actual = traceEngine.navigate(room, instructions, trace);
+
+            assertArrayEquals(expected.getCoords(), actual.getCoords());
+            assertEquals(expected.getPatches(), actual.getPatches());
+            assertEquals(instructions.length(), trace.executed);
+            assertArrayEquals(expected.getCoords(), trace.position);
+            assertEquals(expectedCleaning(room, instructions), trace.cleaned);
+        }
+    }
+
+    /**
+     * Steps through the instructions tile by tile, recording each patch with the step it is first reached at.
+     */
+    private static List<String> expectedCleaning(PreparedRoom room, String instructions) {
+        Set<Long> dirty = new HashSet<>();
+        for (int i = 0; i < room.patchCount(); i++) {
+            dirty.add(room.patchKey(i));
+        }
+        List<String> cleaned = new ArrayList<>();
+        int x = room.startX();
+        int y = room.startY();
+        if (dirty.remove(PreparedRoom.key(x, y))) {
+            cleaned.add(x + "," + y + "@0");
+        }
+        for (int step = 1; step <= instructions.length(); step++) {
+            int direction = InstructionDecoder.decode(instructions.charAt(step - 1));
+            x = Math.clamp(x + InstructionDecoder.DX[direction], 0, room.roomWidth());
+            y = Math.clamp(y + InstructionDecoder.DY[direction], 0, room.roomHeight());
+            if (dirty.remove(PreparedRoom.key(x, y))) {
+                cleaned.add(x + "," + y + "@" + step);
+            }
+        }
+        return cleaned;
+    }
+
+    private static final class RecordingListener implements TraceListener {
+
+        private final List<String> cleaned = new ArrayList<>();
+        private int[] position;
+        private int executed;
+
+        @Override
+        public void onStart(int x, int y) {
+            position = new int[]{x, y};
+        }
+
+        @Override
+        public void onRun(int direction, int steps, int blocked) {
+            position[0] += InstructionDecoder.DX[direction] * steps;
+            position[1] += InstructionDecoder.DY[direction] * steps;
+            executed += steps + blocked;
+        }
+
+        @Override
+        public void onCleaned(int patch, int x, int y, int step) {
+            cleaned.add(x + "," + y + "@" + step);
+        }
+    }
+}
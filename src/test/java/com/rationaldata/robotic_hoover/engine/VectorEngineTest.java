@@ -0,0 +1,137 @@
+package com.rationaldata.robotic_hoover.engine;
+
+import com.rationaldata.robotic_hoover.config.HooverProperties;
+import com.rationaldata.robotic_hoover.dto.HooverResponse;
+import com.rationaldata.robotic_hoover.exception.InvalidInstructionsException;
+import com.rationaldata.robotic_hoover.room.PreparedRoom;
+import com.rationaldata.robotic_hoover.room.RoomGridFactory;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class VectorEngineTest {
+
+    private static final String DIRECTIONS = "NESW";
+
+    private final RoomGridFactory factory = new RoomGridFactory(new HooverProperties());
+
+    @Test
+    void testKernelsMatchStepEngine() {
+        // Given
+        StepEngine stepEngine = new StepEngine(factory);
+        List<VectorEngine> engines = List.of(new VectorEngine(factory, new ScalarBlockKernel()),
+                new VectorEngine(factory, BlockKernel.best()));
+        Random random = new Random(11);
+
+        // When & Then
+        for (int i = 0; i < 200; i++) {
+            int side = 1 + random.nextInt(i % 2 == 0 ? 20 : 2_000);
+            PreparedRoom room = randomRoom(random, side, random.nextInt(200));
+            String instructions = randomWalk(random, random.nextInt(5 * VectorEngine.BLOCK_SIZE));
+
+            HooverResponse expected = stepEngine.navigate(room, instructions);
+            for (VectorEngine engine : engines) {
+                HooverResponse actual = engine.navigate(room, instructions);
+                assertArrayEquals(expected.getCoords(), actual.getCoords());
+                assertEquals(expected.getPatches(), actual.getPatches());
+            }
+        }
+    }
+
+    @Test
+    void testScalarKernelMatchesVectorKernel() {
+        assumeTrue(vectorModule(), "jdk.incubator.vector is not enabled");
+
+        // Given
+        BlockKernel scalar = new ScalarBlockKernel();
+        BlockKernel vector = new VectorBlockKernel();
+        Random random = new Random(23);
+        char[] block = new char[VectorEngine.BLOCK_SIZE];
+        int[] expected = new int[BlockKernel.SUMMARY_LENGTH];
+        int[] actual = new int[BlockKernel.SUMMARY_LENGTH];
+
+        // When & Then
+        for (int i = 0; i < 500; i++) {
+            int length = random.nextInt(block.length + 1);
+            String walk = i % 3 == 0 ? "N".repeat(length) : randomWalk(random, length);
+            walk.getChars(0, length, block, 0);
+            if (length > 0 && i % 5 == 0) {
+                block[random.nextInt(length)] = i % 2 == 0 ? 'x' : 'Ŏ';
+            }
+            Arrays.fill(expected, 0);
+            Arrays.fill(actual, 0);
+
+            assertEquals(scalar.summarize(block, length, expected), vector.summarize(block, length, actual));
+            assertArrayEquals(expected, actual);
+        }
+    }
+
+    @Test
+    void testPicksTheKernelTheModuleAllows() {
+        // Given
+        boolean expected = Boolean.parseBoolean(System.getProperty("vector.module", String.valueOf(vectorModule())));
+
+        // When
+        VectorEngine engine = new VectorEngine(factory);
+
+        // Then
+        assertEquals(expected, vectorModule());
+        assertEquals(expected, engine.isVectorized());
+    }
+
+    @Test
+    void testKeepsMovingOnceEveryPatchIsCleaned() {
+        // Given
+        PreparedRoom room = PreparedRoom.of(100_000, 100_000, 50_000, 50_000, List.of(new int[]{50_000, 50_001}));
+        String instructions = "N" + "NNEESSWWS".repeat(10_000) + "E".repeat(3_000);
+
+        // When
+        HooverResponse expected = new StepEngine(factory).navigate(room, instructions);
+        HooverResponse actual = new VectorEngine(factory).navigate(room, instructions);
+
+        // Then
+        assertArrayEquals(new int[]{53_000, 40_001}, actual.getCoords());
+        assertArrayEquals(expected.getCoords(), actual.getCoords());
+        assertEquals(1, actual.getPatches());
+    }
+
+    @Test
+    void testRejectsCharactersOutsideLatin1() {
+        // Given
+        PreparedRoom room = PreparedRoom.of(5, 5, 1, 2, List.of(new int[]{1, 0}));
+        String instructions = "N".repeat(VectorEngine.BLOCK_SIZE + 100) + 'Ŏ';
+
+        // When & Then
+        for (VectorEngine engine : List.of(new VectorEngine(factory, new ScalarBlockKernel()), new VectorEngine(factory))) {
+            InvalidInstructionsException exception = assertThrows(InvalidInstructionsException.class,
+                    () -> engine.navigate(room, instructions));
+            assertTrue(exception.getMessage().endsWith("at offset " + (VectorEngine.BLOCK_SIZE + 100)));
+        }
+    }
+
+    private static boolean vectorModule() {
+        return ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+    }
+
+    private static PreparedRoom randomRoom(Random random, int side, int patchCount) {
+        List<int[]> patches = new ArrayList<>();
+        for (int p = 0; p < patchCount; p++) {
+            patches.add(new int[]{random.nextInt(side + 1), random.nextInt(side + 1)});
+        }
+        return PreparedRoom.of(side, side, random.nextInt(side + 1), random.nextInt(side + 1), patches);
+    }
+
+    private static String randomWalk(Random random, int length) {
+        StringBuilder instructions = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            instructions.append(DIRECTIONS.charAt(random.nextInt(4)));
+        }
+        return instructions.toString();
+    }
+}
@@ -0,0 +1,232 @@
+package com.rationaldata.robotic_hoover.loadtest;
+
+import com.rationaldata.robotic_hoover.tcp.NavigationFrames;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Closed-loop load generator: a fixed number of clients each send a request, wait for the response and send
+ * the next one, until the duration is over. The clients run on virtual threads so that the generator itself
+ * never becomes the bottleneck.
+ */
+class LoadGenerator {
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+
+    /**
+     * Posts the same JSON body to an URI from {@code concurrency} clients, after a warm-up of the same length.
+     *
+     * @param uri         The endpoint to call.
+     * @param body        The JSON request body.
+     * @param concurrency The number of concurrent clients.
+     * @param duration    How long to measure for.
+     * @return The measured throughput and latencies.
+     */
+    Result run(URI uri, String body, int concurrency, Duration duration) throws InterruptedException {
+        return run(uri, "application/json", body.getBytes(StandardCharsets.UTF_8), concurrency, duration);
+    }
+
+    /**
+     * Posts the same body to an URI from {@code concurrency} clients, after a warm-up of the same length.
+     *
+     * @param uri         The endpoint to call.
+     * @param contentType The content type of the body, also accepted for the response.
+     * @param body        The request body.
+     * @param concurrency The number of concurrent clients.
+     * @param duration    How long to measure for.
+     * @return The measured throughput and latencies.
+     */
+    Result run(URI uri, String contentType, byte[] body, int concurrency, Duration duration) throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .header("Content-Type", contentType)
+                .header("Accept", contentType)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+        ClientFactory clients = () -> new Client() {
+            @Override
+            public int exchange() throws Exception {
+                HttpResponse<Void> response = LoadGenerator.this.client.send(request, HttpResponse.BodyHandlers.discarding());
+                return response.statusCode() == 200 ? 0 : 1;
+            }
+        };
+        measure(clients, 1, concurrency, duration);
+        return measure(clients, 1, concurrency, duration);
+    }
+
+    /**
+     * Sends the same frame over {@code concurrency} TCP connections to the binary listener, after a warm-up of the same
+     * length. Each connection writes {@code pipelineDepth} frames at once before reading their responses; the latency
+     * of a request is then that of its whole round trip.
+     *
+     * @param address       The address of the TCP listener.
+     * @param frame         The request frame, length included.
+     * @param pipelineDepth The number of frames in flight per connection.
+     * @param concurrency   The number of connections.
+     * @param duration      How long to measure for.
+     * @return The measured throughput and latencies.
+     */
+    Result runTcp(InetSocketAddress address, byte[] frame, int pipelineDepth, int concurrency, Duration duration)
+            throws InterruptedException {
+        ByteBuffer frames = ByteBuffer.allocateDirect(frame.length * pipelineDepth);
+        for (int i = 0; i < pipelineDepth; i++) {
+            frames.put(frame);
+        }
+        ClientFactory clients = () -> new Client() {
+            private final SocketChannel channel = SocketChannel.open(address);
+            private final ByteBuffer out = frames.duplicate();
+            private final ByteBuffer in = ByteBuffer.allocateDirect(64 * 1024);
+
+            @Override
+            public int exchange() throws IOException {
+                out.clear();
+                while (out.hasRemaining()) {
+                    channel.write(out);
+                }
+                int errors = 0;
+                in.clear().flip();
+                for (int i = 0; i < pipelineDepth; i++) {
+                    fill(NavigationFrames.LENGTH_BYTES);
+                    int length = in.getInt();
+                    fill(length);
+                    if ((in.getShort(in.position()) & 0xFFFF) != NavigationFrames.STATUS_OK) {
+                        errors++;
+                    }
+                    in.position(in.position() + length);
+                }
+                return errors;
+            }
+
+            private void fill(int length) throws IOException {
+                if (in.remaining() >= length) {
+                    return;
+                }
+                in.compact();
+                while (in.position() < length) {
+                    if (channel.read(in) < 0) {
+                        throw new IOException("Connection closed");
+                    }
+                }
+                in.flip();
+            }
+
+            @Override
+            public void close() throws IOException {
+                channel.close();
+            }
+        };
+        measure(clients, pipelineDepth, concurrency, duration);
+        return measure(clients, pipelineDepth, concurrency, duration);
+    }
+
+    private Result measure(ClientFactory clientFactory, int requestsPerExchange, int concurrency, Duration duration)
+            throws InterruptedException {
+        long[][] latencies = new long[concurrency][];
+        int[] counts = new int[concurrency];
+        AtomicInteger errors = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(concurrency);
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < concurrency; c++) {
+                int client = c;
+                clients.execute(() -> {
+                    long[] samples = new long[1024];
+                    int count = 0;
+                    try (Client connection = clientFactory.connect()) {
+                        long now;
+                        while ((now = System.nanoTime()) < end) {
+                            errors.addAndGet(connection.exchange());
+                            long latency = System.nanoTime() - now;
+                            if (count + requestsPerExchange > samples.length) {
+                                samples = Arrays.copyOf(samples, Math.max(count * 2, count + requestsPerExchange));
+                            }
+                            Arrays.fill(samples, count, count + requestsPerExchange, latency);
+                            count += requestsPerExchange;
+                        }
+                    } catch (Exception e) {
+                        errors.incrementAndGet();
+                    } finally {
+                        latencies[client] = samples;
+                        counts[client] = count;
+                        done.countDown();
+                    }
+                });
+            }
+            done.await();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        long[] all = new long[Arrays.stream(counts).sum()];
+        int offset = 0;
+        for (int c = 0; c < concurrency; c++) {
+            System.arraycopy(latencies[c], 0, all, offset, counts[c]);
+            offset += counts[c];
+        }
+        Arrays.sort(all);
+        return new Result(all.length, errors.get(), all.length * 1e9 / elapsed, percentile(all, 0.50), percentile(all, 0.99));
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return Double.NaN;
+        }
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1)] / 1e6;
+    }
+
+    /**
+     * @param requests   The number of completed requests.
+     * @param errors     The number of failed requests or non-200 responses.
+     * @param throughput The requests completed per second.
+     * @param p50Millis  The median latency, in milliseconds.
+     * @param p99Millis  The 99th percentile latency, in milliseconds.
+     */
+    record Result(int requests, int errors, double throughput, double p50Millis, double p99Millis) {
+
+        @Override
+        public String toString() {
+            return String.format("%,d requests, %d errors, %,.0f req/s, p50 %.2f ms, p99 %.2f ms",
+                    requests, errors, throughput, p50Millis, p99Millis);
+        }
+    }
+
+    /**
+     * Opens the connection of one client.
+     */
+    @FunctionalInterface
+    private interface ClientFactory {
+        Client connect() throws IOException;
+    }
+
+    /**
+     * One client, sending requests one exchange at a time.
+     */
+    private interface Client extends AutoCloseable {
+
+        /**
+         * Sends the requests of one exchange and waits for their responses.
+         *
+         * @return The number of requests that failed.
+         */
+        int exchange() throws Exception;
+
+        @Override
+        default void close() throws IOException {
+        }
+    }
+}
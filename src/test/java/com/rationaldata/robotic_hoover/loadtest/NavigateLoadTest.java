@@ -0,0 +1,50 @@
+package com.rationaldata.robotic_hoover.loadtest;
+
+import com.rationaldata.robotic_hoover.RoboticHooverApplication;
+import com.rationaldata.robotic_hoover.utils.JsonExamples;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares {@code /hoover/navigate} under load with request handling on platform and on virtual threads.
+ * Run with {@code mvn test -Pload-test}; the profile sets {@code -Djdk.tracePinnedThreads=short}, so any
+ * virtual thread pinning its carrier while blocked shows up as a stack trace in the output.
+ */
+@Tag("load")
+class NavigateLoadTest {
+
+    private static final int CONCURRENCY = Integer.getInteger("load.concurrency", 256);
+    private static final Duration DURATION = Duration.ofSeconds(Long.getLong("load.seconds", 10));
+
+    private final LoadGenerator generator = new LoadGenerator();
+
+    @Test
+    void testNavigateWithPlatformAndVirtualThreads() throws InterruptedException {
+        // Given & When
+        LoadGenerator.Result platform = runWithVirtualThreads(false);
+        LoadGenerator.Result virtual = runWithVirtualThreads(true);
+
+        // Then
+        System.out.printf("platform threads: %s%nvirtual threads:  %s%n", platform, virtual);
+        assertEquals(0, platform.errors());
+        assertEquals(0, virtual.errors());
+    }
+
+    private LoadGenerator.Result runWithVirtualThreads(boolean enabled) throws InterruptedException {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(RoboticHooverApplication.class)
+                .properties("server.port=0", "spring.threads.virtual.enabled=" + enabled)
+                .run()) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            URI uri = URI.create("http://localhost:" + port + "/hoover/navigate");
+            return generator.run(uri, JsonExamples.HOOVER_REQUEST_JSON, CONCURRENCY, DURATION);
+        }
+    }
+}
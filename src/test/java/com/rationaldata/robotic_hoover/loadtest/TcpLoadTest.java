@@ -0,0 +1,68 @@
+package com.rationaldata.robotic_hoover.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rationaldata.robotic_hoover.RoboticHooverApplication;
+import com.rationaldata.robotic_hoover.codec.HooverBinaryMessageConverter;
+import com.rationaldata.robotic_hoover.dto.HooverRequest;
+import com.rationaldata.robotic_hoover.tcp.NavigationFrames;
+import com.rationaldata.robotic_hoover.tcp.TcpNavigationServer;
+import com.rationaldata.robotic_hoover.utils.JsonExamples;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayOutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares the same small navigation sent to {@code /hoover/navigate} as JSON and in the binary format, and to the
+ * binary TCP listener one frame at a time and pipelined. Run with {@code mvn test -Pload-test}; the request is
+ * answered from the navigation cache after the first time, so the results measure the protocol overhead.
+ */
+@Tag("load")
+class TcpLoadTest {
+
+    private static final int CONCURRENCY = Integer.getInteger("load.concurrency", 256);
+    private static final Duration DURATION = Duration.ofSeconds(Long.getLong("load.seconds", 10));
+    private static final int PIPELINE_DEPTH = Integer.getInteger("load.pipeline", 16);
+
+    private final LoadGenerator generator = new LoadGenerator();
+
+    @Test
+    void testNavigateOverHttpAndTcp() throws Exception {
+        // Given
+        HooverRequest request = new ObjectMapper().readValue(JsonExamples.HOOVER_REQUEST_JSON, HooverRequest.class);
+        ByteArrayOutputStream binary = new ByteArrayOutputStream();
+        HooverBinaryMessageConverter.writeRequest(request, binary);
+        byte[] frame = NavigationFrames.requestFrame(request);
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(RoboticHooverApplication.class)
+                .properties("server.port=0", "hoover.tcp.enabled=true", "hoover.tcp.port=0")
+                .run()) {
+            int httpPort = ((WebServerApplicationContext) context).getWebServer().getPort();
+            URI uri = URI.create("http://localhost:" + httpPort + "/hoover/navigate");
+            InetSocketAddress tcp = new InetSocketAddress("localhost", context.getBean(TcpNavigationServer.class).getPort());
+
+            // When
+            LoadGenerator.Result json = generator.run(uri, JsonExamples.HOOVER_REQUEST_JSON, CONCURRENCY, DURATION);
+            LoadGenerator.Result httpBinary = generator.run(uri, HooverBinaryMessageConverter.MEDIA_TYPE_VALUE,
+                    binary.toByteArray(), CONCURRENCY, DURATION);
+            LoadGenerator.Result tcpSingle = generator.runTcp(tcp, frame, 1, CONCURRENCY, DURATION);
+            LoadGenerator.Result tcpPipelined = generator.runTcp(tcp, frame, PIPELINE_DEPTH, CONCURRENCY, DURATION);
+
+            // Then
+            System.out.printf("HTTP JSON:          %s%nHTTP binary:        %s%nTCP:                %s%nTCP pipelined x%d: %s%n",
+                    json, httpBinary, tcpSingle, PIPELINE_DEPTH, tcpPipelined);
+            assertEquals(0, json.errors());
+            assertEquals(0, httpBinary.errors());
+            assertEquals(0, tcpSingle.errors());
+            assertEquals(0, tcpPipelined.errors());
+        }
+    }
+}
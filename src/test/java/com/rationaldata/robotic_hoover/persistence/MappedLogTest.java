@@ -0,0 +1,66 @@
+package com.rationaldata.robotic_hoover.persistence;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedLogTest {
+
+    @Test
+    void testRecordsAcrossChunksAreReplayedInOrder(@TempDir Path directory) throws Exception {
+        // Given
+        Path file = directory.resolve("log-0.bin");
+        List<String> written = new ArrayList<>();
+        try (MappedLog log = MappedLog.open(file, 64, 0)) {
+            for (int i = 0; i < 50; i++) {
+                String fragment = "NESW".repeat(1 + i % 30);
+                log.append(fragment.getBytes(StandardCharsets.US_ASCII));
+                written.add(fragment);
+            }
+        }
+
+        // When
+        List<String> replayed = new ArrayList<>();
+        MappedLog.Replay replay = MappedLog.replay(file, record -> replayed.add(new String(record, StandardCharsets.US_ASCII)));
+
+        // Then
+        assertEquals(written, replayed);
+        assertFalse(replay.sealed());
+    }
+
+    @Test
+    void testReplayStopsAtTornRecordAndAppendingResumesThere(@TempDir Path directory) throws Exception {
+        // Given
+        Path file = directory.resolve("log-0.bin");
+        try (MappedLog log = MappedLog.open(file, 1024, 0)) {
+            log.append("NNN".getBytes(StandardCharsets.US_ASCII));
+            log.append("EEEE".getBytes(StandardCharsets.US_ASCII));
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{'X'}), channel.size() - 1);
+        }
+
+        // When
+        List<String> replayed = new ArrayList<>();
+        MappedLog.Replay replay = MappedLog.replay(file, record -> replayed.add(new String(record, StandardCharsets.US_ASCII)));
+        try (MappedLog log = MappedLog.open(file, 1024, replay.validLength())) {
+            log.append("SS".getBytes(StandardCharsets.US_ASCII));
+            log.seal();
+        }
+        replayed.clear();
+        MappedLog.Replay resumed = MappedLog.replay(file, record -> replayed.add(new String(record, StandardCharsets.US_ASCII)));
+
+        // Then
+        assertEquals(List.of("NNN", "SS"), replayed);
+        assertTrue(resumed.sealed());
+    }
+}
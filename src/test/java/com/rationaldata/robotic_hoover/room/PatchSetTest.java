@@ -0,0 +1,53 @@
+package com.rationaldata.robotic_hoover.room;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PatchSetTest {
+
+    @Test
+    void testDuplicatePatchesAreStoredOnce() {
+        // Given
+        PatchSet patches = PatchSet.of(List.of(new int[]{1, 0}, new int[]{2, 2}, new int[]{1, 0}));
+
+        // When & Then
+        assertEquals(2, patches.size());
+        assertTrue(patches.remove(1, 0));
+        assertFalse(patches.remove(1, 0), "A patch can only be cleaned once");
+        assertFalse(patches.contains(1, 0));
+        assertTrue(patches.contains(2, 2));
+        assertEquals(1, patches.size());
+    }
+
+    @Test
+    void testMatchesReferenceSetUnderRandomAddsAndRemoves() {
+        // Given
+        Random random = new Random(42);
+        PatchSet patches = new PatchSet(16);
+        Set<Long> reference = new HashSet<>();
+
+        // When & Then
+        for (int i = 0; i < 200_000; i++) {
+            int x = random.nextInt(64);
+            int y = random.nextInt(64);
+            long key = PatchSet.pack(x, y);
+            if (random.nextBoolean()) {
+                assertEquals(reference.add(key), patches.add(x, y));
+            } else {
+                assertEquals(reference.remove(key), patches.remove(x, y));
+            }
+            assertEquals(reference.size(), patches.size());
+        }
+        for (int x = 0; x < 64; x++) {
+            for (int y = 0; y < 64; y++) {
+                assertEquals(reference.contains(PatchSet.pack(x, y)), patches.contains(x, y));
+            }
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.rationaldata.robotic_hoover.room;
+
+import com.rationaldata.robotic_hoover.config.HooverProperties;
+import com.rationaldata.robotic_hoover.dto.PackedPatches;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoomGridFactoryTest {
+
+    private final RoomGridFactory factory = new RoomGridFactory(new HooverProperties());
+
+    @Test
+    void testSmallRoomUsesDenseGrid() {
+        // Given
+        List<int[]> patches = List.of(new int[]{1, 0}, new int[]{2, 2});
+
+        // When
+        RoomGrid grid = factory.create(PreparedRoom.of(2000, 2000, 0, 0, patches));
+
+        // Then
+        assertInstanceOf(DenseRoomGrid.class, grid);
+    }
+
+    @Test
+    void testLargeSparseRoomUsesPatchSet() {
+        // Given
+        List<int[]> patches = List.of(new int[]{1, 0}, new int[]{2, 2});
+
+        // When
+        RoomGrid grid = factory.create(PreparedRoom.of(1_000_000, 1_000_000, 0, 0, patches));
+
+        // Then
+        assertInstanceOf(PatchSet.class, grid);
+    }
+
+    @Test
+    void testLargeRoomWithDensePatchesUsesDenseGrid() {
+        // Given
+        int roomSide = 4_000;
+
+        // When & Then
+        assertTrue(factory.useDenseGrid(roomSide, roomSide, 100_000));
+        assertFalse(factory.useDenseGrid(roomSide, roomSide, 100));
+    }
+
+    @Test
+    void testOffHeapIndexIsReleasedAndReusedClean() {
+        // Given
+        RoomGridFactory offHeapFactory = offHeapFactory();
+        PreparedRoom room = offHeapRoom(offHeapFactory, 1_000_000,
+                new int[]{7, 1}, new int[]{7, 900_000}, new int[]{8, 1}, new int[]{7, 5});
+
+        // When & Then
+        try (RoomGrid grid = offHeapFactory.openForSegments(room)) {
+            assertInstanceOf(OffHeapPatchIndex.class, grid);
+            assertEquals(2, grid.cleanColumn(7, 0, 10));
+            assertEquals(0, grid.cleanColumn(7, 0, 10));
+            assertTrue(grid.clean(8, 1));
+            assertTrue(grid.isDirty(7, 900_000));
+        }
+        long released = offHeapFactory.directBufferPool().pooledBytes();
+        assertTrue(released > 0);
+
+        try (RoomGrid grid = offHeapFactory.openForSegments(room)) {
+            assertTrue(offHeapFactory.directBufferPool().pooledBytes() < released);
+            assertEquals(2, grid.cleanRow(1, 0, 1_000_000));
+            assertEquals(2, grid.cleanColumn(7, 0, 1_000_000));
+        }
+        try (RoomGrid grid = offHeapFactory.openForSegments(PreparedRoom.of(1_000_000, 1_000_000, 0, 0,
+                List.of(new int[]{7, 1}, new int[]{8, 1})))) {
+            assertInstanceOf(PatchLineIndex.class, grid);
+        }
+        room.close();
+    }
+
+    @Test
+    void testOffHeapPatchesAreSortedInPlaceAndReleasedWithTheRoom() {
+        // Given
+        RoomGridFactory offHeapFactory = offHeapFactory();
+        PackedPatches patches = offHeapFactory.packedPatches(2);
+        patches.add(9, 4);
+        patches.add(3, 4);
+        patches.add(9, 4);
+        patches.add(5, 0);
+
+        // When
+        PreparedRoom room = PreparedRoom.of(10, 10, 0, 0, patches);
+
+        // Then
+        assertTrue(patches.isOffHeap());
+        assertFalse(patches.isSorted());
+        assertThrows(IllegalStateException.class, () -> patches.x(0));
+        assertEquals(4, patches.size());
+        assertTrue(room.isOffHeap());
+        assertEquals(3, room.patchCount());
+        assertEquals(PreparedRoom.key(5, 0), room.patchKey(0));
+        assertEquals(PreparedRoom.key(3, 4), room.patchKey(1));
+        assertEquals(PreparedRoom.key(9, 4), room.patchKey(2));
+
+        long pooled = offHeapFactory.directBufferPool().pooledBytes();
+        room.close();
+        room.close();
+        assertTrue(offHeapFactory.directBufferPool().pooledBytes() > pooled);
+        assertFalse(offHeapFactory.packedPatches(2).isOffHeap());
+    }
+
+    @Test
+    void testDenseGridCleansEachPatchOnce() {
+        // Given
+        RoomGrid grid = new DenseRoomGrid(5, 5, List.of(new int[]{0, 0}, new int[]{5, 5}, new int[]{5, 5}, new int[]{2, 3}));
+
+        // When & Then
+        assertTrue(grid.clean(5, 5));
+        assertFalse(grid.clean(5, 5));
+        assertTrue(grid.clean(0, 0));
+        assertFalse(grid.clean(3, 2));
+        assertTrue(grid.clean(2, 3));
+    }
+
+    @Test
+    void testConcurrentGridCleansSegmentsOnce() {
+        // Given
+        List<int[]> patches = List.of(new int[]{7, 1}, new int[]{7, 900}, new int[]{8, 1}, new int[]{7, 5}, new int[]{70, 1});
+
+        RoomGridFactory offHeapFactory = offHeapFactory();
+        PreparedRoom offHeapRoom = offHeapRoom(offHeapFactory, 1_000_000, patches.toArray(new int[0][]));
+
+        for (PreparedRoom room : List.of(PreparedRoom.of(1_000, 1_000, 0, 0, patches),
+                PreparedRoom.of(1_000_000, 1_000_000, 0, 0, patches), offHeapRoom)) {
+            try (ConcurrentRoomGrid grid = offHeapFactory.openConcurrent(room)) {
+
+                // When & Then
+                assertEquals(2, grid.cleanRow(1, 8, 70));
+                assertEquals(0, grid.cleanRow(1, 8, 70));
+                assertEquals(2, grid.cleanColumn(7, 0, 10));
+                assertEquals(0, grid.cleanColumn(7, 0, 10));
+                assertFalse(grid.clean(8, 1));
+                assertTrue(grid.isDirty(7, 900));
+                assertEquals(1, grid.cleanColumn(7, 0, 1_000));
+            }
+        }
+        offHeapRoom.close();
+    }
+
+    private static RoomGridFactory offHeapFactory() {
+        HooverProperties properties = new HooverProperties();
+        properties.getGrid().setOffHeapMinPatches(3);
+        return new RoomGridFactory(properties);
+    }
+
+    private static PreparedRoom offHeapRoom(RoomGridFactory factory, int roomSide, int[]... patches) {
+        PackedPatches packedPatches = factory.packedPatches(patches.length);
+        for (int[] patch : patches) {
+            packedPatches.add(patch[0], patch[1]);
+        }
+        return PreparedRoom.of(roomSide, roomSide, 0, 0, packedPatches);
+    }
+}
@@ -1,9 +1,24 @@
 package com.rationaldata.robotic_hoover.service;
 
+import com.rationaldata.robotic_hoover.cache.NavigationCache;
+import com.rationaldata.robotic_hoover.cache.ProgramCache;
+import com.rationaldata.robotic_hoover.config.HooverConfig;
 import com.rationaldata.robotic_hoover.dto.HooverRequest;
 import com.rationaldata.robotic_hoover.dto.HooverResponse;
+import com.rationaldata.robotic_hoover.engine.FleetEngine;
+import com.rationaldata.robotic_hoover.engine.ParallelChunkEngine;
+import com.rationaldata.robotic_hoover.engine.RepetitionEngine;
+import com.rationaldata.robotic_hoover.engine.RunLengthEngine;
+import com.rationaldata.robotic_hoover.engine.StepEngine;
+import com.rationaldata.robotic_hoover.engine.SweepLineEngine;
+import com.rationaldata.robotic_hoover.engine.TraceEngine;
+import com.rationaldata.robotic_hoover.engine.VectorEngine;
 import com.rationaldata.robotic_hoover.exception.InvalidRoomSizeException;
+import com.rationaldata.robotic_hoover.metrics.NavigationMetrics;
+import com.rationaldata.robotic_hoover.room.RoomGridFactory;
 import com.rationaldata.robotic_hoover.validation.HooverRequestValidator;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -14,12 +29,17 @@ import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
-@SpringBootTest(classes = {HooverService.class, HooverRequestValidator.class})
+@SpringBootTest(classes = {HooverService.class, HooverRequestValidator.class, RoomGridFactory.class, HooverConfig.class,
+        StepEngine.class, RunLengthEngine.class, ParallelChunkEngine.class, VectorEngine.class, SweepLineEngine.class,
+        TraceEngine.class, FleetEngine.class, RepetitionEngine.class, NavigationCache.class, ProgramCache.class, NavigationMetrics.class, SimpleMeterRegistry.class})
 class HooverServiceTest {
 
     @Autowired
     private HooverService hooverService;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Test
     void testHooverNavigationSuccessfully() {
         // Given
@@ -66,6 +86,23 @@ class HooverServiceTest {
         assertEquals(0, response.getPatches(), "The number of cleaned patches should be 0");
     }
 
+    @Test
+    void testCompressedInstructionsRunWithoutExpansion() {
+        // Given
+        HooverRequest request = new HooverRequest();
+        request.setRoomSize(new int[]{5, 5});
+        request.setCoords(new int[]{1, 2});
+        request.setPatches(new ArrayList<>(Arrays.asList(new int[]{1, 0}, new int[]{2, 2}, new int[]{2, 3})));
+        request.setInstructions("N2 E S E2 (S W N W)1 W");
+
+        // When
+        HooverResponse response = hooverService.navigate(request);
+
+        // Then
+        assertArrayEquals(new int[]{1, 3}, response.getCoords());
+        assertEquals(1, response.getPatches());
+    }
+
     @Test
     void testHooverSkiddingAtWall() {
         // Given
@@ -177,4 +214,31 @@ class HooverServiceTest {
         Exception exception = assertThrows(InvalidRoomSizeException.class, () -> hooverService.navigate(request));
         assertEquals("Both room width and height must be greater than zero.", exception.getMessage());
     }
+
+    @Test
+    void testNavigationRecordsPhaseTimersAndSizes() {
+        // Given
+        HooverRequest request = new HooverRequest();
+        request.setRoomSize(new int[]{7, 9});
+        request.setCoords(new int[]{0, 0});
+        request.setPatches(List.of(new int[]{0, 1}, new int[]{0, 2}));
+        request.setInstructions("NNN");
+
+        long validations = phaseCount("validation");
+        long simulations = phaseCount("simulation");
+        double cleaned = meterRegistry.get("hoover.response.patches.cleaned").summary().totalAmount();
+
+        // When
+        hooverService.navigate(request);
+        hooverService.navigate(request);
+
+        // Then
+        assertEquals(validations + 2, phaseCount("validation"));
+        assertEquals(simulations + 1, phaseCount("simulation"), "The repeated request should be served from the cache");
+        assertEquals(cleaned + 4, meterRegistry.get("hoover.response.patches.cleaned").summary().totalAmount());
+    }
+
+    private long phaseCount(String phase) {
+        return meterRegistry.get("hoover.navigate.phase").tag("phase", phase).timer().count();
+    }
 }
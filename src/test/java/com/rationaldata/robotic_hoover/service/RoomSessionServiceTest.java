@@ -0,0 +1,214 @@
+package com.rationaldata.robotic_hoover.service;
+
+import com.rationaldata.robotic_hoover.config.HooverProperties;
+import com.rationaldata.robotic_hoover.dto.HooverStreamHeader;
+import com.rationaldata.robotic_hoover.dto.RoomSessionState;
+import com.rationaldata.robotic_hoover.exception.InvalidInstructionsException;
+import com.rationaldata.robotic_hoover.exception.SessionNotFoundException;
+import com.rationaldata.robotic_hoover.persistence.SessionStore;
+import com.rationaldata.robotic_hoover.room.RoomGridFactory;
+import com.rationaldata.robotic_hoover.validation.HooverRequestValidator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Random;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoomSessionServiceTest {
+
+    @Test
+    void testFragmentsContinueFromThePreviousState() {
+        // Given
+        RoomSessionService service = service(new HooverProperties());
+        String sessionId = service.create(room(5, 5)).getSessionId();
+
+        // When
+        service.advance(sessionId, bytes("NNE"));
+        service.advance(sessionId, bytes("SEESW\n"));
+        RoomSessionState state = service.advance(sessionId, bytes("NWW"));
+
+        // Then
+        assertArrayEquals(new int[]{1, 3}, state.getCoords());
+        assertEquals(1, state.getPatches());
+        assertEquals(11, state.getMoves());
+        assertEquals(state, service.get(sessionId));
+    }
+
+    @Test
+    void testInvalidFragmentLeavesTheSessionUnchanged() {
+        // Given
+        RoomSessionService service = service(new HooverProperties());
+        String sessionId = service.create(room(5, 5)).getSessionId();
+        service.advance(sessionId, bytes("NN"));
+
+        // When & Then
+        Exception exception = assertThrows(InvalidInstructionsException.class, () -> service.advance(sessionId, bytes("EEX")));
+        assertEquals("Instructions must only contain the characters N, E, S, W, found 'X' at offset 2", exception.getMessage());
+        assertThrows(InvalidInstructionsException.class, () -> service.advance(sessionId, bytes("\n")));
+        assertArrayEquals(new int[]{1, 4}, service.get(sessionId).getCoords());
+        assertEquals(2, service.get(sessionId).getMoves());
+    }
+
+    @Test
+    void testSessionsAreEvictedBeyondTheMemoryBudget() {
+        // Given
+        HooverProperties properties = new HooverProperties();
+        properties.getSession().setMemoryBudget(DataSize.ofKilobytes(64));
+        RoomSessionService service = service(properties);
+
+        // When
+        for (int i = 0; i < 20; i++) {
+            service.create(room(199, 199));
+        }
+        service.cache().cleanUp();
+
+        // Then
+        assertTrue(service.cache().estimatedSize() <= 64 * 1024 / 5_000, "Rooms of 200x200 tiles take over 5000 bytes each");
+        assertThrows(IllegalArgumentException.class, () -> service.create(room(1_999, 1_999)));
+    }
+
+    @Test
+    void testDeletedSessionIsNotFound() {
+        // Given
+        RoomSessionService service = service(new HooverProperties());
+        String sessionId = service.create(room(5, 5)).getSessionId();
+
+        // When
+        service.delete(sessionId);
+
+        // Then
+        assertThrows(SessionNotFoundException.class, () -> service.advance(sessionId, bytes("N")));
+        assertThrows(SessionNotFoundException.class, () -> service.delete(sessionId));
+    }
+
+    @Test
+    void testPersistedSessionIsRecoveredAfterRestart(@TempDir Path directory) {
+        // Given
+        HooverProperties properties = persisted(directory);
+        SessionStore store = new SessionStore(properties);
+        RoomSessionService before = service(properties, store);
+        RoomSessionService reference = service(new HooverProperties());
+        Random random = new Random(17);
+        HooverStreamHeader room = room(50, 50);
+        List<int[]> patches = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            patches.add(new int[]{random.nextInt(51), random.nextInt(51)});
+        }
+        room.setPatches(patches);
+        String sessionId = before.create(room).getSessionId();
+        String referenceId = reference.create(room).getSessionId();
+
+        // When
+        for (int i = 0; i < 300; i++) {
+            byte[] fragment = randomFragment(random);
+            before.advance(sessionId, fragment);
+            reference.advance(referenceId, fragment);
+        }
+        RoomSessionState expected = before.get(sessionId);
+        store.shutdown();
+        RoomSessionService after = service(properties);
+
+        // Then
+        assertEquals(expected, after.get(sessionId));
+        byte[] fragment = bytes("NNNNEEEESW");
+        RoomSessionState continued = after.advance(sessionId, fragment);
+        RoomSessionState referenceState = reference.advance(referenceId, fragment);
+        assertArrayEquals(referenceState.getCoords(), continued.getCoords());
+        assertEquals(referenceState.getPatches(), continued.getPatches());
+        assertEquals(referenceState.getMoves(), continued.getMoves());
+    }
+
+    @Test
+    void testSessionEvictedForMemoryIsRecoveredFromDisk(@TempDir Path directory) {
+        // Given
+        HooverProperties properties = persisted(directory);
+        properties.getSession().setMemoryBudget(DataSize.ofKilobytes(64));
+        RoomSessionService service = service(properties);
+        String sessionId = service.create(room(199, 199)).getSessionId();
+        service.advance(sessionId, bytes("NNEESS"));
+
+        // When
+        for (int i = 0; i < 20; i++) {
+            service.create(room(199, 199));
+        }
+        service.cache().cleanUp();
+
+        // Then
+        RoomSessionState state = service.get(sessionId);
+        assertArrayEquals(new int[]{3, 2}, state.getCoords());
+        assertEquals(6, state.getMoves());
+        service.delete(sessionId);
+        assertThrows(SessionNotFoundException.class, () -> service.get(sessionId));
+        assertFalse(directory.resolve(sessionId).toFile().exists());
+    }
+
+    @Test
+    void testIdleSessionLeftOnDiskIsDeletedWhileRunning(@TempDir Path directory) throws InterruptedException {
+        // Given
+        HooverProperties properties = persisted(directory);
+        SessionStore before = new SessionStore(properties);
+        String sessionId = service(properties, before).create(room(5, 5)).getSessionId();
+        before.shutdown();
+        properties.getSession().setIdleTimeout(Duration.ofMillis(200));
+
+        // When
+        SessionStore after = new SessionStore(properties);
+        boolean keptAtStartup = Files.isDirectory(directory.resolve(sessionId));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (Files.exists(directory.resolve(sessionId)) && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        after.shutdown();
+
+        // Then
+        assertTrue(keptAtStartup);
+        assertFalse(Files.exists(directory.resolve(sessionId)));
+    }
+
+    private static HooverProperties persisted(Path directory) {
+        HooverProperties properties = new HooverProperties();
+        HooverProperties.Persistence persistence = properties.getSession().getPersistence();
+        persistence.setEnabled(true);
+        persistence.setDirectory(directory);
+        persistence.setSnapshotThreshold(DataSize.ofBytes(256));
+        persistence.setLogChunkSize(DataSize.ofBytes(100));
+        return properties;
+    }
+
+    private static byte[] randomFragment(Random random) {
+        byte[] fragment = new byte[1 + random.nextInt(20)];
+        for (int i = 0; i < fragment.length; i++) {
+            fragment[i] = (byte) "NESW".charAt(random.nextInt(4));
+        }
+        return fragment;
+    }
+
+    private static RoomSessionService service(HooverProperties properties) {
+        return service(properties, new SessionStore(properties));
+    }
+
+    private static RoomSessionService service(HooverProperties properties, SessionStore store) {
+        return new RoomSessionService(new HooverRequestValidator(), new RoomGridFactory(properties), store, properties);
+    }
+
+    private static HooverStreamHeader room(int width, int height) {
+        HooverStreamHeader room = new HooverStreamHeader();
+        room.setRoomSize(new int[]{width, height});
+        room.setCoords(new int[]{1, 2});
+        room.setPatches(List.of(new int[]{1, 0}, new int[]{2, 2}, new int[]{2, 3}));
+        return room;
+    }
+
+    private static byte[] bytes(String instructions) {
+        return instructions.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,89 @@
+package com.rationaldata.robotic_hoover.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rationaldata.robotic_hoover.config.HooverProperties;
+import com.rationaldata.robotic_hoover.dto.HooverResponse;
+import com.rationaldata.robotic_hoover.exception.InvalidInstructionsException;
+import com.rationaldata.robotic_hoover.exception.OutOfRoomBoundsCoordinatesException;
+import com.rationaldata.robotic_hoover.room.RoomGridFactory;
+import com.rationaldata.robotic_hoover.validation.HooverRequestValidator;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingNavigationServiceTest {
+
+    private static final String HEADER = "{\"roomSize\":[5,5],\"coords\":[1,2],\"patches\":[[1,0],[2,2],[2,3]]}\n";
+
+    @Test
+    void testInstructionsSplitAcrossSmallBuffers() throws Exception {
+        // Given
+        StreamingNavigationService service = service(4);
+
+        // When
+        HooverResponse response = service.navigate(stream(HEADER + "NNESEESWNWW"));
+
+        // Then
+        assertArrayEquals(new int[]{1, 3}, response.getCoords());
+        assertEquals(1, response.getPatches());
+    }
+
+    @Test
+    void testLongRunSpanningManyBuffers() throws Exception {
+        // Given
+        StreamingNavigationService service = service(8);
+
+        // When
+        HooverResponse response = service.navigate(stream(HEADER + "N".repeat(1_000) + "E".repeat(1_000) + "\n"));
+
+        // Then
+        assertArrayEquals(new int[]{5, 5}, response.getCoords());
+        assertEquals(0, response.getPatches());
+    }
+
+    @Test
+    void testInvalidInstructionReportsItsOffset() {
+        // Given
+        StreamingNavigationService service = service(4);
+
+        // When & Then
+        Exception exception = assertThrows(InvalidInstructionsException.class,
+                () -> service.navigate(stream(HEADER + "NNESEXESW")));
+        assertEquals("Instructions must only contain the characters N, E, S, W, found 'X' at offset 5", exception.getMessage());
+    }
+
+    @Test
+    void testEmptyInstructions() {
+        // Given
+        StreamingNavigationService service = service(4);
+
+        // When & Then
+        assertThrows(InvalidInstructionsException.class, () -> service.navigate(stream(HEADER)));
+    }
+
+    @Test
+    void testOutOfBoundsPatchInHeader() {
+        // Given
+        StreamingNavigationService service = service(16);
+
+        // When & Then
+        assertThrows(OutOfRoomBoundsCoordinatesException.class,
+                () -> service.navigate(stream("{\"roomSize\":[5,5],\"coords\":[1,2],\"patches\":[[6,6]]}\nNN")));
+    }
+
+    private static StreamingNavigationService service(int bufferSize) {
+        HooverProperties properties = new HooverProperties();
+        properties.getStream().setBufferSize(bufferSize);
+        return new StreamingNavigationService(new HooverRequestValidator(), new RoomGridFactory(properties),
+                new ObjectMapper(), Validation.buildDefaultValidatorFactory().getValidator(), properties);
+    }
+
+    private static InputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.US_ASCII));
+    }
+}
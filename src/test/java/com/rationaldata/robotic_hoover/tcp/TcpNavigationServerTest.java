@@ -0,0 +1,108 @@
+package com.rationaldata.robotic_hoover.tcp;
+
+import com.rationaldata.robotic_hoover.dto.BatchItemResult;
+import com.rationaldata.robotic_hoover.dto.HooverRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {"hoover.tcp.enabled=true", "hoover.tcp.port=0", "hoover.tcp.io-threads=2",
+        "hoover.tcp.buffer-size=4096"})
+class TcpNavigationServerTest {
+
+    @Autowired
+    private TcpNavigationServer server;
+
+    @Test
+    void testPipelinedFramesAreAnsweredInOrder() throws IOException {
+        // Given
+        HooverRequest outOfBounds = request(5, 5, 7, 2, "N");
+        ByteBuffer frames = ByteBuffer.allocate(1024)
+                .put(NavigationFrames.requestFrame(request(5, 5, 1, 2, "NNESEESWNWW")))
+                .put(NavigationFrames.requestFrame(outOfBounds))
+                .put(NavigationFrames.requestFrame(request(5, 5, 0, 0, "EEEEE")))
+                .flip();
+
+        // When
+        List<BatchItemResult> results;
+        try (SocketChannel channel = SocketChannel.open(new InetSocketAddress("localhost", server.getPort()))) {
+            while (frames.hasRemaining()) {
+                channel.write(frames);
+            }
+            results = readResponses(channel, 3);
+        }
+
+        // Then
+        assertArrayEquals(new int[]{1, 3}, results.get(0).getResult().getCoords());
+        assertEquals(1, results.get(0).getResult().getPatches());
+        assertEquals(400, results.get(1).getError().getStatus());
+        assertEquals("Out of Room Bounds", results.get(1).getError().getError());
+        assertArrayEquals(new int[]{5, 0}, results.get(2).getResult().getCoords());
+    }
+
+    @Test
+    void testFrameLargerThanBufferIsNavigated() throws IOException {
+        // Given
+        HooverRequest request = request(1000, 1000, 0, 0, "E".repeat(999) + "N".repeat(999));
+        List<int[]> patches = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            patches.add(new int[]{i, 0});
+            patches.add(new int[]{999, i});
+        }
+        request.setPatches(patches);
+        byte[] frame = NavigationFrames.requestFrame(request);
+
+        // When
+        List<BatchItemResult> results;
+        try (SocketChannel channel = SocketChannel.open(new InetSocketAddress("localhost", server.getPort()))) {
+            ByteBuffer buffer = ByteBuffer.wrap(frame);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            results = readResponses(channel, 1);
+        }
+
+        // Then
+        assertTrue(frame.length > 4096);
+        assertArrayEquals(new int[]{999, 999}, results.get(0).getResult().getCoords());
+        assertEquals(1999, results.get(0).getResult().getPatches());
+    }
+
+    private static HooverRequest request(int width, int height, int x, int y, String instructions) {
+        HooverRequest request = new HooverRequest();
+        request.setRoomSize(new int[]{width, height});
+        request.setCoords(new int[]{x, y});
+        request.setPatches(List.of(new int[]{1, 0}, new int[]{2, 2}, new int[]{2, 3}));
+        request.setInstructions(instructions);
+        return request;
+    }
+
+    private static List<BatchItemResult> readResponses(SocketChannel channel, int count) throws IOException {
+        List<BatchItemResult> results = new ArrayList<>();
+        ByteBuffer length = ByteBuffer.allocate(NavigationFrames.LENGTH_BYTES);
+        for (int i = 0; i < count; i++) {
+            readFully(channel, length.clear());
+            ByteBuffer payload = ByteBuffer.allocate(length.flip().getInt());
+            readFully(channel, payload);
+            results.add(NavigationFrames.readResponse(payload.flip()));
+        }
+        return results;
+    }
+
+    private static void readFully(SocketChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new IOException("Connection closed");
+            }
+        }
+    }
+}
@@ -1,13 +1,19 @@
 package com.rationaldata.robotic_hoover.validation;
 
+import com.rationaldata.robotic_hoover.dto.FleetHoover;
+import com.rationaldata.robotic_hoover.dto.FleetRequest;
 import com.rationaldata.robotic_hoover.dto.HooverRequest;
 import com.rationaldata.robotic_hoover.exception.InvalidRoomSizeException;
+import com.rationaldata.robotic_hoover.exception.NegativeValuesException;
+import com.rationaldata.robotic_hoover.exception.OutOfRoomBoundsCoordinatesException;
+import com.rationaldata.robotic_hoover.room.PreparedRoom;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @SpringBootTest(classes = HooverRequestValidator.class)
@@ -71,4 +77,50 @@ class HooverRequestValidatorTest {
         // When & Then
         assertThrows(IllegalArgumentException.class, () -> validator.validateHooverRequest(request), "Initial coordinates are out of bounds of the room size.");
     }
+
+    @Test
+    void testValidRequestIsPreparedWithSortedDistinctPatches() {
+        // Given
+        HooverRequest request = new HooverRequest();
+        request.setRoomSize(new int[]{5, 5});
+        request.setCoords(new int[]{1, 2});
+        request.setPatches(List.of(new int[]{2, 3}, new int[]{4, 0}, new int[]{2, 3}, new int[]{1, 0}));
+
+        // When
+        validator.validateHooverRequest(request);
+
+        // Then
+        PreparedRoom room = request.getPreparedRoom();
+        assertNotNull(room);
+        assertEquals(3, room.patchCount(), "Duplicate patches should be prepared once");
+        assertEquals(PreparedRoom.key(1, 0), room.patchKey(0));
+        assertEquals(PreparedRoom.key(4, 0), room.patchKey(1));
+        assertEquals(PreparedRoom.key(2, 3), room.patchKey(2));
+        assertEquals(1, room.startX());
+        assertEquals(2, room.startY());
+    }
+
+    @Test
+    void testNegativePatchIsReportedBeforeOutOfBoundsPatch() {
+        // Given
+        HooverRequest request = new HooverRequest();
+        request.setRoomSize(new int[]{5, 5});
+        request.setCoords(new int[]{1, 2});
+        request.setPatches(List.of(new int[]{9, 9}, new int[]{-1, 0}));
+
+        // When & Then
+        assertThrows(NegativeValuesException.class, () -> validator.validateHooverRequest(request));
+    }
+
+    @Test
+    void testFleetHooverStartOutOfBounds() {
+        // Given
+        FleetRequest request = new FleetRequest();
+        request.setRoomSize(new int[]{5, 5});
+        request.setPatches(List.of(new int[]{1, 1}));
+        request.setHoovers(List.of(new FleetHoover(new int[]{0, 0}, "N"), new FleetHoover(new int[]{2, 6}, "E")));
+
+        // When & Then
+        assertThrows(OutOfRoomBoundsCoordinatesException.class, () -> validator.validateFleetRequest(request));
+    }
 }